@@ -39,6 +39,23 @@ public interface MediaHelper {
      */
     String getResponsiveImageUrl(String url, String widthFactor, double aspect, int containerSize);
 
+    /**
+     * <p>Returns the widths images are resized to, responsive widths are rounded up to one of them.</p>
+     *
+     * @return the widths in ascending order
+     */
+    int[] getImageWidths();
+
+    /**
+     * <p>Returns the URL of the image resized to the given width and aspect ratio.</p>
+     *
+     * @param url    URL of the image
+     * @param width  width of the resized image
+     * @param aspect aspect ratio of the resized image, 0 to preserve the aspect ratio of the image
+     * @return URL of the resized image
+     */
+    String getResizedImageUrl(String url, int width, double aspect);
+
     /**
      * <p>getGridSize.</p>
      *
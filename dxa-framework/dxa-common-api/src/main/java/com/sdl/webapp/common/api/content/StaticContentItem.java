@@ -1,5 +1,6 @@
 package com.sdl.webapp.common.api.content;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -10,6 +11,8 @@ public interface StaticContentItem {
 
     /**
      * Returns a timestamp which indicates when this static content item was last modified.
+     * <p>This should be the publish date of the content rather than the modification time of a local copy,
+     * it is used for the {@code ETag} and {@code Last-Modified} headers of the content.</p>
      *
      * @return A timestamp which indicates when this static content item was last modified as a number of milliseconds
      * since the epoch (01-01-1970, 00:00:00 UTC).
@@ -32,6 +35,16 @@ public interface StaticContentItem {
      */
     InputStream getContent() throws IOException;
 
+    /**
+     * Returns the file with the content of this static content item if the content is stored in a file.
+     * This allows to serve the content directly from the file, without copying it through the heap.
+     *
+     * @return the file with the content or {@code null} if the content is only available as a stream
+     */
+    default File getFile() {
+        return null;
+    }
+
     /**
      * Returns whether the file is versioned.
      *
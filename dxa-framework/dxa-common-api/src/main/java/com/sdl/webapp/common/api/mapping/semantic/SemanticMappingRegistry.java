@@ -75,4 +75,13 @@ public interface SemanticMappingRegistry {
      */
     Class<? extends EntityModel> getEntityClassByFullyQualifiedName(String entityName);
 
+    /**
+     * Gets the version of the registry, which changes whenever entity classes are registered.
+     * Information derived from the registry can be kept while the version is the same.
+     *
+     * @return version of the registry
+     */
+    default long getVersion() {
+        return 0;
+    }
 }
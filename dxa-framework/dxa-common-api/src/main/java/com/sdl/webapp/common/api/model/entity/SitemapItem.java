@@ -172,18 +172,26 @@ public class SitemapItem extends AbstractEntityModel {
 
     /**
      * Finds a SitemapItem with a given URL path in the Navigation subtree rooted by this {@link SitemapItem}.
+     * <p>This walks the whole subtree, use {@link com.sdl.webapp.common.api.navigation.SitemapItemUrlIndex}
+     * for repeated lookups in a tree that doesn't change.</p>
      *
      * @param urlToFind The URL path to search for
      * @return a {@link SitemapItem} with the given URL path or <code>null</code> if no such item is found
      */
     @Nullable
     public SitemapItem findWithUrl(@NonNull String urlToFind) {
-        if (getUrl() != null && urlToFind.matches(getUrl() + "/?")) {
+        String urlWithoutSlash = urlToFind.endsWith("/") ? urlToFind.substring(0, urlToFind.length() - 1) : null;
+        return findWithUrl(urlToFind, urlWithoutSlash);
+    }
+
+    @Nullable
+    private SitemapItem findWithUrl(@NotNull String urlToFind, @Nullable String urlWithoutSlash) {
+        if (getUrl() != null && (getUrl().equals(urlToFind) || getUrl().equals(urlWithoutSlash))) {
             return this;
         }
 
         for (SitemapItem item : getItems()) {
-            SitemapItem sub = item.findWithUrl(urlToFind);
+            SitemapItem sub = item.findWithUrl(urlToFind, urlWithoutSlash);
             if (sub != null) {
                 return sub;
             }
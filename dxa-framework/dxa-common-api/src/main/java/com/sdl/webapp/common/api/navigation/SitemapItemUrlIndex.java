@@ -0,0 +1,89 @@
+package com.sdl.webapp.common.api.navigation;
+
+import com.sdl.webapp.common.api.model.entity.SitemapItem;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the {@link SitemapItem}s of a navigation tree by their URLs.
+ * <p>Finds the same items as {@link SitemapItem#findWithUrl(String)}: the URL of the item is the given URL,
+ * or the given URL without its trailing slash. If multiple items match, the first one in depth-first order
+ * is found.</p>
+ * <p>The index is a snapshot of the tree at the time it was built, so it should only be built for trees
+ * that are not changed anymore, like cached navigation models.</p>
+ */
+@Slf4j
+public final class SitemapItemUrlIndex {
+
+    private final List<SitemapItem> items = new ArrayList<>();
+
+    /**
+     * Position of the first item with the URL in depth-first order.
+     */
+    private final Map<String, Integer> positionsByUrl = new HashMap<>();
+
+    private SitemapItemUrlIndex() {
+    }
+
+    /**
+     * Builds an index for the navigation tree with the given root.
+     *
+     * @param root root of the navigation tree
+     * @return index of the tree
+     */
+    @NotNull
+    public static SitemapItemUrlIndex of(@NotNull SitemapItem root) {
+        SitemapItemUrlIndex index = new SitemapItemUrlIndex();
+        index.add(root);
+        log.debug("Built URL index of navigation tree {} with {} URLs", root.getId(), index.size());
+        return index;
+    }
+
+    /**
+     * Finds the item with the given URL.
+     *
+     * @param url URL of the item
+     * @return the item or {@code null} if there is no item with this URL
+     */
+    @Nullable
+    public SitemapItem find(@Nullable String url) {
+        if (url == null) {
+            return null;
+        }
+        Integer position = positionsByUrl.get(url);
+        if (url.endsWith("/")) {
+            Integer withoutSlash = positionsByUrl.get(url.substring(0, url.length() - 1));
+            if (withoutSlash != null && (position == null || withoutSlash < position)) {
+                position = withoutSlash;
+            }
+        }
+        return position != null ? items.get(position) : null;
+    }
+
+    /**
+     * Returns the number of indexed URLs.
+     *
+     * @return number of URLs
+     */
+    public int size() {
+        return positionsByUrl.size();
+    }
+
+    private void add(SitemapItem item) {
+        String url = item.getUrl();
+        if (url != null && !positionsByUrl.containsKey(url)) {
+            positionsByUrl.put(url, items.size());
+            items.add(item);
+        }
+
+        for (SitemapItem child : item.getItems()) {
+            add(child);
+        }
+    }
+}
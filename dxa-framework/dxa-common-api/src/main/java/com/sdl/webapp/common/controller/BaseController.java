@@ -8,7 +8,6 @@ import com.sdl.webapp.common.api.model.RegionModel;
 import com.sdl.webapp.common.api.model.ViewModel;
 import com.sdl.webapp.common.api.model.entity.ExceptionEntity;
 import com.sdl.webapp.common.controller.exception.NotFoundException;
-import com.sdl.webapp.common.util.ApplicationContextHolder;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.Nullable;
@@ -18,12 +17,11 @@ import org.springframework.validation.Validator;
 import org.springframework.web.bind.ServletRequestDataBinder;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.method.HandlerMethod;
-import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
-import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import javax.servlet.http.HttpServletRequest;
-import java.util.Map;
 import java.util.Objects;
 
 import static com.sdl.webapp.common.api.model.mvcdata.DefaultsMvcData.getDefaultActionName;
@@ -48,7 +46,7 @@ public abstract class BaseController {
     protected WebRequestContext context;
 
     @Autowired
-    private RequestMappingHandlerMapping requestMappingHandlerMapping;
+    private ControllerRouteTable controllerRouteTable;
 
     private static Boolean isCustomAction(MvcData mvcData) {
         return !Objects.equals(mvcData.getActionName(), getDefaultActionName())
@@ -78,6 +76,10 @@ public abstract class BaseController {
     public String handleJspIncludesErrors() {
         log.error("Unhandled exception from JSP include action");
 
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes instanceof ServletRequestAttributes) {
+            ControllerUtils.markSectionError(((ServletRequestAttributes) requestAttributes).getRequest());
+        }
         return ControllerUtils.SECTION_ERROR_VIEW;
     }
 
@@ -85,6 +87,7 @@ public abstract class BaseController {
     public String handleException(HttpServletRequest request, Exception exception) {
         log.error("Exception while processing request for: {}", request.getRequestURL(), exception);
 
+        ControllerUtils.markSectionError(request);
         return ControllerUtils.SECTION_ERROR_VIEW;
     }
 
@@ -199,24 +202,14 @@ public abstract class BaseController {
         String controllerName = mvcData.getControllerName() != null ? mvcData.getControllerName() : getDefaultControllerName();
         String controllerAreaName = mvcData.getControllerAreaName() != null ? mvcData.getControllerAreaName() : getDefaultControllerAreaName();
 
-        Map<RequestMappingInfo, HandlerMethod> handlerMethods =
-                this.requestMappingHandlerMapping.getHandlerMethods();
-
-        for (Map.Entry<RequestMappingInfo, HandlerMethod> item : handlerMethods.entrySet()) {
-            RequestMappingInfo mapping = item.getKey();
-
-            for (String urlPattern : mapping.getPatternsCondition().getPatterns()) {
-                if (urlPattern.contains('/' + controllerAreaName + '/' + controllerName)) {
-                    HandlerMethod controllerMethod = handlerMethods.get(mapping);
-                    BaseController controller = (BaseController) ApplicationContextHolder.getContext().getBean(controllerMethod.getBean().toString());
-                    try {
-                        controller.enrichModel(entity, request);
-                        return entity;
-                    } catch (Exception e) {
-                        log.error("Error in EnrichModel", e);
-                        return new ExceptionEntity(e); // TODO: What about MvcData?
-                    }
-                }
+        BaseController controller = controllerRouteTable.getController(controllerAreaName, controllerName);
+        if (controller != null) {
+            try {
+                controller.enrichModel(entity, request);
+                return entity;
+            } catch (Exception e) {
+                log.error("Error in EnrichModel", e);
+                return new ExceptionEntity(e); // TODO: What about MvcData?
             }
         }
         return entity;
@@ -0,0 +1,106 @@
+package com.sdl.webapp.common.controller;
+
+import com.sdl.webapp.common.util.ApplicationContextHolder;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Table of the controllers by their controller area and controller name.
+ * <p>The table is built from the URL patterns of the request mappings when the application context is refreshed.
+ * Every two consecutive segments of a pattern are a possible (area, controller) pair, like {@code Framework/List} in
+ * {@code /system/mvc/Framework/List/List/{entityId}}. If several controllers are mapped to the same pair,
+ * the controller of the first request mapping wins.</p>
+ */
+@Component
+@Slf4j
+public class ControllerRouteTable implements ApplicationListener<ContextRefreshedEvent> {
+
+    @Autowired
+    private RequestMappingHandlerMapping requestMappingHandlerMapping;
+
+    private volatile Map<List<String>, BaseController> controllers;
+
+    private static List<String> key(String controllerAreaName, String controllerName) {
+        return Arrays.asList(controllerAreaName, controllerName);
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        refresh();
+    }
+
+    /**
+     * Builds the table again from the current request mappings.
+     */
+    public void refresh() {
+        final Map<List<String>, BaseController> controllers = new HashMap<>();
+
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> item : requestMappingHandlerMapping.getHandlerMethods().entrySet()) {
+            BaseController controller = null;
+            for (String urlPattern : item.getKey().getPatternsCondition().getPatterns()) {
+                String[] segments = urlPattern.split("/");
+                for (int i = 1; i < segments.length; i++) {
+                    List<String> key = key(segments[i - 1], segments[i]);
+                    if (controllers.containsKey(key)) {
+                        continue;
+                    }
+                    if (controller == null) {
+                        controller = resolveController(item.getValue());
+                        if (controller == null) {
+                            break;
+                        }
+                    }
+                    controllers.put(key, controller);
+                }
+            }
+        }
+
+        log.debug("Controller route table has {} entries", controllers.size());
+        this.controllers = Collections.unmodifiableMap(controllers);
+    }
+
+    /**
+     * Returns the controller of the controller area and controller name.
+     *
+     * @param controllerAreaName name of the controller area
+     * @param controllerName     name of the controller
+     * @return the controller, or {@code null} if there is none
+     */
+    @Nullable
+    public BaseController getController(String controllerAreaName, String controllerName) {
+        Map<List<String>, BaseController> controllers = this.controllers;
+        if (controllers == null) {
+            refresh();
+            controllers = this.controllers;
+        }
+        return controllers.get(key(controllerAreaName, controllerName));
+    }
+
+    @Nullable
+    private static BaseController resolveController(HandlerMethod handlerMethod) {
+        Object bean = handlerMethod.getBean();
+        if (bean instanceof String) {
+            try {
+                bean = ApplicationContextHolder.getContext().getBean((String) bean);
+            } catch (BeansException e) {
+                log.warn("Cannot get controller bean {}", bean, e);
+                return null;
+            }
+        }
+        return bean instanceof BaseController ? (BaseController) bean : null;
+    }
+}
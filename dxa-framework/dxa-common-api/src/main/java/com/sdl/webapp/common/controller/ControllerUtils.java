@@ -5,9 +5,11 @@ import com.sdl.webapp.common.api.model.EntityModel;
 import com.sdl.webapp.common.api.model.MvcData;
 import com.sdl.webapp.common.api.model.RegionModel;
 
+import javax.servlet.ServletRequest;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class ControllerUtils {
 
@@ -25,6 +27,12 @@ public final class ControllerUtils {
 
     public static final String SERVER_ERROR_VIEW = "Shared/Error/ServerError";
 
+    /**
+     * Request attribute counting the section error views rendered while it's set, see {@link #markSectionError(ServletRequest)}.
+     * It holds an {@link AtomicInteger}, so the count survives the restore of request attributes after an include.
+     */
+    public static final String SECTION_ERROR_COUNT = "dxaSectionErrorCount";
+
     private ControllerUtils() {
     }
 
@@ -46,6 +54,19 @@ public final class ControllerUtils {
         return ControllerUtils.INCLUDE_PATH_PREFIX + ControllerUtils.SECTION_ERROR_VIEW;
     }
 
+    /**
+     * Records that the section error view is rendered instead of a region or an entity,
+     * so that markup containing it is not cached.
+     *
+     * @param request current request
+     */
+    public static void markSectionError(ServletRequest request) {
+        Object count = request.getAttribute(SECTION_ERROR_COUNT);
+        if (count instanceof AtomicInteger) {
+            ((AtomicInteger) count).incrementAndGet();
+        }
+    }
+
     private static String getIncludePathPrefix(MvcData mvcData) {
         return INCLUDE_PATH_PREFIX +
                 mvcData.getControllerAreaName() + '/' +
@@ -0,0 +1,501 @@
+package com.sdl.webapp.common.controller;
+
+import com.sdl.webapp.common.api.model.EntityModel;
+import com.sdl.webapp.common.api.model.MvcData;
+import com.sdl.webapp.common.api.model.RegionModel;
+import com.sdl.webapp.common.api.model.ViewModel;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.MessageSource;
+import org.springframework.core.OrderComparator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.support.JstlUtils;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.springframework.web.servlet.view.InternalResourceView;
+import org.springframework.web.servlet.view.JstlView;
+import org.springframework.web.util.NestedServletException;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import javax.servlet.jsp.JspWriter;
+import javax.servlet.jsp.PageContext;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Renders regions and entities in-process instead of including them through the {@code DispatcherServlet}.
+ * <p>If a region or an entity is handled by the {@link RegionController} or the {@link EntityController} itself
+ * and has no route values, the controller is called directly and the JSP of the view it returns is included into
+ * the page. This skips the handler mapping and the resolution of the handler for every region and
+ * entity on the page. Views are resolved by the view resolvers of the application context, which cache them.
+ * Everything else, like custom controllers and actions, is included with its include path as before.</p>
+ * <p>The include is handled like the {@code DispatcherServlet} handles it: the controller sees an include request,
+ * the interceptors of the handler mapping are called around it, and request attributes are restored after it, so
+ * nested regions and entities see the models of their parents again. The handler and its interceptors are looked up
+ * once per controller action and request method, interceptors mapped to the paths of single regions or entities are
+ * not supported. Exceptions of the controller are handled by its exception handler, which renders the section error
+ * view instead of the region or entity. Like in an include, views cannot change the status or the headers of the
+ * response, or redirect it.</p>
+ * <p>Direct dispatch is disabled by default, it's enabled with {@code dxa.web.views.direct.enabled}.</p>
+ */
+@Component
+@Slf4j
+public class DirectViewDispatcher {
+
+    private final AtomicLong directCount = new AtomicLong();
+
+    private final AtomicLong dispatchedCount = new AtomicLong();
+
+    private final ConcurrentMap<String, HandlerExecutionChain> handlerExecutionChains = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ControllerRouteTable controllerRouteTable;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Value("${dxa.web.views.direct.enabled:false}")
+    private boolean enabled;
+
+    private volatile List<org.springframework.web.servlet.ViewResolver> viewResolvers;
+
+    private volatile List<HandlerMapping> handlerMappings;
+
+    private volatile MessageSource jstlMessageSource;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Includes the region or entity into the page without going through the {@code DispatcherServlet}
+     * if its controller can be called directly.
+     *
+     * @param pageContext current page context
+     * @param include     include path of the model, the model is only rendered directly if it's the path of its controller
+     * @param model       region or entity to include
+     * @param flush       whether to flush the page before the include, see {@link PageContext#include(String, boolean)}
+     * @return whether the model was included, if not it has to be included with the include path
+     * @throws IOException      if the view cannot be written
+     * @throws ServletException if the view fails
+     */
+    public boolean include(@NotNull PageContext pageContext, @NotNull String include, @NotNull ViewModel model, boolean flush)
+            throws IOException, ServletException {
+        BaseController controller = enabled ? getController(include, model) : null;
+        if (controller == null) {
+            dispatchedCount.incrementAndGet();
+            return false;
+        }
+
+        HttpServletRequest request = (HttpServletRequest) pageContext.getRequest();
+        HttpServletRequest includeRequest = new IncludeRequest(request, include);
+        HandlerExecutionChain chain = getHandlerExecutionChain(model.getMvcData(), includeRequest, controller);
+        if (chain == null) {
+            dispatchedCount.incrementAndGet();
+            return false;
+        }
+
+        HttpServletResponse includeResponse = new PageResponse((HttpServletResponse) pageContext.getResponse(), pageContext.getOut());
+        HandlerInterceptor[] interceptors = chain.getInterceptors() != null ? chain.getInterceptors() : new HandlerInterceptor[0];
+        Map<String, Object> attributesSnapshot = snapshotAttributes(request);
+        int interceptorIndex = -1;
+        Exception failure = null;
+        try {
+            for (HandlerInterceptor interceptor : interceptors) {
+                if (!interceptor.preHandle(includeRequest, includeResponse, chain.getHandler())) {
+                    // like the DispatcherServlet, the interceptor has handled the include
+                    directCount.incrementAndGet();
+                    return true;
+                }
+                interceptorIndex++;
+            }
+
+            ModelAndView modelAndView = new ModelAndView(handle(controller, includeRequest, model));
+            for (int i = interceptors.length - 1; i >= 0; i--) {
+                interceptors[i].postHandle(includeRequest, includeResponse, chain.getHandler(), modelAndView);
+            }
+
+            String viewName = modelAndView.getViewName();
+            View view = resolveView(viewName, RequestContextUtils.getLocale(request));
+            if (view == null) {
+                throw new ServletException("Could not resolve view with name '" + viewName + "'");
+            }
+            render(pageContext, view, includeResponse, flush);
+        } catch (IOException | ServletException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } catch (Exception e) {
+            failure = e;
+            throw new NestedServletException("Exception while handling include " + include, e);
+        } finally {
+            triggerAfterCompletion(interceptors, interceptorIndex, includeRequest, includeResponse, chain.getHandler(), failure);
+            restoreAttributes(request, attributesSnapshot);
+        }
+        directCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Returns the number of regions and entities rendered without the {@code DispatcherServlet}.
+     *
+     * @return number of direct includes
+     */
+    public long getDirectCount() {
+        return directCount.get();
+    }
+
+    /**
+     * Returns the number of regions and entities that had to be included through the {@code DispatcherServlet}.
+     *
+     * @return number of dispatched includes
+     */
+    public long getDispatchedCount() {
+        return dispatchedCount.get();
+    }
+
+    @Nullable
+    private BaseController getController(String include, ViewModel model) {
+        MvcData mvcData = model.getMvcData();
+        if (mvcData == null) {
+            return null;
+        }
+
+        final String expectedAction;
+        final String includePath;
+        if (model instanceof EntityModel) {
+            expectedAction = "Entity";
+            includePath = ControllerUtils.getIncludePath((EntityModel) model);
+        } else if (model instanceof RegionModel) {
+            expectedAction = "Region";
+            includePath = ControllerUtils.getIncludePath((RegionModel) model);
+        } else {
+            return null;
+        }
+
+        if (!include.equals(includePath) || !mvcData.getRouteValues().isEmpty()
+                || !Objects.equals(expectedAction, mvcData.getActionName())) {
+            return null;
+        }
+
+        BaseController controller = controllerRouteTable.getController(mvcData.getControllerAreaName(), mvcData.getControllerName());
+        if (controller == null) {
+            return null;
+        }
+
+        // subclasses may have their own request handling, they're dispatched as usual
+        Class<?> controllerClass = ClassUtils.getUserClass(controller);
+        boolean isDefaultController = model instanceof EntityModel ?
+                controllerClass == EntityController.class : controllerClass == RegionController.class;
+        return isDefaultController ? controller : null;
+    }
+
+    /**
+     * Returns the handler and the interceptors the {@code DispatcherServlet} would use for the include, if the handler
+     * is the controller, otherwise the model is dispatched as usual.
+     */
+    @Nullable
+    private HandlerExecutionChain getHandlerExecutionChain(MvcData mvcData, HttpServletRequest includeRequest,
+                                                           BaseController controller) throws ServletException {
+        String key = mvcData.getControllerAreaName() + '/' + mvcData.getControllerName() + '/' +
+                mvcData.getActionName() + ':' + includeRequest.getMethod();
+        HandlerExecutionChain chain = handlerExecutionChains.get(key);
+        if (chain == null) {
+            chain = lookupHandlerExecutionChain(includeRequest);
+            if (chain == null || !(chain.getHandler() instanceof HandlerMethod)
+                    || ((HandlerMethod) chain.getHandler()).getBean() != controller) {
+                log.debug("Handler of {} is not {}, its regions and entities are dispatched", key, controller);
+                chain = new HandlerExecutionChain(controller);
+            }
+            handlerExecutionChains.put(key, chain);
+        }
+        return chain.getHandler() instanceof HandlerMethod ? chain : null;
+    }
+
+    @Nullable
+    private HandlerExecutionChain lookupHandlerExecutionChain(HttpServletRequest includeRequest) throws ServletException {
+        try {
+            for (HandlerMapping handlerMapping : getHandlerMappings()) {
+                HandlerExecutionChain chain = handlerMapping.getHandler(includeRequest);
+                if (chain != null) {
+                    return chain;
+                }
+            }
+            return null;
+        } catch (ServletException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new NestedServletException("Exception while looking up the handler of " +
+                    includeRequest.getAttribute(WebUtils.INCLUDE_REQUEST_URI_ATTRIBUTE), e);
+        }
+    }
+
+    private List<HandlerMapping> getHandlerMappings() {
+        List<HandlerMapping> handlerMappings = this.handlerMappings;
+        if (handlerMappings == null) {
+            // same handler mappings in the same order as the DispatcherServlet
+            handlerMappings = new ArrayList<>(BeanFactoryUtils.beansOfTypeIncludingAncestors(
+                    applicationContext, HandlerMapping.class, true, false).values());
+            OrderComparator.sort(handlerMappings);
+            this.handlerMappings = handlerMappings = Collections.unmodifiableList(handlerMappings);
+        }
+        return handlerMappings;
+    }
+
+    private static void triggerAfterCompletion(HandlerInterceptor[] interceptors, int interceptorIndex,
+                                               HttpServletRequest request, HttpServletResponse response,
+                                               Object handler, @Nullable Exception failure) {
+        // like the DispatcherServlet, only the interceptors which completed preHandle are called
+        for (int i = interceptorIndex; i >= 0; i--) {
+            try {
+                interceptors[i].afterCompletion(request, response, handler, failure);
+            } catch (Throwable e) {
+                log.error("HandlerInterceptor.afterCompletion threw exception", e);
+            }
+        }
+    }
+
+    private static String handle(BaseController controller, HttpServletRequest request, ViewModel model) {
+        try {
+            if (controller instanceof EntityController) {
+                return ((EntityController) controller).handleGetEntity(request, ((EntityModel) model).getId());
+            }
+            return ((RegionController) controller).handleGetRegion(request, ((RegionModel) model).getName());
+        } catch (Exception e) {
+            // like the exception handler of the controller in the DispatcherServlet, only this section fails
+            return controller.handleException(request, e);
+        }
+    }
+
+    @Nullable
+    private View resolveView(String viewName, Locale locale) throws ServletException {
+        try {
+            for (org.springframework.web.servlet.ViewResolver viewResolver : getViewResolvers()) {
+                View view = viewResolver.resolveViewName(viewName, locale);
+                if (view != null) {
+                    return view;
+                }
+            }
+            return null;
+        } catch (ServletException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException("Exception while resolving view " + viewName, e);
+        }
+    }
+
+    private List<org.springframework.web.servlet.ViewResolver> getViewResolvers() {
+        List<org.springframework.web.servlet.ViewResolver> viewResolvers = this.viewResolvers;
+        if (viewResolvers == null) {
+            // same view resolvers in the same order as the DispatcherServlet
+            viewResolvers = new ArrayList<>(BeanFactoryUtils.beansOfTypeIncludingAncestors(
+                    applicationContext, org.springframework.web.servlet.ViewResolver.class, true, false).values());
+            OrderComparator.sort(viewResolvers);
+            this.viewResolvers = viewResolvers = Collections.unmodifiableList(viewResolvers);
+        }
+        return viewResolvers;
+    }
+
+    private void render(PageContext pageContext, View view, HttpServletResponse includeResponse, boolean flush)
+            throws IOException, ServletException {
+        if (!(view instanceof InternalResourceView)) {
+            renderToPage(pageContext, view, includeResponse);
+            return;
+        }
+
+        if (view instanceof JstlView) {
+            JstlUtils.exposeLocalizationContext((HttpServletRequest) pageContext.getRequest(), getJstlMessageSource(pageContext));
+        }
+        pageContext.include(((InternalResourceView) view).getUrl(), flush);
+    }
+
+    private static void renderToPage(PageContext pageContext, View view, HttpServletResponse response)
+            throws IOException, ServletException {
+        try {
+            view.render(Collections.<String, Object>emptyMap(), (HttpServletRequest) pageContext.getRequest(), response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException("Exception while rendering view " + view, e);
+        }
+        response.getWriter().flush();
+    }
+
+    private MessageSource getJstlMessageSource(PageContext pageContext) {
+        MessageSource messageSource = this.jstlMessageSource;
+        if (messageSource == null) {
+            this.jstlMessageSource = messageSource =
+                    JstlUtils.getJstlAwareMessageSource(pageContext.getServletContext(), applicationContext);
+        }
+        return messageSource;
+    }
+
+    private static Map<String, Object> snapshotAttributes(ServletRequest request) {
+        Map<String, Object> attributes = new HashMap<>();
+        Enumeration<String> names = request.getAttributeNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            attributes.put(name, request.getAttribute(name));
+        }
+        return attributes;
+    }
+
+    /**
+     * Restores the request attributes after the include, like {@code DispatcherServlet.restoreAttributesAfterInclude}:
+     * attributes added by the controller or the view are removed, changed or removed attributes get their values back.
+     */
+    private static void restoreAttributes(ServletRequest request, Map<String, Object> attributesSnapshot) {
+        for (String name : Collections.list(request.getAttributeNames())) {
+            if (!attributesSnapshot.containsKey(name)) {
+                request.removeAttribute(name);
+            }
+        }
+        for (Map.Entry<String, Object> attribute : attributesSnapshot.entrySet()) {
+            if (attribute.getValue() != request.getAttribute(attribute.getKey())) {
+                request.setAttribute(attribute.getKey(), attribute.getValue());
+            }
+        }
+    }
+
+    /**
+     * Request of the include, like the request of a {@code RequestDispatcher} include of the {@code DispatcherServlet}.
+     */
+    private static final class IncludeRequest extends HttpServletRequestWrapper {
+
+        private final Map<String, Object> includeAttributes = new HashMap<>();
+
+        private IncludeRequest(HttpServletRequest request, String include) {
+            super(request);
+            includeAttributes.put(WebUtils.INCLUDE_REQUEST_URI_ATTRIBUTE, request.getContextPath() + include);
+            includeAttributes.put(WebUtils.INCLUDE_CONTEXT_PATH_ATTRIBUTE, request.getContextPath());
+            includeAttributes.put(WebUtils.INCLUDE_SERVLET_PATH_ATTRIBUTE, include);
+        }
+
+        @Override
+        public DispatcherType getDispatcherType() {
+            return DispatcherType.INCLUDE;
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return includeAttributes.containsKey(name) ? includeAttributes.get(name) : super.getAttribute(name);
+        }
+    }
+
+    /**
+     * Response writing to the page, like the response of a JSP include: the status and the headers cannot be changed.
+     */
+    private static final class PageResponse extends HttpServletResponseWrapper {
+
+        private final PrintWriter writer;
+
+        private PageResponse(HttpServletResponse response, JspWriter out) {
+            super(response);
+            this.writer = new PrintWriter(out);
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            return writer;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            throw new IllegalStateException("Views included into a page can only use the writer");
+        }
+
+        @Override
+        public void sendRedirect(String location) {
+            log.debug("Ignoring redirect of included view to {}", location);
+        }
+
+        @Override
+        public void sendError(int sc) {
+            log.debug("Ignoring error {} of included view", sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) {
+            log.debug("Ignoring error {} of included view: {}", sc, msg);
+        }
+
+        @Override
+        public void setStatus(int sc) {
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void setStatus(int sc, String sm) {
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+        }
+
+        @Override
+        public void setDateHeader(String name, long date) {
+        }
+
+        @Override
+        public void addDateHeader(String name, long date) {
+        }
+
+        @Override
+        public void setIntHeader(String name, int value) {
+        }
+
+        @Override
+        public void addIntHeader(String name, int value) {
+        }
+
+        @Override
+        public void setContentType(String type) {
+        }
+
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setCharacterEncoding(String charset) {
+        }
+
+        @Override
+        public void setLocale(Locale loc) {
+        }
+    }
+}
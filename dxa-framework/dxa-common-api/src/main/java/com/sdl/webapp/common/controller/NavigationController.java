@@ -20,7 +20,6 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import javax.servlet.http.HttpServletRequest;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -196,12 +195,13 @@ public class NavigationController extends BaseController {
     }
 
     private void suppressTopLevelEmptyItems(SitemapItem navigationModel) {
-        Iterator<SitemapItem> iterator = navigationModel.getItems().iterator();
-        while (iterator.hasNext()) {
-            SitemapItem item = iterator.next();
-            if (("StructureGroup".equals(item.getType()) || item instanceof TaxonomyNode) && item.getItems().isEmpty()) {
-                iterator.remove();
+        // items of a cached navigation model may be read-only, so replace them instead of removing from them
+        Set<SitemapItem> items = new LinkedHashSet<>();
+        for (SitemapItem item : navigationModel.getItems()) {
+            if (!("StructureGroup".equals(item.getType()) || item instanceof TaxonomyNode) || !item.getItems().isEmpty()) {
+                items.add(item);
             }
         }
+        navigationModel.setItems(items);
     }
 }
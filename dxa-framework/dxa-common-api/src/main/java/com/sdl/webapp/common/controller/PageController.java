@@ -48,6 +48,7 @@ import static com.sdl.webapp.common.api.serialization.json.filter.IgnoreByNameIn
 import static com.sdl.webapp.common.controller.ControllerUtils.INCLUDE_PATH_PREFIX;
 import static com.sdl.webapp.common.controller.ControllerUtils.SECTION_ERROR_VIEW;
 import static com.sdl.webapp.common.controller.ControllerUtils.SERVER_ERROR_VIEW;
+import static com.sdl.webapp.common.controller.ControllerUtils.markSectionError;
 import static com.sdl.webapp.common.controller.RequestAttributeNames.CONTEXTENGINE;
 import static com.sdl.webapp.common.controller.RequestAttributeNames.LOCALIZATION;
 import static com.sdl.webapp.common.controller.RequestAttributeNames.MARKUP;
@@ -288,7 +289,11 @@ public class PageController extends BaseController {
     public String handleException(HttpServletRequest request, Exception exception) {
         log.error("Exception while processing request for: {}", urlPathHelper.getRequestUri(request), exception);
         request.setAttribute(MARKUP, markup);
-        return isIncludeRequest(request) ? SECTION_ERROR_VIEW : SERVER_ERROR_VIEW;
+        if (isIncludeRequest(request)) {
+            markSectionError(request);
+            return SECTION_ERROR_VIEW;
+        }
+        return SERVER_ERROR_VIEW;
     }
 
     private PageModel getPageModel(String path, Localization localization) {
@@ -1,26 +1,96 @@
 package com.sdl.webapp.common.markup;
 
 import com.sdl.webapp.common.api.WebRequestContext;
+import com.sdl.webapp.common.api.model.EntityModel;
 import com.sdl.webapp.common.api.model.ViewModel;
 import com.sdl.webapp.common.controller.ControllerUtils;
+import com.sdl.webapp.common.controller.DirectViewDispatcher;
 import com.sdl.webapp.common.markup.html.HtmlNode;
 import com.sdl.webapp.common.markup.html.ParsableHtmlNode;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.web.context.support.WebApplicationContextUtils;
 
 import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
 import javax.servlet.jsp.JspException;
 import javax.servlet.jsp.tagext.TagSupport;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * <p>AbstractMarkupTag class.</p>
+ * <p>Includes are written straight to the page if no markup decorator of the tag applies to the model,
+ * like XPM markup outside of preview, once they are larger than {@link #getIncludeBufferSize()}. Smaller includes
+ * are kept until they're complete, so that the error view replaces the markup of an include which fails.
+ * Otherwise they are buffered, decorated and then written.</p>
+ * <p>Regions and entities of the default controllers are rendered by the {@link DirectViewDispatcher} without
+ * a round-trip through the {@code DispatcherServlet}, everything else is included with its include path.</p>
  */
 public class AbstractMarkupTag extends TagSupport {
 
+    /**
+     * Default number of characters of an include kept before it's written straight to the page.
+     */
+    protected static final int DEFAULT_INCLUDE_BUFFER_SIZE = 16 * 1024;
+
+    private static final AtomicLong streamedIncludeCount = new AtomicLong();
+
+    private static final AtomicLong bufferedIncludeCount = new AtomicLong();
+
+    private static final AtomicLong bufferedCharCount = new AtomicLong();
+
     private MarkupDecoratorRegistry markupDecoratorRegistry = null;
 
+    private EntityFragmentCache entityFragmentCache = null;
+
+    private boolean entityFragmentCacheResolved = false;
+
+    private DirectViewDispatcher directViewDispatcher = null;
+
+    private boolean directViewDispatcherResolved = false;
+
+    /**
+     * <p>Returns the number of includes written straight to the page.</p>
+     *
+     * @return number of streamed includes
+     */
+    public static long getStreamedIncludeCount() {
+        return streamedIncludeCount.get();
+    }
+
+    /**
+     * <p>Returns the number of includes buffered for markup decorators.</p>
+     *
+     * @return number of buffered includes
+     */
+    public static long getBufferedIncludeCount() {
+        return bufferedIncludeCount.get();
+    }
+
+    /**
+     * <p>Returns the number of characters of includes buffered for markup decorators.
+     * Each of them is copied at least twice: out of the buffer and into the page.</p>
+     *
+     * @return number of buffered characters
+     */
+    public static long getBufferedCharCount() {
+        return bufferedCharCount.get();
+    }
+
+    /**
+     * <p>Returns the number of characters of an include which are kept before the include is written straight to
+     * the page. If the include fails, the markup written so far stays on the page before the error view.</p>
+     *
+     * @return number of characters
+     */
+    protected int getIncludeBufferSize() {
+        return DEFAULT_INCLUDE_BUFFER_SIZE;
+    }
+
     /**
      * <p>getDecoratorId.</p>
      *
@@ -47,7 +117,7 @@ public class AbstractMarkupTag extends TagSupport {
             StringWriter sw = new StringWriter();
             pageContext.pushBody(sw);
             pageContext.getRequest().setAttribute("ParentModel", model);
-            pageContext.include(include);
+            this.include(include, model, true);
             String renderedHtml = sw.toString();
             ParsableHtmlNode markup = new ParsableHtmlNode(renderedHtml);
             HtmlNode decoratedMarkup = this.decorateMarkup(markup, model);
@@ -83,13 +153,30 @@ public class AbstractMarkupTag extends TagSupport {
 
         // TODO: Consider to replace with an annotation instead
 
+        if (!isDecorated(model)) {
+            IncludeWriter writer = new IncludeWriter(pageContext.getOut(), this.getIncludeBufferSize());
+            try {
+                pageContext.pushBody(writer);
+                pageContext.getRequest().setAttribute("ParentModel", model);
+                // don't flush, the page is written to the response as if the markup was part of it
+                this.include(include, model, false);
+            } finally {
+                pageContext.popBody();
+            }
+            writer.complete();
+            streamedIncludeCount.incrementAndGet();
+            return;
+        }
+
         HtmlNode decoratedMarkup = null;
         try {
             StringWriter sw = new StringWriter();
             pageContext.pushBody(sw);
             pageContext.getRequest().setAttribute("ParentModel", model);
-            pageContext.include(include);
+            this.include(include, model, true);
             String renderedHtml = sw.toString();
+            bufferedIncludeCount.incrementAndGet();
+            bufferedCharCount.addAndGet(renderedHtml.length());
             ParsableHtmlNode markup = new ParsableHtmlNode(renderedHtml);
             decoratedMarkup = this.decorateMarkup(markup, model);
         } finally {
@@ -100,6 +187,77 @@ public class AbstractMarkupTag extends TagSupport {
         }
     }
 
+    private void include(String include, ViewModel model, boolean flush) throws IOException, ServletException {
+        DirectViewDispatcher dispatcher = this.getDirectViewDispatcher();
+        if (dispatcher == null || !dispatcher.include(pageContext, include, model, flush)) {
+            pageContext.include(include, flush);
+        }
+    }
+
+    /**
+     * <p>Tells whether any markup decorator of the tag applies to the model in the current request.</p>
+     *
+     * @param model a {@link com.sdl.webapp.common.api.model.ViewModel} object.
+     * @return whether the markup of the model has to be buffered and decorated
+     */
+    protected boolean isDecorated(ViewModel model) {
+        List<MarkupDecorator> markupDecorators = this.getMarkupDecoratorRegistry().getDecorators(this.getDecoratorId());
+        if (markupDecorators.isEmpty()) {
+            return false;
+        }
+        WebRequestContext webRequestContext = this.getWebRequestContext();
+        for (MarkupDecorator markupDecorator : markupDecorators) {
+            if (markupDecorator.isApplicable(model, webRequestContext)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * <p>Includes the markup of the entity like {@link #decorateInclude(String, ViewModel)},
+     * but takes it from the {@link EntityFragmentCache} if the markup of the entity can be cached.
+     * Markup containing a section error view is not cached.</p>
+     *
+     * @param include a {@link java.lang.String} object.
+     * @param entity  a {@link com.sdl.webapp.common.api.model.EntityModel} object.
+     * @throws java.io.IOException            if any.
+     * @throws javax.servlet.ServletException if any.
+     */
+    protected void decorateEntityInclude(String include, EntityModel entity) throws IOException, ServletException {
+        EntityFragmentCache cache = this.getEntityFragmentCache();
+        String key = cache != null ? cache.getKey(entity, this.getWebRequestContext()) : null;
+        if (key == null) {
+            this.decorateInclude(include, entity);
+            return;
+        }
+
+        String html = cache.get(key, entity);
+        if (html == null) {
+            ServletRequest request = pageContext.getRequest();
+            Object outerSectionErrors = request.getAttribute(ControllerUtils.SECTION_ERROR_COUNT);
+            AtomicInteger sectionErrors = new AtomicInteger();
+            request.setAttribute(ControllerUtils.SECTION_ERROR_COUNT, sectionErrors);
+            try {
+                html = this.processInclude(include, entity);
+            } finally {
+                if (outerSectionErrors != null) {
+                    request.setAttribute(ControllerUtils.SECTION_ERROR_COUNT, outerSectionErrors);
+                } else {
+                    request.removeAttribute(ControllerUtils.SECTION_ERROR_COUNT);
+                }
+            }
+
+            // the section error view of a failed controller is not cached, it's rendered again by the next request
+            if (sectionErrors.get() == 0) {
+                cache.put(key, entity, html);
+            } else if (outerSectionErrors instanceof AtomicInteger) {
+                ((AtomicInteger) outerSectionErrors).addAndGet(sectionErrors.get());
+            }
+        }
+        pageContext.getOut().write(html);
+    }
+
     /**
      * <p>decorateMarkup.</p>
      *
@@ -129,6 +287,44 @@ public class AbstractMarkupTag extends TagSupport {
         return markupDecoratorRegistry;
     }
 
+    /**
+     * <p>Getter for the field <code>entityFragmentCache</code>.</p>
+     *
+     * @return a {@link com.sdl.webapp.common.markup.EntityFragmentCache} object, or {@code null} if it's not enabled
+     */
+    protected EntityFragmentCache getEntityFragmentCache() {
+        if (!entityFragmentCacheResolved) {
+            try {
+                EntityFragmentCache cache = WebApplicationContextUtils.getRequiredWebApplicationContext(pageContext.getServletContext())
+                        .getBean(EntityFragmentCache.class);
+                entityFragmentCache = cache.isEnabled() ? cache : null;
+            } catch (NoSuchBeanDefinitionException e) {
+                entityFragmentCache = null;
+            }
+            entityFragmentCacheResolved = true;
+        }
+        return entityFragmentCache;
+    }
+
+    /**
+     * <p>Getter for the field <code>directViewDispatcher</code>.</p>
+     *
+     * @return a {@link com.sdl.webapp.common.controller.DirectViewDispatcher} object, or {@code null} if it's not enabled
+     */
+    protected DirectViewDispatcher getDirectViewDispatcher() {
+        if (!directViewDispatcherResolved) {
+            try {
+                DirectViewDispatcher dispatcher = WebApplicationContextUtils.getRequiredWebApplicationContext(pageContext.getServletContext())
+                        .getBean(DirectViewDispatcher.class);
+                directViewDispatcher = dispatcher.isEnabled() ? dispatcher : null;
+            } catch (NoSuchBeanDefinitionException e) {
+                directViewDispatcher = null;
+            }
+            directViewDispatcherResolved = true;
+        }
+        return directViewDispatcher;
+    }
+
     /**
      * <p>getWebRequestContext.</p>
      *
@@ -138,4 +334,69 @@ public class AbstractMarkupTag extends TagSupport {
         return WebApplicationContextUtils.getRequiredWebApplicationContext(pageContext.getServletContext())
                 .getBean(WebRequestContext.class);
     }
+
+    /**
+     * Writer keeping the markup of an include until it's larger than the buffer size, then writing it straight
+     * to the page. The kept markup is only written to the page once the include completes.
+     */
+    private static final class IncludeWriter extends Writer {
+
+        private final Writer out;
+
+        private final int bufferSize;
+
+        private StringBuilder buffer = new StringBuilder();
+
+        private IncludeWriter(Writer out, int bufferSize) {
+            this.out = out;
+            this.bufferSize = bufferSize;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            if (buffer == null) {
+                out.write(chars, offset, length);
+                return;
+            }
+            buffer.append(chars, offset, length);
+            if (buffer.length() > bufferSize) {
+                writeBuffer();
+            }
+        }
+
+        @Override
+        public void write(String string, int offset, int length) throws IOException {
+            if (buffer == null) {
+                out.write(string, offset, length);
+                return;
+            }
+            buffer.append(string, offset, offset + length);
+            if (buffer.length() > bufferSize) {
+                writeBuffer();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // the kept markup is not flushed, it's dropped if the include fails
+            if (buffer == null) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void complete() throws IOException {
+            if (buffer != null) {
+                writeBuffer();
+            }
+        }
+
+        private void writeBuffer() throws IOException {
+            out.append(buffer);
+            buffer = null;
+        }
+    }
 }
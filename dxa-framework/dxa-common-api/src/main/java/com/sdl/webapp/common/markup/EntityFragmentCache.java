@@ -0,0 +1,284 @@
+package com.sdl.webapp.common.markup;
+
+import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableSet;
+import com.sdl.webapp.common.api.MediaHelper;
+import com.sdl.webapp.common.api.WebRequestContext;
+import com.sdl.webapp.common.api.contextengine.ContextEngine;
+import com.sdl.webapp.common.api.localization.Localization;
+import com.sdl.webapp.common.api.model.EntityModel;
+import com.sdl.webapp.common.api.model.MvcData;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.sdl.webapp.common.api.model.mvcdata.DefaultsMvcData.getDefaultActionName;
+import static com.sdl.webapp.common.api.model.mvcdata.DefaultsMvcData.getDefaultControllerAreaName;
+import static com.sdl.webapp.common.api.model.mvcdata.DefaultsMvcData.getDefaultControllerName;
+
+/**
+ * In-memory cache of rendered entity markup.
+ * <p>The markup of an entity is the same for all visitors if its view only renders the entity, so it is cached by
+ * localization, component, component template, view, device family, container size and everything responsive
+ * image widths depend on: the screen width class, the pixel ratio and the max media width. Views
+ * declare that they are cacheable with the {@code cacheable} metadata field of the component template, or are
+ * configured in {@code dxa.web.entity.cache.views} as {@code Area:View}. Preview requests and entities with
+ * custom controllers or actions are never cached, neither is markup with a section error view of a failed controller.</p>
+ * <p>Entries are dropped when the component or the component template is modified, and otherwise only expire
+ * after {@code dxa.web.entity.cache.expireAfterWriteSeconds}. Changes that don't modify the component itself,
+ * like republishing it or changes to linked components, pages and keywords, show up after that time only.
+ * Views rendering such content should only be made cacheable if that delay is acceptable.</p>
+ * <p>The cache is disabled by default.</p>
+ */
+@Component
+@Slf4j
+public class EntityFragmentCache {
+
+    /**
+     * Metadata field of the component template telling whether the markup of the view can be cached.
+     */
+    public static final String CACHEABLE_METADATA_KEY = "cacheable";
+
+    private static final String COMPONENT_ID = "ComponentID";
+
+    private static final String COMPONENT_MODIFIED = "ComponentModified";
+
+    private static final String COMPONENT_TEMPLATE_ID = "ComponentTemplateID";
+
+    private static final String COMPONENT_TEMPLATE_MODIFIED = "ComponentTemplateModified";
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong staleCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong sizeInBytes = new AtomicLong();
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private MediaHelper mediaHelper;
+
+    @Value("${dxa.web.entity.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${dxa.web.entity.cache.views:}")
+    private String views;
+
+    @Value("${dxa.web.entity.cache.maxMegabytes:64}")
+    private long maxMegabytes;
+
+    @Value("${dxa.web.entity.cache.expireAfterWriteSeconds:300}")
+    private long expireAfterWriteSeconds;
+
+    private Set<String> cacheableViews;
+
+    private Cache<String, Fragment> cache;
+
+    private static boolean isCustomAction(MvcData mvcData) {
+        return !Objects.equals(mvcData.getActionName(), getDefaultActionName())
+                || !Objects.equals(mvcData.getControllerName(), getDefaultControllerName())
+                || !Objects.equals(mvcData.getControllerAreaName(), getDefaultControllerAreaName());
+    }
+
+    @PostConstruct
+    public void init() {
+        this.cacheableViews = ImmutableSet.copyOf(Splitter.on(',').trimResults().omitEmptyStrings().split(views));
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxMegabytes * 1024 * 1024)
+                .weigher(new Weigher<String, Fragment>() {
+                    @Override
+                    public int weigh(String key, Fragment fragment) {
+                        return fragment.getWeight();
+                    }
+                })
+                .removalListener(new RemovalListener<String, Fragment>() {
+                    @Override
+                    public void onRemoval(RemovalNotification<String, Fragment> notification) {
+                        sizeInBytes.addAndGet(-notification.getValue().getWeight());
+                    }
+                })
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .build();
+        log.info("Entity fragment cache is {}, views = {}, max size = {}MB, expire after write = {}s",
+                enabled ? "enabled" : "disabled", cacheableViews, maxMegabytes, expireAfterWriteSeconds);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cache key of the markup of the entity in the current request.
+     *
+     * @param entity            the entity
+     * @param webRequestContext the current request context
+     * @return cache key, or {@code null} if the markup of the entity must not be cached
+     */
+    @Nullable
+    public String getKey(@NotNull EntityModel entity, @NotNull WebRequestContext webRequestContext) {
+        MvcData mvcData = entity.getMvcData();
+        Map<String, Object> xpmMetadata = entity.getXpmMetadata();
+        if (!enabled || webRequestContext.isPreview() || mvcData == null || xpmMetadata == null
+                || isCustomAction(mvcData) || !isCacheable(mvcData)) {
+            return null;
+        }
+
+        Object componentId = xpmMetadata.get(COMPONENT_ID);
+        if (componentId == null || xpmMetadata.get(COMPONENT_MODIFIED) == null) {
+            return null;
+        }
+
+        Localization localization = webRequestContext.getLocalization();
+        // the context engine is request-scoped
+        String deviceFamily = applicationContext.getBean(ContextEngine.class).getDeviceFamily();
+        return (localization != null ? localization.getId() : null) + ':' +
+                componentId + ':' + xpmMetadata.get(COMPONENT_TEMPLATE_ID) + ':' +
+                mvcData.getAreaName() + ':' + mvcData.getViewName() + ':' + deviceFamily + ':' +
+                webRequestContext.getContainerSize() + ':' + mediaHelper.getScreenWidth() + ':' +
+                webRequestContext.getPixelRatio() + ':' + webRequestContext.getMaxMediaWidth();
+    }
+
+    private boolean isCacheable(MvcData mvcData) {
+        Map<String, Object> metadata = mvcData.getMetadata();
+        if (metadata != null && metadata.containsKey(CACHEABLE_METADATA_KEY)) {
+            return Boolean.parseBoolean(String.valueOf(metadata.get(CACHEABLE_METADATA_KEY)));
+        }
+        return cacheableViews.contains(mvcData.getAreaName() + ':' + mvcData.getViewName());
+    }
+
+    /**
+     * Returns the cached markup of the entity if it is still valid.
+     *
+     * @param key    cache key, see {@link #getKey(EntityModel, WebRequestContext)}
+     * @param entity the entity
+     * @return the markup, or {@code null} if it has to be rendered
+     */
+    @Nullable
+    public String get(@NotNull String key, @NotNull EntityModel entity) {
+        Fragment fragment = cache.getIfPresent(key);
+        if (fragment == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        Map<String, Object> xpmMetadata = entity.getXpmMetadata();
+        if (!Objects.equals(fragment.getComponentModified(), xpmMetadata.get(COMPONENT_MODIFIED))
+                || !Objects.equals(fragment.getComponentTemplateModified(), xpmMetadata.get(COMPONENT_TEMPLATE_MODIFIED))) {
+            log.trace("Entity fragment {} was modified", key);
+            staleCount.incrementAndGet();
+            cache.invalidate(key);
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return fragment.getHtml();
+    }
+
+    /**
+     * Puts the rendered markup of the entity in the cache.
+     *
+     * @param key    cache key, see {@link #getKey(EntityModel, WebRequestContext)}
+     * @param entity the entity
+     * @param html   the markup
+     */
+    public void put(@NotNull String key, @NotNull EntityModel entity, @NotNull String html) {
+        Map<String, Object> xpmMetadata = entity.getXpmMetadata();
+        // characters take two bytes
+        Fragment fragment = new Fragment(html, xpmMetadata.get(COMPONENT_MODIFIED),
+                xpmMetadata.get(COMPONENT_TEMPLATE_MODIFIED), 2 * (html.length() + key.length()));
+        sizeInBytes.addAndGet(fragment.getWeight());
+        cache.put(key, fragment);
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns the number of entities served from the cache.
+     *
+     * @return number of cache hits
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of entities found in the cache but rendered again because they were modified.
+     *
+     * @return number of stale entries
+     */
+    public long getStaleCount() {
+        return staleCount.get();
+    }
+
+    /**
+     * Returns the number of cacheable entities that were not in the cache.
+     *
+     * @return number of cache misses
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the ratio of entities served from the cache to all lookups.
+     *
+     * @return hit ratio, {@code 1.0} if nothing was looked up yet
+     */
+    public double getHitRatio() {
+        long hits = hitCount.get();
+        long requests = hits + staleCount.get() + missCount.get();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    /**
+     * Returns the approximate number of entries in the cache.
+     *
+     * @return number of entries
+     */
+    public long getSize() {
+        return cache.size();
+    }
+
+    /**
+     * Returns the approximate memory taken by the cached markup.
+     *
+     * @return size in bytes
+     */
+    public long getSizeInBytes() {
+        return sizeInBytes.get();
+    }
+
+    @lombok.Value
+    private static class Fragment {
+
+        private String html;
+
+        private Object componentModified;
+
+        private Object componentTemplateModified;
+
+        private int weight;
+    }
+}
@@ -20,6 +20,19 @@ public interface MarkupDecorator {
      */
     HtmlNode process(HtmlNode markup, ViewModel model, WebRequestContext webRequestContext);
 
+    /**
+     * <p>Tells whether the decorator may change the markup of the model in the current request.
+     * If no decorator of a tag applies, the tag writes the markup straight to the page without buffering it.
+     * Return {@code false} only if {@link #process(HtmlNode, ViewModel, WebRequestContext)} returns the markup unchanged.</p>
+     *
+     * @param model             a {@link com.sdl.webapp.common.api.model.ViewModel} object.
+     * @param webRequestContext a {@link com.sdl.webapp.common.api.WebRequestContext} object.
+     * @return whether the decorator may change the markup, {@code true} by default
+     */
+    default boolean isApplicable(ViewModel model, WebRequestContext webRequestContext) {
+        return true;
+    }
+
     /**
      * <p>getPriority.</p>
      *
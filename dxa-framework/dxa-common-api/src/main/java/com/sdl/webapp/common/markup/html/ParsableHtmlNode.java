@@ -37,7 +37,7 @@ public class ParsableHtmlNode extends HtmlNode {
             Node firstNode = htmlNodes.get(0);
             if (firstNode instanceof Element) {
                 Element element = (Element) firstNode;
-                Elements elements = element.select("body");
+                Elements elements = element.getElementsByTag("body");
                 if (elements.size() > 0) {
                     if (elements.first().children().size() == 1) {
                         htmlElement = elements.first().child(0);
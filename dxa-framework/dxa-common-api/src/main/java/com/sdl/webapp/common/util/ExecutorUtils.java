@@ -0,0 +1,118 @@
+package com.sdl.webapp.common.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.util.concurrent.Uninterruptibles.getUninterruptibly;
+
+/**
+ * Utility functions to run parts of request processing in parallel.
+ */
+public final class ExecutorUtils {
+
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private ExecutorUtils() {
+    }
+
+    /**
+     * Creates an executor with at most {@code threads} worker threads and no queue.
+     * <p>If all the workers are busy, the task is executed in the submitting thread. This bounds the number of threads
+     * and makes it safe to submit tasks from tasks and wait for them, since a task never waits in a queue for
+     * a worker that may be blocked by its own caller.</p>
+     * <p>Tasks submitted after shutdown are not run, their futures are cancelled so that nobody waits for them.</p>
+     *
+     * @param threadNamePrefix prefix of the names of worker threads
+     * @param threads          maximum number of worker threads, should be positive
+     * @return new executor, should be shut down when it is not needed anymore
+     */
+    @NotNull
+    public static ExecutorService newBoundedExecutor(@NotNull String threadNamePrefix, int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat(threadNamePrefix + "-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.CallerRunsPolicy() {
+                    @Override
+                    public void rejectedExecution(Runnable task, ThreadPoolExecutor pool) {
+                        super.rejectedExecution(task, pool);
+                        // discarded after shutdown, cancel it so that its future completes
+                        if (pool.isShutdown() && task instanceof Future) {
+                            ((Future<?>) task).cancel(false);
+                        }
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Creates an executor for background work with at most {@code threads} worker threads and an unbounded queue.
+     * <p>Unlike {@link #newBoundedExecutor(String, int)} tasks never run in the submitting thread, so the submitter
+     * doesn't wait. Callers are expected to bound the number of submitted tasks themselves, e.g. by not submitting
+     * a task for a key that is already queued.</p>
+     *
+     * @param threadNamePrefix prefix of the names of worker threads
+     * @param threads          maximum number of worker threads, should be positive
+     * @return new executor, should be shut down when it is not needed anymore
+     */
+    @NotNull
+    public static ExecutorService newBackgroundExecutor(@NotNull String threadNamePrefix, int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat(threadNamePrefix + "-%d").setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Wraps the task so that it runs with the request attributes of the current thread,
+     * which makes request-scoped beans available in worker threads.
+     * <p>The caller is expected to wait for the task before the request completes.</p>
+     *
+     * @param task task to wrap
+     * @param <T>  type of the result
+     * @return task running with request attributes of the current thread
+     */
+    @NotNull
+    public static <T> Callable<T> withRequestContext(@NotNull final Callable<T> task) {
+        final RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        return () -> {
+            RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            try {
+                return task.call();
+            } finally {
+                // task may run in the submitting thread, so restore instead of reset
+                RequestContextHolder.setRequestAttributes(previous);
+            }
+        };
+    }
+
+    /**
+     * Waits for all the given futures to complete, ignoring their results, failures and cancellations.
+     * Useful to make sure no tasks of a request are running anymore when processing the request failed.
+     *
+     * @param futures futures to wait for
+     */
+    public static void awaitAll(@NotNull Iterable<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                getUninterruptibly(future);
+            } catch (ExecutionException | CancellationException ignored) {
+                // the failure is either already reported or not relevant
+            }
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.sdl.webapp.common.util;
 
 import com.google.common.base.Strings;
-import com.google.common.io.Files;
 import com.sdl.webapp.common.api.content.ContentProviderException;
 import lombok.extern.slf4j.Slf4j;
 
@@ -13,6 +12,10 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -23,9 +26,40 @@ public final class ImageUtils {
     }
 
     public static byte[] resizeImage(byte[] original, StaticContentPathInfo pathInfo) throws ContentProviderException {
+        return resizeImage(readImage(original), original, pathInfo);
+    }
+
+    /**
+     * Decodes the image, so that it can be resized to multiple sizes with
+     * {@link #resizeImage(BufferedImage, byte[], StaticContentPathInfo)} without decoding it again.
+     *
+     * @param original encoded image
+     * @return decoded image
+     * @throws ContentProviderException if the image cannot be decoded
+     */
+    public static BufferedImage readImage(byte[] original) throws ContentProviderException {
         try {
-            final BufferedImage originalImage = ImageIO.read(new ByteArrayInputStream(original));
+            final BufferedImage image = ImageIO.read(new ByteArrayInputStream(original));
+            if (image == null) {
+                throw new ContentProviderException("Image format is not supported");
+            }
+            return image;
+        } catch (IOException e) {
+            throw new ContentProviderException("Exception while processing image data", e);
+        }
+    }
 
+    /**
+     * Resizes the already decoded image.
+     *
+     * @param originalImage decoded image
+     * @param original      encoded image, returned if no resize is required
+     * @param pathInfo      path info with the requested size
+     * @return encoded resized image
+     * @throws ContentProviderException if the image cannot be encoded
+     */
+    public static byte[] resizeImage(BufferedImage originalImage, byte[] original, StaticContentPathInfo pathInfo) throws ContentProviderException {
+        try {
             int cropX = 0, cropY = 0;
             int sourceW = originalImage.getWidth(), sourceH = originalImage.getHeight();
             int targetW, targetH;
@@ -105,7 +139,31 @@ public final class ImageUtils {
             content = ImageUtils.resizeImage(content, pathInfo);
         }
 
-        Files.write(content, file);
+        writeAtomically(file, content);
+    }
+
+    /**
+     * Writes the content to a temporary file next to the file and renames it, so that the file is never
+     * seen partially written by concurrent readers.
+     *
+     * @param file    file to write
+     * @param content content of the file
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeAtomically(File file, byte[] content) throws IOException {
+        final Path target = file.toPath();
+        final Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "." + file.getName(), ".tmp");
+        try {
+            Files.write(temp, content);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                log.debug("Atomic move is not supported, replacing file {}", file);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
     }
 
     public static final class StaticContentPathInfo {
@@ -0,0 +1,99 @@
+package com.sdl.webapp.common.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import static com.google.common.util.concurrent.Uninterruptibles.getUninterruptibly;
+
+/**
+ * Deduplicates concurrent calls by key. While a call for a key is in flight, all other callers asking for
+ * the same key wait for it and share its result (or its exception) instead of making their own call.
+ * Calls for different keys do not block each other.
+ * <p>Nothing is cached: once the call finishes, the next caller for the same key triggers a new call.</p>
+ *
+ * @param <K> type of the key, should have proper {@code equals/hashCode}
+ * @param <V> type of the result
+ */
+@Slf4j
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, FutureTask<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Executes the call for the given key, or joins the call for this key that is already in flight.
+     * <p>Callers sharing a key are expected to pass calls throwing the same checked exception type.</p>
+     *
+     * @param key  key of the call
+     * @param call logic to execute if there is no call for this key in flight
+     * @param <E>  checked exception the call may throw
+     * @return result of the call, may be {@code null} if the call returns {@code null}
+     * @throws E if the call threw an exception, is rethrown to all the callers sharing it
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Exception> V execute(@NotNull K key, @NotNull final Call<V, E> call) throws E {
+        FutureTask<V> task = new FutureTask<>(new Callable<V>() {
+            @Override
+            public V call() throws Exception {
+                return call.call();
+            }
+        });
+
+        FutureTask<V> existing = inFlight.putIfAbsent(key, task);
+        if (existing == null) {
+            try {
+                task.run();
+            } finally {
+                inFlight.remove(key, task);
+            }
+        } else {
+            log.trace("Joining the call already in flight for key {}", key);
+            task = existing;
+        }
+
+        try {
+            return getUninterruptibly(task);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (E) cause;
+        }
+    }
+
+    /**
+     * Returns the number of calls currently in flight.
+     *
+     * @return number of calls in flight
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Logic to execute once per key in flight.
+     *
+     * @param <V> type of the result
+     * @param <E> checked exception the call may throw
+     */
+    @FunctionalInterface
+    public interface Call<V, E extends Exception> {
+
+        /**
+         * Executes the call.
+         *
+         * @return result of the call
+         * @throws E if the call fails
+         */
+        V call() throws E;
+    }
+}
@@ -1,12 +1,17 @@
 package com.sdl.webapp.common.util;
 
 import org.w3c.dom.Document;
+import org.xml.sax.ContentHandler;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.DefaultHandler;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -37,6 +42,23 @@ public final class XMLUtils {
         }
     };
 
+    // XMLReader is not thread-safe either, it's configured the same way as the document builder
+    private static final ThreadLocal<XMLReader> XML_READER = new ThreadLocal<XMLReader>() {
+        @Override
+        protected XMLReader initialValue() {
+            try {
+                final SAXParserFactory parserFactory = SAXParserFactory.newInstance();
+                parserFactory.setNamespaceAware(true);
+                final XMLReader xmlReader = parserFactory.newSAXParser().getXMLReader();
+                // report namespace declarations as attributes, like they are in a document
+                xmlReader.setFeature("http://xml.org/sax/features/namespace-prefixes", true);
+                return xmlReader;
+            } catch (ParserConfigurationException | SAXException e) {
+                throw new RuntimeException("Error while creating XML reader", e);
+            }
+        }
+    };
+
     // Transformer is not guaranteed to be thread-safe
     private static final ThreadLocal<Transformer> TRANSFORMER = new ThreadLocal<Transformer>() {
         @Override
@@ -67,6 +89,38 @@ public final class XMLUtils {
         return document;
     }
 
+    /**
+     * Parses the text without building a document, reporting its content to the handlers.
+     * <p>Namespace declarations are reported as attributes.</p>
+     *
+     * @param text           text to parse
+     * @param contentHandler handler of the content
+     * @param lexicalHandler handler of comments and CDATA sections
+     * @throws java.io.IOException      if any.
+     * @throws org.xml.sax.SAXException if the text is not well-formed or a handler fails
+     */
+    public static void parse(String text, ContentHandler contentHandler, LexicalHandler lexicalHandler) throws IOException, SAXException {
+        final XMLReader xmlReader = XML_READER.get();
+        xmlReader.setContentHandler(contentHandler);
+        xmlReader.setProperty("http://xml.org/sax/properties/lexical-handler", lexicalHandler);
+        try {
+            xmlReader.parse(new InputSource(new StringReader(text)));
+        } finally {
+            // don't keep the handlers reachable from the thread
+            xmlReader.setContentHandler(new DefaultHandler());
+            xmlReader.setProperty("http://xml.org/sax/properties/lexical-handler", null);
+        }
+    }
+
+    /**
+     * Creates a new empty document.
+     *
+     * @return a new {@link org.w3c.dom.Document}
+     */
+    public static Document newDocument() {
+        return DOCUMENT_BUILDER.get().newDocument();
+    }
+
     /**
      * <p>format.</p>
      *
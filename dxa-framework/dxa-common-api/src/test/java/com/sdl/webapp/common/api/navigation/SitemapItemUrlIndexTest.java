@@ -0,0 +1,80 @@
+package com.sdl.webapp.common.api.navigation;
+
+import com.sdl.webapp.common.api.model.entity.SitemapItem;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SitemapItemUrlIndexTest {
+
+    private static SitemapItem item(String id, String url) {
+        SitemapItem item = new SitemapItem();
+        item.setId(id);
+        item.setUrl(url);
+        return item;
+    }
+
+    @Test
+    public void shouldFindItemsByUrlLikeFindWithUrl() {
+        //given
+        SitemapItem root = item("root", "/");
+        SitemapItem section = item("section", "/section");
+        SitemapItem page = item("page", "/section/page");
+        SitemapItem slashed = item("slashed", "/slashed/");
+        section.addItem(page);
+        root.addItem(section);
+        root.addItem(slashed);
+
+        //when
+        SitemapItemUrlIndex index = SitemapItemUrlIndex.of(root);
+
+        //then
+        assertEquals(4, index.size());
+        for (String url : new String[]{"/", "/section", "/section/", "/section/page", "/section/page/",
+                "/section/page.html", "/Section", "/slashed", "/slashed/", "/other"}) {
+            assertSame(url, root.findWithUrl(url), index.find(url));
+        }
+        assertSame(section, index.find("/section/"));
+        assertNull(index.find("/Section"));
+        assertNull(index.find("/section/page.html"));
+        assertNull(index.find(null));
+    }
+
+    @Test
+    public void shouldPreferFirstItemInDepthFirstOrder_IfUrlWithAndWithoutSlashMatch() {
+        //given
+        SitemapItem root = item("root", "/");
+        SitemapItem withoutSlash = item("withoutSlash", "/about");
+        SitemapItem withSlash = item("withSlash", "/about/");
+        root.addItem(withoutSlash);
+        root.addItem(withSlash);
+
+        //when
+        SitemapItemUrlIndex index = SitemapItemUrlIndex.of(root);
+
+        //then
+        assertSame(root.findWithUrl("/about/"), index.find("/about/"));
+        assertSame(withoutSlash, index.find("/about/"));
+    }
+
+    @Test
+    public void shouldFindFirstItemInDepthFirstOrderLikeFindWithUrl() {
+        //given
+        SitemapItem root = item("root", "/");
+        SitemapItem section = item("section", "/section");
+        SitemapItem nested = item("nested", "/duplicate");
+        SitemapItem sibling = item("sibling", "/duplicate");
+        section.addItem(nested);
+        root.addItem(section);
+        root.addItem(sibling);
+
+        //when
+        SitemapItemUrlIndex index = SitemapItemUrlIndex.of(root);
+
+        //then
+        assertSame(root.findWithUrl("/duplicate"), index.find("/duplicate"));
+        assertSame(nested, index.find("/duplicate"));
+    }
+}
@@ -0,0 +1,98 @@
+package com.sdl.webapp.common.controller;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.condition.PatternsRequestCondition;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ControllerRouteTableTest {
+
+    private final BaseController listController = new BaseController() {
+    };
+
+    private final BaseController otherListController = new BaseController() {
+    };
+
+    private final Map<RequestMappingInfo, HandlerMethod> handlerMethods = new LinkedHashMap<>();
+
+    @Mock
+    private RequestMappingHandlerMapping requestMappingHandlerMapping;
+
+    @InjectMocks
+    private ControllerRouteTable controllerRouteTable;
+
+    private static RequestMappingInfo mapping(String pattern) {
+        return new RequestMappingInfo(new PatternsRequestCondition(pattern), null, null, null, null, null, null);
+    }
+
+    private static HandlerMethod handlerMethod(Object bean) throws NoSuchMethodException {
+        return new HandlerMethod(bean, Object.class.getMethod("toString"));
+    }
+
+    @Before
+    public void init() throws NoSuchMethodException {
+        handlerMethods.put(mapping("/system/mvc/Framework/List/List/{entityId}"), handlerMethod(listController));
+        handlerMethods.put(mapping("/system/mvc/Test/List/{entityId}"), handlerMethod(otherListController));
+        handlerMethods.put(mapping("/system/mvc/Framework/List/Other/{entityId}"), handlerMethod(otherListController));
+        handlerMethods.put(mapping("/system/mvc/Test/NotAController"), handlerMethod(new Object()));
+        when(requestMappingHandlerMapping.getHandlerMethods()).thenReturn(handlerMethods);
+    }
+
+    @Test
+    public void shouldFindControllerByAreaAndControllerName() {
+        //when
+        controllerRouteTable.refresh();
+
+        //then
+        assertSame(listController, controllerRouteTable.getController("Framework", "List"));
+        assertSame(otherListController, controllerRouteTable.getController("Test", "List"));
+    }
+
+    @Test
+    public void shouldReturnNull_IfNoControllerIsMapped() {
+        //when
+        controllerRouteTable.refresh();
+
+        //then
+        assertNull(controllerRouteTable.getController("Framework", "Unknown"));
+        assertNull(controllerRouteTable.getController("Test", "NotAController"));
+        assertNull(controllerRouteTable.getController("Framework", "Lis"));
+    }
+
+    @Test
+    public void shouldBuildTable_IfNotRefreshedYet() {
+        //when
+        BaseController controller = controllerRouteTable.getController("Framework", "List");
+
+        //then
+        assertSame(listController, controller);
+    }
+
+    @Test
+    public void shouldPickUpNewMappings_WhenRefreshed() throws NoSuchMethodException {
+        //given
+        controllerRouteTable.refresh();
+        assertNull(controllerRouteTable.getController("Module", "Custom"));
+
+        //when
+        handlerMethods.put(mapping("/system/mvc/Module/Custom/{entityId}"), handlerMethod(otherListController));
+        controllerRouteTable.onApplicationEvent(null);
+
+        //then
+        assertSame(otherListController, controllerRouteTable.getController("Module", "Custom"));
+    }
+}
@@ -0,0 +1,390 @@
+package com.sdl.webapp.common.controller;
+
+import com.google.common.collect.ImmutableMap;
+import com.sdl.dxa.mvc.ViewNameResolver;
+import com.sdl.webapp.common.api.model.EntityModel;
+import com.sdl.webapp.common.api.model.MvcData;
+import com.sdl.webapp.common.api.model.RegionModel;
+import com.sdl.webapp.common.api.model.entity.AbstractEntityModel;
+import com.sdl.webapp.common.api.model.region.RegionModelImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockPageContext;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerExecutionChain;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.servlet.view.InternalResourceView;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.sdl.webapp.common.api.model.mvcdata.DefaultsMvcData.CORE_REGION;
+import static com.sdl.webapp.common.api.model.mvcdata.MvcDataCreator.creator;
+import static com.sdl.webapp.common.controller.RequestAttributeNames.ENTITY_MODEL;
+import static com.sdl.webapp.common.controller.RequestAttributeNames.REGION_MODEL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DirectViewDispatcherTest {
+
+    private final ControllerRouteTable controllerRouteTable = mock(ControllerRouteTable.class);
+
+    private final ViewNameResolver viewNameResolver = mock(ViewNameResolver.class);
+
+    private final ViewResolver viewResolver = mock(ViewResolver.class);
+
+    private final EntityController entityController = new EntityController();
+
+    private final RegionController regionController = new RegionController();
+
+    private final List<HandlerInterceptor> interceptors = new ArrayList<>();
+
+    private DirectViewDispatcher dispatcher;
+
+    private RecordingPageContext pageContext;
+
+    private static EntityModel entity(MvcData mvcData) {
+        AbstractEntityModel entity = new AbstractEntityModel() {
+        };
+        entity.setId("1-2");
+        entity.setMvcData(mvcData);
+        return entity;
+    }
+
+    private static MvcData entityMvcData() {
+        return creator().fromQualifiedName("Core:Article").builder()
+                .controllerAreaName("Framework")
+                .controllerName("Entity")
+                .actionName("Entity")
+                .build();
+    }
+
+    private static View view(String url) {
+        InternalResourceView view = new InternalResourceView();
+        view.setUrl(url);
+        return view;
+    }
+
+    @Before
+    public void init() throws Exception {
+        ReflectionTestUtils.setField(entityController, "viewNameResolver", viewNameResolver);
+        ReflectionTestUtils.setField(regionController, "viewNameResolver", viewNameResolver);
+        when(controllerRouteTable.getController("Framework", "Entity")).thenReturn(entityController);
+        when(controllerRouteTable.getController("Framework", "Region")).thenReturn(regionController);
+        when(viewNameResolver.resolveView(any(MvcData.class), anyString())).thenReturn("Core/Entity/Article");
+        when(viewResolver.resolveViewName("Core/Entity/Article", Locale.ENGLISH)).thenReturn(view("/WEB-INF/Views/Core/Entity/Article.jsp"));
+
+        ApplicationContext applicationContext = mock(ApplicationContext.class);
+        when(applicationContext.getBeansOfType(ViewResolver.class, true, false))
+                .thenReturn(ImmutableMap.of("viewResolver", viewResolver));
+        when(applicationContext.getBeansOfType(HandlerMapping.class, true, false))
+                .thenReturn(ImmutableMap.of("handlerMapping", (HandlerMapping) this::getHandler));
+
+        dispatcher = new DirectViewDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "controllerRouteTable", controllerRouteTable);
+        ReflectionTestUtils.setField(dispatcher, "applicationContext", applicationContext);
+        ReflectionTestUtils.setField(dispatcher, "enabled", true);
+
+        pageContext = new RecordingPageContext();
+    }
+
+    private HandlerExecutionChain getHandler(HttpServletRequest request) throws NoSuchMethodException {
+        String include = (String) request.getAttribute(WebUtils.INCLUDE_SERVLET_PATH_ATTRIBUTE);
+        HandlerMethod handler = include.contains("/Entity/") ?
+                new HandlerMethod(entityController, "handleGetEntity", HttpServletRequest.class, String.class) :
+                new HandlerMethod(regionController, "handleGetRegion", HttpServletRequest.class, String.class);
+        return new HandlerExecutionChain(handler, interceptors.toArray(new HandlerInterceptor[interceptors.size()]));
+    }
+
+    @Test
+    public void shouldCallControllerAndIncludeView_ForEntityOfDefaultController() throws Exception {
+        //given
+        EntityModel entity = entity(entityMvcData());
+        pageContext.getRequest().setAttribute("_entity_", entity);
+        long direct = dispatcher.getDirectCount();
+
+        //when
+        boolean included = dispatcher.include(pageContext, ControllerUtils.getIncludePath(entity), entity, false);
+
+        //then
+        assertTrue(included);
+        assertEquals(Collections.singletonList("/WEB-INF/Views/Core/Entity/Article.jsp"), pageContext.includes);
+        assertSame(entity, pageContext.models.get(0));
+        assertEquals(1, dispatcher.getDirectCount() - direct);
+    }
+
+    @Test
+    public void shouldRestoreModelOfParent_AfterInclude() throws Exception {
+        //given
+        RegionModel parent = new RegionModelImpl("Parent");
+        RegionModel region = new RegionModelImpl(creator().defaults(CORE_REGION).builder()
+                .regionName("Main").viewName("Main").controllerAreaName("Framework").build());
+        pageContext.getRequest().setAttribute("_region_", region);
+        pageContext.getRequest().setAttribute(REGION_MODEL, parent);
+
+        //when
+        boolean included = dispatcher.include(pageContext, ControllerUtils.getIncludePath(region), region, true);
+
+        //then
+        assertTrue(included);
+        assertSame(region, pageContext.models.get(0));
+        assertSame(parent, pageContext.getRequest().getAttribute(REGION_MODEL));
+        assertEquals(null, pageContext.getRequest().getAttribute(ENTITY_MODEL));
+    }
+
+    @Test
+    public void shouldRenderOtherViewsIntoPage() throws Exception {
+        //given
+        EntityModel entity = entity(entityMvcData());
+        pageContext.getRequest().setAttribute("_entity_", entity);
+        when(viewResolver.resolveViewName("Core/Entity/Article", Locale.ENGLISH)).thenReturn(new View() {
+            @Override
+            public String getContentType() {
+                return null;
+            }
+
+            @Override
+            public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.getWriter().write("<p>article</p>");
+            }
+        });
+
+        //when
+        boolean included = dispatcher.include(pageContext, ControllerUtils.getIncludePath(entity), entity, false);
+        pageContext.getOut().flush();
+
+        //then
+        assertTrue(included);
+        assertEquals("<p>article</p>", ((MockHttpServletResponse) pageContext.getResponse()).getContentAsString());
+    }
+
+    @Test
+    public void shouldRenderSectionErrorView_IfControllerFails() throws Exception {
+        //given
+        EntityModel entity = entity(entityMvcData());
+        when(viewResolver.resolveViewName(ControllerUtils.SECTION_ERROR_VIEW, Locale.ENGLISH))
+                .thenReturn(view("/WEB-INF/Views/Shared/Error/SectionError.jsp"));
+        AtomicInteger sectionErrors = new AtomicInteger();
+        pageContext.getRequest().setAttribute(ControllerUtils.SECTION_ERROR_COUNT, sectionErrors);
+
+        //when
+        // the entity is not in the request, so the controller throws NotFoundException
+        boolean included = dispatcher.include(pageContext, ControllerUtils.getIncludePath(entity), entity, false);
+
+        //then
+        assertTrue(included);
+        assertEquals(Collections.singletonList("/WEB-INF/Views/Shared/Error/SectionError.jsp"), pageContext.includes);
+        assertEquals(1, sectionErrors.get());
+    }
+
+    @Test
+    public void shouldRestoreAllRequestAttributes_AfterInclude() throws Exception {
+        //given
+        EntityModel entity = entity(entityMvcData());
+        pageContext.getRequest().setAttribute("_entity_", entity);
+        pageContext.getRequest().setAttribute("ParentModel", "parent");
+        when(viewResolver.resolveViewName("Core/Entity/Article", Locale.ENGLISH)).thenReturn(new View() {
+            @Override
+            public String getContentType() {
+                return null;
+            }
+
+            @Override
+            public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response) {
+                request.setAttribute("ParentModel", "child");
+                request.setAttribute("exposedByView", "value");
+            }
+        });
+
+        //when
+        dispatcher.include(pageContext, ControllerUtils.getIncludePath(entity), entity, false);
+
+        //then
+        assertEquals("parent", pageContext.getRequest().getAttribute("ParentModel"));
+        assertSame(entity, pageContext.getRequest().getAttribute("_entity_"));
+        assertNull(pageContext.getRequest().getAttribute("exposedByView"));
+        assertNull(pageContext.getRequest().getAttribute(ENTITY_MODEL));
+    }
+
+    @Test
+    public void shouldNotDispatch_IfControllerIsCustom() throws Exception {
+        //given
+        EntityController customController = new EntityController() {
+        };
+        when(controllerRouteTable.getController("Framework", "Entity")).thenReturn(customController);
+        EntityModel entity = entity(entityMvcData());
+        EntityModel customAction = entity(creator(entityMvcData()).builder().actionName("Custom").build());
+        EntityModel routeValues = entity(creator(entityMvcData()).builder().routeValues(ImmutableMap.of("a", "b")).build());
+        long dispatched = dispatcher.getDispatchedCount();
+
+        //when
+        boolean customControllerIncluded = dispatcher.include(pageContext, ControllerUtils.getIncludePath(entity), entity, false);
+        boolean customActionIncluded = dispatcher.include(pageContext, ControllerUtils.getIncludePath(customAction), customAction, false);
+        boolean routeValuesIncluded = dispatcher.include(pageContext, ControllerUtils.getIncludePath(routeValues), routeValues, false);
+        boolean errorViewIncluded = dispatcher.include(pageContext, ControllerUtils.getIncludeErrorPath(), entity, false);
+
+        //then
+        assertFalse(customControllerIncluded);
+        assertFalse(customActionIncluded);
+        assertFalse(routeValuesIncluded);
+        assertFalse(errorViewIncluded);
+        assertEquals(4, dispatcher.getDispatchedCount() - dispatched);
+        assertEquals(Collections.emptyList(), pageContext.includes);
+        verify(viewNameResolver, never()).resolveView(any(MvcData.class), anyString());
+    }
+
+    @Test
+    public void shouldCallInterceptorsLikeDispatcherServlet_ForInclude() throws Exception {
+        //given
+        EntityModel entity = entity(entityMvcData());
+        pageContext.getRequest().setAttribute("_entity_", entity);
+        HandlerInterceptor interceptor = mock(HandlerInterceptor.class);
+        List<DispatcherType> dispatcherTypes = new ArrayList<>();
+        when(interceptor.preHandle(any(HttpServletRequest.class), any(HttpServletResponse.class), any())).then(invocation -> {
+            dispatcherTypes.add(((HttpServletRequest) invocation.getArguments()[0]).getDispatcherType());
+            return true;
+        });
+        interceptors.add(interceptor);
+
+        //when
+        boolean included = dispatcher.include(pageContext, ControllerUtils.getIncludePath(entity), entity, false);
+
+        //then
+        assertTrue(included);
+        assertEquals(Collections.singletonList(DispatcherType.INCLUDE), dispatcherTypes);
+        verify(interceptor).postHandle(any(HttpServletRequest.class), any(HttpServletResponse.class), any(), any(ModelAndView.class));
+        verify(interceptor).afterCompletion(any(HttpServletRequest.class), any(HttpServletResponse.class), any(), eq((Exception) null));
+    }
+
+    @Test
+    public void shouldNotRenderView_IfInterceptorHandlesInclude() throws Exception {
+        //given
+        EntityModel entity = entity(entityMvcData());
+        pageContext.getRequest().setAttribute("_entity_", entity);
+        HandlerInterceptor passing = mock(HandlerInterceptor.class);
+        doReturn(true).when(passing).preHandle(any(HttpServletRequest.class), any(HttpServletResponse.class), any());
+        HandlerInterceptor handling = mock(HandlerInterceptor.class);
+        interceptors.add(passing);
+        interceptors.add(handling);
+
+        //when
+        boolean included = dispatcher.include(pageContext, ControllerUtils.getIncludePath(entity), entity, false);
+
+        //then
+        assertTrue(included);
+        assertEquals(Collections.emptyList(), pageContext.includes);
+        verify(viewNameResolver, never()).resolveView(any(MvcData.class), anyString());
+        verify(passing).afterCompletion(any(HttpServletRequest.class), any(HttpServletResponse.class), any(), eq((Exception) null));
+        verify(handling, never()).afterCompletion(any(HttpServletRequest.class), any(HttpServletResponse.class), any(), any(Exception.class));
+    }
+
+    @Test
+    public void shouldIgnoreStatusHeadersAndRedirects_OfIncludedView() throws Exception {
+        //given
+        EntityModel entity = entity(entityMvcData());
+        pageContext.getRequest().setAttribute("_entity_", entity);
+        when(viewResolver.resolveViewName("Core/Entity/Article", Locale.ENGLISH)).thenReturn(new View() {
+            @Override
+            public String getContentType() {
+                return null;
+            }
+
+            @Override
+            public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response) throws IOException {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                response.setHeader("X-Included", "true");
+                response.sendRedirect("/other");
+            }
+        });
+
+        //when
+        dispatcher.include(pageContext, ControllerUtils.getIncludePath(entity), entity, false);
+
+        //then
+        MockHttpServletResponse response = (MockHttpServletResponse) pageContext.getResponse();
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertNull(response.getHeader("X-Included"));
+        assertNull(response.getRedirectedUrl());
+    }
+
+    @Test
+    public void shouldBeDisabledByDefault() throws Exception {
+        //when
+        Value enabled = DirectViewDispatcher.class.getDeclaredField("enabled").getAnnotation(Value.class);
+
+        //then
+        assertEquals("${dxa.web.views.direct.enabled:false}", enabled.value());
+    }
+
+    @Test
+    public void shouldNotDispatch_IfDisabled() throws Exception {
+        //given
+        ReflectionTestUtils.setField(dispatcher, "enabled", false);
+        EntityModel entity = entity(entityMvcData());
+
+        //when
+        boolean included = dispatcher.include(pageContext, ControllerUtils.getIncludePath(entity), entity, false);
+
+        //then
+        assertFalse(included);
+        assertEquals(Collections.emptyList(), pageContext.includes);
+    }
+
+    /**
+     * Page context recording the includes and the model of the controller at the time of the include.
+     */
+    private static class RecordingPageContext extends MockPageContext {
+
+        private final List<String> includes = new ArrayList<>();
+
+        private final List<Object> models = new ArrayList<>();
+
+        private RecordingPageContext() {
+            super(new MockServletContext(), request(), new MockHttpServletResponse());
+        }
+
+        private static MockHttpServletRequest request() {
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addPreferredLocale(Locale.ENGLISH);
+            return request;
+        }
+
+        @Override
+        public void include(String relativeUrlPath, boolean flush) {
+            includes.add(relativeUrlPath);
+            HttpServletRequest request = (HttpServletRequest) getRequest();
+            Object entity = request.getAttribute(ENTITY_MODEL);
+            models.add(entity != null ? entity : request.getAttribute(REGION_MODEL));
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.sdl.webapp.common.markup;
+
+import com.sdl.webapp.common.api.WebRequestContext;
+import com.sdl.webapp.common.api.model.EntityModel;
+import com.sdl.webapp.common.api.model.ViewModel;
+import com.sdl.webapp.common.api.model.entity.AbstractEntityModel;
+import com.sdl.webapp.common.controller.ControllerUtils;
+import com.sdl.webapp.common.controller.DirectViewDispatcher;
+import com.sdl.webapp.common.markup.html.HtmlCommentNode;
+import com.sdl.webapp.common.markup.html.HtmlNode;
+import com.sdl.webapp.common.markup.html.builders.HtmlBuilders;
+import com.google.common.base.Strings;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockJspWriter;
+import org.springframework.mock.web.MockPageContext;
+import org.springframework.mock.web.MockServletContext;
+
+import javax.servlet.ServletException;
+import javax.servlet.jsp.JspWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AbstractMarkupTagTest {
+
+    private final Map<String, List<MarkupDecorator>> decorators = new HashMap<>();
+
+    private final WebRequestContext webRequestContext = mock(WebRequestContext.class);
+
+    private final EntityFragmentCache entityFragmentCache = mock(EntityFragmentCache.class);
+
+    private DirectViewDispatcher directViewDispatcher = null;
+
+    private int includeBufferSize = AbstractMarkupTag.DEFAULT_INCLUDE_BUFFER_SIZE;
+
+    private MockHttpServletResponse response;
+
+    private IncludingPageContext pageContext;
+
+    /**
+     * Adds XPM-like markup in preview, like the XPM markup decorators.
+     */
+    private static MarkupDecorator previewDecorator(final String name) {
+        return new MarkupDecorator() {
+            @Override
+            public HtmlNode process(HtmlNode markup, ViewModel model, WebRequestContext webRequestContext) {
+                if (!webRequestContext.isPreview()) {
+                    return markup;
+                }
+                return HtmlBuilders.span().withNode(new HtmlCommentNode("Start " + name)).withNode(markup).build();
+            }
+
+            @Override
+            public boolean isApplicable(ViewModel model, WebRequestContext webRequestContext) {
+                return webRequestContext.isPreview();
+            }
+
+            @Override
+            public int getPriority() {
+                return 1;
+            }
+        };
+    }
+
+    /**
+     * Never changes the markup, but doesn't tell so.
+     */
+    private static MarkupDecorator unknownDecorator() {
+        return new MarkupDecorator() {
+            @Override
+            public HtmlNode process(HtmlNode markup, ViewModel model, WebRequestContext webRequestContext) {
+                return markup;
+            }
+
+            @Override
+            public int getPriority() {
+                return 1;
+            }
+        };
+    }
+
+    @Before
+    public void init() {
+        response = new MockHttpServletResponse();
+        pageContext = new IncludingPageContext(response);
+    }
+
+    private TestTag tag(String decoratorId) {
+        TestTag tag = new TestTag(decoratorId);
+        tag.setPageContext(pageContext);
+        return tag;
+    }
+
+    /**
+     * Renders a region view which includes two entity views.
+     */
+    private String renderPage() throws Exception {
+        pageContext.views.put("/region", () -> {
+            pageContext.getOut().write("<div class=\"region\">");
+            tag("Entity").decorateInclude("/entity/1", new TestEntity());
+            tag("Entity").decorateInclude("/entity/2", new TestEntity());
+            pageContext.getOut().write("</div>");
+        });
+        pageContext.views.put("/entity/1", () -> pageContext.getOut().write("<p>one</p>"));
+        pageContext.views.put("/entity/2", () -> pageContext.getOut().write("<p>two</p>"));
+
+        pageContext.getOut().write("<main>");
+        tag("Region").decorateInclude("/region", new TestEntity());
+        pageContext.getOut().write("</main>");
+        pageContext.getOut().flush();
+        return response.getContentAsString();
+    }
+
+    @Test
+    public void shouldStreamIncludes_IfNoDecoratorApplies() throws Exception {
+        //given
+        decorators.put("Region", Collections.singletonList(previewDecorator("Region")));
+        decorators.put("Entity", Collections.singletonList(previewDecorator("Entity")));
+        long streamed = AbstractMarkupTag.getStreamedIncludeCount();
+        long buffered = AbstractMarkupTag.getBufferedIncludeCount();
+
+        //when
+        String html = renderPage();
+
+        //then
+        assertEquals("<main><div class=\"region\"><p>one</p><p>two</p></div></main>", html);
+        assertEquals(3, AbstractMarkupTag.getStreamedIncludeCount() - streamed);
+        assertEquals(0, AbstractMarkupTag.getBufferedIncludeCount() - buffered);
+        assertEquals(Collections.emptyList(), pageContext.flushedIncludes);
+    }
+
+    @Test
+    public void shouldReplaceMarkupOfFailedInclude_WithErrorView() throws Exception {
+        //given
+        TestEntity entity = new TestEntity();
+        pageContext.views.put("/entity/1", () -> {
+            pageContext.getOut().write("<p>partial");
+            throw new ServletException("View failed");
+        });
+        pageContext.views.put(ControllerUtils.getIncludeErrorPath(), () -> pageContext.getOut().write("<p>error</p>"));
+
+        //when
+        try {
+            tag("Entity").decorateInclude("/entity/1", entity);
+        } catch (ServletException e) {
+            // like the entity tag
+            tag("Entity").decorateException(entity);
+        }
+        pageContext.getOut().flush();
+
+        //then
+        assertEquals("<p>error</p>", response.getContentAsString());
+    }
+
+    @Test
+    public void shouldStreamIncludes_IfLargerThanBufferSize() throws Exception {
+        //given
+        includeBufferSize = 8;
+        decorators.put("Entity", Collections.singletonList(previewDecorator("Entity")));
+
+        //when
+        String html = renderPage();
+
+        //then
+        assertEquals("<main><div class=\"region\"><p>one</p><p>two</p></div></main>", html);
+    }
+
+    @Test
+    public void shouldBufferAndDecorateIncludes_IfDecoratorApplies() throws Exception {
+        //given
+        when(webRequestContext.isPreview()).thenReturn(true);
+        decorators.put("Region", Collections.singletonList(previewDecorator("Region")));
+        decorators.put("Entity", Collections.singletonList(previewDecorator("Entity")));
+        long streamed = AbstractMarkupTag.getStreamedIncludeCount();
+        long buffered = AbstractMarkupTag.getBufferedIncludeCount();
+        long bufferedChars = AbstractMarkupTag.getBufferedCharCount();
+
+        //when
+        String html = renderPage();
+
+        //then
+        assertEquals("<main><span><!-- Start Region --><div class=\"region\">" +
+                "<span><!-- Start Entity --><p>one</p></span><span><!-- Start Entity --><p>two</p></span>" +
+                "</div></span></main>", html);
+        assertEquals(0, AbstractMarkupTag.getStreamedIncludeCount() - streamed);
+        assertEquals(3, AbstractMarkupTag.getBufferedIncludeCount() - buffered);
+        assertEquals("<p>one</p>".length() * 2 + "<div class=\"region\"></div>".length() +
+                        "<span><!-- Start Entity --><p>one</p></span>".length() * 2,
+                AbstractMarkupTag.getBufferedCharCount() - bufferedChars);
+    }
+
+    @Test
+    public void shouldBufferIncludes_IfDecoratorDoesNotTellWhetherItApplies() throws Exception {
+        //given
+        decorators.put("Entity", Collections.singletonList(unknownDecorator()));
+        long streamed = AbstractMarkupTag.getStreamedIncludeCount();
+        long buffered = AbstractMarkupTag.getBufferedIncludeCount();
+
+        //when
+        String html = renderPage();
+
+        //then
+        assertEquals("<main><div class=\"region\"><p>one</p><p>two</p></div></main>", html);
+        assertEquals(1, AbstractMarkupTag.getStreamedIncludeCount() - streamed);
+        assertEquals(2, AbstractMarkupTag.getBufferedIncludeCount() - buffered);
+    }
+
+    @Test
+    public void shouldWriteCachedEntityMarkup_InsteadOfIncludingView() throws Exception {
+        //given
+        TestEntity entity = new TestEntity();
+        when(entityFragmentCache.getKey(entity, webRequestContext)).thenReturn("key");
+        when(entityFragmentCache.get("key", entity)).thenReturn(null, "<p>cached</p>");
+        pageContext.views.put("/entity/1", () -> pageContext.getOut().write("<p>one</p>"));
+
+        //when
+        tag("Entity").decorateEntityInclude("/entity/1", entity);
+        pageContext.views.clear();
+        tag("Entity").decorateEntityInclude("/entity/1", entity);
+        pageContext.getOut().flush();
+
+        //then
+        assertEquals("<p>one</p><p>cached</p>", response.getContentAsString());
+        verify(entityFragmentCache).put("key", entity, "<p>one</p>");
+    }
+
+    @Test
+    public void shouldNotCacheEntityMarkup_IfSectionErrorViewIsRendered() throws Exception {
+        //given
+        TestEntity entity = new TestEntity();
+        when(entityFragmentCache.getKey(entity, webRequestContext)).thenReturn("key");
+        pageContext.views.put("/entity/1", () -> {
+            // like the exception handler of the controller
+            ControllerUtils.markSectionError(pageContext.getRequest());
+            pageContext.getOut().write("<p>error</p>");
+        });
+
+        //when
+        tag("Entity").decorateEntityInclude("/entity/1", entity);
+        pageContext.getOut().flush();
+
+        //then
+        assertEquals("<p>error</p>", response.getContentAsString());
+        verify(entityFragmentCache, never()).put(anyString(), any(EntityModel.class), anyString());
+        assertNull(pageContext.getRequest().getAttribute(ControllerUtils.SECTION_ERROR_COUNT));
+    }
+
+    @Test
+    public void shouldIncludeEntityView_IfMarkupCannotBeCached() throws Exception {
+        //given
+        TestEntity entity = new TestEntity();
+        pageContext.views.put("/entity/1", () -> pageContext.getOut().write("<p>one</p>"));
+
+        //when
+        tag("Entity").decorateEntityInclude("/entity/1", entity);
+        pageContext.getOut().flush();
+
+        //then
+        assertEquals("<p>one</p>", response.getContentAsString());
+        verify(entityFragmentCache, never()).put(anyString(), any(EntityModel.class), anyString());
+    }
+
+    @Test
+    public void shouldIncludeViewOfDirectDispatch_InsteadOfIncludePath() throws Exception {
+        //given
+        final TestEntity entity = new TestEntity();
+        directViewDispatcher = mock(DirectViewDispatcher.class);
+        when(directViewDispatcher.include(pageContext, "/entity/1", entity, false)).thenAnswer(invocation -> {
+            pageContext.getOut().write("<p>direct</p>");
+            return true;
+        });
+        pageContext.views.put("/entity/2", () -> pageContext.getOut().write("<p>two</p>"));
+
+        //when
+        tag("Entity").decorateInclude("/entity/1", entity);
+        tag("Entity").decorateInclude("/entity/2", new TestEntity());
+        pageContext.getOut().flush();
+
+        //then
+        assertEquals("<p>direct</p><p>two</p>", response.getContentAsString());
+    }
+
+    /**
+     * Measures characters copied and bytes allocated per page with streamed and buffered includes.
+     * Run with {@code -Ddxa.benchmark=true}.
+     */
+    @Test
+    public void benchmarkPageRendering() throws Exception {
+        Assume.assumeTrue(Boolean.getBoolean("dxa.benchmark"));
+
+        final String entityHtml = "<article>" + Strings.repeat("<p>Lorem ipsum dolor sit amet.</p>", 60) + "</article>";
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        decorators.put("Region", Collections.singletonList(unknownDecorator()));
+        decorators.put("Entity", Collections.singletonList(unknownDecorator()));
+        for (boolean streamed : new boolean[]{false, true}) {
+            if (streamed) {
+                decorators.put("Region", Collections.singletonList(previewDecorator("Region")));
+                decorators.put("Entity", Collections.singletonList(previewDecorator("Entity")));
+            }
+            int pages = 2000;
+            long allocated = 0;
+            long bufferedChars = 0;
+            for (int i = 0; i < pages * 2; i++) {
+                init();
+                pageContext.views.put("/region", () -> {
+                    for (int e = 0; e < 20; e++) {
+                        tag("Entity").decorateInclude("/entity", new TestEntity());
+                    }
+                });
+                pageContext.views.put("/entity", () -> pageContext.getOut().write(entityHtml));
+
+                long chars = AbstractMarkupTag.getBufferedCharCount();
+                long bytes = threads.getThreadAllocatedBytes(threadId);
+                for (int r = 0; r < 4; r++) {
+                    tag("Region").decorateInclude("/region", new TestEntity());
+                }
+                // the first half is warm-up
+                if (i >= pages) {
+                    allocated += threads.getThreadAllocatedBytes(threadId) - bytes;
+                    bufferedChars += AbstractMarkupTag.getBufferedCharCount() - chars;
+                }
+            }
+            System.out.printf("%s: %d chars buffered, %d KB allocated per page of %d KB%n",
+                    streamed ? "Streamed" : "Buffered", bufferedChars / pages, allocated / pages / 1024,
+                    80 * entityHtml.length() / 1024);
+        }
+    }
+
+    private interface View {
+
+        void render() throws IOException, ServletException;
+    }
+
+    private static class TestEntity extends AbstractEntityModel {
+
+    }
+
+    /**
+     * Page context which renders views on includes into the current out, like a servlet container.
+     */
+    private static class IncludingPageContext extends MockPageContext {
+
+        private final Map<String, View> views = new HashMap<>();
+
+        private final List<String> flushedIncludes = new ArrayList<>();
+
+        private final Deque<JspWriter> bodies = new ArrayDeque<>();
+
+        private IncludingPageContext(MockHttpServletResponse response) {
+            super(new MockServletContext(), new MockHttpServletRequest(), response);
+        }
+
+        @Override
+        public JspWriter getOut() {
+            return bodies.isEmpty() ? super.getOut() : bodies.peek();
+        }
+
+        @Override
+        public JspWriter pushBody(Writer writer) {
+            JspWriter body = new MockJspWriter(writer);
+            bodies.push(body);
+            return body;
+        }
+
+        @Override
+        public JspWriter popBody() {
+            bodies.pop();
+            return getOut();
+        }
+
+        @Override
+        public void include(String relativeUrlPath) throws ServletException, IOException {
+            include(relativeUrlPath, true);
+        }
+
+        @Override
+        public void include(String relativeUrlPath, boolean flush) throws ServletException, IOException {
+            if (flush) {
+                flushedIncludes.add(relativeUrlPath);
+            }
+            views.get(relativeUrlPath).render();
+        }
+    }
+
+    private class TestTag extends AbstractMarkupTag {
+
+        private final String decoratorId;
+
+        private TestTag(String decoratorId) {
+            this.decoratorId = decoratorId;
+        }
+
+        @Override
+        protected String getDecoratorId() {
+            return decoratorId;
+        }
+
+        @Override
+        protected MarkupDecoratorRegistry getMarkupDecoratorRegistry() {
+            return new MarkupDecoratorRegistry() {
+                @Override
+                public void registerDecorator(String decoratorId, MarkupDecorator decorator) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public List<MarkupDecorator> getDecorators(String decoratorId) {
+                    List<MarkupDecorator> list = decorators.get(decoratorId);
+                    return list != null ? list : Collections.<MarkupDecorator>emptyList();
+                }
+            };
+        }
+
+        @Override
+        protected WebRequestContext getWebRequestContext() {
+            return webRequestContext;
+        }
+
+        @Override
+        protected EntityFragmentCache getEntityFragmentCache() {
+            return entityFragmentCache;
+        }
+
+        @Override
+        protected DirectViewDispatcher getDirectViewDispatcher() {
+            return directViewDispatcher;
+        }
+
+        @Override
+        protected int getIncludeBufferSize() {
+            return includeBufferSize;
+        }
+    }
+}
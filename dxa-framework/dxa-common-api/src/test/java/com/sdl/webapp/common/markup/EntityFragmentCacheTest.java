@@ -0,0 +1,187 @@
+package com.sdl.webapp.common.markup;
+
+import com.google.common.collect.ImmutableMap;
+import com.sdl.webapp.common.api.MediaHelper;
+import com.sdl.webapp.common.api.ScreenWidth;
+import com.sdl.webapp.common.api.WebRequestContext;
+import com.sdl.webapp.common.api.contextengine.ContextEngine;
+import com.sdl.webapp.common.api.localization.Localization;
+import com.sdl.webapp.common.api.model.EntityModel;
+import com.sdl.webapp.common.api.model.entity.AbstractEntityModel;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.sdl.webapp.common.api.model.mvcdata.DefaultsMvcData.getDefaultActionName;
+import static com.sdl.webapp.common.api.model.mvcdata.DefaultsMvcData.getDefaultControllerAreaName;
+import static com.sdl.webapp.common.api.model.mvcdata.DefaultsMvcData.getDefaultControllerName;
+import static com.sdl.webapp.common.api.model.mvcdata.MvcDataCreator.creator;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EntityFragmentCacheTest {
+
+    private final WebRequestContext webRequestContext = mock(WebRequestContext.class);
+
+    private final ContextEngine contextEngine = mock(ContextEngine.class);
+
+    private final MediaHelper mediaHelper = mock(MediaHelper.class);
+
+    private EntityFragmentCache cache;
+
+    private static EntityModel entity(String qualifiedViewName, Map<String, Object> templateMetadata, String modified) {
+        EntityModel entity = new AbstractEntityModel() {
+        };
+        entity.setMvcData(creator(creator().fromQualifiedName(qualifiedViewName).builder()
+                .controllerAreaName(getDefaultControllerAreaName())
+                .controllerName(getDefaultControllerName())
+                .actionName(getDefaultActionName())
+                .metadata(templateMetadata)).create());
+        Map<String, Object> xpmMetadata = new HashMap<>();
+        xpmMetadata.put("ComponentID", "tcm:1-2");
+        xpmMetadata.put("ComponentModified", modified);
+        xpmMetadata.put("ComponentTemplateID", "tcm:1-3-32");
+        xpmMetadata.put("ComponentTemplateModified", "2016-01-01T00:00:00");
+        ((AbstractEntityModel) entity).setXpmMetadata(xpmMetadata);
+        return entity;
+    }
+
+    private static EntityModel entity(String qualifiedViewName) {
+        return entity(qualifiedViewName, new HashMap<String, Object>(), "2016-01-01T00:00:00");
+    }
+
+    @Before
+    public void init() {
+        ApplicationContext applicationContext = mock(ApplicationContext.class);
+        when(applicationContext.getBean(ContextEngine.class)).thenReturn(contextEngine);
+        when(contextEngine.getDeviceFamily()).thenReturn("desktop");
+
+        Localization localization = mock(Localization.class);
+        when(localization.getId()).thenReturn("1");
+        when(webRequestContext.getLocalization()).thenReturn(localization);
+        when(webRequestContext.getContainerSize()).thenReturn(12);
+        when(webRequestContext.getMaxMediaWidth()).thenReturn(2048);
+        when(webRequestContext.getPixelRatio()).thenReturn(1.0);
+        when(mediaHelper.getScreenWidth()).thenReturn(ScreenWidth.LARGE);
+
+        cache = new EntityFragmentCache();
+        ReflectionTestUtils.setField(cache, "applicationContext", applicationContext);
+        ReflectionTestUtils.setField(cache, "mediaHelper", mediaHelper);
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "views", "Core:Article, Core:Teaser");
+        ReflectionTestUtils.setField(cache, "maxMegabytes", 1L);
+        ReflectionTestUtils.setField(cache, "expireAfterWriteSeconds", 60L);
+        cache.init();
+    }
+
+    @Test
+    public void shouldCacheMarkupOfCacheableViews() {
+        //given
+        EntityModel entity = entity("Core:Article");
+        String key = cache.getKey(entity, webRequestContext);
+        assertNotNull(key);
+        assertNull(cache.get(key, entity));
+
+        //when
+        cache.put(key, entity, "<article/>");
+
+        //then
+        assertEquals("<article/>", cache.get(cache.getKey(entity("Core:Article"), webRequestContext), entity));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2 * ("<article/>".length() + key.length()), cache.getSizeInBytes());
+    }
+
+    @Test
+    public void shouldNotUseMarkupOfModifiedComponents() {
+        //given
+        EntityModel entity = entity("Core:Article");
+        String key = cache.getKey(entity, webRequestContext);
+        cache.put(key, entity, "<article/>");
+
+        //when
+        EntityModel modified = entity("Core:Article", new HashMap<String, Object>(), "2016-02-01T00:00:00");
+
+        //then
+        assertEquals(key, cache.getKey(modified, webRequestContext));
+        assertNull(cache.get(key, modified));
+        assertEquals(1, cache.getStaleCount());
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getSizeInBytes());
+    }
+
+    @Test
+    public void shouldCacheMarkupPerScreenWidthAndPixelRatio() {
+        //given
+        EntityModel entity = entity("Core:Article");
+        String key = cache.getKey(entity, webRequestContext);
+
+        //when
+        when(webRequestContext.getPixelRatio()).thenReturn(1.5);
+        String retinaKey = cache.getKey(entity, webRequestContext);
+        when(mediaHelper.getScreenWidth()).thenReturn(ScreenWidth.SMALL);
+        String smallScreenKey = cache.getKey(entity, webRequestContext);
+
+        //then
+        assertNotEquals(key, retinaKey);
+        assertNotEquals(retinaKey, smallScreenKey);
+    }
+
+    @Test
+    public void shouldCacheMarkupPerDeviceFamilyAndContainerSize() {
+        //given
+        EntityModel entity = entity("Core:Article");
+        String key = cache.getKey(entity, webRequestContext);
+
+        //when
+        when(contextEngine.getDeviceFamily()).thenReturn("smartphone");
+        String smartphoneKey = cache.getKey(entity, webRequestContext);
+        when(webRequestContext.getContainerSize()).thenReturn(6);
+        String smallContainerKey = cache.getKey(entity, webRequestContext);
+
+        //then
+        assertNotEquals(key, smartphoneKey);
+        assertNotEquals(smartphoneKey, smallContainerKey);
+    }
+
+    @Test
+    public void shouldCacheViewsDeclaredCacheableInTemplateMetadata() {
+        //then
+        assertNotNull(cache.getKey(entity("Core:Other", ImmutableMap.<String, Object>of("cacheable", "true"), "x"), webRequestContext));
+        assertNull(cache.getKey(entity("Core:Article", ImmutableMap.<String, Object>of("cacheable", "false"), "x"), webRequestContext));
+        assertNull(cache.getKey(entity("Core:Other"), webRequestContext));
+    }
+
+    @Test
+    public void shouldNotCacheInPreviewOrWithCustomControllers() {
+        //given
+        EntityModel customController = entity("Core:Article");
+        customController.setMvcData(creator(customController.getMvcData()).builder().controllerName("List").build());
+
+        //then
+        assertNull(cache.getKey(customController, webRequestContext));
+
+        //when
+        when(webRequestContext.isPreview()).thenReturn(true);
+
+        //then
+        assertNull(cache.getKey(entity("Core:Article"), webRequestContext));
+    }
+
+    @Test
+    public void shouldNotCacheIfDisabled() {
+        //when
+        ReflectionTestUtils.setField(cache, "enabled", false);
+
+        //then
+        assertNull(cache.getKey(entity("Core:Article"), webRequestContext));
+    }
+}
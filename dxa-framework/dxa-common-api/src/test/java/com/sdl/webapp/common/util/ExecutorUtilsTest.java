@@ -0,0 +1,54 @@
+package com.sdl.webapp.common.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExecutorUtilsTest {
+
+    @Test
+    public void shouldRunTaskInSubmittingThread_IfAllWorkersAreBusy() throws Exception {
+        //given
+        ExecutorService executor = ExecutorUtils.newBoundedExecutor("test", 1);
+        final CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.submit(() -> {
+                release.await(5, TimeUnit.SECONDS);
+                return null;
+            });
+
+            //when
+            Future<String> future = executor.submit(() -> Thread.currentThread().getName());
+
+            //then
+            assertTrue(future.isDone());
+            assertEquals(Thread.currentThread().getName(), future.get());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldCancelTaskInsteadOfRunningIt_IfSubmittedAfterShutdown() {
+        //given
+        ExecutorService executor = ExecutorUtils.newBoundedExecutor("test", 1);
+        executor.shutdown();
+        final AtomicBoolean run = new AtomicBoolean();
+
+        //when
+        Future<?> future = executor.submit(() -> run.set(true));
+
+        //then
+        assertFalse(run.get());
+        assertTrue(future.isCancelled());
+    }
+}
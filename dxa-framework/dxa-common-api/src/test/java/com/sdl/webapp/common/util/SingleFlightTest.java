@@ -0,0 +1,159 @@
+package com.sdl.webapp.common.util;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SingleFlightTest {
+
+    @Test
+    public void shouldShareOneCallBetweenConcurrentCallersOfSameKey() throws Exception {
+        //given
+        final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final SingleFlight.Call<String, IOException> call = new SingleFlight.Call<String, IOException>() {
+            @Override
+            public String call() throws IOException {
+                calls.incrementAndGet();
+                awaitQuietly(release);
+                return "value";
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        //when
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return singleFlight.execute("key", call);
+                }
+            }));
+        }
+        while (singleFlight.inFlightCount() == 0) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        //then
+        for (Future<String> future : futures) {
+            assertEquals("value", future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(0, singleFlight.inFlightCount());
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldNotCacheResultAfterCallFinished() throws IOException {
+        //given
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        final AtomicInteger calls = new AtomicInteger();
+        SingleFlight.Call<Integer, IOException> call = new SingleFlight.Call<Integer, IOException>() {
+            @Override
+            public Integer call() throws IOException {
+                return calls.incrementAndGet();
+            }
+        };
+
+        //when
+        Integer first = singleFlight.execute("key", call);
+        Integer second = singleFlight.execute("key", call);
+
+        //then
+        assertEquals(1, first.intValue());
+        assertEquals(2, second.intValue());
+    }
+
+    @Test
+    public void shouldAllowNullResults() throws IOException {
+        //given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+        //when
+        String result = singleFlight.execute("key", new SingleFlight.Call<String, IOException>() {
+            @Override
+            public String call() throws IOException {
+                return null;
+            }
+        });
+
+        //then
+        assertNull(result);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRethrowCheckedExceptionOfCall() throws IOException {
+        //given
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+        //when
+        singleFlight.execute("key", new SingleFlight.Call<String, IOException>() {
+            @Override
+            public String call() throws IOException {
+                throw new IOException("test");
+            }
+        });
+
+        //then
+        //exception is thrown
+    }
+
+    @Test
+    public void shouldRunCallsForDifferentKeysInParallel() throws Exception {
+        //given
+        final SingleFlight<Integer, Integer> singleFlight = new SingleFlight<>();
+        final CountDownLatch allStarted = new CountDownLatch(3);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        //when
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final int key = i;
+            futures.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    return singleFlight.execute(key, new SingleFlight.Call<Integer, InterruptedException>() {
+                        @Override
+                        public Integer call() throws InterruptedException {
+                            allStarted.countDown();
+                            allStarted.await();
+                            return key;
+                        }
+                    });
+                }
+            }));
+        }
+
+        //then
+        assertTrue("All calls should be in flight at the same time", allStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, futures.get(i).get(5, TimeUnit.SECONDS).intValue());
+        }
+        executor.shutdownNow();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -131,8 +131,18 @@ public class DefaultMediaHelper implements MediaHelper {
      */
     @Override
     public String getResponsiveImageUrl(String url, String widthFactor, double aspect, int containerSize) {
-        final int width = roundWidth(getResponsiveWidth(widthFactor, containerSize));
+        return getResizedImageUrl(url, roundWidth(getResponsiveWidth(widthFactor, containerSize)), aspect);
+    }
 
+    /** {@inheritDoc} */
+    @Override
+    public int[] getImageWidths() {
+        return IMAGE_WIDTHS.clone();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getResizedImageUrl(String url, int width, double aspect) {
         // Height is calculated from the aspect ratio (0 means preserve aspect ratio)
         boolean aspectIzZero = aspect == 0.0;
         final int height = aspectIzZero ? 0 : divideByAspect(width, aspect);
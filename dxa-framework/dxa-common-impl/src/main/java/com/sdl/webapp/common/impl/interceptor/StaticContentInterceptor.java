@@ -22,16 +22,28 @@ import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.management.ManagementFactory;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
 
 /**
  * Static content interceptor. This interceptor checks if the request is for static content, and if it is, it sends
  * an appropriate response to the client; in that case the request will not be processed further by Spring's
  * {@link org.springframework.web.servlet.DispatcherServlet} (it will not reach any of the controllers).
+ * <p>Static content stored in files (see {@link StaticContentItem#getFile()}) is served with a strong {@code ETag}
+ * based on its last modified date and size, and single byte ranges are supported. Content providers return the publish
+ * date of the content as its last modified date, so the {@code ETag} is the same on all nodes and doesn't change when
+ * the file is written again. The file is handed over
+ * to the servlet container if it supports sending files directly (Tomcat's sendfile), otherwise it's transferred
+ * with {@link FileChannel#transferTo(long, long, WritableByteChannel)}.</p>
  */
 //todo dxa2 remove in preference of simple controller
 public class StaticContentInterceptor extends HandlerInterceptorAdapter {
@@ -39,6 +51,16 @@ public class StaticContentInterceptor extends HandlerInterceptorAdapter {
     private static final String CACHE_CONTROL_WEEK = "public, max-age=" + Weeks.ONE.toStandardSeconds().getSeconds();
     private static final String CACHE_CONTROL_HOUR = "public, max-age=" + Hours.ONE.toStandardSeconds().getSeconds();
 
+    private static final String SENDFILE_SUPPORTED_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+    private static final ByteRange UNSATISFIABLE_RANGE = new ByteRange(-1, -1);
+
     @Autowired
     private ContentProvider contentProvider;
 
@@ -87,6 +109,137 @@ public class StaticContentInterceptor extends HandlerInterceptorAdapter {
         }
     }
 
+    private static String createETag(long lastModified, long length) {
+        return '"' + Long.toHexString(lastModified) + '-' + Long.toHexString(length) + '"';
+    }
+
+    private static boolean matchesETag(List<String> eTags, String eTag) {
+        for (String candidate : eTags) {
+            if ("*".equals(candidate) || eTag.equals(candidate.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a {@code Range} header with a single byte range. Multiple ranges are not supported and are ignored,
+     * the whole content is sent then, as well as for ranges that cannot be parsed.
+     *
+     * @return the requested range, {@code null} if the whole content should be sent,
+     * or {@link #UNSATISFIABLE_RANGE} if the range is outside of the content
+     */
+    static ByteRange parseRange(String rangeHeader, long length) {
+        if (rangeHeader == null || !rangeHeader.startsWith("bytes=") || rangeHeader.indexOf(',') >= 0) {
+            return null;
+        }
+
+        String range = rangeHeader.substring("bytes=".length()).trim();
+        int dash = range.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+
+        try {
+            if (dash == 0) {
+                long suffixLength = Long.parseLong(range.substring(1));
+                if (suffixLength <= 0 || length == 0) {
+                    return UNSATISFIABLE_RANGE;
+                }
+                return new ByteRange(Math.max(0, length - suffixLength), length - 1);
+            }
+
+            long start = Long.parseLong(range.substring(0, dash));
+            long end = dash == range.length() - 1 ? length - 1 : Long.parseLong(range.substring(dash + 1));
+            if (start >= length) {
+                return UNSATISFIABLE_RANGE;
+            }
+            if (end < start) {
+                return null;
+            }
+            return new ByteRange(start, Math.min(end, length - 1));
+        } catch (NumberFormatException e) {
+            LOG.debug("Ignoring invalid range header {}", rangeHeader);
+            return null;
+        }
+    }
+
+    private static boolean isRangeApplicable(HttpServletRequest request, String eTag, long lastModified) {
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return eTag.equals(ifRange);
+        }
+        long ifRangeDate = request.getDateHeader("If-Range");
+        return ifRangeDate != -1 && lastModified / 1000L <= ifRangeDate / 1000L;
+    }
+
+    private static void serveFile(HttpServletRequest request, ServletServerHttpRequest req, ServletServerHttpResponse res,
+                                  StaticContentItem staticContentItem, File file) throws IOException {
+        final long length = file.length();
+        final long lastModified = staticContentItem.getLastModified();
+        final String eTag = createETag(lastModified, length);
+        res.getHeaders().setETag(eTag);
+        res.getHeaders().set("Accept-Ranges", "bytes");
+
+        boolean refresh = isToBeRefreshed(res, req.getHeaders().getIfNotModifiedSince(), lastModified, staticContentItem.isVersioned());
+        List<String> ifNoneMatch = req.getHeaders().getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            // If-None-Match takes precedence over If-Modified-Since
+            refresh = !matchesETag(ifNoneMatch, eTag);
+            res.setStatusCode(refresh ? HttpStatus.OK : HttpStatus.NOT_MODIFIED);
+        }
+        if (!refresh) {
+            return;
+        }
+
+        ByteRange range = isRangeApplicable(request, eTag, lastModified) ? parseRange(request.getHeader("Range"), length) : null;
+        if (range == UNSATISFIABLE_RANGE) {
+            res.setStatusCode(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+            res.getHeaders().set("Content-Range", "bytes */" + length);
+            return;
+        }
+
+        if (range == null) {
+            range = new ByteRange(0, length - 1);
+        } else {
+            res.setStatusCode(HttpStatus.PARTIAL_CONTENT);
+            res.getHeaders().set("Content-Range", "bytes " + range.start + '-' + range.end + '/' + length);
+        }
+        res.getHeaders().setContentLength(range.length());
+
+        if ("HEAD".equals(request.getMethod()) || range.length() == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTRIBUTE))) {
+            // the container sends the file after the request is processed, without copying it through the heap
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.getAbsolutePath());
+            request.setAttribute(SENDFILE_START_ATTRIBUTE, range.start);
+            request.setAttribute(SENDFILE_END_ATTRIBUTE, range.end + 1);
+            return;
+        }
+
+        try (final FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+             final OutputStream out = res.getBody()) {
+            transfer(in, range.start, range.length(), Channels.newChannel(out));
+        }
+    }
+
+    static void transfer(FileChannel in, long position, long count, WritableByteChannel out) throws IOException {
+        long transferred = 0;
+        while (transferred < count) {
+            long written = in.transferTo(position + transferred, count - transferred, out);
+            if (written <= 0) {
+                // the file was truncated while it was being sent
+                throw new IOException("Could not transfer the whole file, " + transferred + " of " + count + " bytes sent");
+            }
+            transferred += written;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -115,9 +268,12 @@ public class StaticContentInterceptor extends HandlerInterceptorAdapter {
 
                     res.getHeaders().setContentType(MediaType.parseMediaType(staticContentItem.getContentType()));
 
-                    // http://stackoverflow.com/questions/1587667/should-http-304-not-modified-responses-contain-cache-control-headers
-                    if (isToBeRefreshed(res, req.getHeaders().getIfNotModifiedSince(),
+                    final File file = staticContentItem.getFile();
+                    if (file != null && file.isFile()) {
+                        serveFile(request, req, res, staticContentItem, file);
+                    } else if (isToBeRefreshed(res, req.getHeaders().getIfNotModifiedSince(),
                             staticContentItem.getLastModified(), staticContentItem.isVersioned())) {
+                        // http://stackoverflow.com/questions/1587667/should-http-304-not-modified-responses-contain-cache-control-headers
                         try (final InputStream in = staticContentItem.getContent(); final OutputStream out = res.getBody()) {
                             IOUtils.copy(in, out);
                         }
@@ -134,4 +290,28 @@ public class StaticContentInterceptor extends HandlerInterceptorAdapter {
 
         return true;
     }
+
+    static final class ByteRange {
+
+        private final long start;
+
+        private final long end;
+
+        private ByteRange(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        long getStart() {
+            return start;
+        }
+
+        long getEnd() {
+            return end;
+        }
+
+        long length() {
+            return end - start + 1;
+        }
+    }
 }
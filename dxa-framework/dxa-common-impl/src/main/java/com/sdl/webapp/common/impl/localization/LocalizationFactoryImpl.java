@@ -4,6 +4,8 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.sdl.webapp.common.api.content.ContentProvider;
 import com.sdl.webapp.common.api.content.ContentProviderException;
 import com.sdl.webapp.common.api.content.StaticContentItem;
@@ -13,7 +15,9 @@ import com.sdl.webapp.common.api.localization.LocalizationFactory;
 import com.sdl.webapp.common.api.localization.LocalizationFactoryException;
 import com.sdl.webapp.common.impl.localization.semantics.JsonSchema;
 import com.sdl.webapp.common.impl.localization.semantics.JsonVocabulary;
+import com.sdl.webapp.common.util.ExecutorUtils;
 import com.sdl.webapp.common.util.InitializationUtils;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,12 +25,20 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.WebApplicationContext;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
+import static com.google.common.util.concurrent.Uninterruptibles.getUninterruptibly;
 import static com.sdl.webapp.common.impl.localization.semantics.SemanticsConverter.convertSemantics;
 
 /**
@@ -36,6 +48,13 @@ import static com.sdl.webapp.common.impl.localization.semantics.SemanticsConvert
  * The configuration of a localization is stored in a number of JSON files that are retrieved via the static content
  * provider.
  * </p>
+ * <p>
+ * The files are loaded concurrently if {@code dxa.localization.load.threads} is positive. Parsed files are kept
+ * per localization, and are only read and parsed again if the file was changed (republished) since the last time
+ * a localization was created, which makes refreshing a localization incremental. At most
+ * {@code dxa.localization.parsed.maxFiles} parsed files are kept. The kept JSON trees are never handed out,
+ * every localization gets its own copy.
+ * </p>
  */
 @Component
 public class LocalizationFactoryImpl implements LocalizationFactory {
@@ -70,32 +89,89 @@ public class LocalizationFactoryImpl implements LocalizationFactory {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Value("${dxa.localization.load.threads:4}")
+    private int loadThreads;
+
+    @Value("${dxa.localization.parsed.maxFiles:1000}")
+    private int parsedFilesMaxSize;
+
+    private Cache<ParsedFileKey, ParsedFile> parsedFiles;
+
+    private ExecutorService loadExecutor;
+
+    private static <T> T getLoaded(Future<T> load) throws LocalizationFactoryException {
+        try {
+            return getUninterruptibly(load);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof LocalizationFactoryException) {
+                throw (LocalizationFactoryException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new LocalizationFactoryException("Exception while loading configuration of localization", cause);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        loadExecutor = loadThreads > 0 ? ExecutorUtils.newBoundedExecutor("dxa-localization-load", loadThreads) : null;
+        parsedFiles = CacheBuilder.newBuilder().maximumSize(parsedFilesMaxSize).build();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (loadExecutor != null) {
+            loadExecutor.shutdown();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
-    public Localization createLocalization(String id, String path) throws LocalizationFactoryException {
+    public Localization createLocalization(final String id, final String path) throws LocalizationFactoryException {
         LOG.debug("createLocalization: [{}] {}", id, path);
 
         final LocalizationImpl.Builder builder = LocalizationImpl.newBuilder()
                 .setId(id)
                 .setPath(path);
 
-        loadMainConfiguration(id, path, builder);
-        loadVersion(id, path, builder);
-        loadResources(id, path, builder);
-
-        final List<JsonSchema> semanticSchemas = parseJsonFileObject(contentProvider,
-                SEMANTIC_SCHEMAS_PATH, id, path, new TypeReference<List<JsonSchema>>() {
-                });
-
-        final List<JsonVocabulary> semanticVocabularies = parseJsonFileObject(contentProvider,
-                SEMANTIC_VOCABULARIES_PATH, id, path, new TypeReference<List<JsonVocabulary>>() {
-                });
-
-        builder.addSemanticSchemas(convertSemantics(semanticSchemas, semanticVocabularies));
-
-        loadIncludes(id, path, builder);
+        final List<Future<?>> loads = new ArrayList<>();
+        try {
+            final Future<JsonNode> configRootNode = load(loads,
+                    () -> parseJsonFileTree(contentProvider, CONFIG_BOOTSTRAP_PATH, id, path));
+            final Future<Map<String, String>> configuration = load(loads,
+                    () -> parseJsonSubFiles(contentProvider, getLoaded(configRootNode), id, path));
+            final Future<Map<String, String>> resources = load(loads,
+                    () -> parseJsonSubFiles(contentProvider,
+                            parseJsonFileTree(contentProvider, RESOURCES_BOOTSTRAP_PATH, id, path), id, path));
+            final Future<List<JsonSchema>> semanticSchemas = load(loads,
+                    () -> parseJsonFileObject(contentProvider, SEMANTIC_SCHEMAS_PATH, id, path,
+                            new TypeReference<List<JsonSchema>>() {
+                            }));
+            final Future<List<JsonVocabulary>> semanticVocabularies = load(loads,
+                    () -> parseJsonFileObject(contentProvider, SEMANTIC_VOCABULARIES_PATH, id, path,
+                            new TypeReference<List<JsonVocabulary>>() {
+                            }));
+            final Future<JsonNode> includesRootNode = load(loads,
+                    () -> parseJsonFileTree(contentProvider, INCLUDES_PATH, id, path));
+
+            loadMainConfiguration(getLoaded(configRootNode), getLoaded(configuration), builder);
+            loadVersion(id, path, builder);
+            builder.addResources(getLoaded(resources));
+
+            builder.addSemanticSchemas(convertSemantics(getLoaded(semanticSchemas), getLoaded(semanticVocabularies)));
+
+            loadIncludes(getLoaded(includesRootNode), builder);
+        } finally {
+            // do not leave loads running after a failure
+            ExecutorUtils.awaitAll(loads);
+        }
 
         final Localization localization = builder.build();
         LOG.trace("Created localization: {}", localization);
@@ -103,14 +179,26 @@ public class LocalizationFactoryImpl implements LocalizationFactory {
         return localization;
     }
 
-    private void loadMainConfiguration(String id, String path, LocalizationImpl.Builder builder)
-            throws LocalizationFactoryException {
-        final JsonNode configRootNode = parseJsonFileTree(contentProvider, CONFIG_BOOTSTRAP_PATH, id, path);
+    private <T> Future<T> load(List<Future<?>> loads, Callable<T> load) {
+        final Future<T> future;
+        if (loadExecutor != null) {
+            future = loadExecutor.submit(ExecutorUtils.withRequestContext(load));
+        } else {
+            FutureTask<T> task = new FutureTask<>(load);
+            task.run();
+            future = task;
+        }
+        loads.add(future);
+        return future;
+    }
+
+    private void loadMainConfiguration(JsonNode configRootNode, Map<String, String> configuration,
+                                       LocalizationImpl.Builder builder) {
         builder.setMediaRoot(configRootNode.get(MEDIA_ROOT_NODE_NAME).asText(DEFAULT_MEDIA_ROOT))
                 .setDefault(configRootNode.get(DEFAULT_LOCALIZATION_NODE_NAME).asBoolean(false))
                 .setStaging(configRootNode.get(STAGING_NODE_NAME).asBoolean(false))
                 .addSiteLocalizations(loadSiteLocalizations(configRootNode))
-                .addConfiguration(parseJsonSubFiles(contentProvider, configRootNode, id, path));
+                .addConfiguration(configuration);
     }
 
     private List<SiteLocalizationImpl> loadSiteLocalizations(JsonNode configRootNode) {
@@ -174,15 +262,7 @@ public class LocalizationFactoryImpl implements LocalizationFactory {
         loadVersionFromWebapp(id, path, builder);
     }
 
-    private void loadResources(String id, String path, LocalizationImpl.Builder builder)
-            throws LocalizationFactoryException {
-        final JsonNode resourcesRootNode = parseJsonFileTree(contentProvider, RESOURCES_BOOTSTRAP_PATH, id, path);
-        builder.addResources(parseJsonSubFiles(contentProvider, resourcesRootNode, id, path));
-    }
-
-    private void loadIncludes(String id, String path, LocalizationImpl.Builder builder)
-            throws LocalizationFactoryException {
-        final JsonNode includesRootNode = parseJsonFileTree(contentProvider, INCLUDES_PATH, id, path);
+    private void loadIncludes(JsonNode includesRootNode, LocalizationImpl.Builder builder) {
         final Iterator<Map.Entry<String, JsonNode>> i = includesRootNode.fields();
         while (i.hasNext()) {
             final Map.Entry<String, JsonNode> entry = i.next();
@@ -206,14 +286,16 @@ public class LocalizationFactoryImpl implements LocalizationFactory {
      * @throws com.sdl.webapp.common.api.localization.LocalizationFactoryException if any.
      */
     public <T> T parseJsonFileObject(ContentProvider contentProvider, String filePath, String locId,
-                                     String locPath, TypeReference<T> resultType)
+                                     String locPath, final TypeReference<T> resultType)
             throws LocalizationFactoryException {
+        final JsonNode tree = parseJsonFile(contentProvider, filePath, locId, locPath);
+        if (tree == null) {
+            throw new LocalizationFactoryException("Configuration file " + filePath + " of localization: [" + locId +
+                    "] " + locPath + " is empty");
+        }
         try {
-            final StaticContentItem item = contentProvider.getStaticContent(filePath, locId, locPath);
-            try (final InputStream in = item.getContent()) {
-                return objectMapper.readValue(in, resultType);
-            }
-        } catch (ContentProviderException | IOException e) {
+            return objectMapper.readValue(objectMapper.treeAsTokens(tree), resultType);
+        } catch (IOException e) {
             throw new LocalizationFactoryException("Exception while reading configuration of localization: [" + locId +
                     "] " + locPath, e);
         }
@@ -232,10 +314,31 @@ public class LocalizationFactoryImpl implements LocalizationFactory {
     public JsonNode parseJsonFileTree(ContentProvider contentProvider, String filePath, String locId,
                                       String locPath)
             throws LocalizationFactoryException {
+        final JsonNode tree = parseJsonFile(contentProvider, filePath, locId, locPath);
+        return tree != null ? tree.deepCopy() : null;
+    }
+
+    /**
+     * Returns the parsed JSON tree of the file, which is shared and must not be changed.
+     */
+    @Nullable
+    private JsonNode parseJsonFile(ContentProvider contentProvider, String filePath, String locId, String locPath)
+            throws LocalizationFactoryException {
         try {
             final StaticContentItem item = contentProvider.getStaticContent(filePath, locId, locPath);
+
+            // the file is only re-downloaded when it's republished, so if it's not modified, it is not changed
+            final ParsedFileKey key = new ParsedFileKey(locId, locPath, filePath);
+            final ParsedFile parsedFile = parsedFiles.getIfPresent(key);
+            if (parsedFile != null && parsedFile.getLastModified() == item.getLastModified()) {
+                LOG.trace("File {} of localization [{}] {} is not changed, reusing parsed content", filePath, locId, locPath);
+                return parsedFile.getTree();
+            }
+
             try (final InputStream in = item.getContent()) {
-                return objectMapper.readTree(in);
+                final JsonNode tree = objectMapper.readTree(in);
+                parsedFiles.put(key, new ParsedFile(item.getLastModified(), tree));
+                return tree;
             }
         } catch (ContentProviderException | IOException e) {
             throw new LocalizationFactoryException("Exception while reading configuration of localization: [" + locId +
@@ -253,29 +356,62 @@ public class LocalizationFactoryImpl implements LocalizationFactory {
      * @return a {@link java.util.Map} object.
      * @throws com.sdl.webapp.common.api.localization.LocalizationFactoryException if any.
      */
-    public Map<String, String> parseJsonSubFiles(ContentProvider contentProvider, JsonNode rootNode,
-                                                 String locId, String locPath)
+    public Map<String, String> parseJsonSubFiles(final ContentProvider contentProvider, JsonNode rootNode,
+                                                 final String locId, final String locPath)
             throws LocalizationFactoryException {
         final Map<String, String> map = new HashMap<>();
 
         final JsonNode filesNode = rootNode.get(FILES_NODE_NAME);
-        if (filesNode != null) {
+        if (filesNode == null) {
+            return map;
+        }
+
+        final List<String> subFilePaths = new ArrayList<>();
+        final List<Future<?>> loads = new ArrayList<>();
+        final List<Future<JsonNode>> subFiles = new ArrayList<>();
+        try {
             for (JsonNode subFileNode : filesNode) {
                 final String subFilePath = subFileNode.asText();
                 if (!Strings.isNullOrEmpty(subFilePath)) {
-                    final String prefix = subFilePath.substring(subFilePath.lastIndexOf('/') + 1,
-                            subFilePath.lastIndexOf('.') + 1);
-
-                    final Iterator<Map.Entry<String, JsonNode>> i = parseJsonFileTree(contentProvider,
-                            subFilePath, locId, locPath).fields();
-                    while (i.hasNext()) {
-                        final Map.Entry<String, JsonNode> entry = i.next();
-                        map.put(prefix + entry.getKey(), entry.getValue().asText());
-                    }
+                    subFilePaths.add(subFilePath);
+                    subFiles.add(load(loads, () -> parseJsonFileTree(contentProvider, subFilePath, locId, locPath)));
+                }
+            }
+
+            // merge in the original order, so that the same keys are overridden as before
+            for (int index = 0; index < subFilePaths.size(); index++) {
+                final String subFilePath = subFilePaths.get(index);
+                final String prefix = subFilePath.substring(subFilePath.lastIndexOf('/') + 1,
+                        subFilePath.lastIndexOf('.') + 1);
+
+                final Iterator<Map.Entry<String, JsonNode>> i = getLoaded(subFiles.get(index)).fields();
+                while (i.hasNext()) {
+                    final Map.Entry<String, JsonNode> entry = i.next();
+                    map.put(prefix + entry.getKey(), entry.getValue().asText());
                 }
             }
+        } finally {
+            ExecutorUtils.awaitAll(loads);
         }
 
         return map;
     }
+
+    @lombok.Value
+    private static class ParsedFileKey {
+
+        private String localizationId;
+
+        private String localizationPath;
+
+        private String filePath;
+    }
+
+    @lombok.Value
+    private static class ParsedFile {
+
+        private long lastModified;
+
+        private JsonNode tree;
+    }
 }
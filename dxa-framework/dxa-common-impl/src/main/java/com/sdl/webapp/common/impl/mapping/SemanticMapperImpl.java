@@ -1,40 +1,42 @@
 package com.sdl.webapp.common.impl.mapping;
 
-import com.sdl.webapp.common.api.mapping.semantic.FieldData;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.sdl.webapp.common.api.mapping.semantic.SemanticFieldDataProvider;
 import com.sdl.webapp.common.api.mapping.semantic.SemanticMapper;
 import com.sdl.webapp.common.api.mapping.semantic.SemanticMappingException;
 import com.sdl.webapp.common.api.mapping.semantic.SemanticMappingRegistry;
 import com.sdl.webapp.common.api.mapping.semantic.config.FieldSemantics;
 import com.sdl.webapp.common.api.mapping.semantic.config.SemanticField;
-import com.sdl.webapp.common.api.model.RichText;
 import com.sdl.webapp.common.api.model.ViewModel;
 import com.sdl.webapp.common.api.model.entity.AbstractEntityModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.stereotype.Component;
-import org.springframework.util.ReflectionUtils;
 
-import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Component
 /**
  * <p>SemanticMapperImpl class.</p>
+ * <p>Entities are mapped with a {@link SemanticMappingPlan} compiled once per entity class and semantic fields.</p>
  */
 public class SemanticMapperImpl implements SemanticMapper {
     private static final Logger LOG = LoggerFactory.getLogger(SemanticMapperImpl.class);
 
-    private static final String ALL_PROPERTY = "_all";
-    private static final String SELF_PROPERTY = "_self";
-
     private final SemanticMappingRegistry registry;
 
+    /**
+     * Mapping plans by semantic fields and entity class. Semantic fields are compared by identity and the plans are
+     * kept as long as the semantic fields of their schema are.
+     */
+    private final Cache<Map<FieldSemantics, SemanticField>, ConcurrentMap<Class<?>, SemanticMappingPlan>> mappingPlans =
+            CacheBuilder.newBuilder().weakKeys().build();
+
     /**
      * <p>Constructor for SemanticMapperImpl.</p>
      *
@@ -57,32 +59,22 @@ public class SemanticMapperImpl implements SemanticMapper {
         }
     }
 
-    private static SemanticField findFieldForGivenSemantics(Map<FieldSemantics, SemanticField> fields, FieldSemantics semantics) {
-
-        SemanticField field = fields.get(semantics);
-
-        if (field != null) {
-            return field;
-        }
-
-        for (Map.Entry<FieldSemantics, SemanticField> entry : fields.entrySet()) {
-            FieldSemantics key = entry.getKey();
-
-            if (key.isStandardMetadataField() && Objects.equals(key.getPropertyName(), semantics.getPropertyName())) {
-                return entry.getValue();
+    private SemanticMappingPlan getMappingPlan(Class<?> entityClass, Map<FieldSemantics, SemanticField> semanticFields) {
+        ConcurrentMap<Class<?>, SemanticMappingPlan> plans = mappingPlans.getIfPresent(semanticFields);
+        if (plans == null) {
+            plans = new ConcurrentHashMap<>();
+            ConcurrentMap<Class<?>, SemanticMappingPlan> existing = mappingPlans.asMap().putIfAbsent(semanticFields, plans);
+            if (existing != null) {
+                plans = existing;
             }
         }
 
-        // Search all embedded fields recursively
-        for (SemanticField semanticField : fields.values()) {
-            field = findFieldForGivenSemantics(semanticField.getEmbeddedFields(), semantics);
-
-            if (field != null) {
-                return field;
-            }
+        SemanticMappingPlan plan = plans.get(entityClass);
+        if (plan == null || !plan.isUpToDate(registry)) {
+            plan = SemanticMappingPlan.compile(entityClass, semanticFields, registry);
+            plans.put(entityClass, plan);
         }
-
-        return null;
+        return plan;
     }
 
     /**
@@ -96,109 +88,7 @@ public class SemanticMapperImpl implements SemanticMapper {
         final T entity = createInstance(entityClass);
 
         final Map<String, String> xpmPropertyMetadata = new HashMap<>();
-
-        // Map all the fields (including fields inherited from superclasses) of the entity
-        ReflectionUtils.doWithFields(entityClass, new ReflectionUtils.FieldCallback() {
-            @Override
-            public void doWith(Field field) throws IllegalArgumentException, IllegalAccessException {
-                // Find the semantics for this field
-                final Set<FieldSemantics> registrySemantics = registry.getFieldSemantics(field);
-                if (LOG.isTraceEnabled() && !registrySemantics.isEmpty()) {
-                    LOG.trace("field: {}", field);
-                }
-
-                boolean foundMatch = false;
-
-                // Try getting data using each of the field semantics in order
-                for (FieldSemantics fieldSemantics : registrySemantics) {
-                    // Find the matching semantic field
-                    final SemanticField semanticField = findFieldForGivenSemantics(semanticFields, fieldSemantics);
-                    if (semanticField != null) {
-                        foundMatch = true;
-                        LOG.trace("Match found: {} -> {}", fieldSemantics, semanticField);
-
-                        FieldData fieldData = null;
-                        try {
-                            fieldData = fieldDataProvider.getFieldData(semanticField, new TypeDescriptor(field));
-                        } catch (SemanticMappingException e) {
-                            LOG.error("Exception while getting field data for: " + field, e);
-                        }
-
-                        String xPath = null;
-                        boolean isFieldSet = false;
-                        if (fieldData != null) {
-                            final Object fieldValue = fieldData.getFieldValue();
-                            if (fieldValue != null) {
-                                if (LOG.isTraceEnabled()) {
-                                    LOG.trace("Setting field value: {} -> {}", field.getName(), fieldValue);
-                                }
-
-                                field.setAccessible(true);
-                                if (field.getType().equals(RichText.class) && fieldValue.getClass().equals(String.class)) {
-                                    field.set(entity, new RichText((String) fieldValue));
-                                } else {
-                                    field.set(entity, fieldValue);
-                                }
-
-                                xPath = fieldData.getPropertyData();
-                                isFieldSet = true;
-                            }
-                        }
-
-                        if (xPath == null) {
-                            xPath = semanticField.getXPath("");
-                        }
-                        xpmPropertyMetadata.put(field.getName(), xPath);
-                        if (isFieldSet) {
-                            break;
-                        }
-                    }
-                }
-
-                // Special cases - only try these when nothing was found yet
-                if (!foundMatch) {
-                    for (FieldSemantics fieldSemantics : registrySemantics) {
-                        final String propertyName = fieldSemantics.getPropertyName();
-                        if (propertyName.equals(SELF_PROPERTY)) {
-                            foundMatch = true;
-                            Object fieldData = null;
-                            try {
-                                fieldData = fieldDataProvider.getSelfFieldData(new TypeDescriptor(field));
-                            } catch (SemanticMappingException e) {
-                                LOG.error("Exception while getting self property data for: " + field, e);
-                            }
-
-                            if (fieldData != null) {
-                                field.setAccessible(true);
-                                field.set(entity, fieldData);
-                                break;
-                            }
-                        } else if (propertyName.equals(ALL_PROPERTY)) {
-                            foundMatch = true;
-                            Map<String, String> fieldData = null;
-                            try {
-                                fieldData = fieldDataProvider.getAllFieldData();
-                            } catch (SemanticMappingException e) {
-                                LOG.error("Exception while getting all property data for: " + field, e);
-                            }
-
-                            if (fieldData != null) {
-                                field.setAccessible(true);
-                                field.set(entity, fieldData);
-                                break;
-                            }
-                        }
-                    }
-                }
-
-                if (LOG.isDebugEnabled() && !foundMatch && !registrySemantics.isEmpty()) {
-                    // This not necessarily means there is a problem; for some components in the input, not all fields
-                    // of the entity are mapped
-                    LOG.trace("No match found for field: {}; registry semantics: {} did not match with supplied " +
-                            "semantics: {}", field, registrySemantics, semanticFields);
-                }
-            }
-        });
+        getMappingPlan(entityClass, semanticFields).map(entity, fieldDataProvider, xpmPropertyMetadata);
 
         // Set property data (used for semantic markup)
         if (AbstractEntityModel.class.isAssignableFrom(entity.getClass())) {
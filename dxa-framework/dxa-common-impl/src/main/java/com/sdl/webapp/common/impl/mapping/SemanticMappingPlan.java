@@ -0,0 +1,303 @@
+package com.sdl.webapp.common.impl.mapping;
+
+import com.sdl.webapp.common.api.mapping.semantic.FieldData;
+import com.sdl.webapp.common.api.mapping.semantic.SemanticFieldDataProvider;
+import com.sdl.webapp.common.api.mapping.semantic.SemanticMappingException;
+import com.sdl.webapp.common.api.mapping.semantic.SemanticMappingRegistry;
+import com.sdl.webapp.common.api.mapping.semantic.config.FieldSemantics;
+import com.sdl.webapp.common.api.mapping.semantic.config.SemanticField;
+import com.sdl.webapp.common.api.model.RichText;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Plan of the semantic mapping of an entity class for a set of semantic fields.
+ * <p>The plan is compiled once: the fields of the entity class that have semantics are looked up in the registry,
+ * their semantics are matched with the semantic fields, their type descriptors are created and setters are made for them.
+ * Mapping an entity with the plan is a flat loop over the mapped fields.</p>
+ */
+@Slf4j
+final class SemanticMappingPlan {
+
+    private static final String ALL_PROPERTY = "_all";
+
+    private static final String SELF_PROPERTY = "_self";
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final List<FieldMapping> fieldMappings;
+
+    private final long registryVersion;
+
+    private SemanticMappingPlan(List<FieldMapping> fieldMappings, long registryVersion) {
+        this.fieldMappings = fieldMappings;
+        this.registryVersion = registryVersion;
+    }
+
+    /**
+     * Compiles the plan of the mapping of the entity class.
+     *
+     * @param entityClass    the entity class
+     * @param semanticFields the semantic fields the entities are mapped from
+     * @param registry       the registry with the semantics of the fields
+     * @return the plan
+     */
+    static SemanticMappingPlan compile(Class<?> entityClass, final Map<FieldSemantics, SemanticField> semanticFields,
+                                       final SemanticMappingRegistry registry) {
+        final long registryVersion = registry.getVersion();
+        final List<FieldMapping> fieldMappings = new ArrayList<>();
+
+        // Map all the fields (including fields inherited from superclasses) of the entity
+        ReflectionUtils.doWithFields(entityClass, new ReflectionUtils.FieldCallback() {
+            @Override
+            public void doWith(Field field) {
+                final Set<FieldSemantics> registrySemantics = registry.getFieldSemantics(field);
+                if (!registrySemantics.isEmpty()) {
+                    fieldMappings.add(new FieldMapping(field, registrySemantics, semanticFields));
+                }
+            }
+        });
+
+        log.debug("Compiled semantic mapping plan of {} with {} fields", entityClass.getName(), fieldMappings.size());
+        return new SemanticMappingPlan(fieldMappings, registryVersion);
+    }
+
+    private static SemanticField findFieldForGivenSemantics(Map<FieldSemantics, SemanticField> fields, FieldSemantics semantics) {
+
+        SemanticField field = fields.get(semantics);
+
+        if (field != null) {
+            return field;
+        }
+
+        for (Map.Entry<FieldSemantics, SemanticField> entry : fields.entrySet()) {
+            FieldSemantics key = entry.getKey();
+
+            if (key.isStandardMetadataField() && Objects.equals(key.getPropertyName(), semantics.getPropertyName())) {
+                return entry.getValue();
+            }
+        }
+
+        // Search all embedded fields recursively
+        for (SemanticField semanticField : fields.values()) {
+            field = findFieldForGivenSemantics(semanticField.getEmbeddedFields(), semantics);
+
+            if (field != null) {
+                return field;
+            }
+        }
+
+        return null;
+    }
+
+    private static MethodHandle setter(Field field) {
+        field.setAccessible(true);
+        try {
+            return MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            // final fields have no setter handle, they're set with reflection like before
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether the plan was compiled with the current semantics of the registry.
+     *
+     * @param registry the registry
+     * @return whether the plan is up to date
+     */
+    boolean isUpToDate(SemanticMappingRegistry registry) {
+        return registryVersion == registry.getVersion();
+    }
+
+    /**
+     * Maps the entity.
+     *
+     * @param entity              the new entity
+     * @param fieldDataProvider   provider of the field data
+     * @param xpmPropertyMetadata gets the XPath of each mapped field
+     */
+    void map(Object entity, SemanticFieldDataProvider fieldDataProvider, Map<String, String> xpmPropertyMetadata) {
+        for (FieldMapping fieldMapping : fieldMappings) {
+            fieldMapping.map(entity, fieldDataProvider, xpmPropertyMetadata);
+        }
+    }
+
+    /**
+     * Semantic field matched with semantics of an entity field.
+     */
+    private static final class Match {
+
+        private final FieldSemantics fieldSemantics;
+
+        private final SemanticField semanticField;
+
+        private final String xPath;
+
+        private Match(FieldSemantics fieldSemantics, SemanticField semanticField) {
+            this.fieldSemantics = fieldSemantics;
+            this.semanticField = semanticField;
+            this.xPath = semanticField.getXPath("");
+        }
+    }
+
+    /**
+     * Mapping of an entity field.
+     */
+    private static final class FieldMapping {
+
+        private final Field field;
+
+        private final String name;
+
+        private final TypeDescriptor typeDescriptor;
+
+        private final boolean richText;
+
+        private final MethodHandle setter;
+
+        /**
+         * Semantic fields matched with the semantics of the field, in the order of the semantics.
+         */
+        private final List<Match> matches;
+
+        /**
+         * Special properties of the field ({@code _self} and {@code _all}), used if there are no matches.
+         */
+        private final List<String> specialProperties;
+
+        private final Set<FieldSemantics> registrySemantics;
+
+        private FieldMapping(Field field, Set<FieldSemantics> registrySemantics, Map<FieldSemantics, SemanticField> semanticFields) {
+            this.field = field;
+            this.name = field.getName();
+            this.typeDescriptor = new TypeDescriptor(field);
+            this.richText = field.getType().equals(RichText.class);
+            this.setter = setter(field);
+            this.registrySemantics = registrySemantics;
+
+            List<Match> matches = new ArrayList<>();
+            for (FieldSemantics fieldSemantics : registrySemantics) {
+                final SemanticField semanticField = findFieldForGivenSemantics(semanticFields, fieldSemantics);
+                if (semanticField != null) {
+                    matches.add(new Match(fieldSemantics, semanticField));
+                }
+            }
+            this.matches = matches.isEmpty() ? Collections.<Match>emptyList() : matches;
+
+            List<String> specialProperties = new ArrayList<>();
+            if (matches.isEmpty()) {
+                for (FieldSemantics fieldSemantics : registrySemantics) {
+                    final String propertyName = fieldSemantics.getPropertyName();
+                    if (propertyName.equals(SELF_PROPERTY) || propertyName.equals(ALL_PROPERTY)) {
+                        specialProperties.add(propertyName);
+                    }
+                }
+            }
+            this.specialProperties = specialProperties.isEmpty() ? Collections.<String>emptyList() : specialProperties;
+        }
+
+        private void map(Object entity, SemanticFieldDataProvider fieldDataProvider, Map<String, String> xpmPropertyMetadata) {
+            // Try getting data using each of the matched field semantics in order
+            for (Match match : matches) {
+                log.trace("Match found: {} -> {}", match.fieldSemantics, match.semanticField);
+
+                FieldData fieldData = null;
+                try {
+                    fieldData = fieldDataProvider.getFieldData(match.semanticField, typeDescriptor);
+                } catch (SemanticMappingException e) {
+                    log.error("Exception while getting field data for: " + field, e);
+                }
+
+                String xPath = null;
+                boolean isFieldSet = false;
+                if (fieldData != null) {
+                    final Object fieldValue = fieldData.getFieldValue();
+                    if (fieldValue != null) {
+                        if (log.isTraceEnabled()) {
+                            log.trace("Setting field value: {} -> {}", name, fieldValue);
+                        }
+
+                        set(entity, richText && fieldValue.getClass().equals(String.class) ?
+                                new RichText((String) fieldValue) : fieldValue);
+
+                        xPath = fieldData.getPropertyData();
+                        isFieldSet = true;
+                    }
+                }
+
+                xpmPropertyMetadata.put(name, xPath == null ? match.xPath : xPath);
+                if (isFieldSet) {
+                    return;
+                }
+            }
+
+            // Special cases - only try these when nothing was found
+            for (String propertyName : specialProperties) {
+                if (propertyName.equals(SELF_PROPERTY)) {
+                    Object fieldData = null;
+                    try {
+                        fieldData = fieldDataProvider.getSelfFieldData(typeDescriptor);
+                    } catch (SemanticMappingException e) {
+                        log.error("Exception while getting self property data for: " + field, e);
+                    }
+
+                    if (fieldData != null) {
+                        set(entity, fieldData);
+                        return;
+                    }
+                } else {
+                    Map<String, String> fieldData = null;
+                    try {
+                        fieldData = fieldDataProvider.getAllFieldData();
+                    } catch (SemanticMappingException e) {
+                        log.error("Exception while getting all property data for: " + field, e);
+                    }
+
+                    if (fieldData != null) {
+                        set(entity, fieldData);
+                        return;
+                    }
+                }
+            }
+
+            if (matches.isEmpty() && specialProperties.isEmpty() && log.isTraceEnabled()) {
+                // This not necessarily means there is a problem; for some components in the input, not all fields
+                // of the entity are mapped
+                log.trace("No match found for field: {}; registry semantics: {} did not match with supplied " +
+                        "semantics", field, registrySemantics);
+            }
+        }
+
+        private void set(Object entity, Object value) {
+            try {
+                if (setter != null) {
+                    setter.invokeExact(entity, value);
+                } else {
+                    field.set(entity, value);
+                }
+            } catch (ClassCastException e) {
+                // same exception as setting a value of a wrong type with reflection
+                throw new IllegalArgumentException("Can not set " + field + " to " + value.getClass().getName(), e);
+            } catch (IllegalAccessException e) {
+                ReflectionUtils.handleReflectionException(e);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Exception while setting field " + field, e);
+            }
+        }
+    }
+}
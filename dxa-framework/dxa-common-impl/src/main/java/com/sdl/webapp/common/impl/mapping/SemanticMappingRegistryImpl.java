@@ -1,5 +1,8 @@
 package com.sdl.webapp.common.impl.mapping;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.ListMultimap;
@@ -41,8 +44,18 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the semantics of entity classes.
+ * <p>Lookups read an immutable snapshot of the registrations with reverse indexes, which is built with the first
+ * lookup after entities were registered. Results that depend on the looked up value itself, like entity classes
+ * by fully qualified name, are memoized in the snapshot, so lookups don't allocate once the registration finished.
+ * Registration and building the snapshot are synchronized, lookups with an up-to-date snapshot don't lock.</p>
+ */
 @Slf4j
 @Component
 public class SemanticMappingRegistryImpl implements SemanticMappingRegistry {
@@ -53,6 +66,10 @@ public class SemanticMappingRegistryImpl implements SemanticMappingRegistry {
 
     private final SetMultimap<Field, SemanticPropertyInfo> semanticPropertyInfo = LinkedHashMultimap.create();
 
+    private volatile long version;
+
+    private volatile Indexes indexes;
+
     /**
      * Get all declared fields. If concrete class is annotated as SemanticEntity, the whole inheritance structure is followed.
      *
@@ -185,7 +202,7 @@ public class SemanticMappingRegistryImpl implements SemanticMappingRegistry {
      */
     @Override
     public Set<FieldSemantics> getFieldSemantics(Field field) {
-        return fieldSemanticsMap.containsKey(field) ? fieldSemanticsMap.get(field) : Collections.<FieldSemantics>emptySet();
+        return indexes().fieldSemantics.get(field);
     }
 
     /**
@@ -193,7 +210,18 @@ public class SemanticMappingRegistryImpl implements SemanticMappingRegistry {
      */
     @Override
     public Set<SemanticEntityInfo> getEntityInfo(Class<? extends EntityModel> entityClass) {
-        final Set<SemanticEntityInfo> result = new HashSet<>();
+        final Indexes indexes = indexes();
+        Set<SemanticEntityInfo> result = indexes.entityInfo.get(entityClass);
+        if (result == null) {
+            result = collectEntityInfo(indexes.semanticEntityInfo, entityClass);
+            indexes.entityInfo.put(entityClass, result);
+        }
+        return result;
+    }
+
+    private static Set<SemanticEntityInfo> collectEntityInfo(ImmutableSetMultimap<Class<? extends EntityModel>, SemanticEntityInfo> semanticEntityInfo,
+                                                             Class<? extends EntityModel> entityClass) {
+        final ImmutableSet.Builder<SemanticEntityInfo> result = ImmutableSet.builder();
 
         // Get semantic entity info of this class and all superclasses (that implement interface Entity)
         Class<? extends EntityModel> cls = entityClass;
@@ -203,7 +231,7 @@ public class SemanticMappingRegistryImpl implements SemanticMappingRegistry {
             cls = EntityModel.class.isAssignableFrom(superclass) ? superclass.asSubclass(EntityModel.class) : null;
         }
 
-        return result;
+        return result.build();
     }
 
     /**
@@ -211,7 +239,7 @@ public class SemanticMappingRegistryImpl implements SemanticMappingRegistry {
      */
     @Override
     public Set<SemanticPropertyInfo> getPropertyInfo(Field field) {
-        return semanticPropertyInfo.get(field);
+        return indexes().semanticPropertyInfo.get(field);
     }
 
     /**
@@ -245,7 +273,7 @@ public class SemanticMappingRegistryImpl implements SemanticMappingRegistry {
      * {@inheritDoc}
      */
     @Override
-    public void registerEntity(Class<? extends EntityModel> entityClass) {
+    public synchronized void registerEntity(Class<? extends EntityModel> entityClass) {
         // Ignore classes that have a @SemanticMappingIgnore annotation
         if (entityClass.getAnnotation(SemanticMappingIgnore.class) != null) {
             log.debug("Ignoring entity class: {}", entityClass);
@@ -293,6 +321,15 @@ public class SemanticMappingRegistryImpl implements SemanticMappingRegistry {
                 fieldSemanticsMap.put(field, fieldSemantics);
             }
         }
+        version++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getVersion() {
+        return version;
     }
 
     /**
@@ -300,15 +337,7 @@ public class SemanticMappingRegistryImpl implements SemanticMappingRegistry {
      */
     @Override
     public Class<? extends EntityModel> getEntityClass(String entityName) {
-        for (Class<? extends EntityModel> entityClass : semanticEntityInfo.keys()) {
-            Set<SemanticEntityInfo> entityInfoList = semanticEntityInfo.get(entityClass);
-            for (SemanticEntityInfo entityInfo : entityInfoList) {
-                if (entityInfo.getEntityName().equals(entityName)) {
-                    return entityClass;
-                }
-            }
-        }
-        return null;
+        return indexes().entityClassesByName.get(entityName);
     }
 
     /**
@@ -316,7 +345,20 @@ public class SemanticMappingRegistryImpl implements SemanticMappingRegistry {
      */
     @Override
     public Class<? extends EntityModel> getEntityClassByFullyQualifiedName(String entityName) {
+        final Indexes indexes = indexes();
+        Optional<Class<? extends EntityModel>> result = indexes.entityClassesByFullyQualifiedName.get(entityName);
+        if (result == null) {
+            result = Optional.ofNullable(findEntityClassByFullyQualifiedName(indexes.semanticEntityInfo, entityName));
+            indexes.entityClassesByFullyQualifiedName.put(entityName, result);
+        }
+        return result.orElse(null);
+    }
 
+    /**
+     * Names match entities by their vocabulary and a suffix, so they can't be indexed before they are looked up.
+     */
+    private static Class<? extends EntityModel> findEntityClassByFullyQualifiedName(ImmutableSetMultimap<Class<? extends EntityModel>, SemanticEntityInfo> semanticEntityInfo,
+                                                                                  String entityName) {
         String entitySimpleName = entityName.substring(entityName.lastIndexOf(":") + 1);
         Set<Class<? extends EntityModel>> possibleValues = new LinkedHashSet<>();
 
@@ -335,4 +377,65 @@ public class SemanticMappingRegistryImpl implements SemanticMappingRegistry {
 
         return possibleValues.isEmpty() ? null : possibleValues.iterator().next();
     }
+
+    private Indexes indexes() {
+        Indexes indexes = this.indexes;
+        if (indexes == null || indexes.version != version) {
+            // the registrations are copied under the lock of the registration, so they don't change while copied
+            synchronized (this) {
+                indexes = this.indexes;
+                if (indexes == null || indexes.version != version) {
+                    indexes = new Indexes(version, fieldSemanticsMap, semanticEntityInfo, semanticPropertyInfo);
+                    this.indexes = indexes;
+                }
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Immutable snapshot of the registrations with reverse indexes.
+     */
+    private static final class Indexes {
+
+        private final long version;
+
+        private final ImmutableSetMultimap<Field, FieldSemantics> fieldSemantics;
+
+        private final ImmutableSetMultimap<Class<? extends EntityModel>, SemanticEntityInfo> semanticEntityInfo;
+
+        private final ImmutableSetMultimap<Field, SemanticPropertyInfo> semanticPropertyInfo;
+
+        /**
+         * Entity classes by entity name, the first registered class for each name.
+         */
+        private final ImmutableMap<String, Class<? extends EntityModel>> entityClassesByName;
+
+        /**
+         * Entity info of entity classes including their superclasses, memoized when looked up.
+         */
+        private final ConcurrentMap<Class<? extends EntityModel>, Set<SemanticEntityInfo>> entityInfo = new ConcurrentHashMap<>();
+
+        /**
+         * Entity classes by fully qualified names, memoized when looked up.
+         */
+        private final ConcurrentMap<String, Optional<Class<? extends EntityModel>>> entityClassesByFullyQualifiedName = new ConcurrentHashMap<>();
+
+        private Indexes(long version, SetMultimap<Field, FieldSemantics> fieldSemantics,
+                        SetMultimap<Class<? extends EntityModel>, SemanticEntityInfo> semanticEntityInfo,
+                        SetMultimap<Field, SemanticPropertyInfo> semanticPropertyInfo) {
+            this.version = version;
+            this.fieldSemantics = ImmutableSetMultimap.copyOf(fieldSemantics);
+            this.semanticEntityInfo = ImmutableSetMultimap.copyOf(semanticEntityInfo);
+            this.semanticPropertyInfo = ImmutableSetMultimap.copyOf(semanticPropertyInfo);
+
+            Map<String, Class<? extends EntityModel>> entityClassesByName = new LinkedHashMap<>();
+            for (Map.Entry<Class<? extends EntityModel>, SemanticEntityInfo> entry : this.semanticEntityInfo.entries()) {
+                if (!entityClassesByName.containsKey(entry.getValue().getEntityName())) {
+                    entityClassesByName.put(entry.getValue().getEntityName(), entry.getKey());
+                }
+            }
+            this.entityClassesByName = ImmutableMap.copyOf(entityClassesByName);
+        }
+    }
 }
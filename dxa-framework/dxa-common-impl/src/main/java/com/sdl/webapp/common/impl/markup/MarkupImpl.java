@@ -2,6 +2,7 @@ package com.sdl.webapp.common.impl.markup;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
 import com.sdl.webapp.common.api.WebRequestContext;
 import com.sdl.webapp.common.api.localization.Localization;
 import com.sdl.webapp.common.api.mapping.semantic.SemanticMappingRegistry;
@@ -16,6 +17,7 @@ import com.sdl.webapp.common.markup.html.HtmlAttribute;
 import com.sdl.webapp.common.markup.html.HtmlElement;
 import com.sdl.webapp.common.markup.html.builders.SimpleElementBuilder;
 import com.sdl.webapp.common.util.LocalizationUtils;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.Nullable;
 import org.joda.time.DateTime;
@@ -25,15 +27,19 @@ import org.joda.time.format.DateTimeFormat;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ReflectionUtils;
+import org.springframework.web.util.HtmlUtils;
 
 import java.lang.reflect.Field;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.base.Strings.nullToEmpty;
@@ -50,6 +56,8 @@ public class MarkupImpl implements Markup {
 
     private final WebRequestContext webRequestContext;
 
+    private final ConcurrentMap<Class<? extends EntityModel>, SemanticMarkup> semanticMarkups = new ConcurrentHashMap<>();
+
     /**
      * <p>Constructor for MarkupImpl.</p>
      *
@@ -138,25 +146,7 @@ public class MarkupImpl implements Markup {
      */
     @Override
     public String entity(EntityModel entity) {
-        final List<String> vocabularies = new ArrayList<>();
-        final List<String> entityTypes = new ArrayList<>();
-
-        for (SemanticEntityInfo entityInfo : semanticMappingRegistry.getEntityInfo(entity.getClass())) {
-            if (entityInfo.isPublic()) {
-                final String prefix = entityInfo.getPrefix();
-                if (!Strings.isNullOrEmpty(prefix)) {
-                    vocabularies.add(prefix + ": " + entityInfo.getVocabulary());
-                    entityTypes.add(prefix + ':' + entityInfo.getEntityName());
-                }
-            }
-        }
-
-        if (!vocabularies.isEmpty()) {
-            return new HtmlAttribute("prefix", Joiner.on(' ').join(vocabularies)).toHtml() +
-                    ' ' + new HtmlAttribute("typeof", Joiner.on(' ').join(entityTypes)).toHtml();
-        }
-
-        return "";
+        return getSemanticMarkup(entity.getClass()).getEntity();
     }
 
     /**
@@ -175,41 +165,20 @@ public class MarkupImpl implements Markup {
 
         final Class<? extends EntityModel> entityClass = entity.getClass();
 
-        final Field field = ReflectionUtils.findField(entityClass, fieldName);
-        if (field == null) {
+        final String propertyMarkup = getSemanticMarkup(entityClass).getProperties().get(fieldName);
+        if (propertyMarkup == null) {
             log.warn("Entity of type {} does not contain a field named {}", entityClass.getName(), fieldName);
             return "";
         }
 
-        final Set<String> publicPrefixes = new HashSet<>();
-        for (SemanticEntityInfo entityInfo : semanticMappingRegistry.getEntityInfo(entityClass)) {
-            if (entityInfo.isPublic()) {
-                final String prefix = entityInfo.getPrefix();
-                if (!Strings.isNullOrEmpty(prefix)) {
-                    publicPrefixes.add(prefix);
-                }
-            }
-        }
-
-        final List<String> propertyTypes = new ArrayList<>();
-        for (SemanticPropertyInfo propertyInfo : semanticMappingRegistry.getPropertyInfo(field)) {
-            final String prefix = propertyInfo.getPrefix();
-            if (publicPrefixes.contains(prefix)) {
-                propertyTypes.add(prefix + ':' + propertyInfo.getPropertyName());
-            }
-        }
-
-        String markup = "";
-        if (!propertyTypes.isEmpty()) {
-            markup += new HtmlAttribute("property", Joiner.on(' ').join(propertyTypes)).toHtml();
-        }
+        String markup = propertyMarkup;
         if (webRequestContext.isPreview()) {
             final Map<String, String> propertyData = entity.getXpmPropertyMetadata();
             if (propertyData != null) {
                 String xpath = propertyData.get(fieldName);
                 if (!Strings.isNullOrEmpty(xpath)) {
                     xpath += xpath.endsWith("]") ? "" : ("[" + (index + 1) + ']');
-                    markup += ' ' + new HtmlAttribute("data-entity-property-xpath", xpath).toHtml();
+                    markup += " data-entity-property-xpath=\"" + HtmlUtils.htmlEscape(xpath) + '"';
                 }
             }
         }
@@ -217,6 +186,18 @@ public class MarkupImpl implements Markup {
         return markup;
     }
 
+    /**
+     * Returns the semantic markup of the entity class, which is computed once for each version of the registry.
+     */
+    private SemanticMarkup getSemanticMarkup(Class<? extends EntityModel> entityClass) {
+        SemanticMarkup semanticMarkup = semanticMarkups.get(entityClass);
+        if (semanticMarkup == null || semanticMarkup.getRegistryVersion() != semanticMappingRegistry.getVersion()) {
+            semanticMarkup = SemanticMarkup.compile(entityClass, semanticMappingRegistry);
+            semanticMarkups.put(entityClass, semanticMarkup);
+        }
+        return semanticMarkup;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -284,4 +265,68 @@ public class MarkupImpl implements Markup {
     public WebRequestContext getWebRequestContext() {
         return webRequestContext;
     }
+
+    /**
+     * Semantic attributes of an entity class and of its fields, which don't depend on the entity.
+     */
+    @Value
+    private static class SemanticMarkup {
+
+        private String entity;
+
+        /**
+         * Attributes of the fields by field name, a field of a subclass hides the fields of its superclasses.
+         */
+        private Map<String, String> properties;
+
+        private long registryVersion;
+
+        private static SemanticMarkup compile(Class<? extends EntityModel> entityClass, final SemanticMappingRegistry registry) {
+            final long registryVersion = registry.getVersion();
+
+            final List<String> vocabularies = new ArrayList<>();
+            final List<String> entityTypes = new ArrayList<>();
+            final Set<String> publicPrefixes = new HashSet<>();
+            for (SemanticEntityInfo entityInfo : registry.getEntityInfo(entityClass)) {
+                if (entityInfo.isPublic()) {
+                    final String prefix = entityInfo.getPrefix();
+                    if (!Strings.isNullOrEmpty(prefix)) {
+                        vocabularies.add(prefix + ": " + entityInfo.getVocabulary());
+                        entityTypes.add(prefix + ':' + entityInfo.getEntityName());
+                        publicPrefixes.add(prefix);
+                    }
+                }
+            }
+
+            String entity = "";
+            if (!vocabularies.isEmpty()) {
+                entity = new HtmlAttribute("prefix", Joiner.on(' ').join(vocabularies)).toHtml() +
+                        ' ' + new HtmlAttribute("typeof", Joiner.on(' ').join(entityTypes)).toHtml();
+            }
+
+            // fields are visited from the entity class up to its superclasses, like ReflectionUtils.findField
+            final Map<String, String> properties = new HashMap<>();
+            ReflectionUtils.doWithFields(entityClass, new ReflectionUtils.FieldCallback() {
+                @Override
+                public void doWith(Field field) {
+                    if (properties.containsKey(field.getName())) {
+                        return;
+                    }
+
+                    final List<String> propertyTypes = new ArrayList<>();
+                    for (SemanticPropertyInfo propertyInfo : registry.getPropertyInfo(field)) {
+                        final String prefix = propertyInfo.getPrefix();
+                        if (publicPrefixes.contains(prefix)) {
+                            propertyTypes.add(prefix + ':' + propertyInfo.getPropertyName());
+                        }
+                    }
+
+                    properties.put(field.getName(), propertyTypes.isEmpty() ? "" :
+                            new HtmlAttribute("property", Joiner.on(' ').join(propertyTypes)).toHtml());
+                }
+            });
+
+            return new SemanticMarkup(entity, ImmutableMap.copyOf(properties), registryVersion);
+        }
+    }
 }
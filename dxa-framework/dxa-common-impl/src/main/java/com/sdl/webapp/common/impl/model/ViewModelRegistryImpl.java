@@ -1,7 +1,5 @@
 package com.sdl.webapp.common.impl.model;
 
-import com.google.common.base.Predicate;
-import com.google.common.collect.Maps;
 import com.sdl.webapp.common.api.mapping.semantic.SemanticMappingRegistry;
 import com.sdl.webapp.common.api.model.EntityModel;
 import com.sdl.webapp.common.api.model.MvcData;
@@ -14,15 +12,25 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static com.sdl.webapp.common.api.model.mvcdata.DefaultsMvcData.getDefaultAreaName;
 
+/**
+ * Registry of the view models by views.
+ * <p>Views are registered under a lock, lookups read indexes of the registered views by (area, controller, view),
+ * (view, controller), (area, view) and view without locking. Each index keeps the first view model registered for
+ * its key. View models of semantic type names are memoized until views or semantic entities are registered.</p>
+ */
 @Component
 public class ViewModelRegistryImpl implements ViewModelRegistry {
 
@@ -30,11 +38,30 @@ public class ViewModelRegistryImpl implements ViewModelRegistry {
 
     private static final Map<MvcData, Class<? extends ViewModel>> viewEntityClassMap = new HashMap<>();
 
+    private static final ConcurrentMap<List<String>, Class<? extends ViewModel>> byAreaControllerView = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<List<String>, Class<? extends ViewModel>> byViewController = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<List<String>, Class<? extends ViewModel>> byAreaView = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<String, Class<? extends ViewModel>> byView = new ConcurrentHashMap<>();
+
     private static Lock lock = new ReentrantLock();
 
+    /**
+     * Changes whenever a view is registered, invalidates the memoized semantic type names.
+     */
+    private static volatile long viewsVersion;
+
+    private final ConcurrentMap<String, MappedModelType> mappedModelTypes = new ConcurrentHashMap<>();
+
     @Autowired
     private SemanticMappingRegistry semanticMappingRegistry;
 
+    private static List<String> key(String... names) {
+        return Arrays.asList(names);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -51,22 +78,12 @@ public class ViewModelRegistryImpl implements ViewModelRegistry {
             areaName = parts[0];
             scopedViewName = parts[1];
         }
-        Predicate<Map.Entry<MvcData, Class<? extends ViewModel>>> keyNamePredicate =
-                new Predicate<Map.Entry<MvcData, Class<? extends ViewModel>>>() {
-                    @Override
-                    public boolean apply(Map.Entry<MvcData, Class<? extends ViewModel>> input) {
-                        return input.getKey().getAreaName().equals(areaName) && input.getKey().getViewName().equals(scopedViewName);
-                    }
-                };
-
 
-        Map<MvcData, Class<? extends ViewModel>> possibleValues = Maps.filterEntries(viewEntityClassMap, keyNamePredicate);
-        if (possibleValues.isEmpty()) {
+        Class<? extends ViewModel> viewModelType = byAreaView.get(key(areaName, scopedViewName));
+        if (viewModelType == null) {
             throw new DxaException(String.format("Could not find a view model for the view name %s", viewName));
-        } else {
-            return possibleValues.entrySet().iterator().next().getValue();
         }
-
+        return viewModelType;
     }
 
     /** {@inheritDoc} */
@@ -89,7 +106,19 @@ public class ViewModelRegistryImpl implements ViewModelRegistry {
     /** {@inheritDoc} */
     @Override
     public Class<? extends ViewModel> getMappedModelTypes(String semanticTypeName) {
+        // read the versions before the lookup, a registration in between makes the memo stale
+        final long viewsVersion = ViewModelRegistryImpl.viewsVersion;
+        final long registryVersion = semanticMappingRegistry.getVersion();
+
+        MappedModelType mapped = mappedModelTypes.get(semanticTypeName);
+        if (mapped == null || mapped.viewsVersion != viewsVersion || mapped.registryVersion != registryVersion) {
+            mapped = new MappedModelType(lookupMappedModelType(semanticTypeName), viewsVersion, registryVersion);
+            mappedModelTypes.put(semanticTypeName, mapped);
+        }
+        return mapped.viewModelType;
+    }
 
+    private Class<? extends ViewModel> lookupMappedModelType(String semanticTypeName) {
         Class<? extends ViewModel> retval = this.semanticMappingRegistry.getEntityClassByFullyQualifiedName(semanticTypeName);
         if (retval != null) {
             return retval;
@@ -104,36 +133,17 @@ public class ViewModelRegistryImpl implements ViewModelRegistry {
      */
     @Override
     public Class<? extends ViewModel> getViewModelType(final MvcData viewData) {
-
-        Predicate<Map.Entry<MvcData, Class<? extends ViewModel>>> keyNamePredicate =
-                new Predicate<Map.Entry<MvcData, Class<? extends ViewModel>>>() {
-                    @Override
-                    public boolean apply(Map.Entry<MvcData, Class<? extends ViewModel>> input) {
-                        MvcData thisKey = input.getKey();
-                        return thisKey.getViewName().equals(viewData.getViewName()) &&
-                                thisKey.getControllerName().equals(viewData.getControllerName()) &&
-                                thisKey.getAreaName().equals(viewData.getAreaName());
-                    }
-                };
-        Predicate<Map.Entry<MvcData, Class<? extends ViewModel>>> keyNamePredicateNoArea =
-                new Predicate<Map.Entry<MvcData, Class<? extends ViewModel>>>() {
-                    @Override
-                    public boolean apply(Map.Entry<MvcData, Class<? extends ViewModel>> input) {
-                        MvcData thisKey = input.getKey();
-                        return thisKey.getViewName().equals(viewData.getViewName()) &&
-                                (thisKey.getControllerName().equals(viewData.getControllerName()) || viewData.getControllerName() == null);
-                    }
-                };
-        Map<MvcData, Class<? extends ViewModel>> possibleValues = Maps.filterEntries(viewEntityClassMap, keyNamePredicate);
-        if (possibleValues.isEmpty()) {
+        Class<? extends ViewModel> viewModelType = byAreaControllerView.get(
+                key(viewData.getAreaName(), viewData.getControllerName(), viewData.getViewName()));
+        if (viewModelType == null) {
             //first let's see if there is another relevant view
-            possibleValues = Maps.filterEntries(viewEntityClassMap, keyNamePredicateNoArea);
-        }
-        if (possibleValues.isEmpty()) {
-            return null;
-        } else {
-            return possibleValues.entrySet().iterator().next().getValue();
+            if (viewData.getControllerName() != null) {
+                viewModelType = byViewController.get(key(viewData.getViewName(), viewData.getControllerName()));
+            } else if (viewData.getViewName() != null) {
+                viewModelType = byView.get(viewData.getViewName());
+            }
         }
+        return viewModelType;
     }
 
     /**
@@ -149,8 +159,10 @@ public class ViewModelRegistryImpl implements ViewModelRegistry {
                         return;
                     }
                     viewEntityClassMap.put(viewData, entityClass);
+                    index(viewData, entityClass);
                 }
                 semanticMappingRegistry.registerEntity((Class<? extends EntityModel>) entityClass);
+                viewsVersion++;
             }
         } catch (InterruptedException e) {
             LOG.warn(e.getMessage(), e);
@@ -158,4 +170,35 @@ public class ViewModelRegistryImpl implements ViewModelRegistry {
             lock.unlock();
         }
     }
+
+    private static void index(MvcData viewData, Class<? extends ViewModel> entityClass) {
+        String areaName = viewData.getAreaName();
+        String controllerName = viewData.getControllerName();
+        String viewName = viewData.getViewName();
+
+        byAreaControllerView.putIfAbsent(key(areaName, controllerName, viewName), entityClass);
+        byViewController.putIfAbsent(key(viewName, controllerName), entityClass);
+        byAreaView.putIfAbsent(key(areaName, viewName), entityClass);
+        if (viewName != null) {
+            byView.putIfAbsent(viewName, entityClass);
+        }
+    }
+
+    /**
+     * View model of a semantic type name with the versions of the registrations it was looked up with.
+     */
+    private static final class MappedModelType {
+
+        private final Class<? extends ViewModel> viewModelType;
+
+        private final long viewsVersion;
+
+        private final long registryVersion;
+
+        private MappedModelType(Class<? extends ViewModel> viewModelType, long viewsVersion, long registryVersion) {
+            this.viewModelType = viewModelType;
+            this.viewsVersion = viewsVersion;
+            this.registryVersion = registryVersion;
+        }
+    }
 }
@@ -42,7 +42,7 @@ public class EntitiesTag extends AbstractMarkupTag {
                 pageContext.getRequest().setAttribute("_entity_", entity);
                 webRequestContext.pushParentRegion(parentRegion);
                 webRequestContext.pushContainerSize(containerSize);
-                this.decorateInclude(ControllerUtils.getIncludePath(entity), entity);
+                this.decorateEntityInclude(ControllerUtils.getIncludePath(entity), entity);
             } catch (ServletException | IOException e) {
                 LOG.error("Error while processing entities tag", e);
                 decorateException(entity);
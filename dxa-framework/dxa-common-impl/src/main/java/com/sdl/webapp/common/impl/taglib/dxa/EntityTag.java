@@ -49,7 +49,7 @@ public class EntityTag extends AbstractMarkupTag {
             pageContext.getRequest().setAttribute("_entity_", entity);
 
             webRequestContext.pushContainerSize(containerSize);
-            this.decorateInclude(ControllerUtils.getIncludePath(entity), entity);
+            this.decorateEntityInclude(ControllerUtils.getIncludePath(entity), entity);
         } catch (ServletException | IOException e) {
             LOG.error("Error while processing entity tag", e);
             decorateException(entity);
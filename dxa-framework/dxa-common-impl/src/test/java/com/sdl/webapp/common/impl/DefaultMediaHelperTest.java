@@ -92,6 +92,21 @@ public class DefaultMediaHelperTest {
         assertThat(mediaHelper.getResponsiveImageUrl("/example.jpg", "641", 2.5, 12), is("/example_w1024_h410_n.jpg"));
     }
 
+    @Test
+    public void shouldBuildResizedImageUrl_SameAsResponsiveImageUrl() {
+        //given
+        when(webRequestContext.getDisplayWidth()).thenReturn(1920);
+        when(webRequestContext.getPixelRatio()).thenReturn(1.0);
+        when(webRequestContext.getMaxMediaWidth()).thenReturn(2048);
+
+        //when
+        //then
+        assertEquals(mediaHelper.getResponsiveImageUrl("/example.jpg", "100%", 3.3, 12),
+                mediaHelper.getResizedImageUrl("/example.jpg", 2048, 3.3));
+        assertThat(mediaHelper.getResizedImageUrl("/example.jpg", 320, 0), is("/example_w320_n.jpg"));
+        assertThat(mediaHelper.getImageWidths()[0], is(160));
+    }
+
     @Test
     public void shouldCorrectlyGiveBreakPointsForWidths() {
         assertEquals(roundWidth(100), 160);
@@ -0,0 +1,317 @@
+package com.sdl.webapp.common.impl.interceptor;
+
+import com.sdl.webapp.common.api.WebRequestContext;
+import com.sdl.webapp.common.api.content.ContentProvider;
+import com.sdl.webapp.common.api.content.StaticContentItem;
+import com.sdl.webapp.common.api.localization.Localization;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StaticContentInterceptorTest {
+
+    private static final String PATH = "/media/file.pdf";
+
+    private static final long LAST_MODIFIED = 1_450_000_000_000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private byte[] content;
+
+    private File file;
+
+    private StaticContentInterceptor interceptor;
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static StaticContentItem staticContentItem(final File file) {
+        return new StaticContentItem() {
+            @Override
+            public long getLastModified() {
+                return LAST_MODIFIED;
+            }
+
+            @Override
+            public String getContentType() {
+                return "application/pdf";
+            }
+
+            @Override
+            public InputStream getContent() throws IOException {
+                return new FileInputStream(file);
+            }
+
+            @Override
+            public boolean isVersioned() {
+                return false;
+            }
+
+            @Override
+            public File getFile() {
+                return file;
+            }
+        };
+    }
+
+    @Before
+    public void init() throws Exception {
+        content = randomBytes(1000);
+        file = folder.newFile("file.pdf");
+        Files.write(file.toPath(), content);
+
+        Localization localization = mock(Localization.class);
+        when(localization.isStaticContent(PATH)).thenReturn(true);
+        when(localization.getId()).thenReturn("1");
+        when(localization.getPath()).thenReturn("/");
+
+        WebRequestContext webRequestContext = mock(WebRequestContext.class);
+        when(webRequestContext.getRequestPath()).thenReturn(PATH);
+        when(webRequestContext.getLocalization()).thenReturn(localization);
+
+        ContentProvider contentProvider = mock(ContentProvider.class);
+        when(contentProvider.getStaticContent(PATH, "1", "/")).thenReturn(staticContentItem(file));
+
+        interceptor = new StaticContentInterceptor();
+        ReflectionTestUtils.setField(interceptor, "contentProvider", contentProvider);
+        ReflectionTestUtils.setField(interceptor, "webRequestContext", webRequestContext);
+    }
+
+    private MockHttpServletResponse handle(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request, response, null));
+        return response;
+    }
+
+    private String eTag() throws Exception {
+        return (String) handle(new MockHttpServletRequest("GET", PATH)).getHeader("ETag");
+    }
+
+    @Test
+    public void shouldServeWholeFileWithStrongETag() throws Exception {
+        //when
+        MockHttpServletResponse response = handle(new MockHttpServletRequest("GET", PATH));
+
+        //then
+        assertEquals(200, response.getStatus());
+        assertEquals("\"" + Long.toHexString(LAST_MODIFIED) + "-3e8\"", response.getHeader("ETag"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertEquals(1000, response.getContentLength());
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void shouldReturnNotModifiedIfETagMatches() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PATH);
+        request.addHeader("If-None-Match", eTag());
+
+        //when
+        MockHttpServletResponse response = handle(request);
+
+        //then
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void shouldServeWholeFileIfETagDoesNotMatchEvenIfNotModifiedSince() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PATH);
+        request.addHeader("If-None-Match", "\"other\"");
+        request.addHeader("If-Modified-Since", "Sun, 13 Dec 2015 09:46:40 GMT");
+
+        //when
+        MockHttpServletResponse response = handle(request);
+
+        //then
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void shouldServeRequestedRange() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PATH);
+        request.addHeader("Range", "bytes=100-199");
+
+        //when
+        MockHttpServletResponse response = handle(request);
+
+        //then
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 100-199/1000", response.getHeader("Content-Range"));
+        assertEquals(100, response.getContentLength());
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), response.getContentAsByteArray());
+    }
+
+    @Test
+    public void shouldServeSuffixAndOpenEndedRanges() throws Exception {
+        //given
+        MockHttpServletRequest suffix = new MockHttpServletRequest("GET", PATH);
+        suffix.addHeader("Range", "bytes=-10");
+        MockHttpServletRequest openEnded = new MockHttpServletRequest("GET", PATH);
+        openEnded.addHeader("Range", "bytes=995-");
+
+        //when
+        MockHttpServletResponse suffixResponse = handle(suffix);
+        MockHttpServletResponse openEndedResponse = handle(openEnded);
+
+        //then
+        assertEquals("bytes 990-999/1000", suffixResponse.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(content, 990, 1000), suffixResponse.getContentAsByteArray());
+        assertEquals("bytes 995-999/1000", openEndedResponse.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(content, 995, 1000), openEndedResponse.getContentAsByteArray());
+    }
+
+    @Test
+    public void shouldRejectUnsatisfiableRange() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PATH);
+        request.addHeader("Range", "bytes=1000-");
+
+        //when
+        MockHttpServletResponse response = handle(request);
+
+        //then
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */1000", response.getHeader("Content-Range"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void shouldServeWholeFileIfRangeIsStaleOrNotSupported() throws Exception {
+        //given
+        MockHttpServletRequest stale = new MockHttpServletRequest("GET", PATH);
+        stale.addHeader("Range", "bytes=0-9");
+        stale.addHeader("If-Range", "\"stale\"");
+        MockHttpServletRequest multiple = new MockHttpServletRequest("GET", PATH);
+        multiple.addHeader("Range", "bytes=0-9,20-29");
+
+        //when
+        MockHttpServletResponse staleResponse = handle(stale);
+        MockHttpServletResponse multipleResponse = handle(multiple);
+
+        //then
+        assertEquals(200, staleResponse.getStatus());
+        assertArrayEquals(content, staleResponse.getContentAsByteArray());
+        assertEquals(200, multipleResponse.getStatus());
+        assertArrayEquals(content, multipleResponse.getContentAsByteArray());
+    }
+
+    @Test
+    public void shouldLetContainerSendFileIfSupported() throws Exception {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", PATH);
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=10-19");
+
+        //when
+        MockHttpServletResponse response = handle(request);
+
+        //then
+        assertEquals(206, response.getStatus());
+        assertEquals(file.getAbsolutePath(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(20L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void shouldNotSendBodyForHeadRequest() throws Exception {
+        //when
+        MockHttpServletResponse response = handle(new MockHttpServletRequest("HEAD", PATH));
+
+        //then
+        assertEquals(200, response.getStatus());
+        assertEquals(1000, response.getContentLength());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertNull(response.getHeader("Content-Range"));
+    }
+
+    /**
+     * Compares the throughput of sending a file with {@link FileChannel#transferTo} to the copy loop through the heap.
+     * Run with {@code -Ddxa.benchmark=true}.
+     */
+    @Test
+    public void benchmarkTransferToAgainstCopyLoop() throws Exception {
+        Assume.assumeTrue(Boolean.getBoolean("dxa.benchmark"));
+
+        File large = folder.newFile("large.bin");
+        Files.write(large.toPath(), randomBytes(32 * 1024 * 1024));
+        final int iterations = 50;
+
+        for (int warmUp = 0; warmUp < 2; warmUp++) {
+            copyLoop(large, iterations / 5);
+            transferTo(large, iterations / 5);
+        }
+
+        long copyLoopNanos = copyLoop(large, iterations);
+        long transferToNanos = transferTo(large, iterations);
+
+        double megabytes = iterations * large.length() / (1024.0 * 1024.0);
+        System.out.printf("Copy loop:  %.1f MB/s%n", megabytes / (copyLoopNanos / 1e9));
+        System.out.printf("transferTo: %.1f MB/s%n", megabytes / (transferToNanos / 1e9));
+    }
+
+    private static long copyLoop(File file, int iterations) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            try (InputStream in = new FileInputStream(file); OutputStream out = new DiscardingOutputStream()) {
+                IOUtils.copy(in, out);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long transferTo(File file, int iterations) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                 OutputStream out = new DiscardingOutputStream()) {
+                StaticContentInterceptor.transfer(in, 0, in.size(), Channels.newChannel(out));
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static class DiscardingOutputStream extends ByteArrayOutputStream {
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+        }
+
+        @Override
+        public synchronized void write(int b) {
+        }
+    }
+}
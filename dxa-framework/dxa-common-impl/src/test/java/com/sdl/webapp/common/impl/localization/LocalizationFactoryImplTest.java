@@ -0,0 +1,180 @@
+package com.sdl.webapp.common.impl.localization;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableMap;
+import com.sdl.webapp.common.api.content.ContentProvider;
+import com.sdl.webapp.common.api.content.StaticContentItem;
+import com.sdl.webapp.common.api.localization.Localization;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LocalizationFactoryImplTest {
+
+    private final Map<String, String> files = new HashMap<>(ImmutableMap.<String, String>builder()
+            .put("/system/config/_all.json", "{\"mediaRoot\": \"/media/\", \"defaultLocalization\": true, \"staging\": false, " +
+                    "\"siteLocalizations\": [], \"files\": [\"/system/config/core.json\", \"/system/config/search.json\"]}")
+            .put("/system/config/core.json", "{\"cmsurl\": \"http://cms\"}")
+            .put("/system/config/search.json", "{\"queryURL\": \"http://search\"}")
+            .put("/system/resources/_all.json", "{\"files\": [\"/system/resources/core.json\"]}")
+            .put("/system/resources/core.json", "{\"readMore\": \"Read more\"}")
+            .put("/version.json", "{\"version\": \"v1\"}")
+            .put("/system/mappings/schemas.json", "[]")
+            .put("/system/mappings/vocabularies.json", "[]")
+            .put("/system/mappings/includes.json", "{\"64\": [\"system/include/header\", \"system/include/footer\"]}")
+            .build());
+
+    private final Map<String, Long> lastModified = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicInteger> reads = new ConcurrentHashMap<>();
+
+    private ContentProvider contentProvider;
+
+    private LocalizationFactoryImpl localizationFactory;
+
+    @Before
+    public void init() throws Exception {
+        contentProvider = mock(ContentProvider.class);
+        when(contentProvider.getStaticContent(anyString(), eq("1"), eq("/"))).thenAnswer(invocation ->
+                staticContentItem((String) invocation.getArguments()[0]));
+
+        localizationFactory = new LocalizationFactoryImpl();
+        ReflectionTestUtils.setField(localizationFactory, "contentProvider", contentProvider);
+        ReflectionTestUtils.setField(localizationFactory, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(localizationFactory, "loadThreads", 4);
+        ReflectionTestUtils.setField(localizationFactory, "parsedFilesMaxSize", 100);
+        localizationFactory.init();
+    }
+
+    @After
+    public void destroy() {
+        localizationFactory.destroy();
+    }
+
+    @Test
+    public void shouldCreateLocalizationConcurrently() throws Exception {
+        //when
+        Localization localization = localizationFactory.createLocalization("1", "/");
+
+        //then
+        assertLocalization(localization);
+    }
+
+    @Test
+    public void shouldCreateLocalizationSequentially() throws Exception {
+        //given
+        localizationFactory.destroy();
+        ReflectionTestUtils.setField(localizationFactory, "loadThreads", 0);
+        localizationFactory.init();
+
+        //when
+        Localization localization = localizationFactory.createLocalization("1", "/");
+
+        //then
+        assertLocalization(localization);
+    }
+
+    @Test
+    public void shouldOnlyReadChangedFilesWhenLocalizationIsCreatedAgain() throws Exception {
+        //given
+        localizationFactory.createLocalization("1", "/");
+        files.put("/system/config/core.json", "{\"cmsurl\": \"http://new-cms\"}");
+        files.put("/system/config/search.json", "{\"queryURL\": \"http://new-search\"}");
+        lastModified.put("/system/config/core.json", 2L);
+
+        //when
+        Localization localization = localizationFactory.createLocalization("1", "/");
+
+        //then
+        assertEquals("http://new-cms", localization.getConfiguration("core.cmsurl"));
+        assertEquals("not changed, so not read again", "http://search", localization.getConfiguration("search.queryURL"));
+        assertEquals(2, reads.get("/system/config/core.json").get());
+        assertEquals(1, reads.get("/system/config/search.json").get());
+        assertEquals(1, reads.get("/system/config/_all.json").get());
+    }
+
+    @Test
+    public void shouldNotShareParsedTreesBetweenLocalizations() throws Exception {
+        //given
+        ObjectNode first = (ObjectNode) localizationFactory.parseJsonFileTree(contentProvider, "/version.json", "1", "/");
+        first.put("version", "changed");
+
+        //when
+        JsonNode second = localizationFactory.parseJsonFileTree(contentProvider, "/version.json", "1", "/");
+
+        //then
+        assertEquals("v1", second.get("version").asText());
+        assertEquals(1, reads.get("/version.json").get());
+    }
+
+    @Test
+    public void shouldReadFilesAgain_IfMoreFilesAreParsedThanKept() throws Exception {
+        //given
+        localizationFactory.destroy();
+        ReflectionTestUtils.setField(localizationFactory, "parsedFilesMaxSize", 1);
+        localizationFactory.init();
+        localizationFactory.parseJsonFileTree(contentProvider, "/version.json", "1", "/");
+        localizationFactory.parseJsonFileTree(contentProvider, "/system/config/core.json", "1", "/");
+
+        //when
+        localizationFactory.parseJsonFileTree(contentProvider, "/version.json", "1", "/");
+
+        //then
+        assertEquals(2, reads.get("/version.json").get());
+    }
+
+    private void assertLocalization(Localization localization) {
+        assertEquals("1", localization.getId());
+        assertTrue(localization.isDefault());
+        assertEquals("v1", localization.getVersion());
+        assertEquals("http://cms", localization.getConfiguration("core.cmsurl"));
+        assertEquals("http://search", localization.getConfiguration("search.queryURL"));
+        assertEquals("Read more", localization.getResource("core.readMore"));
+        assertEquals(Arrays.asList("system/include/header", "system/include/footer"), localization.getIncludes("64"));
+    }
+
+    private StaticContentItem staticContentItem(final String path) {
+        return new StaticContentItem() {
+            @Override
+            public long getLastModified() {
+                Long modified = lastModified.get(path);
+                return modified == null ? 1L : modified;
+            }
+
+            @Override
+            public String getContentType() {
+                return "application/json";
+            }
+
+            @Override
+            public InputStream getContent() {
+                reads.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+                return new ByteArrayInputStream(files.get(path).getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public boolean isVersioned() {
+                return false;
+            }
+        };
+    }
+}
@@ -3,6 +3,7 @@ package com.sdl.webapp.common.impl.mapping;
 import com.google.common.collect.ImmutableMap;
 import com.sdl.webapp.common.api.mapping.semantic.FieldData;
 import com.sdl.webapp.common.api.mapping.semantic.SemanticFieldDataProvider;
+import com.sdl.webapp.common.api.mapping.semantic.SemanticMapper;
 import com.sdl.webapp.common.api.mapping.semantic.SemanticMappingException;
 import com.sdl.webapp.common.api.mapping.semantic.SemanticMappingRegistry;
 import com.sdl.webapp.common.api.mapping.semantic.annotations.SemanticEntities;
@@ -18,6 +19,7 @@ import lombok.EqualsAndHashCode;
 import org.jetbrains.annotations.NotNull;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,6 +44,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -115,6 +118,105 @@ public class SemanticMapperImplTest {
         assertThat(xpmMetadata, hasEntry("manyMappingsNoValue", "tcm:Content/custom:TestArticle/custom:manyMappingsNoValue"));
     }
 
+    /**
+     * Provides values of the semantic fields by their names.
+     */
+    private static SemanticFieldDataProvider dataByFieldName(final Map<String, ?> values) {
+        return new SemanticFieldDataProvider() {
+            @Override
+            public FieldData getFieldData(SemanticField semanticField, TypeDescriptor targetType) {
+                Object value = values.get(semanticField.getName());
+                return value != null ? new FieldData(value, "tcm:Content/" + semanticField.getName()) : null;
+            }
+
+            @Override
+            public Object getSelfFieldData(TypeDescriptor targetType) {
+                return null;
+            }
+
+            @Override
+            public Map<String, String> getAllFieldData() {
+                return null;
+            }
+        };
+    }
+
+    private static Map<String, ?> articleValues() {
+        return ImmutableMap.of("headline", "HEADLINE", "mapping2", "MAPPING2",
+                "articleBody", newArrayList(new TestParagraph("SUBHEADING")),
+                "date", new DateTime(2014, 11, 4, 13, 14, 34, 123, DateTimeZone.UTC));
+    }
+
+    @Test
+    public void shouldMapSameAsReflectiveMapper() throws SemanticMappingException {
+        //given
+        SemanticMappingRegistry registry = new SemanticMapperImplTestConfig().semanticMappingRegistry();
+        SemanticMapperImpl mapper = new SemanticMapperImpl(registry);
+        ReflectiveSemanticMapper reflectiveMapper = new ReflectiveSemanticMapper(registry);
+        Map<FieldSemantics, SemanticField> semantics = TestArticle.getSemantics();
+        SemanticFieldDataProvider dataProvider = dataByFieldName(articleValues());
+
+        // the second time the compiled plan is used
+        for (int i = 0; i < 2; i++) {
+            //when
+            TestArticle expected = reflectiveMapper.createEntity(TestArticle.class, semantics, dataProvider);
+            TestArticle article = mapper.createEntity(TestArticle.class, semantics, dataProvider);
+
+            //then
+            assertEquals(expected, article);
+            assertEquals(expected.getXpmPropertyMetadata(), article.getXpmPropertyMetadata());
+            assertThat(article.getManyMappings(), is("MAPPING2"));
+        }
+    }
+
+    @Test
+    public void shouldCompilePlanAgainIfEntitiesAreRegistered() throws SemanticMappingException {
+        //given
+        SemanticMappingRegistryImpl registry = new SemanticMappingRegistryImpl();
+        SemanticMapperImpl mapper = new SemanticMapperImpl(registry);
+        Map<FieldSemantics, SemanticField> semantics = TestArticle.getSemantics();
+        SemanticFieldDataProvider dataProvider = dataByFieldName(articleValues());
+        TestArticle before = mapper.createEntity(TestArticle.class, semantics, dataProvider);
+
+        //when
+        registry.registerEntity(TestArticle.class);
+        TestArticle after = mapper.createEntity(TestArticle.class, semantics, dataProvider);
+
+        //then
+        assertNull(before.getHeadline());
+        assertThat(after.getHeadline(), is("HEADLINE"));
+    }
+
+    /**
+     * Compares mapping entities with compiled plans to reflecting over the entity class for every entity.
+     * Run with {@code -Ddxa.benchmark=true}.
+     */
+    @Test
+    public void benchmarkCreateEntity() throws SemanticMappingException {
+        Assume.assumeTrue(Boolean.getBoolean("dxa.benchmark"));
+
+        SemanticMappingRegistry registry = new SemanticMapperImplTestConfig().semanticMappingRegistry();
+        SemanticMapper[] mappers = {new ReflectiveSemanticMapper(registry), new SemanticMapperImpl(registry)};
+        Map<FieldSemantics, SemanticField> semantics = TestArticle.getSemantics();
+        SemanticFieldDataProvider dataProvider = dataByFieldName(articleValues());
+        int iterations = 200_000;
+
+        long[] nanos = new long[mappers.length];
+        for (int round = 0; round < 4; round++) {
+            for (int m = 0; m < mappers.length; m++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    mappers[m].createEntity(TestArticle.class, semantics, dataProvider);
+                }
+                // the first rounds are warm-up
+                nanos[m] = System.nanoTime() - start;
+            }
+        }
+
+        System.out.printf("Reflective: %d ns per entity%n", nanos[0] / iterations);
+        System.out.printf("Planned:    %d ns per entity%n", nanos[1] / iterations);
+    }
+
     private static class SemanticMapBuilder extends ImmutableMap.Builder<FieldSemantics, SemanticField> {
 
         SemanticMapBuilder both(String entityName, String propertyName, SemanticField field) {
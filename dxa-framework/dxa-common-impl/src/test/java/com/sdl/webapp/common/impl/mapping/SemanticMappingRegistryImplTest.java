@@ -8,10 +8,19 @@ import com.sdl.webapp.common.api.mapping.semantic.config.FieldSemantics;
 import com.sdl.webapp.common.api.mapping.semantic.config.SemanticVocabulary;
 import com.sdl.webapp.common.api.model.EntityModel;
 import com.sdl.webapp.common.api.model.entity.AbstractEntityModel;
+import com.sdl.webapp.common.api.model.entity.Link;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.sdl.webapp.common.api.mapping.semantic.config.SemanticVocabulary.SDL_CORE;
 import static com.sdl.webapp.common.api.mapping.semantic.config.SemanticVocabulary.SDL_CORE_VOCABULARY;
@@ -19,6 +28,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -76,6 +86,84 @@ public class SemanticMappingRegistryImplTest {
         assertNull(random);
     }
 
+    @Test
+    public void shouldFindEntitiesRegisteredAfterLookups() throws NoSuchFieldException {
+        //given
+        SemanticMappingRegistryImpl registry = new SemanticMappingRegistryImpl();
+        registry.registerEntity(TestEntity1.class);
+        assertNull(registry.getEntityClassByFullyQualifiedName(SDL_CORE + ":TestEntity2"));
+        assertNull(registry.getEntityClass("TestEntity2"));
+
+        //when
+        registry.registerEntity(TestEntity2.class);
+
+        //then
+        assertEquals(TestEntity2.class, registry.getEntityClassByFullyQualifiedName(SDL_CORE + ":TestEntity2"));
+        assertEquals(TestEntity2.class, registry.getEntityClass("TestEntity2"));
+        assertEquals(TestEntity1.class, registry.getEntityClass("TestOne"));
+        assertThat(registry.getFieldSemantics(TestEntity2.class.getDeclaredField("field3")), hasSize(1));
+        assertThat(registry.getEntityInfo(TestEntity2.class), hasSize(1));
+    }
+
+    @Test
+    public void shouldReturnSameResultsForRepeatedLookups() throws NoSuchFieldException {
+        //given
+        SemanticMappingRegistryImpl registry = new SemanticMappingRegistryImpl();
+        registry.registerEntity(TestEntity1.class);
+
+        //when
+        Set<FieldSemantics> first = registry.getFieldSemantics(TestEntity1.class.getDeclaredField("field1"));
+        Set<FieldSemantics> second = registry.getFieldSemantics(TestEntity1.class.getDeclaredField("field1"));
+
+        //then
+        assertSame(first, second);
+        assertSame(registry.getEntityInfo(TestEntity1.class), registry.getEntityInfo(TestEntity1.class));
+        assertThat(registry.getEntityInfo(TestEntity1.class), hasSize(3));
+        assertThat(registry.getFieldSemantics(TestEntity2.class.getDeclaredField("field3")), hasSize(0));
+    }
+
+    @Test
+    public void shouldLookupWhileEntitiesAreRegistered() throws Exception {
+        //given
+        final SemanticMappingRegistryImpl registry = new SemanticMappingRegistryImpl();
+        registry.registerEntity(TestEntity1.class);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        final AtomicBoolean registering = new AtomicBoolean(true);
+        List<Future<?>> lookups = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < 3; i++) {
+            lookups.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    while (registering.get()) {
+                        registry.getEntityClass("EmbeddedLink");
+                        registry.getEntityInfo(TestEntity1.class);
+                    }
+                    return null;
+                }
+            }));
+        }
+        try {
+            registry.registerEntities(Link.class.getPackage().getName());
+        } finally {
+            registering.set(false);
+        }
+
+        //then
+        for (Future<?> lookup : lookups) {
+            lookup.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertEquals(Link.class, registry.getEntityClass("EmbeddedLink"));
+        assertThat(registry.getEntityInfo(TestEntity1.class), hasSize(3));
+    }
+
+    public static class TestEntity2 extends AbstractEntityModel {
+
+        private String field3;
+    }
+
     @SemanticEntities({
             @SemanticEntity(entityName = "TestOne", vocabulary = SDL_TEST, prefix = "t"),
             @SemanticEntity(entityName = "CoreOne", vocabulary = SDL_CORE, prefix = "c")
@@ -1,6 +1,8 @@
 package com.sdl.webapp.common.impl.markup;
 
 import com.sdl.webapp.common.api.WebRequestContext;
+import com.sdl.webapp.common.api.mapping.semantic.SemanticMappingRegistry;
+import com.sdl.webapp.common.api.mapping.semantic.annotations.SemanticEntityInfo;
 import com.sdl.webapp.common.api.model.entity.AbstractEntityModel;
 import com.sdl.webapp.common.api.model.entity.SitemapItem;
 import com.sdl.webapp.common.api.model.region.RegionModelImpl;
@@ -14,12 +16,16 @@ import org.joda.time.format.DateTimeFormat;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.Locale;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class MarkupImplTest {
 
@@ -204,6 +210,46 @@ public class MarkupImplTest {
         assertEquals("", propertyReturn3);
     }
 
+    @Test
+    public void shouldComputeSemanticMarkupOnce_WhileRegistryIsNotChanged() throws NoSuchFieldException {
+        //given
+        MarkupTest.MarkupTestConfig config = new MarkupTest.MarkupTestConfig();
+        SemanticMappingRegistry registry = config.semanticMappingRegistry();
+        MarkupImpl markup = new MarkupImpl(registry, config.webRequestContext());
+        TestEntity entity = new TestEntity();
+
+        //when
+        for (int i = 0; i < 3; i++) {
+            assertEquals("prefix=\"s: http://schema.org/\" typeof=\"s:SchemaEnt\"", markup.entity(entity));
+            assertEquals("property=\"s:TheField\"", markup.property(entity, "testField"));
+            assertEquals("", markup.property(entity, "hiddenField"));
+        }
+
+        //then
+        verify(registry, times(1)).getEntityInfo(TestEntity.class);
+        verify(registry, times(1)).getPropertyInfo(TestEntity.class.getDeclaredField("testField"));
+    }
+
+    @Test
+    public void shouldComputeSemanticMarkupAgain_IfRegistryIsChanged() throws NoSuchFieldException {
+        //given
+        MarkupTest.MarkupTestConfig config = new MarkupTest.MarkupTestConfig();
+        SemanticMappingRegistry registry = config.semanticMappingRegistry();
+        MarkupImpl markup = new MarkupImpl(registry, config.webRequestContext());
+        TestEntity entity = new TestEntity();
+        markup.entity(entity);
+
+        //when
+        when(registry.getVersion()).thenReturn(1L);
+        when(registry.getEntityInfo(TestEntity.class)).thenReturn(Collections.<SemanticEntityInfo>emptySet());
+        String entityMarkup = markup.entity(entity);
+        String propertyMarkup = markup.property(entity, "testField");
+
+        //then
+        assertEquals("", entityMarkup);
+        assertEquals("", propertyMarkup);
+    }
+
     @Test
     public void shouldReturnSiteMapList() {
         //given
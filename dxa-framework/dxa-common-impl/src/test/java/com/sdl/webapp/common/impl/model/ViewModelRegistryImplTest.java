@@ -125,6 +125,54 @@ public class ViewModelRegistryImplTest {
         assertEquals(TestEntity2.class, entityClass);
     }
 
+    @Test
+    public void shouldResolveViewModelType_ByAreaControllerAndView() throws DxaException {
+        //when
+        Class<? extends ViewModel> exact = registry.getViewModelType(MvcDataCreator.creator()
+                .fromQualifiedName("Test:Entity:TestEntity2").create());
+        Class<? extends ViewModel> otherArea = registry.getViewModelType(MvcDataCreator.creator()
+                .fromQualifiedName("Other:Entity:TestEntity2").create());
+        Class<? extends ViewModel> otherController = registry.getViewModelType(MvcDataCreator.creator()
+                .fromQualifiedName("Test:Region:TestEntity2").create());
+
+        //then
+        assertEquals(TestEntity2.class, exact);
+        assertEquals(TestEntity2.class, otherArea);
+        assertNull(otherController);
+    }
+
+    @Test
+    public void shouldResolveViewModelType_ToFirstRegistered_WhenMvcDataDiffersOnlyInAction() throws DxaException {
+        //given
+        registry.registerViewModel(MvcDataCreator.creator()
+                .fromQualifiedName("Test:Entity:ActionView")
+                .create(), TestEntity.class);
+        registry.registerViewModel(MvcDataCreator.creator()
+                .fromQualifiedName("Test:Entity:ActionView")
+                .builder().actionName("Other").build(), TestEntity3.class);
+
+        //when
+        Class<? extends ViewModel> entityClass = registry.getViewModelType(MvcDataCreator.creator()
+                .fromQualifiedName("Test:Entity:ActionView").create());
+
+        //then
+        assertEquals(TestEntity.class, entityClass);
+    }
+
+    @Test
+    public void shouldResolveMappedModelType_RegisteredAfterLookup() {
+        //given
+        assertNull(registry.getMappedModelTypes("Test:Entity:LateView"));
+
+        //when
+        registry.registerViewModel(MvcDataCreator.creator()
+                .fromQualifiedName("Test:Entity:LateView")
+                .create(), TestEntity3.class);
+
+        //then
+        assertEquals(TestEntity3.class, registry.getMappedModelTypes("Test:Entity:LateView"));
+    }
+
     private class TestEntity extends AbstractEntityModel {
 
     }
@@ -6,30 +6,50 @@ import com.sdl.webapp.common.api.localization.LocalizationFactory;
 import com.sdl.webapp.common.api.localization.LocalizationFactoryException;
 import com.sdl.webapp.common.api.localization.LocalizationResolver;
 import com.sdl.webapp.common.api.localization.LocalizationResolverException;
+import com.sdl.webapp.common.util.ExecutorUtils;
+import com.sdl.webapp.common.util.SingleFlight;
 import lombok.AllArgsConstructor;
 import lombok.SneakyThrows;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.util.UriUtils;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.UnsupportedEncodingException;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Implementation of {@code LocalizationResolver} that uses the Tridion API to determine the localization for a request.
+ * <p>Each localization is created once, concurrent requests for a localization that is not loaded yet wait for
+ * the same load. Refreshed localizations are rebuilt in background, like expired navigation models, while requests
+ * are still served with the old localization until the new one is ready.</p>
  */
 public abstract class AbstractTridionLocalizationResolver implements LocalizationResolver {
 
     private static final Logger LOG = LoggerFactory.getLogger(AbstractTridionLocalizationResolver.class);
 
-    private final Map<String, Localization> localizations = Collections.synchronizedMap(new HashMap<String, Localization>());
+    private final ConcurrentMap<String, Localization> localizations = new ConcurrentHashMap<>();
+
+    private final SingleFlight<String, Localization> localizationLoads = new SingleFlight<>();
+
+    private final Set<String> refreshing = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
     @Autowired
     private LocalizationFactory localizationFactory;
 
+    @Value("${dxa.tridion.localization.refresh.threads:1}")
+    private int refreshThreads;
+
+    private ExecutorService refreshExecutor;
+
     /**
      * Gets the publication mapping path. The returned path always starts with a "/" and does not end with a "/", unless
      * the path is the root path "/" itself.
@@ -48,6 +68,23 @@ public abstract class AbstractTridionLocalizationResolver implements Localizatio
         return path;
     }
 
+    @PostConstruct
+    public void init() {
+        if (refreshThreads > 0) {
+            refreshExecutor = ExecutorUtils.newBackgroundExecutor("dxa-localization-refresh", refreshThreads);
+            LOG.info("Refreshed localizations are rebuilt in background using up to {} threads", refreshThreads);
+        } else {
+            refreshExecutor = null;
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -64,15 +101,29 @@ public abstract class AbstractTridionLocalizationResolver implements Localizatio
             throw new LocalizationResolverException("Publication mapping is not resolved!");
         }
 
-        if (!localizations.containsKey(data.id)) {
-            localizations.put(data.id, createLocalization(data.id, data.path));
+        Localization localization = localizations.get(data.id);
+        if (localization != null) {
+            return localization;
         }
 
-        return localizations.get(data.id);
+        return localizationLoads.execute(data.id, () -> {
+            // may have been loaded by the previous load of this localization while we were checking
+            Localization loaded = localizations.get(data.id);
+            if (loaded == null) {
+                loaded = createLocalization(data.id, data.path);
+                localizations.put(data.id, loaded);
+            }
+            return loaded;
+        });
     }
 
     /**
      * {@inheritDoc}
+     * <p>The localization is rebuilt in background with the request attributes of the calling thread and replaces
+     * the cached one once it is ready. Requests are served with the old localization meanwhile, and also if
+     * rebuilding fails. If background rebuilding is disabled, the localization is rebuilt in the calling thread.</p>
+     *
+     * @return {@code true} if the localization is being rebuilt or was rebuilt
      */
     @Override
     public boolean refreshLocalization(Localization localization) {
@@ -80,11 +131,43 @@ public abstract class AbstractTridionLocalizationResolver implements Localizatio
             return false;
         }
         String localizationId = localization.getId();
-        if (localizations.remove(localizationId) != null) {
-            LOG.debug("Removed cached localization with id: {}", localizationId);
+        Localization current = localizations.get(localizationId);
+        if (current == null) {
+            return false;
+        }
+
+        if (!refreshing.add(localizationId)) {
+            LOG.debug("Refresh of localization with id: {} is already in progress", localizationId);
             return true;
         }
-        return false;
+
+        if (refreshExecutor == null) {
+            return rebuildLocalization(localizationId, current);
+        }
+
+        try {
+            refreshExecutor.submit(ExecutorUtils.withRequestContext(() -> rebuildLocalization(localizationId, current)));
+            return true;
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(localizationId);
+            LOG.debug("Localization with id: {} is not refreshed, the resolver is shut down", localizationId);
+            return false;
+        }
+    }
+
+    private boolean rebuildLocalization(String localizationId, Localization current) {
+        try {
+            Localization refreshed = createLocalization(localizationId, current.getPath());
+            if (localizations.replace(localizationId, current, refreshed)) {
+                LOG.debug("Refreshed cached localization with id: {}", localizationId);
+            }
+            return true;
+        } catch (LocalizationResolverException | RuntimeException e) {
+            LOG.warn("Failed to refresh localization with id: {}, keeping the old one", localizationId, e);
+            return false;
+        } finally {
+            refreshing.remove(localizationId);
+        }
     }
 
     /**
@@ -3,11 +3,24 @@ package com.sdl.webapp.tridion.linking;
 import com.google.common.base.Strings;
 import com.sdl.webapp.common.api.content.LinkResolver;
 import org.apache.commons.lang3.StringUtils;
+import org.dd4t.core.caching.CacheElement;
+import org.dd4t.providers.PayloadCacheProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>Abstract AbstractTridionLinkResolver class.</p>
+ * <p>Resolved links are cached per publication, item, item type and binary flag in the DD4T cache
+ * with a dependency on the linked item, so they expire when the item is (un)published. A component link also
+ * depends on the page it's resolved to, which is not known here, so component links expire after
+ * {@code dxa.tridion.linking.cache.componentLinkExpireSeconds}. Links that could not be resolved are cached only
+ * for {@code dxa.tridion.linking.cache.notFoundExpireSeconds}.</p>
  */
 public abstract class AbstractTridionLinkResolver implements LinkResolver {
     //TODO : move these back to defaultcontentprovider once class is moved to new package
@@ -22,6 +35,33 @@ public abstract class AbstractTridionLinkResolver implements LinkResolver {
 
     private static final Logger LOG = LoggerFactory.getLogger(AbstractTridionLinkResolver.class);
 
+    private final LinkCacheMetrics cacheMetrics = new LinkCacheMetrics();
+
+    @Autowired(required = false)
+    private PayloadCacheProvider cacheProvider;
+
+    @Value("${dxa.tridion.linking.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${dxa.tridion.linking.cache.notFoundExpireSeconds:30}")
+    private long notFoundExpireSeconds;
+
+    @Value("${dxa.tridion.linking.cache.componentLinkExpireSeconds:300}")
+    private long componentLinkExpireSeconds;
+
+    private static String getCacheKey(int publicationId, int itemId, int itemType, boolean isBinary) {
+        return "link:" + publicationId + ':' + itemId + ':' + itemType + (isBinary ? ":binary" : "");
+    }
+
+    /**
+     * Returns the metrics of the link resolution cache.
+     *
+     * @return cache metrics
+     */
+    public LinkCacheMetrics getCacheMetrics() {
+        return cacheMetrics;
+    }
+
     /** {@inheritDoc} */
     @Override
     public String resolveLink(String url, String localizationId) {
@@ -65,6 +105,45 @@ public abstract class AbstractTridionLinkResolver implements LinkResolver {
         final int itemId = Integer.parseInt(parts[1]);
         final int itemType = parts.length > 2 ? Integer.parseInt(parts[2]) : 16;
 
+        if (itemType != 16 && itemType != 64) {
+            LOG.warn("Could not resolve link: {}", uri);
+            return "";
+        }
+
+        // outside of a request the cache provider cannot tell whether it's a preview session, so don't use the cache
+        if (!cacheEnabled || cacheProvider == null || RequestContextHolder.getRequestAttributes() == null) {
+            return resolveLink(uri, publicationId, itemId, itemType, isBinary);
+        }
+
+        final boolean resolveToBinary = isBinary && itemType == 16;
+        final String cacheKey = getCacheKey(publicationId, itemId, itemType, resolveToBinary);
+        final CacheElement<CachedLink> cacheElement = cacheProvider.loadPayloadFromLocalCache(cacheKey);
+        if (!cacheElement.isExpired()) {
+            CachedLink cachedLink = cacheElement.getPayload();
+            if (cachedLink != null && !cachedLink.isExpired()) {
+                cacheMetrics.recordHit(cachedLink.isNotFound());
+                return cachedLink.url;
+            }
+        }
+
+        cacheMetrics.recordMiss();
+        String resolvedLink = resolveLink(uri, publicationId, itemId, itemType, resolveToBinary);
+        cacheElement.setPayload(new CachedLink(resolvedLink, getExpiresAt(resolvedLink, itemType)));
+        cacheElement.setExpired(false);
+        cacheProvider.storeInItemCache(cacheKey, cacheElement, publicationId, itemId);
+        LOG.trace("Put resolved link {} for {} in cache", resolvedLink, cacheKey);
+        return resolvedLink;
+    }
+
+    private long getExpiresAt(String resolvedLink, int itemType) {
+        if (StringUtils.isEmpty(resolvedLink)) {
+            return System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(notFoundExpireSeconds);
+        }
+        // the page of a component link may be unpublished or moved without the component being republished
+        return itemType == 16 ? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(componentLinkExpireSeconds) : Long.MAX_VALUE;
+    }
+
+    private String resolveLink(String uri, int publicationId, int itemId, int itemType, boolean isBinary) {
         switch (itemType) {
             case 16:
                 if (isBinary) {
@@ -104,6 +183,26 @@ public abstract class AbstractTridionLinkResolver implements LinkResolver {
         return resolveLink(linkStrategy, publicationId, 0, uri);
     }
 
+    private static final class CachedLink implements Serializable {
+
+        private final String url;
+
+        private final long expiresAt;
+
+        private CachedLink(String url, long expiresAt) {
+            this.url = url;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isNotFound() {
+            return StringUtils.isEmpty(url);
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
     protected enum BasicLinkStrategy {
         BINARY_LINK_STRATEGY,
         COMPONENT_LINK_STRATEGY,
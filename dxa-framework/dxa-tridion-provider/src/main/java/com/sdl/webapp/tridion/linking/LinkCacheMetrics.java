@@ -0,0 +1,65 @@
+package com.sdl.webapp.tridion.linking;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregated metrics of the link resolution cache: how many links were found in the cache
+ * and how many had to be resolved.
+ */
+public class LinkCacheMetrics {
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong notFoundHitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    void recordHit(boolean notFound) {
+        hitCount.incrementAndGet();
+        if (notFound) {
+            notFoundHitCount.incrementAndGet();
+        }
+    }
+
+    void recordMiss() {
+        missCount.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of links found in the cache, including links cached as not found.
+     *
+     * @return number of cache hits
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of links found in the cache as not found.
+     *
+     * @return number of cache hits for links that could not be resolved
+     */
+    public long getNotFoundHitCount() {
+        return notFoundHitCount.get();
+    }
+
+    /**
+     * Returns the number of links that were not in the cache and had to be resolved.
+     *
+     * @return number of cache misses
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the ratio of links found in the cache to all links resolved with the cache.
+     *
+     * @return hit ratio, {@code 1.0} if no links were resolved yet
+     */
+    public double getHitRatio() {
+        long hits = hitCount.get();
+        long requests = hits + missCount.get();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+}
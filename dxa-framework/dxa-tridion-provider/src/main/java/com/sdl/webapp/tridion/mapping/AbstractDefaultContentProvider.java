@@ -16,8 +16,10 @@ import com.sdl.webapp.common.exceptions.DxaItemNotFoundException;
 import com.sdl.webapp.common.util.ImageUtils;
 import com.sdl.webapp.common.util.LocalizationUtils;
 import com.sdl.webapp.common.util.LocalizationUtils.TryFindPage;
+import com.sdl.webapp.common.util.SingleFlight;
 import lombok.NonNull;
 import lombok.SneakyThrows;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.dd4t.contentmodel.Component;
@@ -71,9 +73,6 @@ import static java.util.Collections.singletonList;
 @Slf4j
 public abstract class AbstractDefaultContentProvider implements ContentProvider {
 
-    private static final Object LOCK = new Object();
-
-
     private static final String STATIC_FILES_DIR = "BinaryData";
 
     private static final Pattern SYSTEM_VERSION_PATTERN = Pattern.compile("/system/v\\d+\\.\\d+/");
@@ -95,6 +94,13 @@ public abstract class AbstractDefaultContentProvider implements ContentProvider
     @Autowired
     private WebRequestContext webRequestContext;
 
+    @Autowired
+    private PageModelCache pageModelCache;
+
+    private final SingleFlight<PageKey, org.dd4t.contentmodel.Page> pageLoads = new SingleFlight<>();
+
+    private final SingleFlight<ComponentPresentationKey, ComponentPresentation> componentPresentationLoads = new SingleFlight<>();
+
     protected static boolean isToBeRefreshed(File file, long time) throws ContentProviderException {
         if (isFileOlderThan(file, time)) {
             if (!parentFolderExists(file, true)) {
@@ -214,12 +220,9 @@ public abstract class AbstractDefaultContentProvider implements ContentProvider
             public PageModel tryFindPage(String path, int publicationId) throws ContentProviderException {
                 final org.dd4t.contentmodel.Page genericPage;
                 try {
-                    synchronized (LOCK) {
-                        if (dd4tPageFactory.isPagePublished(path, publicationId)) {
-                            genericPage = dd4tPageFactory.findPageByUrl(path, publicationId);
-                        } else {
-                            return null;
-                        }
+                    genericPage = loadPage(path, publicationId);
+                    if (genericPage == null) {
+                        return null;
                     }
                 } catch (ItemNotFoundException e) {
                     log.debug("Page not found: [{}] {}", publicationId, path, e);
@@ -229,9 +232,15 @@ public abstract class AbstractDefaultContentProvider implements ContentProvider
                             "] " + path, e);
                 }
 
-                PageModel pageModel = modelBuilderPipeline.createPageModel(genericPage, localization, AbstractDefaultContentProvider.this);
+                PageModel pageModel = pageModelCache.get(localization, path, genericPage.getLastPublishedDate());
+                if (pageModel == null) {
+                    pageModel = modelBuilderPipeline.createPageModel(genericPage, localization, AbstractDefaultContentProvider.this);
+                    if (pageModel != null) {
+                        pageModel.setUrl(LocalizationUtils.stripDefaultExtension(path));
+                    }
+                    pageModel = pageModelCache.put(localization, path, genericPage.getLastPublishedDate(), pageModel);
+                }
                 if (pageModel != null) {
-                    pageModel.setUrl(LocalizationUtils.stripDefaultExtension(path));
                     webRequestContext.setPage(pageModel);
                 }
                 return pageModel;
@@ -251,10 +260,7 @@ public abstract class AbstractDefaultContentProvider implements ContentProvider
         String templateUri = buildTemplateTcmUri(localization.getId(), idParts[1]);
 
         try {
-            final ComponentPresentation componentPresentation;
-            synchronized (LOCK) {
-                componentPresentation = this.dd4tComponentPresentationFactory.getComponentPresentation(componentUri, templateUri);
-            }
+            final ComponentPresentation componentPresentation = loadComponentPresentation(componentUri, templateUri);
             EntityModel entityModel = modelBuilderPipeline.createEntityModel(componentPresentation, localization);
             if (entityModel.getXpmMetadata() != null) {
                 entityModel.getXpmMetadata().put("IsQueryBased", true);
@@ -268,6 +274,44 @@ public abstract class AbstractDefaultContentProvider implements ContentProvider
         }
     }
 
+    /**
+     * Loads a DD4T page if it is published. Concurrent loads of the same page share one call to {@link PageFactory},
+     * loads of different pages run in parallel.
+     *
+     * @param path          path of the page
+     * @param publicationId id of the publication
+     * @return DD4T page or {@code null} if the page is not published
+     * @throws FactoryException if DD4T fails to load the page
+     */
+    private org.dd4t.contentmodel.Page loadPage(final String path, final int publicationId) throws FactoryException {
+        return pageLoads.execute(new PageKey(publicationId, path), new SingleFlight.Call<org.dd4t.contentmodel.Page, FactoryException>() {
+            @Override
+            public org.dd4t.contentmodel.Page call() throws FactoryException {
+                return dd4tPageFactory.isPagePublished(path, publicationId) ?
+                        dd4tPageFactory.findPageByUrl(path, publicationId) : null;
+            }
+        });
+    }
+
+    /**
+     * Loads a DD4T component presentation. Concurrent loads of the same component presentation
+     * share one call to {@link ComponentPresentationFactory}, loads of different ones run in parallel.
+     *
+     * @param componentUri TCM URI of the component
+     * @param templateUri  TCM URI of the component template
+     * @return DD4T component presentation
+     * @throws FactoryException if DD4T fails to load the component presentation
+     */
+    private ComponentPresentation loadComponentPresentation(final String componentUri, final String templateUri) throws FactoryException {
+        return componentPresentationLoads.execute(new ComponentPresentationKey(componentUri, templateUri),
+                new SingleFlight.Call<ComponentPresentation, FactoryException>() {
+                    @Override
+                    public ComponentPresentation call() throws FactoryException {
+                        return dd4tComponentPresentationFactory.getComponentPresentation(componentUri, templateUri);
+                    }
+                });
+    }
+
     @Override
     public <T extends EntityModel> void populateDynamicList(DynamicList<T, SimpleBrokerQuery> dynamicList, Localization localization) throws ContentProviderException {
         SimpleBrokerQuery query = dynamicList.getQuery(localization);
@@ -312,7 +356,7 @@ public abstract class AbstractDefaultContentProvider implements ContentProvider
         return new StaticContentItem() {
             @Override
             public long getLastModified() {
-                return staticContentFile.getFile().lastModified();
+                return staticContentFile.getLastModified();
             }
 
             @Override
@@ -325,6 +369,11 @@ public abstract class AbstractDefaultContentProvider implements ContentProvider
                 return new FileInputStream(staticContentFile.getFile());
             }
 
+            @Override
+            public File getFile() {
+                return staticContentFile.getFile();
+            }
+
             @Override
             public boolean isVersioned() {
                 return path.contains("/system/");
@@ -370,7 +419,21 @@ public abstract class AbstractDefaultContentProvider implements ContentProvider
         }
     }
 
+    @Value
+    private static class PageKey {
+
+        private int publicationId;
+
+        private String path;
+    }
+
+    @Value
+    private static class ComponentPresentationKey {
 
+        private String componentUri;
+
+        private String templateUri;
+    }
 
     protected static final class StaticContentFile {
 
@@ -378,15 +441,36 @@ public abstract class AbstractDefaultContentProvider implements ContentProvider
 
         private final String contentType;
 
+        private final long lastPublicationTime;
+
         protected StaticContentFile(File file, String contentType) {
+            this(file, contentType, 0);
+        }
+
+        /**
+         * @param lastPublicationTime publish date of the content in the broker, or {@code 0} if it's not known and
+         *                            the modification time of the file should be used
+         */
+        protected StaticContentFile(File file, String contentType, long lastPublicationTime) {
             this.file = file;
             this.contentType = StringUtils.isEmpty(contentType) ? DEFAULT_CONTENT_TYPE : contentType;
+            this.lastPublicationTime = lastPublicationTime;
         }
 
         public File getFile() {
             return file;
         }
 
+        /**
+         * Returns the publish date of the content, which is the same on all nodes, unlike the modification time of
+         * the file that is rewritten on every node.
+         *
+         * @return publish date of the content, or the modification time of the file if the publish date is not known
+         */
+        public long getLastModified() {
+            return lastPublicationTime > 0 ? lastPublicationTime : file.lastModified();
+        }
+
         public String getContentType() {
             return contentType;
         }
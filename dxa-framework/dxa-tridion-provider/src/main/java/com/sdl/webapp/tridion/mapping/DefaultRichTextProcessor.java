@@ -1,7 +1,6 @@
 package com.sdl.webapp.tridion.mapping;
 
 import com.sdl.webapp.common.api.WebRequestContext;
-import com.sdl.webapp.common.api.content.ContentProviderException;
 import com.sdl.webapp.common.api.content.LinkResolver;
 import com.sdl.webapp.common.api.content.RichTextProcessor;
 import com.sdl.webapp.common.api.localization.Localization;
@@ -16,7 +15,6 @@ import com.sdl.webapp.common.api.model.ViewModelRegistry;
 import com.sdl.webapp.common.api.model.entity.ExceptionEntity;
 import com.sdl.webapp.common.api.model.entity.MediaItem;
 import com.sdl.webapp.common.controller.exception.NotFoundException;
-import com.sdl.webapp.common.util.NodeListAdapter;
 import com.sdl.webapp.common.util.XMLUtils;
 import com.sdl.webapp.tridion.xpath.XPathResolver;
 import org.apache.commons.lang3.StringUtils;
@@ -27,35 +25,36 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.w3c.dom.Attr;
-import org.w3c.dom.Document;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.w3c.dom.ls.DOMImplementationLS;
-import org.w3c.dom.ls.LSSerializer;
+import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.DefaultHandler;
 
-import javax.xml.transform.TransformerException;
-import javax.xml.xpath.XPathExpressionException;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Supplier;
 
 import static java.lang.Long.parseLong;
-import static javax.xml.xpath.XPathConstants.NODESET;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 @Component
 /**
  * <p>DefaultRichTextProcessor class.</p>
+ * <p>Rich text is processed in a single pass while it's parsed: links are resolved, embedded media items are extracted
+ * and the fragments are written directly, without building and serializing a DOM.</p>
+ * <p>Processed rich text is kept in the {@link RichTextCache} if there is one. The cache creates new fragments and
+ * embedded entities for every use, since they are changed while they are rendered.</p>
  */
 public class DefaultRichTextProcessor implements RichTextProcessor {
 
@@ -77,6 +76,9 @@ public class DefaultRichTextProcessor implements RichTextProcessor {
     @Autowired
     private ComponentPresentationFactory componentFactory;
 
+    @Autowired(required = false)
+    private RichTextCache richTextCache;
+
     private static <T extends ViewModel> T createInstance(Class<? extends T> entityClass) throws SemanticMappingException {
         if (LOG.isTraceEnabled()) {
             LOG.trace("entityClass: {}", entityClass.getName());
@@ -89,53 +91,38 @@ public class DefaultRichTextProcessor implements RichTextProcessor {
         }
     }
 
-    /**
-     * Allows to retrieve the inner xml of the first node &lt;xhtml&gt;&lt;/xhtml&gt; as String.
-     */
-    private static String innerXml(Node node) {
-        DOMImplementationLS lsImpl = (DOMImplementationLS) node.getOwnerDocument().getImplementation().getFeature("LS", "3.0");
-        LSSerializer lsSerializer = lsImpl.createLSSerializer();
-        lsSerializer.getDomConfig().setParameter("xml-declaration", false);
-        NodeList childNodes = node.getChildNodes();
-        StringBuilder sb = new StringBuilder(2048);
-        for (int i = 0; i < childNodes.getLength(); i++) {
-            sb.append(lsSerializer.writeToString(childNodes.item(i)));
-        }
-        return sb.toString();
+    private static boolean isUnusedAttribute(RichTextXmlWriter.Attribute attribute) {
+        return StringUtils.startsWithAny(attribute.getLocalName(), "data-", "xlink")
+                || StringUtils.startsWithAny(attribute.getQualifiedName(), "xlink:", "xmlns:");
+    }
+
+    private static String getAttribute(Map<String, RichTextXmlWriter.Attribute> attributes, String name) {
+        RichTextXmlWriter.Attribute attribute = attributes.get(name);
+        return attribute != null ? attribute.getValue() : EMPTY;
     }
 
-    private static void removeUnusedAttributes(Element element) {
-        NamedNodeMap attributes = element.getAttributes();
-        int length = attributes.getLength();
-        for (int i = 0; i < length; i++) {
-            Attr attribute = (Attr) attributes.item(i);
-            if (isUnusedAttribute(attribute)) {
-                element.removeAttributeNode(attribute);
-                i--;
-                length--;
+    private static RichTextXmlWriter.Attribute getAttributeNode(Map<String, RichTextXmlWriter.Attribute> attributes,
+                                                                String namespaceUri, String localName) {
+        for (RichTextXmlWriter.Attribute attribute : attributes.values()) {
+            if (namespaceUri.equals(attribute.getNamespaceUri()) && localName.equals(attribute.getLocalName())) {
+                return attribute;
             }
         }
+        return null;
     }
 
-    private static boolean isUnusedAttribute(Attr attribute) {
-        return attribute != null && (StringUtils.startsWithAny(attribute.getLocalName(), "data-", "xlink")
-                || StringUtils.startsWithAny(attribute.getName(), "xlink:", "xmlns:"));
+    private static String getAttributeNS(Map<String, RichTextXmlWriter.Attribute> attributes, String namespaceUri, String localName) {
+        RichTextXmlWriter.Attribute attribute = getAttributeNode(attributes, namespaceUri, localName);
+        return attribute != null ? attribute.getValue() : EMPTY;
     }
 
-    private static void moveChildrenToParentAndRemoveNode(Node node) {
-        // First get all the children into a new list
-        final List<Node> childNodes = new ArrayList<>(new NodeListAdapter(node.getChildNodes()));
-
-        // Then move the ones that are not attributes to the parent one by one
-        final Node parentNode = node.getParentNode();
-        for (Node childNode : childNodes) {
-            if (childNode.getNodeType() != Node.ATTRIBUTE_NODE) {
-                parentNode.insertBefore(childNode, node);
-            }
+    private static void setAttribute(Map<String, RichTextXmlWriter.Attribute> attributes, String name, String value) {
+        RichTextXmlWriter.Attribute attribute = attributes.get(name);
+        if (attribute != null) {
+            attribute.setValue(value);
+        } else {
+            attributes.put(name, new RichTextXmlWriter.Attribute(name, value));
         }
-
-        // And finally, remove the node itself from the parent
-        parentNode.removeChild(node);
     }
 
     /**
@@ -144,156 +131,376 @@ public class DefaultRichTextProcessor implements RichTextProcessor {
     @Override
     public RichText processRichText(String xhtml, Localization localization) {
         try {
-            // Parse the document as XML
-            final Document document = XMLUtils.parse("<xhtml>" + xhtml + "</xhtml>");
+            // outside of a request and in preview the links are not cached, so the rich text isn't either
+            if (richTextCache == null || !richTextCache.isEnabled() || xhtml == null
+                    || RequestContextHolder.getRequestAttributes() == null || webRequestContext.isPreview()) {
+                return processRichText(xhtml, localization, new HashMap<String, String>());
+            }
 
-            // Resolve links, images and YouTube videos
-            return resolveRichText(document, localization);
-        } catch (SAXException | IOException | ContentProviderException | SemanticMappingException e) {
+            // anchored links depend on the requested page
+            final String linkContext = xhtml.contains("anchored") ?
+                    webRequestContext.getContextPath() + webRequestContext.getRequestPath() : EMPTY;
+            final String key = RichTextCache.getKey(xhtml, localization.getId(), linkContext);
+            RichText richText = richTextCache.get(key, this::areLinksUpToDate);
+            if (richText == null) {
+                final Map<String, String> resolvedLinks = new HashMap<>();
+                RichTextHandler handler = parse(xhtml, localization, resolvedLinks);
+                richTextCache.put(key, xhtml, handler.getFragmentSuppliers(), resolvedLinks);
+                richText = new RichText(handler.getFragments());
+            }
+            return richText;
+        } catch (SAXException e) {
+            // exceptions of link and entity resolution are wrapped to get them through the parser
+            LOG.warn("Exception while parsing or processing XML content", e.getException() != null ? e.getException() : e);
+            return new RichText(xhtml);
+        } catch (IOException e) {
             LOG.warn("Exception while parsing or processing XML content", e);
             return new RichText(xhtml);
         }
     }
 
-    private RichText resolveRichText(Document doc, Localization localization)
-            throws ContentProviderException, SemanticMappingException {
-        this.resolveLinks(doc);
-        List<EntityModel> entityModels = this.resolveImages(doc, localization);
-        Iterator<EntityModel> embeddedEntities = entityModels != null ?
-                entityModels.iterator() : Collections.<EntityModel>emptyListIterator();
+    /**
+     * Processes the rich text, putting the links resolved with the link resolver in the map by component URI.
+     */
+    private RichText processRichText(String xhtml, Localization localization, Map<String, String> resolvedLinks)
+            throws SAXException, IOException {
+        return new RichText(parse(xhtml, localization, resolvedLinks).getFragments());
+    }
 
-        List<RichTextFragment> richTextFragments = new LinkedList<>();
-        try {
-            XMLUtils.format(doc);
-            String xhtml = innerXml(doc.getFirstChild());
+    private RichTextHandler parse(String xhtml, Localization localization, Map<String, String> resolvedLinks)
+            throws SAXException, IOException {
+        RichTextHandler handler = new RichTextHandler(localization, resolvedLinks);
+        XMLUtils.parse("<xhtml>" + xhtml + "</xhtml>", handler, handler);
+        return handler;
+    }
 
-            int lastFragmentIndex = 0;
+    private boolean areLinksUpToDate(Map<String, String> resolvedLinks) {
+        for (Map.Entry<String, String> link : resolvedLinks.entrySet()) {
+            if (!Objects.equals(link.getValue(), linkResolver.resolveLink(link.getKey(), null, true))) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-            Pattern pattern = Pattern.compile("<\\?EmbeddedEntity\\s?\\?>");
-            Matcher matcher = pattern.matcher(xhtml);
+    /**
+     * Resolves the link.
+     *
+     * @param attributes    attributes of the link, changed to the attributes of the resolved link
+     * @param resolvedLinks gets the link if it's resolved with the link resolver
+     * @return whether the link is kept, otherwise only its content is kept
+     */
+    private boolean resolveLink(Map<String, RichTextXmlWriter.Attribute> attributes, Map<String, String> resolvedLinks) {
+        // Check if this link already has a resolved href
+        String linkUrl = getAttribute(attributes, "href");
+        if (isEmpty(linkUrl)) {
+            linkUrl = getAttribute(attributes, "src");
+            attributes.remove("src");
+        }
 
-            while (matcher.find()) {
-                int embeddedEntityIndex = matcher.start();
+        final String componentUri = getAttributeNS(attributes, XPathResolver.XLINK_NS_URI, "href");
+        if (isEmpty(linkUrl)) {
+            // Resolve a dynamic component link
+            linkUrl = linkResolver.resolveLink(componentUri, null, true);
+            resolvedLinks.put(componentUri, linkUrl);
+        }
 
-                if (embeddedEntityIndex > lastFragmentIndex) {
-                    richTextFragments.add(new RichTextFragmentImpl(xhtml.substring(lastFragmentIndex, embeddedEntityIndex)));
-                }
-                richTextFragments.add((RichTextFragment) embeddedEntities.next());
-                lastFragmentIndex = matcher.end();
-            }
+        if (isEmpty(linkUrl)) {
+            return false;
+        }
+
+        setAttribute(attributes, "href", linkUrl);
+        applyHashIfApplicable(attributes, componentUri);
+        attributes.values().removeIf(DefaultRichTextProcessor::isUnusedAttribute);
+        return true;
+    }
+
+    private void applyHashIfApplicable(Map<String, RichTextXmlWriter.Attribute> attributes, String componentUri) {
+        final String target = getAttribute(attributes, "target");
+        if ("anchored".equals(target)) {
+            final String href = getAttribute(attributes, "href");
+            final String fullRequestPath = webRequestContext.getContextPath()
+                    + webRequestContext.getRequestPath();
 
-            if (lastFragmentIndex < xhtml.length()) {
-                // Final text fragment
-                richTextFragments.add(new RichTextFragmentImpl(xhtml.substring(lastFragmentIndex)));
+            final String linkName = getLinkName(componentUri, getAttribute(attributes, "title"));
+            final String hash = !isEmpty(linkName) ? ('#' + linkName.replaceAll(" ", "_").toLowerCase()) : EMPTY;
+
+            if (fullRequestPath.equalsIgnoreCase(href)) {
+                setAttribute(attributes, "href", hash);
+                setAttribute(attributes, "target", "");
+            } else {
+                setAttribute(attributes, "href", href + hash);
+                setAttribute(attributes, "target", "_top");
             }
-        } catch (TransformerException e) {
-            LOG.error("Exception while formatting XML for RichText", e);
         }
-
-        return new RichText(richTextFragments);
     }
 
-    private List<EntityModel> resolveImages(Document doc, Localization localization) throws ContentProviderException, SemanticMappingException {
-        List<Node> entityElements;
+    private String getLinkName(String componentUri, String linkTitle) {
         try {
-            entityElements = new NodeListAdapter((NodeList) XPathResolver.XPATH_IMAGES.expr().get().evaluate(doc, NODESET));
-        } catch (XPathExpressionException e) {
-            LOG.warn("Error while evaluation XPath expression", e);
-            return null;
+            // NOTE: This DD4T method requires a template URI but it does not actually use it; pass a dummy value
+            final ComponentPresentation componentPresentation = componentFactory
+                    .getComponentPresentation(componentUri, "tcm:0-0-0");
+
+            final String title = (componentPresentation != null) ? componentPresentation.getComponent().getTitle() : EMPTY;
+            return isEmpty(title) ? linkTitle : title;
+        } catch (FactoryException e) {
+            return linkTitle;
         }
+    }
 
-        List<EntityModel> embeddedEntities = new LinkedList<>();
-        for (Node imgElement : entityElements) {
-            String[] schemaTcmUriParts = imgElement.getAttributes().getNamedItem("data-schemaUri").getNodeValue().split("-");
-            final SemanticSchema semanticSchema = localization.getSemanticSchemas().get(parseLong(schemaTcmUriParts[1]));
+    /**
+     * Resolves the class of the embedded entity of the image.
+     *
+     * @return the class of the media item, or {@code null} if the image is not replaced
+     */
+    private Class<? extends ViewModel> resolveEmbeddedEntityClass(Map<String, RichTextXmlWriter.Attribute> attributes,
+                                                                 Localization localization) {
+        String[] schemaTcmUriParts = getAttribute(attributes, "data-schemaUri").split("-");
+        final SemanticSchema semanticSchema = localization.getSemanticSchemas().get(parseLong(schemaTcmUriParts[1]));
 
-            final Class<? extends ViewModel> entityClass = viewModelRegistry.getMappedModelTypes(semanticSchema.getFullyQualifiedNames());
+        final Class<? extends ViewModel> entityClass = viewModelRegistry.getMappedModelTypes(semanticSchema.getFullyQualifiedNames());
 
-            EntityModel embedded;
-            if (entityClass == null) {
-                LOG.error("Cannot determine entity type for '{}'. Please make sure " +
-                        "that an entry is registered for this view name in the ViewModelRegistry.", semanticSchema.getFullyQualifiedNames());
-                embedded = new ExceptionEntity(new NotFoundException("Cannot determine entity type for " + semanticSchema.getFullyQualifiedNames()));
-            } else {
-                MediaItem mediaItem = (MediaItem) createInstance(entityClass);
-                mediaItem.readFromXhtmlElement(imgElement);
-                embedded = mediaItem;
+        if (entityClass == null) {
+            LOG.error("Cannot determine entity type for '{}'. Please make sure " +
+                    "that an entry is registered for this view name in the ViewModelRegistry.", semanticSchema.getFullyQualifiedNames());
+        }
+        return entityClass;
+    }
+
+    private static MediaItem createEmbeddedEntity(Class<? extends ViewModel> entityClass,
+                                                  Map<String, RichTextXmlWriter.Attribute> attributes)
+            throws SemanticMappingException {
+        MediaItem mediaItem = (MediaItem) createInstance(entityClass);
+        mediaItem.readFromXhtmlElement(toElement("img", attributes));
+        return mediaItem;
+    }
+
+    /**
+     * Creates a new embedded entity for every cache hit, from the attributes of the image it was created from.
+     */
+    private static Supplier<RichTextFragment> embeddedEntitySupplier(final Class<? extends ViewModel> entityClass,
+                                                                     final Map<String, RichTextXmlWriter.Attribute> attributes) {
+        return () -> {
+            try {
+                return createEmbeddedEntity(entityClass, attributes);
+            } catch (SemanticMappingException e) {
+                LOG.warn("Exception while creating embedded entity of class {}", entityClass.getName(), e);
+                return new ExceptionEntity(e);
+            }
+        };
+    }
 
-                imgElement.getParentNode().replaceChild(doc.createProcessingInstruction(EMBEDDED_ENTITY, EMPTY), imgElement);
-                removeUnusedAttributes((Element) imgElement);
+    /**
+     * Creates a detached element with the attributes, media items read their properties from it.
+     */
+    private static Element toElement(String name, Map<String, RichTextXmlWriter.Attribute> attributes) {
+        Element element = XMLUtils.newDocument().createElementNS(null, name);
+        for (RichTextXmlWriter.Attribute attribute : attributes.values()) {
+            if (isEmpty(attribute.getNamespaceUri())) {
+                element.setAttribute(attribute.getQualifiedName(), attribute.getValue());
+            } else {
+                element.setAttributeNS(attribute.getNamespaceUri(), attribute.getQualifiedName(), attribute.getValue());
             }
-            embeddedEntities.add(embedded);
         }
-        return embeddedEntities;
+        return element;
     }
 
-    private void resolveLinks(Document document) {
-        final List<Node> linkElements;
-        try {
-            linkElements = new NodeListAdapter((NodeList) XPathResolver.XPATH_LINKS.expr().get().evaluate(document, NODESET));
-        } catch (XPathExpressionException e) {
-            LOG.warn("Error while evaluation XPath expression", e);
-            return;
+    /**
+     * Processes the parsed rich text and writes its fragments.
+     */
+    private class RichTextHandler extends DefaultHandler implements LexicalHandler {
+
+        private final Localization localization;
+
+        private final Map<String, String> resolvedLinks;
+
+        private final RichTextXmlWriter writer = new RichTextXmlWriter();
+
+        private final List<RichTextFragment> fragments = new LinkedList<>();
+
+        private final List<Supplier<RichTextFragment>> fragmentSuppliers = new ArrayList<>();
+
+        private final List<EntityModel> embeddedEntities = new ArrayList<>();
+
+        private final List<Supplier<RichTextFragment>> embeddedEntitySuppliers = new ArrayList<>();
+
+        /**
+         * Whether the started elements are written, links which are not resolved are replaced by their content.
+         */
+        private final Deque<Boolean> writtenElements = new ArrayDeque<>();
+
+        private final StringBuilder text = new StringBuilder();
+
+        private int embeddedEntityIndex;
+
+        /**
+         * Depth of the elements of an image replaced by its embedded entity, which are not written.
+         */
+        private int skippedDepth;
+
+        private boolean inCdata;
+
+        RichTextHandler(Localization localization, Map<String, String> resolvedLinks) {
+            this.localization = localization;
+            this.resolvedLinks = resolvedLinks;
+        }
+
+        List<RichTextFragment> getFragments() {
+            return fragments;
         }
 
-        for (Node linkNode : linkElements) {
-            final Element linkElement = (Element) linkNode;
+        /**
+         * Returns suppliers of new fragments with the same content as {@link #getFragments()}, to cache them.
+         */
+        List<Supplier<RichTextFragment>> getFragmentSuppliers() {
+            return fragmentSuppliers;
+        }
 
-            // Check if this link already has a resolved href
-            String linkUrl = linkElement.getAttribute("href");
-            if (isEmpty(linkUrl)) {
-                linkUrl = linkElement.getAttribute("src");
-                linkElement.removeAttribute("src");
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+            flushText();
+            if (skippedDepth > 0) {
+                skippedDepth++;
+                return;
+            }
+            if (writtenElements.isEmpty()) {
+                // the root element wrapping the rich text is not written
+                writtenElements.push(false);
+                return;
             }
 
-            if (isEmpty(linkUrl)) {
-                // Resolve a dynamic component link
-                linkUrl = linkResolver.resolveLink(linkElement.getAttributeNS(XPathResolver.XLINK_NS_URI, "href"), null, true);
+            Map<String, RichTextXmlWriter.Attribute> attributes = new TreeMap<>();
+            for (int i = 0; i < atts.getLength(); i++) {
+                attributes.put(atts.getQName(i), new RichTextXmlWriter.Attribute(atts.getQName(i), atts.getURI(i), atts.getValue(i)));
             }
 
-            if (!isEmpty(linkUrl)) {
-                linkElement.setAttribute("href", linkUrl);
-                applyHashIfApplicable(linkElement);
-                removeUnusedAttributes(linkElement);
-            } else {
-                moveChildrenToParentAndRemoveNode(linkElement);
+            try {
+                if (uri.isEmpty() && "a".equals(localName)
+                        && getAttributeNode(attributes, XPathResolver.XLINK_NS_URI, "href") != null
+                        && !resolveLink(attributes, resolvedLinks)) {
+                    writtenElements.push(false);
+                    return;
+                }
+
+                if (uri.isEmpty() && "img".equals(localName) && attributes.containsKey("data-schemaUri")) {
+                    Class<? extends ViewModel> entityClass = resolveEmbeddedEntityClass(attributes, localization);
+                    EntityModel embedded = entityClass == null ? new ExceptionEntity(new NotFoundException(
+                            "Cannot determine entity type of " + getAttribute(attributes, "data-schemaUri"))) :
+                            createEmbeddedEntity(entityClass, attributes);
+                    embeddedEntities.add(embedded);
+                    embeddedEntitySuppliers.add(entityClass == null ? null : embeddedEntitySupplier(entityClass, attributes));
+                    if (!(embedded instanceof ExceptionEntity)) {
+                        addEmbeddedEntity();
+                        skippedDepth = 1;
+                        return;
+                    }
+                }
+            } catch (SemanticMappingException e) {
+                throw new SAXException(e);
             }
+
+            int colon = qName.indexOf(':');
+            writer.startElement(qName, colon < 0 ? EMPTY : qName.substring(0, colon), uri, attributes.values());
+            writtenElements.push(true);
         }
-    }
 
-    private void applyHashIfApplicable(Element linkElement) {
-        final String target = linkElement.getAttribute("target");
-        if ("anchored".equals(target)) {
-            final String href = linkElement.getAttribute("href");
-            final String fullRequestPath = webRequestContext.getContextPath()
-                    + webRequestContext.getRequestPath();
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            flushText();
+            if (skippedDepth > 0) {
+                skippedDepth--;
+                return;
+            }
+            if (writtenElements.pop()) {
+                writer.endElement();
+            }
+        }
 
-            final String linkName = getLinkName(linkElement);
-            final String hash = !isEmpty(linkName) ? ('#' + linkName.replaceAll(" ", "_").toLowerCase()) : EMPTY;
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (skippedDepth == 0) {
+                text.append(ch, start, length);
+            }
+        }
 
-            if (fullRequestPath.equalsIgnoreCase(href)) {
-                linkElement.setAttribute("href", hash);
-                linkElement.setAttribute("target", "");
-            } else {
-                linkElement.setAttribute("href", href + hash);
-                linkElement.setAttribute("target", "_top");
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) {
+            characters(ch, start, length);
+        }
+
+        @Override
+        public void processingInstruction(String target, String data) {
+            flushText();
+            if (skippedDepth == 0) {
+                writer.processingInstruction(target, data);
             }
         }
-    }
 
-    private String getLinkName(Element linkElement) {
-        final String componentUri = linkElement.getAttributeNS(XPathResolver.XLINK_NS_URI, "href");
+        @Override
+        public void endDocument() {
+            flushText();
+            addTextFragment();
+        }
 
-        try {
-            // NOTE: This DD4T method requires a template URI but it does not actually use it; pass a dummy value
-            final ComponentPresentation componentPresentation = componentFactory
-                    .getComponentPresentation(componentUri, "tcm:0-0-0");
+        @Override
+        public void startCDATA() {
+            flushText();
+            inCdata = true;
+        }
 
-            final String title = (componentPresentation != null) ? componentPresentation.getComponent().getTitle() : EMPTY;
-            return isEmpty(title) ? linkElement.getAttribute("title") : title;
-        } catch (FactoryException e) {
-            return linkElement.getAttribute("title");
+        @Override
+        public void endCDATA() {
+            if (skippedDepth == 0) {
+                writer.cdata(text.toString());
+            }
+            text.setLength(0);
+            inCdata = false;
+        }
+
+        @Override
+        public void comment(char[] ch, int start, int length) {
+            flushText();
+            if (skippedDepth == 0) {
+                writer.comment(new String(ch, start, length));
+            }
         }
-    }
 
+        @Override
+        public void startDTD(String name, String publicId, String systemId) {
+        }
+
+        @Override
+        public void endDTD() {
+        }
+
+        @Override
+        public void startEntity(String name) {
+        }
+
+        @Override
+        public void endEntity(String name) {
+        }
+
+        private void flushText() {
+            if (text.length() > 0 && !inCdata) {
+                writer.characters(text.toString());
+                text.setLength(0);
+            }
+        }
+
+        private void addTextFragment() {
+            if (writer.hasContent()) {
+                final String html = writer.takeContent();
+                fragments.add(new RichTextFragmentImpl(html));
+                fragmentSuppliers.add(() -> new RichTextFragmentImpl(html));
+            }
+        }
+
+        private void addEmbeddedEntity() {
+            addTextFragment();
+            // the entities are taken in the order of the images, including the ones which are not replaced
+            fragmentSuppliers.add(embeddedEntitySuppliers.get(embeddedEntityIndex));
+            fragments.add((RichTextFragment) embeddedEntities.get(embeddedEntityIndex++));
+        }
+    }
 }
@@ -0,0 +1,141 @@
+package com.sdl.webapp.tridion.mapping;
+
+import com.sdl.webapp.common.api.model.MvcData;
+import com.sdl.webapp.common.api.model.RichText;
+import com.sdl.webapp.common.api.model.RichTextFragment;
+import com.sdl.webapp.common.api.model.RichTextFragmentImpl;
+import com.sdl.webapp.common.api.model.ViewModel;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Deep copy of entities of cached page models.
+ * <p>View models, the classes of the DXA model like {@link RichText} and links, collections, maps, arrays and dates
+ * are copied. Other values, like strings, Joda dates, {@link MvcData} and services used by the entities, are shared
+ * as they are not changed per request. An object referenced more than once is copied once.</p>
+ * <p>Classes are instantiated with their default constructor, entities without one cannot be copied.</p>
+ */
+final class EntityModelCopier {
+
+    private static final String MODEL_PACKAGE = "com.sdl.webapp.common.api.model.";
+
+    private static final ReflectionUtils.FieldFilter INSTANCE_FIELDS =
+            field -> !Modifier.isStatic(field.getModifiers());
+
+    private final Map<Object, Object> copies = new IdentityHashMap<>();
+
+    private static boolean isCopied(Class<?> type) {
+        return type.isArray() || Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)
+                || Date.class.isAssignableFrom(type) || ViewModel.class.isAssignableFrom(type)
+                || (type.getName().startsWith(MODEL_PACKAGE) && !type.isEnum() && !MvcData.class.isAssignableFrom(type));
+    }
+
+    /**
+     * Returns a copy of the value.
+     *
+     * @param value value to copy
+     * @param <T>   type of the value
+     * @return the copy, or the value itself if it's not copied
+     * @throws org.springframework.beans.BeanInstantiationException if a copy cannot be instantiated
+     */
+    @SuppressWarnings("unchecked")
+    <T> T copy(T value) {
+        if (value == null || !isCopied(value.getClass())) {
+            return value;
+        }
+        Object copy = copies.get(value);
+        return (T) (copy != null ? copy : createCopy(value));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object createCopy(Object value) {
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+            copies.put(value, copy);
+            for (int i = 0; i < length; i++) {
+                Array.set(copy, i, copy(Array.get(value, i)));
+            }
+            return copy;
+        }
+        if (value instanceof Collection) {
+            Collection<Object> copy = newCollection((Collection<Object>) value);
+            copies.put(value, copy);
+            for (Object element : (Collection<Object>) value) {
+                copy.add(copy(element));
+            }
+            return copy;
+        }
+        if (value instanceof Map) {
+            Map<Object, Object> copy = newMap((Map<Object, Object>) value);
+            copies.put(value, copy);
+            for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) value).entrySet()) {
+                copy.put(entry.getKey(), copy(entry.getValue()));
+            }
+            return copy;
+        }
+        if (value instanceof Date) {
+            Object copy = ((Date) value).clone();
+            copies.put(value, copy);
+            return copy;
+        }
+        return copyFields(value);
+    }
+
+    private static Object instantiate(Class<?> type) {
+        // rich text and its fragments have no default constructor, their fields are set like the fields of other classes
+        if (type == RichText.class) {
+            return new RichText((List<RichTextFragment>) null);
+        }
+        if (type == RichTextFragmentImpl.class) {
+            return new RichTextFragmentImpl(null);
+        }
+        return BeanUtils.instantiateClass(type);
+    }
+
+    private Object copyFields(Object value) {
+        final Object copy = instantiate(value.getClass());
+        copies.put(value, copy);
+        ReflectionUtils.doWithFields(value.getClass(), field -> {
+            ReflectionUtils.makeAccessible(field);
+            Object fieldValue = field.get(value);
+            Object fieldCopy = copy(fieldValue);
+            // collections of other types, like immutable collections of Guava, are not changed and stay shared
+            field.set(copy, field.getType().isPrimitive() || field.getType().isInstance(fieldCopy) ? fieldCopy : fieldValue);
+        }, INSTANCE_FIELDS);
+        return copy;
+    }
+
+    private static Collection<Object> newCollection(Collection<Object> collection) {
+        if (collection instanceof SortedSet) {
+            return new TreeSet<>(((SortedSet<Object>) collection).comparator());
+        }
+        if (collection instanceof Set) {
+            return new LinkedHashSet<>(collection.size());
+        }
+        return new ArrayList<>(collection.size());
+    }
+
+    private static Map<Object, Object> newMap(Map<Object, Object> map) {
+        if (map instanceof SortedMap) {
+            return new TreeMap<>(((SortedMap<Object, Object>) map).comparator());
+        }
+        return new LinkedHashMap<>(map.size());
+    }
+}
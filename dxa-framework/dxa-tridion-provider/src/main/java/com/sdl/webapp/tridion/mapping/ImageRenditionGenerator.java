@@ -0,0 +1,222 @@
+package com.sdl.webapp.tridion.mapping;
+
+import com.google.common.base.Splitter;
+import com.google.common.util.concurrent.RateLimiter;
+import com.sdl.webapp.common.api.MediaHelper;
+import com.sdl.webapp.common.api.content.ContentProviderException;
+import com.sdl.webapp.common.util.ExecutorUtils;
+import com.sdl.webapp.common.util.ImageUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optionally pre-generates responsive renditions of an image in background when the image is fetched
+ * from the broker, so that the first visitor after publishing doesn't wait for the image to be resized.
+ * <p>Renditions are generated for the {@link MediaHelper#getImageWidths() image widths} and the configured aspect
+ * ratios, with the same file names {@link MediaHelper#getResponsiveImageUrl(String, String, double, int)} produces. Generation is rate limited
+ * and the number of queued renditions is bounded; renditions that don't fit in the queue are simply
+ * generated on request as before.</p>
+ */
+@Component
+@Slf4j
+public class ImageRenditionGenerator {
+
+    private final Set<String> scheduledSources = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    private final AtomicLong generatedCount = new AtomicLong();
+
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    @Value("${dxa.tridion.image.renditions.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Aspect ratios of the renditions, if empty the original and the default aspect ratio.
+     */
+    @Value("${dxa.tridion.image.renditions.aspects:}")
+    private String aspects;
+
+    @Value("${dxa.tridion.image.renditions.ratePerSecond:10}")
+    private double ratePerSecond;
+
+    @Value("${dxa.tridion.image.renditions.maxQueueSize:1000}")
+    private int maxQueueSize;
+
+    @Autowired
+    private ImageResizeService imageResizeService;
+
+    @Autowired
+    private MediaHelper mediaHelper;
+
+    private int[] renditionWidths;
+
+    private List<Double> renditionAspects;
+
+    private RateLimiter rateLimiter;
+
+    private ExecutorService renditionExecutor;
+
+    @PostConstruct
+    public void init() {
+        renditionWidths = mediaHelper.getImageWidths();
+        renditionAspects = new ArrayList<>();
+        for (String aspect : Splitter.on(',').trimResults().omitEmptyStrings().split(aspects)) {
+            renditionAspects.add(Double.parseDouble(aspect));
+        }
+        if (renditionAspects.isEmpty()) {
+            renditionAspects.add(0.0);
+            renditionAspects.add(mediaHelper.getDefaultMediaAspect());
+        }
+
+        if (enabled) {
+            rateLimiter = RateLimiter.create(ratePerSecond);
+            renditionExecutor = ExecutorUtils.newBackgroundExecutor("dxa-image-renditions", 1);
+            log.info("Image renditions are pre-generated for widths {} and aspects {}, up to {} per second",
+                    Arrays.toString(renditionWidths), renditionAspects, ratePerSecond);
+        } else {
+            rateLimiter = null;
+            renditionExecutor = null;
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (renditionExecutor != null) {
+            renditionExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Schedules generation of the renditions of the image in background if pre-generation is enabled.
+     * <p>Renditions which are already up to date are skipped. If the renditions of this image are already
+     * scheduled, or the queue is full, nothing is scheduled.</p>
+     *
+     * @param file              file of the requested image or one of its renditions,
+     *                          renditions are written to the same folder
+     * @param pathInfo          path info of the requested image
+     * @param sourceKey         unique key of the published version of the original binary,
+     *                          see {@link ImageResizeService#writeToFile(File, ImageUtils.StaticContentPathInfo, String, ImageResizeService.ContentLoader)}
+     * @param lastPublishedTime last publish time of the binary
+     * @param content           loads the original binary
+     */
+    public void scheduleRenditions(@NotNull File file, @NotNull ImageUtils.StaticContentPathInfo pathInfo,
+                                   @NotNull final String sourceKey, final long lastPublishedTime,
+                                   @NotNull final ImageResizeService.ContentLoader content) {
+        if (renditionExecutor == null) {
+            return;
+        }
+
+        final List<Rendition> renditions = getRenditions(file, pathInfo);
+        if (renditions.isEmpty() || !scheduledSources.add(sourceKey)) {
+            return;
+        }
+
+        if (queueDepth.addAndGet(renditions.size()) > maxQueueSize) {
+            log.debug("Rendition queue is full, renditions of {} are not pre-generated", pathInfo.getFileName());
+            queueDepth.addAndGet(-renditions.size());
+            droppedCount.addAndGet(renditions.size());
+            scheduledSources.remove(sourceKey);
+            return;
+        }
+
+        renditionExecutor.execute(() -> {
+            try {
+                for (Rendition rendition : renditions) {
+                    generate(rendition, sourceKey, lastPublishedTime, content);
+                }
+            } finally {
+                scheduledSources.remove(sourceKey);
+            }
+        });
+    }
+
+    /**
+     * Returns the number of renditions queued for pre-generation.
+     *
+     * @return number of queued renditions
+     */
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    /**
+     * Returns the number of pre-generated renditions.
+     *
+     * @return number of generated renditions
+     */
+    public long getGeneratedCount() {
+        return generatedCount.get();
+    }
+
+    /**
+     * Returns the number of renditions that were not pre-generated because the queue was full.
+     *
+     * @return number of dropped renditions
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private List<Rendition> getRenditions(File file, ImageUtils.StaticContentPathInfo pathInfo) {
+        List<Rendition> renditions = new ArrayList<>(renditionWidths.length * renditionAspects.size());
+        for (double aspect : renditionAspects) {
+            for (int width : renditionWidths) {
+                String url = mediaHelper.getResizedImageUrl(pathInfo.getFileName(), width, aspect);
+
+                ImageUtils.StaticContentPathInfo renditionPathInfo = new ImageUtils.StaticContentPathInfo(url);
+                if (renditionPathInfo.isImage() && renditionPathInfo.isResized()
+                        && renditionPathInfo.getImageFormatName() != null
+                        && ImageIO.getImageWritersByFormatName(renditionPathInfo.getImageFormatName()).hasNext()) {
+                    File renditionFile = new File(file.getParentFile(), url.substring(url.lastIndexOf('/') + 1));
+                    renditions.add(new Rendition(renditionFile, renditionPathInfo));
+                }
+            }
+        }
+        return renditions;
+    }
+
+    private void generate(Rendition rendition, String sourceKey, long lastPublishedTime, ImageResizeService.ContentLoader content) {
+        try {
+            if (!AbstractDefaultContentProvider.isToBeRefreshed(rendition.getFile(), lastPublishedTime)) {
+                log.trace("Rendition {} is up to date", rendition.getFile());
+                return;
+            }
+
+            rateLimiter.acquire();
+            imageResizeService.writeToFile(rendition.getFile(), rendition.getPathInfo(), sourceKey, content);
+            generatedCount.incrementAndGet();
+            log.debug("Pre-generated image rendition {}", rendition.getFile());
+        } catch (ContentProviderException | IOException | RuntimeException e) {
+            log.warn("Could not pre-generate image rendition {}", rendition.getFile(), e);
+        } finally {
+            queueDepth.decrementAndGet();
+        }
+    }
+
+    @lombok.Value
+    private static class Rendition {
+
+        private File file;
+
+        private ImageUtils.StaticContentPathInfo pathInfo;
+    }
+}
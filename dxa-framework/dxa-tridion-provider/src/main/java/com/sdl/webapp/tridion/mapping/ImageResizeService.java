@@ -0,0 +1,210 @@
+package com.sdl.webapp.tridion.mapping;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.sdl.webapp.common.api.content.ContentProviderException;
+import com.sdl.webapp.common.util.ExecutorUtils;
+import com.sdl.webapp.common.util.ImageUtils;
+import com.sdl.webapp.common.util.SingleFlight;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.util.concurrent.Uninterruptibles.getUninterruptibly;
+
+/**
+ * Writes static content files, resizing images to the size requested in the file name.
+ * <p>Resizing is done by a bounded pool of worker threads, so that a cold cache after publishing does not
+ * make every request thread decode and resize images at the same time. Concurrent requests for the same
+ * file share one write, and files are written atomically, so they are never served partially written.</p>
+ * <p>Decoded source images are kept for a short time, so that the width variants of a responsive image
+ * are resized from the same decoded image and the original binary is only loaded and decoded once. An image
+ * heavier than {@code dxa.tridion.image.resize.sourceCacheMaxMegabytes} (its binary plus four bytes per pixel)
+ * is not kept and decoded again for every width.</p>
+ */
+@Component
+@Slf4j
+public class ImageResizeService {
+
+    private final SingleFlight<String, Void> fileWrites = new SingleFlight<>();
+
+    @Value("${dxa.tridion.image.resize.threads:2}")
+    private int resizeThreads;
+
+    @Value("${dxa.tridion.image.resize.sourceCacheMaxMegabytes:64}")
+    private long sourceCacheMaxMegabytes;
+
+    @Value("${dxa.tridion.image.resize.sourceCacheExpireSeconds:60}")
+    private long sourceCacheExpireSeconds;
+
+    private ExecutorService resizeExecutor;
+
+    private Cache<String, DecodedImage> decodedImages;
+
+    private static void rethrow(Throwable cause) throws ContentProviderException, IOException {
+        if (cause instanceof ContentProviderException) {
+            throw (ContentProviderException) cause;
+        }
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw new ContentProviderException("Could not write static content", cause);
+    }
+
+    @PostConstruct
+    public void init() {
+        // Guava splits the maximum weight between the segments of the cache, with the default four segments an
+        // image heavier than a quarter of the maximum would be evicted right after it's loaded
+        decodedImages = CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .maximumWeight(sourceCacheMaxMegabytes * 1024 * 1024)
+                .weigher((String key, DecodedImage image) -> image.weight())
+                .expireAfterAccess(sourceCacheExpireSeconds, TimeUnit.SECONDS)
+                .build();
+
+        if (resizeThreads > 0) {
+            resizeExecutor = ExecutorUtils.newBackgroundExecutor("dxa-image-resize", resizeThreads);
+            log.info("Images are resized using up to {} threads", resizeThreads);
+        } else {
+            resizeExecutor = null;
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (resizeExecutor != null) {
+            resizeExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Writes the static content file, resizing the image if the path requests it.
+     * <p>If the same file is already being written, waits for that write instead.</p>
+     *
+     * @param file      file to write
+     * @param pathInfo  path info of the requested static content
+     * @param sourceKey unique key of the published version of the original binary, e.g. its ID and publish date,
+     *                  variants of the same image share it
+     * @param content   loads the original binary
+     * @throws ContentProviderException if the content cannot be loaded or resized
+     * @throws IOException              if the file cannot be written
+     */
+    public void writeToFile(@NotNull final File file, @NotNull final ImageUtils.StaticContentPathInfo pathInfo,
+                            @NotNull final String sourceKey,
+                            @NotNull final ContentLoader content)
+            throws ContentProviderException, IOException {
+        try {
+            fileWrites.execute(file.getAbsolutePath(), new SingleFlight.Call<Void, Exception>() {
+                @Override
+                public Void call() throws Exception {
+                    if (pathInfo.isImage() && pathInfo.isResized()) {
+                        resize(file, pathInfo, sourceKey, content);
+                    } else {
+                        ImageUtils.writeAtomically(file, content.load());
+                    }
+                    return null;
+                }
+            });
+        } catch (Exception e) {
+            rethrow(e);
+        }
+    }
+
+    private void resize(final File file, final ImageUtils.StaticContentPathInfo pathInfo, final String sourceKey,
+                        final ContentLoader content)
+            throws ContentProviderException, IOException {
+        if (resizeExecutor == null) {
+            resizeNow(file, pathInfo, sourceKey, content);
+            return;
+        }
+
+        Future<?> resize = resizeExecutor.submit((Callable<Void>) () -> {
+            resizeNow(file, pathInfo, sourceKey, content);
+            return null;
+        });
+        try {
+            getUninterruptibly(resize);
+        } catch (ExecutionException e) {
+            rethrow(e.getCause());
+        }
+    }
+
+    private void resizeNow(File file, ImageUtils.StaticContentPathInfo pathInfo, String sourceKey,
+                           ContentLoader content)
+            throws ContentProviderException, IOException {
+        DecodedImage source = getDecodedImage(sourceKey, content);
+        log.debug("Resizing image {} to file {}", pathInfo.getFileName(), file);
+        ImageUtils.writeAtomically(file, ImageUtils.resizeImage(source.getImage(), source.getContent(), pathInfo));
+    }
+
+    private DecodedImage getDecodedImage(String sourceKey, final ContentLoader content)
+            throws ContentProviderException, IOException {
+        try {
+            // concurrent loads of the same source are deduplicated by the cache
+            return decodedImages.get(sourceKey, () -> {
+                byte[] original = content.load();
+                return new DecodedImage(original, ImageUtils.readImage(original));
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            rethrow(e.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the approximate number of decoded source images kept in memory.
+     *
+     * @return number of decoded images
+     */
+    public long getDecodedImageCount() {
+        return decodedImages.size();
+    }
+
+    @lombok.Value
+    private static class DecodedImage {
+
+        private byte[] content;
+
+        private BufferedImage image;
+
+        int weight() {
+            long weight = content.length + 4L * image.getWidth() * image.getHeight();
+            return (int) Math.min(weight, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Loads the original binary.
+     */
+    @FunctionalInterface
+    public interface ContentLoader {
+
+        /**
+         * Loads the original binary.
+         *
+         * @return content of the binary
+         * @throws ContentProviderException if the binary cannot be found
+         * @throws IOException              if the binary cannot be read
+         */
+        byte[] load() throws ContentProviderException, IOException;
+    }
+}
@@ -24,6 +24,7 @@ import com.sdl.webapp.common.api.model.page.DefaultPageModel;
 import com.sdl.webapp.common.api.model.region.RegionModelImpl;
 import com.sdl.webapp.common.api.model.region.RegionModelSetImpl;
 import com.sdl.webapp.common.exceptions.DxaException;
+import com.sdl.webapp.common.util.ExecutorUtils;
 import com.sdl.webapp.tridion.SemanticFieldDataProviderImpl;
 import com.sdl.webapp.tridion.fields.FieldConverterRegistry;
 import com.sdl.webapp.tridion.fields.converters.FieldConverter;
@@ -46,17 +47,28 @@ import org.joda.time.format.ISODateTimeFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.util.concurrent.Uninterruptibles.getUninterruptibly;
 import static com.sdl.webapp.util.dd4t.MvcDataHelper.createPageMvcData;
 import static com.sdl.webapp.util.dd4t.MvcDataHelper.createRegionMvcData;
 import static com.sdl.webapp.util.dd4t.MvcDataHelper.getRegionName;
@@ -99,6 +111,13 @@ public final class PageBuilderImpl implements PageBuilder {
     @Autowired
     private ComponentPresentationFactory dd4tComponentPresentationFactory;
 
+    @Value("${dxa.tridion.pagebuilder.fetch.threads:0}")
+    private int fetchThreads;
+
+    private final PageFetchMetrics fetchMetrics = new PageFetchMetrics();
+
+    private ExecutorService fetchExecutor;
+
     private static RegionModel getRegionFromIncludePage(PageModel page, String includeFileName) {
         try {
             MvcData regionMvcData = MvcDataCreator.creator()
@@ -154,6 +173,24 @@ public final class PageBuilderImpl implements PageBuilder {
         }
     }
 
+    private static <T> T getFetched(Future<T> fetch) throws ContentProviderException {
+        try {
+            return getUninterruptibly(fetch);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ContentProviderException) {
+                throw (ContentProviderException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ContentProviderException("Could not fetch content for a page.", cause);
+        }
+    }
+
     private static String extract(Map<String, Field> metaMap, String key) {
         return metaMap.get(key).getValues().get(0).toString();
     }
@@ -174,6 +211,30 @@ public final class PageBuilderImpl implements PageBuilder {
         return xpmMetaDataBuilder.build();
     }
 
+    @PostConstruct
+    public void init() {
+        if (fetchThreads > 0) {
+            fetchExecutor = ExecutorUtils.newBoundedExecutor("dxa-page-fetch", fetchThreads);
+            LOG.info("Include pages and dynamic component presentations are fetched concurrently using up to {} threads", fetchThreads);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (fetchExecutor != null) {
+            fetchExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Returns the metrics of content fetched while building pages.
+     *
+     * @return fetch metrics
+     */
+    public PageFetchMetrics getFetchMetrics() {
+        return fetchMetrics;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -188,6 +249,7 @@ public final class PageBuilderImpl implements PageBuilder {
     @Override
     public PageModel createPage(org.dd4t.contentmodel.Page genericPage, PageModel originalPageModel, Localization localization, ContentProvider contentProvider)
             throws ContentProviderException {
+        final long start = System.nanoTime();
 
         final PageModel page;
         try {
@@ -196,55 +258,113 @@ public final class PageBuilderImpl implements PageBuilder {
             throw new ContentProviderException(e);
         }
 
-        RegionModelSet predefinedRegions = createPredefinedRegions(genericPage.getPageTemplate());
-        page.setRegions(predefinedRegions);
-
-        RegionModelSet cpRegions = regionBuilder.buildRegions(page, genericPage.getComponentPresentations(), new DD4TRegionBuilderCallback(), localization);
-
-        final RegionModelSet regions = mergeAllTopLevelRegions(predefinedRegions, cpRegions);
-
         String localizationPath = localization.getPath();
         if (!localizationPath.endsWith("/")) {
             localizationPath = localizationPath + '/';
         }
 
-        // Get and add includes
         final String pageTypeId = genericPage.getPageTemplate().getId().split("-")[1];
-        for (String include : localization.getIncludes(pageTypeId)) {
-            final String includeUrl = localizationPath + include;
-            PageModel includePageModel = contentProvider.getPageModel(includeUrl, localization);
-            final RegionModel includePageRegion = getRegionFromIncludePage(includePageModel, include);
-
-            RegionModel existingRegion;
-            if (includePageRegion != null) {
-                if (regions.containsName(includePageRegion.getName())) {
-                    // Region with same name already exists; merge include Page Region.
-                    existingRegion = regions.get(includePageRegion.getName());
-
-                    existingRegion.getRegions().addAll(includePageModel.getRegions());
-
-                    Map<String, Object> xpmMetadata = existingRegion.getXpmMetadata();
-                    if (xpmMetadata != null) {
-                        xpmMetadata.remove(RegionModelImpl.INCLUDED_FROM_PAGE_ID_XPM_METADATA_KEY);
-                        xpmMetadata.remove(RegionModelImpl.INCLUDED_FROM_PAGE_TITLE_XPM_METADATA_KEY);
-                        xpmMetadata.remove(RegionModelImpl.INCLUDED_FROM_PAGE_FILE_NAME_XPM_METADATA_KEY);
-                    }
+        final List<String> includes = localization.getIncludes(pageTypeId);
+
+        // In concurrent mode all the includes and dynamic CPs are requested upfront, but consumed in the original order
+        final List<Future<PageModel>> includeFetches = new ArrayList<>();
+        final Map<ComponentPresentation, Future<ComponentPresentation>> dynamicCpFetches = new IdentityHashMap<>();
+        int dynamicCpCount = 0;
+        for (ComponentPresentation componentPresentation : genericPage.getComponentPresentations()) {
+            if (componentPresentation.isDynamic()) {
+                dynamicCpCount++;
+            }
+        }
 
-                    LOG.info("Merged Include Page [{}] into Region [{}]. " +
-                                    "Note that merged Regions can't be edited properly in XPM (yet).",
-                            includePageModel, existingRegion);
-                } else {
-                    includePageRegion.getRegions().addAll(includePageModel.getRegions());
-                    regions.add(includePageRegion);
+        try {
+            if (fetchExecutor != null) {
+                for (String include : includes) {
+                    final String includeUrl = localizationPath + include;
+                    includeFetches.add(submitFetch(() -> contentProvider.getPageModel(includeUrl, localization)));
+                }
+                for (ComponentPresentation componentPresentation : genericPage.getComponentPresentations()) {
+                    if (componentPresentation.isDynamic()) {
+                        dynamicCpFetches.put(componentPresentation,
+                                submitFetch(() -> fetchDynamicComponentPresentation(componentPresentation)));
+                    }
                 }
             }
+
+            RegionModelSet predefinedRegions = createPredefinedRegions(genericPage.getPageTemplate());
+            page.setRegions(predefinedRegions);
+
+            RegionModelSet cpRegions = regionBuilder.buildRegions(page, genericPage.getComponentPresentations(),
+                    new DD4TRegionBuilderCallback(dynamicCpFetches), localization);
+
+            final RegionModelSet regions = mergeAllTopLevelRegions(predefinedRegions, cpRegions);
+
+            // Get and add includes
+            for (int i = 0; i < includes.size(); i++) {
+                final String include = includes.get(i);
+                PageModel includePageModel = includeFetches.isEmpty() ?
+                        contentProvider.getPageModel(localizationPath + include, localization) :
+                        getFetched(includeFetches.get(i));
+                mergeIncludePage(regions, includePageModel, include);
+            }
+
+            page.setRegions(regions);
+        } finally {
+            // do not leave fetches running after the request if building the page failed
+            ExecutorUtils.awaitAll(includeFetches);
+            ExecutorUtils.awaitAll(dynamicCpFetches.values());
         }
 
-        page.setRegions(regions);
+        final long wallTime = System.nanoTime() - start;
+        fetchMetrics.record(includes.size() + dynamicCpCount, wallTime);
+        LOG.debug("Built page {} with {} include pages and {} dynamic component presentations in {} ms ({})",
+                genericPage.getId(), includes.size(), dynamicCpCount, TimeUnit.NANOSECONDS.toMillis(wallTime),
+                fetchExecutor != null ? "concurrent" : "sequential");
 
         return page;
     }
 
+    private void mergeIncludePage(RegionModelSet regions, PageModel includePageModel, String include) {
+        final RegionModel includePageRegion = getRegionFromIncludePage(includePageModel, include);
+
+        RegionModel existingRegion;
+        if (includePageRegion != null) {
+            if (regions.containsName(includePageRegion.getName())) {
+                // Region with same name already exists; merge include Page Region.
+                existingRegion = regions.get(includePageRegion.getName());
+
+                existingRegion.getRegions().addAll(includePageModel.getRegions());
+
+                Map<String, Object> xpmMetadata = existingRegion.getXpmMetadata();
+                if (xpmMetadata != null) {
+                    xpmMetadata.remove(RegionModelImpl.INCLUDED_FROM_PAGE_ID_XPM_METADATA_KEY);
+                    xpmMetadata.remove(RegionModelImpl.INCLUDED_FROM_PAGE_TITLE_XPM_METADATA_KEY);
+                    xpmMetadata.remove(RegionModelImpl.INCLUDED_FROM_PAGE_FILE_NAME_XPM_METADATA_KEY);
+                }
+
+                LOG.info("Merged Include Page [{}] into Region [{}]. " +
+                                "Note that merged Regions can't be edited properly in XPM (yet).",
+                        includePageModel, existingRegion);
+            } else {
+                includePageRegion.getRegions().addAll(includePageModel.getRegions());
+                regions.add(includePageRegion);
+            }
+        }
+    }
+
+    private <T> Future<T> submitFetch(Callable<T> fetch) {
+        return fetchExecutor.submit(ExecutorUtils.withRequestContext(fetch));
+    }
+
+    private ComponentPresentation fetchDynamicComponentPresentation(ComponentPresentation componentPresentation) throws ContentProviderException {
+        try {
+            // Fetch the dynamic component presentation and replace the dummy static one
+            return dd4tComponentPresentationFactory.getComponentPresentation(
+                    componentPresentation.getComponent().getId(), componentPresentation.getComponentTemplate().getId());
+        } catch (Exception e) {
+            throw new ContentProviderException("Could not fetch dynamic component presentation.", e);
+        }
+    }
+
     private PageModel createPageModel(org.dd4t.contentmodel.Page genericPage, Localization localization) throws DxaException, ContentProviderException {
         MvcData pageMvcData = createPageMvcData(genericPage.getPageTemplate());
         Class pageModelType = viewModelRegistry.getViewModelType(pageMvcData);
@@ -486,17 +606,18 @@ public final class PageBuilderImpl implements PageBuilder {
 
     private class DD4TRegionBuilderCallback implements RegionBuilderCallback {
 
+        private final Map<ComponentPresentation, Future<ComponentPresentation>> dynamicCpFetches;
+
+        DD4TRegionBuilderCallback(Map<ComponentPresentation, Future<ComponentPresentation>> dynamicCpFetches) {
+            this.dynamicCpFetches = dynamicCpFetches;
+        }
+
         @Override
         public EntityModel buildEntity(Object source, Localization localization) throws ContentProviderException {
             ComponentPresentation componentPresentation = (ComponentPresentation) source;
             if (componentPresentation.isDynamic()) {
-                try {
-                    // Fetch the dynamic component presentation and replace the dummy static one
-                    componentPresentation = dd4tComponentPresentationFactory.getComponentPresentation(
-                            componentPresentation.getComponent().getId(), componentPresentation.getComponentTemplate().getId());
-                } catch (Exception e) {
-                    throw new ContentProviderException("Could not fetch dynamic component presentation.", e);
-                }
+                Future<ComponentPresentation> fetch = dynamicCpFetches.get(componentPresentation);
+                componentPresentation = fetch != null ? getFetched(fetch) : fetchDynamicComponentPresentation(componentPresentation);
             }
             return modelBuilderPipeline.createEntityModel(componentPresentation, localization);
         }
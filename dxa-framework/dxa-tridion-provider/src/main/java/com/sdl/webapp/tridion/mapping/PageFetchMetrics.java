@@ -0,0 +1,94 @@
+package com.sdl.webapp.tridion.mapping;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregated metrics of content fetched while building pages: the fan-out (number of include pages
+ * and dynamic component presentations fetched for a page) and the wall time of building a page.
+ */
+public class PageFetchMetrics {
+
+    private final AtomicLong pageCount = new AtomicLong();
+
+    private final AtomicLong fetchCount = new AtomicLong();
+
+    private final AtomicLong maxFanOut = new AtomicLong();
+
+    private final AtomicLong totalWallTimeNanos = new AtomicLong();
+
+    private final AtomicLong maxWallTimeNanos = new AtomicLong();
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    void record(int fanOut, long wallTimeNanos) {
+        pageCount.incrementAndGet();
+        fetchCount.addAndGet(fanOut);
+        totalWallTimeNanos.addAndGet(wallTimeNanos);
+        updateMax(maxFanOut, fanOut);
+        updateMax(maxWallTimeNanos, wallTimeNanos);
+    }
+
+    /**
+     * Returns the number of built pages.
+     *
+     * @return number of pages
+     */
+    public long getPageCount() {
+        return pageCount.get();
+    }
+
+    /**
+     * Returns the total number of include pages and dynamic component presentations fetched for all pages.
+     *
+     * @return number of fetches
+     */
+    public long getFetchCount() {
+        return fetchCount.get();
+    }
+
+    /**
+     * Returns the highest number of fetches made for a single page.
+     *
+     * @return maximum fan-out
+     */
+    public long getMaxFanOut() {
+        return maxFanOut.get();
+    }
+
+    /**
+     * Returns the average number of fetches made for a page.
+     *
+     * @return average fan-out, {@code 0} if no pages were built
+     */
+    public double getAverageFanOut() {
+        long pages = pageCount.get();
+        return pages == 0 ? 0 : (double) fetchCount.get() / pages;
+    }
+
+    /**
+     * Returns the longest time spent building a single page.
+     *
+     * @param unit time unit of the result
+     * @return maximum wall time
+     */
+    public long getMaxWallTime(TimeUnit unit) {
+        return unit.convert(maxWallTimeNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the average time spent building a page.
+     *
+     * @param unit time unit of the result
+     * @return average wall time, {@code 0} if no pages were built
+     */
+    public long getAverageWallTime(TimeUnit unit) {
+        long pages = pageCount.get();
+        return pages == 0 ? 0 : unit.convert(totalWallTimeNanos.get() / pages, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,305 @@
+package com.sdl.webapp.tridion.mapping;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.sdl.webapp.common.api.WebRequestContext;
+import com.sdl.webapp.common.api.localization.Localization;
+import com.sdl.webapp.common.api.model.EntityModel;
+import com.sdl.webapp.common.api.model.MvcData;
+import com.sdl.webapp.common.api.model.PageModel;
+import com.sdl.webapp.common.api.model.RegionModel;
+import com.sdl.webapp.common.api.model.RegionModelSet;
+import com.sdl.webapp.common.api.model.ViewModel;
+import com.sdl.webapp.common.api.model.page.DefaultPageModel;
+import com.sdl.webapp.common.api.model.region.RegionModelImpl;
+import com.sdl.webapp.common.api.model.region.RegionModelSetImpl;
+import com.sdl.webapp.common.exceptions.DxaException;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.joda.time.DateTime;
+import org.springframework.beans.BeanInstantiationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.sdl.webapp.common.api.model.mvcdata.DefaultsMvcData.getDefaultActionName;
+import static com.sdl.webapp.common.api.model.mvcdata.DefaultsMvcData.getDefaultControllerAreaName;
+import static com.sdl.webapp.common.api.model.mvcdata.DefaultsMvcData.getDefaultControllerName;
+
+/**
+ * Optional cache of fully built {@link PageModel}s keyed by localization and page path.
+ * <p>An entry is only used while the last published date of the DD4T page it was built from stays the same.
+ * Because include pages are merged into the page model, entries also expire after a configured time
+ * to pick up republished include pages.</p>
+ * <p>Cached models are never handed out directly. Every hit returns a deep copy with request-specific metadata
+ * ({@code og:url}) applied, so changes made while handling one request do not leak into others. Entities are copied
+ * by {@link EntityModelCopier}. Only pages of type {@link DefaultPageModel} with {@link RegionModelImpl} regions,
+ * no entities with custom controllers and entities which can be copied are cached.</p>
+ * <p>The cache is disabled by default and is always bypassed in preview (XPM) sessions.</p>
+ */
+@Component
+@Slf4j
+public class PageModelCache {
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong uncacheableCount = new AtomicLong();
+
+    @Value("${dxa.tridion.pagemodel.cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${dxa.tridion.pagemodel.cache.maxSize:1000}")
+    private long maxSize;
+
+    @Value("${dxa.tridion.pagemodel.cache.expireAfterWriteSeconds:300}")
+    private long expireAfterWriteSeconds;
+
+    @Autowired
+    private WebRequestContext webRequestContext;
+
+    private Cache<PageKey, CachedPageModel> cache;
+
+    private static boolean isCacheable(PageModel pageModel) {
+        return pageModel.getClass() == DefaultPageModel.class && areCacheable(pageModel.getRegions());
+    }
+
+    private static boolean areCacheable(RegionModelSet regions) {
+        for (RegionModel region : regions) {
+            if (region.getClass() != RegionModelImpl.class || !areCacheable(region.getRegions())) {
+                return false;
+            }
+            for (EntityModel entity : region.getEntities()) {
+                if (entity != null && isCustomAction(entity.getMvcData())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCustomAction(MvcData mvcData) {
+        return mvcData != null && (!Objects.equals(mvcData.getActionName(), getDefaultActionName())
+                || !Objects.equals(mvcData.getControllerName(), getDefaultControllerName())
+                || !Objects.equals(mvcData.getControllerAreaName(), getDefaultControllerAreaName()));
+    }
+
+    private static DefaultPageModel copyOf(PageModel pageModel) {
+        // the copy constructor copies meta and XPM metadata but shares the regions, which are copied as well
+        DefaultPageModel copy = new DefaultPageModel(pageModel);
+        copy.setRegions(copyOf(pageModel.getRegions(), new EntityModelCopier()));
+        copyExtensionData(pageModel, copy);
+        return copy;
+    }
+
+    private static RegionModelSet copyOf(RegionModelSet regions, EntityModelCopier entityCopier) {
+        RegionModelSet copy = new RegionModelSetImpl();
+        for (RegionModel region : regions) {
+            copy.add(copyOf(region, entityCopier));
+        }
+        return copy;
+    }
+
+    private static RegionModel copyOf(RegionModel region, EntityModelCopier entityCopier) {
+        RegionModelImpl copy;
+        try {
+            copy = new RegionModelImpl(region.getName());
+        } catch (DxaException e) {
+            throw new IllegalStateException("Region in a cached page model has no name, this should never happen", e);
+        }
+        for (EntityModel entity : region.getEntities()) {
+            copy.getEntities().add(entityCopier.copy(entity));
+        }
+        copy.setRegions(copyOf(region.getRegions(), entityCopier));
+        copyViewModelData(region, copy);
+        return copy;
+    }
+
+    private static void copyViewModelData(ViewModel source, ViewModel target) {
+        target.setMvcData(source.getMvcData());
+        target.setHtmlClasses(source.getHtmlClasses());
+        if (source.getXpmMetadata() != null) {
+            // setXpmMetadata is not a part of ViewModel API
+            target.getXpmMetadata().putAll(source.getXpmMetadata());
+        }
+        copyExtensionData(source, target);
+    }
+
+    private static void copyExtensionData(ViewModel source, ViewModel target) {
+        if (source.getExtensionData() != null) {
+            for (Map.Entry<String, Object> entry : source.getExtensionData().entrySet()) {
+                target.addExtensionData(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .build();
+        log.info("Page model cache is {}, max size = {}, expire after write = {}s",
+                enabled ? "enabled" : "disabled", maxSize, expireAfterWriteSeconds);
+    }
+
+    /**
+     * Returns whether the cache is used for the current request.
+     *
+     * @return whether the cache is enabled and the current request is not a preview request
+     */
+    public boolean isActive() {
+        return enabled && !webRequestContext.isPreview();
+    }
+
+    /**
+     * Returns a copy of the cached page model if there is one built from the page published at the given date.
+     *
+     * @param localization      current localization
+     * @param path              path of the page
+     * @param lastPublishedDate last published date of the current DD4T page
+     * @return a copy of the cached page model, or {@code null} if there is no fresh cached model
+     */
+    @Nullable
+    public PageModel get(@NotNull Localization localization, @NotNull String path, @Nullable DateTime lastPublishedDate) {
+        if (!isActive()) {
+            return null;
+        }
+
+        PageKey key = createKey(localization, path);
+        CachedPageModel cached = cache.getIfPresent(key);
+        if (cached == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        if (!Objects.equals(cached.getLastPublishedDate(), lastPublishedDate)) {
+            log.debug("Page {} was republished at {}, invalidating its cached model", key, lastPublishedDate);
+            cache.asMap().remove(key, cached);
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        log.trace("Found cached page model for {}", key);
+        hitCount.incrementAndGet();
+        return withRequestData(copyOf(cached.getPageModel()));
+    }
+
+    /**
+     * Puts the page model to the cache if it is cacheable and returns a model to use in the current request.
+     *
+     * @param localization      current localization
+     * @param path              path of the page
+     * @param lastPublishedDate last published date of the DD4T page the model was built from
+     * @param pageModel         page model that was just built
+     * @return the same page model if it's not cached, or a copy of it otherwise
+     */
+    @Contract("_, _, _, null -> null; _, _, _, !null -> !null")
+    public PageModel put(@NotNull Localization localization, @NotNull String path, @Nullable DateTime lastPublishedDate,
+                         @Nullable PageModel pageModel) {
+        if (pageModel == null || !isActive()) {
+            return pageModel;
+        }
+
+        if (!isCacheable(pageModel)) {
+            log.trace("Page model {} is not cacheable", path);
+            uncacheableCount.incrementAndGet();
+            return pageModel;
+        }
+
+        PageModel copy;
+        try {
+            copy = copyOf(pageModel);
+        } catch (BeanInstantiationException e) {
+            log.trace("Page model {} is not cacheable, its entities cannot be copied", path, e);
+            uncacheableCount.incrementAndGet();
+            return pageModel;
+        }
+
+        cache.put(createKey(localization, path), new CachedPageModel(lastPublishedDate, pageModel));
+        return copy;
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns the number of requests served with a cached page model.
+     *
+     * @return number of cache hits
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of requests that found no cached page model or a model of an outdated page.
+     *
+     * @return number of cache misses
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the number of built page models that were not cached because they may be changed per request
+     * or their entities cannot be copied.
+     *
+     * @return number of not cacheable page models
+     */
+    public long getUncacheableCount() {
+        return uncacheableCount.get();
+    }
+
+    /**
+     * Returns the approximate number of entries in the cache.
+     *
+     * @return number of entries
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    private PageModel withRequestData(PageModel pageModel) {
+        if (pageModel.getMeta().containsKey("og:url")) {
+            pageModel.getMeta().put("og:url", webRequestContext.getFullUrl());
+        }
+        return pageModel;
+    }
+
+    private PageKey createKey(Localization localization, String path) {
+        // og:image is an absolute URL so the key should also include the base URL
+        return new PageKey(localization.getId(), webRequestContext.getBaseUrl() + webRequestContext.getContextPath(), path);
+    }
+
+    @lombok.Value
+    private static class PageKey {
+
+        private String localizationId;
+
+        private String baseUrl;
+
+        private String path;
+    }
+
+    @lombok.Value
+    private static class CachedPageModel {
+
+        private DateTime lastPublishedDate;
+
+        private PageModel pageModel;
+    }
+}
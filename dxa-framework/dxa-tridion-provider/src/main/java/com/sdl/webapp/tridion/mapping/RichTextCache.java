@@ -0,0 +1,192 @@
+package com.sdl.webapp.tridion.mapping;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.sdl.webapp.common.api.model.RichText;
+import com.sdl.webapp.common.api.model.RichTextFragment;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache of processed rich text by a hash of its source XHTML, the localization and the link resolution context.
+ * <p>The same component is often shown on many pages and in lists, this saves parsing its rich text and resolving
+ * its links every time. Every entry keeps the links that were resolved for it; an entry is only used if its links
+ * still resolve the same, so it's invalidated with the link cache when a linked item is (un)published. Entries
+ * expire after a configured time to pick up other changes, like titles of linked components in anchored links.
+ * The memory of the cache is bounded by the size of the processed rich text.</p>
+ * <p>Fragments and embedded entities are changed while a request renders them, so they are not shared between
+ * requests: the cache keeps a supplier for every fragment, which creates a new fragment for every cache hit.</p>
+ */
+@Component
+@Slf4j
+public class RichTextCache {
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong staleCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    @Value("${dxa.tridion.richtext.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${dxa.tridion.richtext.cache.maxMegabytes:32}")
+    private long maxMegabytes;
+
+    @Value("${dxa.tridion.richtext.cache.expireAfterWriteSeconds:300}")
+    private long expireAfterWriteSeconds;
+
+    private Cache<String, ProcessedRichText> cache;
+
+    /**
+     * Returns the cache key of the rich text.
+     *
+     * @param xhtml          source XHTML of the rich text
+     * @param localizationId ID of the localization the rich text is processed for
+     * @param linkContext    context the links are resolved in, e.g. the request path for anchored links
+     * @return cache key
+     */
+    @NotNull
+    public static String getKey(@NotNull String xhtml, String localizationId, @NotNull String linkContext) {
+        return localizationId + ':' + linkContext + ':' + Hashing.murmur3_128().hashString(xhtml, StandardCharsets.UTF_8);
+    }
+
+    @PostConstruct
+    public void init() {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxMegabytes * 1024 * 1024)
+                .weigher((String key, ProcessedRichText processed) -> processed.getWeight())
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .build();
+        log.info("Rich text cache is {}, max size = {}MB, expire after write = {}s",
+                enabled ? "enabled" : "disabled", maxMegabytes, expireAfterWriteSeconds);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the processed rich text if it is in the cache and still valid.
+     *
+     * @param key           cache key, see {@link #getKey(String, String, String)}
+     * @param linksUpToDate tells whether the links resolved for the rich text still resolve the same
+     * @return the processed rich text with new fragments, or {@code null} if it has to be processed
+     */
+    @Nullable
+    public RichText get(@NotNull String key, @NotNull Predicate<Map<String, String>> linksUpToDate) {
+        ProcessedRichText processed = cache.getIfPresent(key);
+        if (processed == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        if (!linksUpToDate.test(processed.getResolvedLinks())) {
+            log.trace("Links of rich text {} changed", key);
+            staleCount.incrementAndGet();
+            cache.invalidate(key);
+            return null;
+        }
+        hitCount.incrementAndGet();
+        List<RichTextFragment> fragments = new LinkedList<>();
+        for (Supplier<RichTextFragment> fragment : processed.getFragments()) {
+            fragments.add(fragment.get());
+        }
+        return new RichText(fragments);
+    }
+
+    /**
+     * Puts the processed rich text in the cache.
+     *
+     * @param key           cache key, see {@link #getKey(String, String, String)}
+     * @param xhtml         source XHTML of the rich text, its size approximates the size of the processed rich text
+     * @param fragments     suppliers of new fragments of the processed rich text, in order
+     * @param resolvedLinks links resolved for the rich text, by component URI
+     */
+    public void put(@NotNull String key, @NotNull String xhtml, @NotNull List<Supplier<RichTextFragment>> fragments,
+                    @NotNull Map<String, String> resolvedLinks) {
+        // characters take two bytes, embedded media items are of roughly fixed size
+        long weight = 2L * xhtml.length() + 512L * fragments.size();
+        for (Map.Entry<String, String> link : resolvedLinks.entrySet()) {
+            weight += 2L * (link.getKey().length() + link.getValue().length());
+        }
+        cache.put(key, new ProcessedRichText(fragments, resolvedLinks, (int) Math.min(weight, Integer.MAX_VALUE)));
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns the number of rich texts served from the cache.
+     *
+     * @return number of cache hits
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of rich texts found in the cache but processed again because their links changed.
+     *
+     * @return number of stale entries
+     */
+    public long getStaleCount() {
+        return staleCount.get();
+    }
+
+    /**
+     * Returns the number of rich texts that were not in the cache.
+     *
+     * @return number of cache misses
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the ratio of rich texts served from the cache to all lookups.
+     *
+     * @return hit ratio, {@code 1.0} if nothing was looked up yet
+     */
+    public double getHitRatio() {
+        long hits = hitCount.get();
+        long requests = hits + staleCount.get() + missCount.get();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    /**
+     * Returns the approximate number of entries in the cache.
+     *
+     * @return number of entries
+     */
+    public long getSize() {
+        return cache.size();
+    }
+
+    @lombok.Value
+    private static class ProcessedRichText {
+
+        private List<Supplier<RichTextFragment>> fragments;
+
+        private Map<String, String> resolvedLinks;
+
+        private int weight;
+    }
+}
@@ -0,0 +1,345 @@
+package com.sdl.webapp.tridion.mapping;
+
+import org.apache.commons.lang3.StringUtils;
+
+import javax.xml.XMLConstants;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes XHTML of rich text fragments while it's being parsed, without building a DOM.
+ * <p>The output is the same as the DOM Level 3 {@code LSSerializer} of the JDK writes for the nodes: attributes are written
+ * in the order of their names, elements without children are written as empty elements, namespace declarations
+ * which are missing because their elements were removed are added (namespace fixup), and characters are escaped
+ * the same way.</p>
+ */
+final class RichTextXmlWriter {
+
+    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    private static final Map<String, String> NO_NAMESPACES = Collections.emptyMap();
+
+    private final StringBuilder out = new StringBuilder(2048);
+
+    private final Deque<String> openElements = new ArrayDeque<>();
+
+    /**
+     * Namespaces declared by the open elements, {@link #NO_NAMESPACES} for elements which declare no namespaces.
+     */
+    private final Deque<Map<String, String>> namespaceScopes = new ArrayDeque<>();
+
+    private boolean startTagOpen;
+
+    private static void appendCharacterReference(StringBuilder builder, int codePoint) {
+        builder.append("&#x").append(Integer.toHexString(codePoint)).append(';');
+    }
+
+    private static void appendAttributeValue(StringBuilder builder, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    builder.append("&amp;");
+                    break;
+                case '<':
+                    builder.append("&lt;");
+                    break;
+                case '"':
+                    builder.append("&quot;");
+                    break;
+                case '\n':
+                case '\r':
+                case '\t':
+                    appendCharacterReference(builder, c);
+                    break;
+                default:
+                    i = appendCharacter(builder, value, i);
+            }
+        }
+    }
+
+    /**
+     * Appends the character at the index, supplementary characters are written as character references.
+     *
+     * @return index of the last appended character
+     */
+    private static int appendCharacter(StringBuilder builder, String text, int index) {
+        char c = text.charAt(index);
+        if (Character.isHighSurrogate(c) && index + 1 < text.length() && Character.isLowSurrogate(text.charAt(index + 1))) {
+            appendCharacterReference(builder, Character.toCodePoint(c, text.charAt(index + 1)));
+            return index + 1;
+        }
+        builder.append(c);
+        return index;
+    }
+
+    /**
+     * Writes the start of the element.
+     *
+     * @param qualifiedName qualified name of the element
+     * @param prefix        prefix of the element, empty string if there is none
+     * @param namespaceUri  namespace of the element, empty string if there is none
+     * @param attributes    attributes of the element including namespace declarations, in the order of their names
+     */
+    void startElement(String qualifiedName, String prefix, String namespaceUri, Collection<Attribute> attributes) {
+        closeStartTag();
+        openElements.push(qualifiedName);
+        namespaceScopes.push(NO_NAMESPACES);
+
+        out.append('<').append(qualifiedName);
+
+        for (Attribute attribute : attributes) {
+            if (attribute.isNamespaceDeclaration()) {
+                declareNamespace(attribute.getDeclaredPrefix(), attribute.getValue());
+            }
+        }
+
+        if (!namespaceUri.isEmpty()) {
+            if (!namespaceUri.equals(getNamespaceUri(prefix))) {
+                writeNamespaceDeclaration(prefix, namespaceUri);
+            }
+        } else if (!StringUtils.isEmpty(getNamespaceUri(""))) {
+            writeNamespaceDeclaration("", "");
+        }
+
+        for (Attribute attribute : attributes) {
+            String attributePrefix = attribute.getPrefix();
+            if (!attribute.isNamespaceDeclaration() && !StringUtils.isEmpty(attribute.getNamespaceUri())
+                    && !attributePrefix.isEmpty() && !attribute.getNamespaceUri().equals(getNamespaceUri(attributePrefix))) {
+                writeNamespaceDeclaration(attributePrefix, attribute.getNamespaceUri());
+            }
+            out.append(' ').append(attribute.getQualifiedName()).append("=\"");
+            appendAttributeValue(out, attribute.getValue());
+            out.append('"');
+        }
+
+        startTagOpen = true;
+    }
+
+    /**
+     * Writes the end of the last started element.
+     */
+    void endElement() {
+        String qualifiedName = openElements.pop();
+        namespaceScopes.pop();
+        if (startTagOpen) {
+            out.append("/>");
+            startTagOpen = false;
+        } else {
+            out.append("</").append(qualifiedName).append('>');
+        }
+    }
+
+    void characters(String text) {
+        closeStartTag();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    out.append("&amp;");
+                    break;
+                case '<':
+                    out.append("&lt;");
+                    break;
+                case '>':
+                    out.append("&gt;");
+                    break;
+                case '\r':
+                    appendCharacterReference(out, c);
+                    break;
+                case '\n':
+                    out.append(LINE_SEPARATOR);
+                    break;
+                default:
+                    i = appendCharacter(out, text, i);
+            }
+        }
+    }
+
+    void cdata(String text) {
+        closeStartTag();
+        out.append("<![CDATA[");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                out.append(LINE_SEPARATOR);
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                // supplementary characters are written as character references outside of the section
+                out.append("]]>");
+                appendCharacterReference(out, Character.toCodePoint(c, text.charAt(++i)));
+                out.append("<![CDATA[");
+            } else {
+                out.append(c);
+            }
+        }
+        out.append("]]>");
+    }
+
+    void comment(String text) {
+        closeStartTag();
+        out.append("<!--");
+        appendUnescaped(text);
+        out.append("-->");
+    }
+
+    void processingInstruction(String target, String data) {
+        closeStartTag();
+        out.append("<?").append(target).append(' ');
+        appendUnescaped(data);
+        out.append("?>");
+    }
+
+    /**
+     * Returns whether anything was written since the last {@link #takeContent()}.
+     *
+     * @return whether there is written content
+     */
+    boolean hasContent() {
+        closeStartTag();
+        return out.length() > 0;
+    }
+
+    /**
+     * Returns the content written since the last call and starts a new fragment.
+     *
+     * @return written XHTML
+     */
+    String takeContent() {
+        closeStartTag();
+        String content = out.toString();
+        out.setLength(0);
+        return content;
+    }
+
+    private void appendUnescaped(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                out.append(LINE_SEPARATOR);
+            } else {
+                i = appendCharacter(out, text, i);
+            }
+        }
+    }
+
+    private void closeStartTag() {
+        if (startTagOpen) {
+            out.append('>');
+            startTagOpen = false;
+        }
+    }
+
+    private void writeNamespaceDeclaration(String prefix, String namespaceUri) {
+        out.append(prefix.isEmpty() ? " xmlns" : " xmlns:" + prefix).append("=\"");
+        appendAttributeValue(out, namespaceUri);
+        out.append('"');
+        declareNamespace(prefix, namespaceUri);
+    }
+
+    private void declareNamespace(String prefix, String namespaceUri) {
+        Map<String, String> scope = namespaceScopes.peek();
+        if (scope == NO_NAMESPACES) {
+            scope = new HashMap<>(4);
+            namespaceScopes.pop();
+            namespaceScopes.push(scope);
+        }
+        scope.put(prefix, namespaceUri);
+    }
+
+    private String getNamespaceUri(String prefix) {
+        if (XMLConstants.XML_NS_PREFIX.equals(prefix)) {
+            return XMLConstants.XML_NS_URI;
+        }
+        for (Map<String, String> scope : namespaceScopes) {
+            if (scope.containsKey(prefix)) {
+                return scope.get(prefix);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Attribute of an element, namespace declarations are attributes too.
+     */
+    static final class Attribute {
+
+        private final String qualifiedName;
+
+        private final String localName;
+
+        private final String namespaceUri;
+
+        private String value;
+
+        /**
+         * Creates a parsed attribute.
+         *
+         * @param qualifiedName qualified name of the attribute
+         * @param namespaceUri  namespace of the attribute, empty string if there is none
+         * @param value         value of the attribute
+         */
+        Attribute(String qualifiedName, String namespaceUri, String value) {
+            this.qualifiedName = qualifiedName;
+            this.localName = qualifiedName.substring(qualifiedName.indexOf(':') + 1);
+            this.namespaceUri = isNamespaceDeclaration(qualifiedName) ? XMLConstants.XMLNS_ATTRIBUTE_NS_URI : namespaceUri;
+            this.value = value;
+        }
+
+        /**
+         * Creates an attribute added while processing, like with {@link org.w3c.dom.Element#setAttribute(String, String)}.
+         *
+         * @param qualifiedName name of the attribute
+         * @param value         value of the attribute
+         */
+        Attribute(String qualifiedName, String value) {
+            this.qualifiedName = qualifiedName;
+            this.localName = null;
+            this.namespaceUri = null;
+            this.value = value;
+        }
+
+        private static boolean isNamespaceDeclaration(String qualifiedName) {
+            return XMLConstants.XMLNS_ATTRIBUTE.equals(qualifiedName) || qualifiedName.startsWith("xmlns:");
+        }
+
+        String getQualifiedName() {
+            return qualifiedName;
+        }
+
+        /**
+         * Returns the local name of the attribute, {@code null} for attributes added while processing.
+         */
+        String getLocalName() {
+            return localName;
+        }
+
+        String getNamespaceUri() {
+            return namespaceUri;
+        }
+
+        String getPrefix() {
+            int colon = qualifiedName.indexOf(':');
+            return colon < 0 ? "" : qualifiedName.substring(0, colon);
+        }
+
+        String getValue() {
+            return value;
+        }
+
+        void setValue(String value) {
+            this.value = value;
+        }
+
+        boolean isNamespaceDeclaration() {
+            return isNamespaceDeclaration(qualifiedName);
+        }
+
+        String getDeclaredPrefix() {
+            return XMLConstants.XMLNS_ATTRIBUTE.equals(qualifiedName) ? "" : localName;
+        }
+    }
+}
@@ -14,13 +14,17 @@ import com.sdl.webapp.common.api.navigation.NavigationFilter;
 import com.sdl.webapp.common.api.navigation.NavigationProvider;
 import com.sdl.webapp.common.api.navigation.NavigationProviderException;
 import com.sdl.webapp.common.api.navigation.OnDemandNavigationProvider;
+import com.sdl.webapp.common.api.navigation.SitemapItemUrlIndex;
 import com.sdl.webapp.common.api.navigation.TaxonomySitemapItemUrisHolder;
+import com.sdl.webapp.common.util.ExecutorUtils;
 import com.sdl.webapp.common.util.LocalizationUtils;
+import com.sdl.webapp.common.util.SingleFlight;
 import com.sdl.webapp.tridion.navigation.data.KeywordDTO;
 import com.sdl.webapp.tridion.navigation.data.PageMetaDTO;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.dd4t.core.caching.CacheElement;
+import org.dd4t.core.util.HttpUtils;
 import org.dd4t.providers.PayloadCacheProvider;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
@@ -28,21 +32,35 @@ import org.jetbrains.annotations.Nullable;
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.Collections2.filter;
 import static com.google.common.collect.Collections2.transform;
 import static com.google.common.collect.Sets.difference;
 import static com.google.common.collect.Sets.newHashSet;
+import static com.google.common.util.concurrent.Uninterruptibles.getUninterruptibly;
 import static com.sdl.webapp.common.api.navigation.TaxonomySitemapItemUrisHolder.parse;
 import static com.sdl.webapp.common.util.LocalizationUtils.isHomePath;
 import static com.sdl.webapp.common.util.LocalizationUtils.isIndexPath;
@@ -57,6 +75,12 @@ import static com.sdl.webapp.tridion.navigation.AbstractDynamicNavigationProvide
 /**
  * Navigation Provider implementation based on Taxonomies (Categories &amp; Keywords).
  * <p>Falls back to {@link StaticNavigationProvider} when dynamic navigation is not available.</p>
+ * <p>When the cached navigation model of a localization expires, the previous model is served while a background
+ * worker rebuilds it, and the rebuilt model replaces it once it's complete. Only the first request for
+ * a localization waits for the navigation model to be built. The rebuild runs with the request context
+ * of the request which found the model expired.</p>
+ * <p>Requests of preview sessions are served with the cached model while it's current, otherwise they build their own
+ * model which is not cached, so that models with previewed content are never served to other requests.</p>
  */
 @Slf4j
 public abstract class AbstractDynamicNavigationProvider implements NavigationProvider, OnDemandNavigationProvider {
@@ -67,6 +91,23 @@ public abstract class AbstractDynamicNavigationProvider implements NavigationPro
 
     private final PayloadCacheProvider cacheProvider;
 
+    /**
+     * Last built navigation models per localization ID, served while expired models are rebuilt.
+     * <p>Request threads get the models from here instead of the cache element, since the fields of the cache element
+     * are not safe to share between threads.</p>
+     */
+    private final ConcurrentMap<String, BuiltNavigationModel> navigationModels = new ConcurrentHashMap<>();
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final SingleFlight<String, SitemapItem> navigationModelLoads = new SingleFlight<>();
+
+    private final NavigationRefreshMetrics refreshMetrics = new NavigationRefreshMetrics();
+
+    private ExecutorService refreshExecutor;
+
+    private ExecutorService pagesExecutor;
+
     @Value("${dxa.tridion.navigation.taxonomy.marker}")
     protected String taxonomyNavigationMarker;
 
@@ -79,6 +120,12 @@ public abstract class AbstractDynamicNavigationProvider implements NavigationPro
     @Value("${dxa.tridion.navigation.taxonomy.type.page}")
     protected String sitemapItemTypePage;
 
+    @Value("${dxa.tridion.navigation.refresh.threads:1}")
+    private int refreshThreads;
+
+    @Value("${dxa.tridion.navigation.pages.threads:4}")
+    private int pagesThreads;
+
     @Autowired
     public AbstractDynamicNavigationProvider(StaticNavigationProvider staticNavigationProvider, LinkResolver linkResolver, PayloadCacheProvider cacheProvider) {
         this.staticNavigationProvider = staticNavigationProvider;
@@ -86,28 +133,102 @@ public abstract class AbstractDynamicNavigationProvider implements NavigationPro
         this.cacheProvider = cacheProvider;
     }
 
-    @Override
-    public SitemapItem getNavigationModel(Localization localization) throws NavigationProviderException {
-        CacheElement<SitemapItem> navigationModel = cacheProvider.loadPayloadFromLocalCache(localization.getId());
-        if (navigationModel.isExpired()) {
-            //noinspection SynchronizationOnLocalVariableOrMethodParameter
-            synchronized (navigationModel) {
-                if (navigationModel.isExpired()) {
-                    String taxonomyId = getNavigationTaxonomyIdInternal(localization);
-                    if (isFallbackRequired(taxonomyId, localization)) {
-                        return staticNavigationProvider.getNavigationModel(localization);
-                    }
-
-                    navigationModel.setExpired(false);
-
-                    navigationModel.setPayload(createTaxonomyNode(taxonomyId, localization));
-                    log.debug("Put navigation model for taxonomy id {} for localization id {} in cache", taxonomyId, localization.getId());
+    private static int countNodes(@Nullable SitemapItem sitemapItem) {
+        if (sitemapItem == null) {
+            return 0;
+        }
 
-                }
+        int count = 1;
+        for (SitemapItem item : sitemapItem.getItems()) {
+            count += countNodes(item);
+        }
+        return count;
+    }
+
+    private static List<SitemapItem> getLoaded(Future<List<SitemapItem>> load) {
+        try {
+            return getUninterruptibly(load);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
             }
+            throw new IllegalStateException("Could not load classified pages", cause);
+        }
+    }
+
+    private static boolean isPreviewSession() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes &&
+                HttpUtils.getSessionPreviewToken(((ServletRequestAttributes) attributes).getRequest()) != null;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (refreshThreads > 0) {
+            refreshExecutor = ExecutorUtils.newBackgroundExecutor("dxa-navigation-refresh", refreshThreads);
+            log.info("Expired taxonomy navigation models are rebuilt in background using up to {} threads", refreshThreads);
+        } else {
+            refreshExecutor = null;
+        }
+
+        if (pagesThreads > 0) {
+            pagesExecutor = ExecutorUtils.newBoundedExecutor("dxa-navigation-pages", pagesThreads);
+            log.info("Classified pages of taxonomy keywords are loaded concurrently using up to {} threads", pagesThreads);
+        } else {
+            pagesExecutor = null;
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+        if (pagesExecutor != null) {
+            pagesExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Returns the metrics of rebuilding navigation models.
+     *
+     * @return rebuild metrics
+     */
+    public NavigationRefreshMetrics getRefreshMetrics() {
+        return refreshMetrics;
+    }
+
+    @Override
+    public SitemapItem getNavigationModel(final Localization localization) throws NavigationProviderException {
+        final String localizationId = localization.getId();
+        final CacheElement<SitemapItem> cacheElement = cacheProvider.loadPayloadFromLocalCache(localizationId);
+        BuiltNavigationModel built = navigationModels.get(localizationId);
+        if (built != null && built.isCurrent(cacheElement)) {
+            return built.getNavigationModel();
+        }
+
+        if (isPreviewSession()) {
+            return buildNavigationModel(localization, null);
         }
 
-        return navigationModel.getPayload();
+        if (built != null && built.getNavigationModel() != null && refreshExecutor != null) {
+            refreshInBackground(localization, cacheElement);
+            return built.getNavigationModel();
+        }
+
+        return navigationModelLoads.execute(localizationId, new SingleFlight.Call<SitemapItem, NavigationProviderException>() {
+            @Override
+            public SitemapItem call() throws NavigationProviderException {
+                // may have been built by the previous load while we were checking
+                BuiltNavigationModel loaded = navigationModels.get(localizationId);
+                return loaded != null && loaded.isCurrent(cacheElement) ?
+                        loaded.getNavigationModel() : buildNavigationModel(localization, cacheElement);
+            }
+        });
     }
 
     @Override
@@ -126,11 +247,11 @@ public abstract class AbstractDynamicNavigationProvider implements NavigationPro
     }
 
     @Override
-    public NavigationLinks getContextNavigationLinks(final String requestPath, Localization localization) throws NavigationProviderException {
+    public NavigationLinks getContextNavigationLinks(final String requestPath, final Localization localization) throws NavigationProviderException {
         return processNavigationLinks(requestPath, localization, new NavigationProcessing() {
             @Override
             public Collection<SitemapItem> processNavigation(SitemapItem navigationModel) {
-                SitemapItem currentLevel = navigationModel.findWithUrl(stripDefaultExtension(requestPath));
+                SitemapItem currentLevel = findWithUrl(navigationModel, requestPath, localization);
 
                 if (currentLevel != null && !(currentLevel instanceof TaxonomyNode)) {
                     currentLevel = currentLevel.getParent();
@@ -151,7 +272,7 @@ public abstract class AbstractDynamicNavigationProvider implements NavigationPro
         return processNavigationLinks(requestPath, localization, new NavigationProcessing() {
             @Override
             public Collection<SitemapItem> processNavigation(SitemapItem navigationModel) {
-                SitemapItem currentLevel = navigationModel.findWithUrl(stripDefaultExtension(requestPath));
+                SitemapItem currentLevel = findWithUrl(navigationModel, requestPath, localization);
 
                 return currentLevel == null ? Collections.<SitemapItem>emptyList() : collectBreadcrumbsToLevel(currentLevel, localization);
             }
@@ -215,10 +336,58 @@ public abstract class AbstractDynamicNavigationProvider implements NavigationPro
     @Contract("_, _, _ -> !null")
     protected abstract Set<SitemapItem> expandDescendants(TaxonomySitemapItemUrisHolder uris, NavigationFilter navigationFilter, Localization localization);
 
+    /**
+     * Creates the navigation model from the whole navigation taxonomy.
+     * <p>May be called in a background thread outside of a request when an expired model is rebuilt.</p>
+     *
+     * @param taxonomyId   ID of the navigation taxonomy
+     * @param localization current localization
+     * @return root of the navigation model
+     */
     protected abstract SitemapItem createTaxonomyNode(String taxonomyId, Localization localization);
 
     protected abstract String getNavigationTaxonomyId(Localization localization);
 
+    /**
+     * Loads the classified pages of all the given keywords at once. Implementations are expected to first collect
+     * all keywords of a taxonomy (sub)tree that have classified pages and then to load their pages with a single call
+     * of this method instead of loading them keyword by keyword while walking the tree.
+     * <p>By default the pages of different keywords are loaded concurrently using up to
+     * {@code dxa.tridion.navigation.pages.threads} threads, or sequentially if it's set to {@code 0}.
+     * Override it if the content delivery API can load pages of multiple keywords in bulk.</p>
+     *
+     * @param keywords keywords to load the classified pages for, compared with {@code equals}
+     * @param loader   logic loading the classified pages of a single keyword
+     * @param <K>      type of the keywords
+     * @return pages per keyword in the order of the given keywords
+     */
+    @NotNull
+    protected <K> Map<K, List<SitemapItem>> loadClassifiedPages(@NotNull Collection<K> keywords, @NotNull final ClassifiedPagesLoader<K> loader) {
+        Map<K, List<SitemapItem>> pages = new LinkedHashMap<>();
+        if (pagesExecutor == null || keywords.size() < 2) {
+            for (K keyword : keywords) {
+                pages.put(keyword, loader.loadPages(keyword));
+            }
+            return pages;
+        }
+
+        Map<K, Future<List<SitemapItem>>> loads = new LinkedHashMap<>();
+        try {
+            for (final K keyword : keywords) {
+                loads.put(keyword, pagesExecutor.submit(ExecutorUtils.withRequestContext(() -> loader.loadPages(keyword))));
+            }
+            for (Map.Entry<K, Future<List<SitemapItem>>> load : loads.entrySet()) {
+                pages.put(load.getKey(), getLoaded(load.getValue()));
+            }
+        } finally {
+            // do not leave loads running if loading of some pages failed
+            ExecutorUtils.awaitAll(loads.values());
+        }
+
+        log.debug("Loaded classified pages of {} keywords concurrently", keywords.size());
+        return pages;
+    }
+
     /**
      * One single ancestor for a given keyword. Although same keyword may be in few places, we don't expect it due to
      * technical limitation in CME. So basically we ignore the fact that keyword may be in many places (like page) and
@@ -290,6 +459,88 @@ public abstract class AbstractDynamicNavigationProvider implements NavigationPro
         return node;
     }
 
+    private void refreshInBackground(final Localization localization, final CacheElement<SitemapItem> cacheElement) {
+        final String localizationId = localization.getId();
+        if (!refreshing.add(localizationId)) {
+            log.trace("Navigation model for localization id {} is already being rebuilt", localizationId);
+            return;
+        }
+
+        log.debug("Navigation model for localization id {} is expired, serving the previous one while rebuilding", localizationId);
+        try {
+            refreshExecutor.submit(ExecutorUtils.withRequestContext(() -> {
+                try {
+                    buildNavigationModel(localization, cacheElement);
+                } catch (NavigationProviderException | RuntimeException e) {
+                    log.warn("Failed to rebuild navigation model for localization id {}, serving the previous one", localizationId, e);
+                } finally {
+                    refreshing.remove(localizationId);
+                }
+                return null;
+            }));
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(localizationId);
+            log.debug("Navigation model for localization id {} is not rebuilt, the provider is shut down", localizationId);
+        }
+    }
+
+    /**
+     * Builds the navigation model of the localization.
+     *
+     * @param localization localization to build the model for
+     * @param cacheElement cache element to put the model in, or {@code null} if the model is not cached
+     * @return the navigation model, or the model of the static navigation if there is no navigation taxonomy
+     * @throws NavigationProviderException if the static navigation model cannot be loaded
+     */
+    @Nullable
+    private SitemapItem buildNavigationModel(Localization localization, @Nullable CacheElement<SitemapItem> cacheElement)
+            throws NavigationProviderException {
+        String taxonomyId = getNavigationTaxonomyIdInternal(localization);
+        if (isFallbackRequired(taxonomyId, localization)) {
+            if (cacheElement != null) {
+                navigationModels.remove(localization.getId());
+            }
+            return staticNavigationProvider.getNavigationModel(localization);
+        }
+
+        long start = System.nanoTime();
+        SitemapItem navigationModel;
+        try {
+            navigationModel = createTaxonomyNode(taxonomyId, localization);
+        } catch (RuntimeException e) {
+            refreshMetrics.recordFailure();
+            throw e;
+        }
+        long rebuildTime = System.nanoTime() - start;
+        int nodeCount = countNodes(navigationModel);
+        refreshMetrics.record(localization.getId(), rebuildTime, nodeCount);
+
+        if (cacheElement == null) {
+            log.debug("Built navigation model for taxonomy id {} for localization id {} without caching it, {} nodes built in {} ms",
+                    taxonomyId, localization.getId(), nodeCount, rebuildTime / 1_000_000);
+            return navigationModel;
+        }
+
+        // published to request threads through the map before the cache element is marked as not expired
+        navigationModels.put(localization.getId(), new BuiltNavigationModel(cacheElement, navigationModel,
+                navigationModel != null ? SitemapItemUrlIndex.of(navigationModel) : null));
+        cacheElement.setPayload(navigationModel);
+        cacheElement.setExpired(false);
+        log.debug("Put navigation model for taxonomy id {} for localization id {} in cache, {} nodes built in {} ms",
+                taxonomyId, localization.getId(), nodeCount, rebuildTime / 1_000_000);
+        return navigationModel;
+    }
+
+    @Nullable
+    private SitemapItem findWithUrl(SitemapItem navigationModel, String requestPath, Localization localization) {
+        // only cached models have an index, the models of preview sessions are not looked up repeatedly
+        BuiltNavigationModel built = navigationModels.get(localization.getId());
+        if (built != null && built.getNavigationModel() == navigationModel) {
+            return built.getUrlIndex().find(stripDefaultExtension(requestPath));
+        }
+        return navigationModel.findWithUrl(stripDefaultExtension(requestPath));
+    }
+
     private boolean isVisibleItem(String pageName, String pageUrl) {
         return LocalizationUtils.isWithSequenceDigits(pageName) && !isNullOrEmpty(pageUrl);
     }
@@ -455,6 +706,41 @@ public abstract class AbstractDynamicNavigationProvider implements NavigationPro
         }
     }
 
+    /**
+     * Loads classified pages of a single keyword.
+     *
+     * @param <K> type of the keywords
+     */
+    @FunctionalInterface
+    protected interface ClassifiedPagesLoader<K> {
+
+        /**
+         * Loads the pages classified with the keyword as sitemap items.
+         *
+         * @param keyword keyword to load the pages for
+         * @return pages of the keyword, empty if there are none
+         */
+        @NotNull
+        List<SitemapItem> loadPages(K keyword);
+    }
+
+    /**
+     * Navigation model with the cache element it was built for and the index of its items by URL.
+     */
+    @lombok.Value
+    private static class BuiltNavigationModel {
+
+        private CacheElement<SitemapItem> cacheElement;
+
+        private SitemapItem navigationModel;
+
+        private SitemapItemUrlIndex urlIndex;
+
+        boolean isCurrent(CacheElement<SitemapItem> cacheElement) {
+            return this.cacheElement == cacheElement && !cacheElement.isExpired();
+        }
+    }
+
     interface NavigationProcessing {
 
         Collection<SitemapItem> processNavigation(SitemapItem navigationModel);
@@ -0,0 +1,91 @@
+package com.sdl.webapp.tridion.navigation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregated metrics of rebuilding taxonomy navigation models: how long a rebuild takes,
+ * how many rebuilds failed and how many nodes the navigation model of each localization has.
+ */
+public class NavigationRefreshMetrics {
+
+    private final AtomicLong rebuildCount = new AtomicLong();
+
+    private final AtomicLong failureCount = new AtomicLong();
+
+    private final AtomicLong totalRebuildTimeNanos = new AtomicLong();
+
+    private final AtomicLong maxRebuildTimeNanos = new AtomicLong();
+
+    private final Map<String, Integer> nodeCounts = new ConcurrentHashMap<>();
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    void record(String localizationId, long rebuildTimeNanos, int nodeCount) {
+        rebuildCount.incrementAndGet();
+        totalRebuildTimeNanos.addAndGet(rebuildTimeNanos);
+        updateMax(maxRebuildTimeNanos, rebuildTimeNanos);
+        nodeCounts.put(localizationId, nodeCount);
+    }
+
+    void recordFailure() {
+        failureCount.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of successful rebuilds.
+     *
+     * @return number of rebuilds
+     */
+    public long getRebuildCount() {
+        return rebuildCount.get();
+    }
+
+    /**
+     * Returns the number of failed rebuilds.
+     *
+     * @return number of failures
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * Returns the longest time spent rebuilding a navigation model.
+     *
+     * @param unit time unit of the result
+     * @return maximum rebuild time
+     */
+    public long getMaxRebuildTime(TimeUnit unit) {
+        return unit.convert(maxRebuildTimeNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the average time spent rebuilding a navigation model.
+     *
+     * @param unit time unit of the result
+     * @return average rebuild time, {@code 0} if nothing was rebuilt
+     */
+    public long getAverageRebuildTime(TimeUnit unit) {
+        long rebuilds = rebuildCount.get();
+        return rebuilds == 0 ? 0 : unit.convert(totalRebuildTimeNanos.get() / rebuilds, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of nodes in the last built navigation model of the localization.
+     *
+     * @param localizationId ID of the localization
+     * @return number of nodes, {@code 0} if no navigation model was built for this localization
+     */
+    public int getNodeCount(String localizationId) {
+        Integer nodeCount = nodeCounts.get(localizationId);
+        return nodeCount == null ? 0 : nodeCount;
+    }
+}
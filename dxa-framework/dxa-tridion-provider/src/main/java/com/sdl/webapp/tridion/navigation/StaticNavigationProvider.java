@@ -11,6 +11,7 @@ import com.sdl.webapp.common.api.navigation.NavigationProvider;
 import com.sdl.webapp.common.api.navigation.NavigationProviderException;
 import com.sdl.webapp.common.util.LocalizationUtils;
 import com.sdl.webapp.common.util.LocalizationUtils.TryFindPage;
+import com.sdl.webapp.common.util.SingleFlight;
 import lombok.extern.slf4j.Slf4j;
 import org.dd4t.core.exceptions.FactoryException;
 import org.dd4t.core.exceptions.ItemNotFoundException;
@@ -22,16 +23,21 @@ import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Implementation of {@link NavigationProvider} based on statically generated (published) <code>Navigation.json</code>.
+ * <p>The navigation model is parsed and its links are resolved once per localization and published version
+ * of <code>Navigation.json</code>. The cached tree is shared between requests and is read-only.</p>
  */
 @Slf4j
 @Service
@@ -39,7 +45,9 @@ public class StaticNavigationProvider implements NavigationProvider {
 
     static final String TYPE_STRUCTURE_GROUP = "StructureGroup";
 
-    private static final Object $LOCK = new Object();
+    private final ConcurrentMap<String, CachedNavigationModel> navigationModels = new ConcurrentHashMap<>();
+
+    private final SingleFlight<String, SitemapItem> navigationModelLoads = new SingleFlight<>();
 
     private final ObjectMapper objectMapper;
 
@@ -124,22 +132,42 @@ public class StaticNavigationProvider implements NavigationProvider {
         return link;
     }
 
-    @Override
-    public SitemapItem getNavigationModel(Localization localization) throws NavigationProviderException {
-        try {
-            final String path = localization.localizePath(navigationModelUrl);
-            InputStream pageContent = getPageContent(path, localization);
+    private static SitemapItem freeze(SitemapItem sitemapItem) {
+        for (SitemapItem subItem : sitemapItem.getItems()) {
+            freeze(subItem);
+        }
+        sitemapItem.setItems(Collections.unmodifiableSet(new LinkedHashSet<>(sitemapItem.getItems())));
+        return sitemapItem;
+    }
 
-            return resolveLinks(objectMapper.readValue(pageContent, SitemapItem.class), localization);
-        } catch (ContentProviderException | IOException e) {
-            throw new NavigationProviderException("Exception while loading navigation model", e);
+    /**
+     * Copies the root and its items. Callers like the site map replace the items of the root and of the copied
+     * top level items, which sets their parents, so these must not be the shared items of the cached tree.
+     */
+    private static SitemapItem copyTopLevel(SitemapItem navigationModel) {
+        Set<SitemapItem> items = new LinkedHashSet<>();
+        for (SitemapItem item : navigationModel.getItems()) {
+            items.add(new SitemapItem(item));
         }
+        SitemapItem copy = new SitemapItem(navigationModel);
+        copy.setItems(items);
+        return copy;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>Returns a copy of the root item and the top level items of the cached navigation model, so these may be
+     * changed by the caller. Deeper items are shared with other callers and are read-only.</p>
+     */
+    @Override
+    public SitemapItem getNavigationModel(Localization localization) throws NavigationProviderException {
+        return copyTopLevel(getSharedNavigationModel(localization));
     }
 
     @Override
     public NavigationLinks getTopNavigationLinks(String requestPath, Localization localization)
             throws NavigationProviderException {
-        final SitemapItem navigationModel = getNavigationModel(localization);
+        final SitemapItem navigationModel = getSharedNavigationModel(localization);
 
         return new NavigationLinks(createLinksForVisibleItems(navigationModel.getItems()));
     }
@@ -147,7 +175,7 @@ public class StaticNavigationProvider implements NavigationProvider {
     @Override
     public NavigationLinks getContextNavigationLinks(String requestPath, Localization localization)
             throws NavigationProviderException {
-        final SitemapItem navigationModel = getNavigationModel(localization);
+        final SitemapItem navigationModel = getSharedNavigationModel(localization);
         final SitemapItem contextNavigationItem = findContextNavigationStructureGroup(navigationModel, requestPath);
 
         final List<Link> links = contextNavigationItem != null ? createLinksForVisibleItems(contextNavigationItem.getItems()) : Collections.<Link>emptyList();
@@ -158,7 +186,7 @@ public class StaticNavigationProvider implements NavigationProvider {
     @Override
     public NavigationLinks getBreadcrumbNavigationLinks(String requestPath, Localization localization)
             throws NavigationProviderException {
-        final SitemapItem navigationModel = getNavigationModel(localization);
+        final SitemapItem navigationModel = getSharedNavigationModel(localization);
 
         final List<Link> links = new ArrayList<>();
         createBreadcrumbLinks(navigationModel, requestPath, links);
@@ -166,6 +194,40 @@ public class StaticNavigationProvider implements NavigationProvider {
         return new NavigationLinks(links);
     }
 
+    private SitemapItem getSharedNavigationModel(final Localization localization) throws NavigationProviderException {
+        try {
+            final String path = localization.localizePath(navigationModelUrl);
+            final String cacheKey = localization.getId() + ':' + path;
+
+            // DD4T caches the page source until it's republished, so the same source means the same published version;
+            // as long as it's cached, it's the same instance and comparing it with the cached one returns right away
+            final String pageContent = getPageContent(path, localization);
+            CachedNavigationModel cached = navigationModels.get(cacheKey);
+            if (cached != null && cached.isBuiltFrom(pageContent)) {
+                return cached.getNavigationModel();
+            }
+
+            return navigationModelLoads.execute(cacheKey, new SingleFlight.Call<SitemapItem, IOException>() {
+                @Override
+                public SitemapItem call() throws IOException {
+                    CachedNavigationModel current = navigationModels.get(cacheKey);
+                    if (current != null && current.isBuiltFrom(pageContent)) {
+                        return current.getNavigationModel();
+                    }
+
+                    // NOTE: This assumes page content is always in UTF-8 encoding
+                    SitemapItem navigationModel = freeze(resolveLinks(objectMapper.readValue(
+                            new ByteArrayInputStream(pageContent.getBytes(StandardCharsets.UTF_8)), SitemapItem.class), localization));
+                    navigationModels.put(cacheKey, new CachedNavigationModel(pageContent, navigationModel));
+                    log.debug("Put navigation model for localization id {} in cache", localization.getId());
+                    return navigationModel;
+                }
+            });
+        } catch (ContentProviderException | IOException e) {
+            throw new NavigationProviderException("Exception while loading navigation model", e);
+        }
+    }
+
     private SitemapItem resolveLinks(SitemapItem sitemapItem, Localization localization) {
         sitemapItem.setUrl(linkResolver.resolveLink(sitemapItem.getUrl(), localization.getId()));
 
@@ -176,15 +238,12 @@ public class StaticNavigationProvider implements NavigationProvider {
         return sitemapItem;
     }
 
-    private InputStream getPageContent(String path, Localization localization) throws ContentProviderException {
-        return LocalizationUtils.findPageByPath(path, localization, new TryFindPage<InputStream>() {
+    private String getPageContent(String path, Localization localization) throws ContentProviderException {
+        return LocalizationUtils.findPageByPath(path, localization, new TryFindPage<String>() {
             @Override
-            public InputStream tryFindPage(String path, int publicationId) throws ContentProviderException {
-                final String pageContent;
+            public String tryFindPage(String path, int publicationId) throws ContentProviderException {
                 try {
-                    synchronized ($LOCK) {
-                        pageContent = pageFactory.findSourcePageByUrl(path, publicationId);
-                    }
+                    return pageFactory.findSourcePageByUrl(path, publicationId);
                 } catch (ItemNotFoundException e) {
                     log.debug("Page not found: [{}] {}", publicationId, path);
                     return null;
@@ -192,10 +251,19 @@ public class StaticNavigationProvider implements NavigationProvider {
                     throw new ContentProviderException("Exception while getting page content for: [" + publicationId +
                             "] " + path, e);
                 }
-
-                // NOTE: This assumes page content is always in UTF-8 encoding
-                return new ByteArrayInputStream(pageContent.getBytes(StandardCharsets.UTF_8));
             }
         });
     }
+
+    @lombok.Value
+    private static class CachedNavigationModel {
+
+        private String pageContent;
+
+        private SitemapItem navigationModel;
+
+        boolean isBuiltFrom(String pageContent) {
+            return this.pageContent.equals(pageContent);
+        }
+    }
 }
@@ -13,7 +13,8 @@ import org.jsoup.nodes.Comment;
 import org.jsoup.nodes.Element;
 import org.jsoup.nodes.Node;
 import org.jsoup.nodes.TextNode;
-import org.jsoup.select.Elements;
+
+import java.util.List;
 
 /**
  * Entity XPM Markup
@@ -26,6 +27,8 @@ public class EntityXpmMarkup implements MarkupDecorator {
             "{\"ComponentID\":\"%s\",\"ComponentModified\":\"%s\",\"ComponentTemplateID\":\"%s\"," +
             "\"ComponentTemplateModified\":\"%s\",\"IsRepositoryPublished\":%b}";
 
+    private static final String PROPERTY_XPATH_ATTRIBUTE = "data-entity-property-xpath";
+
     private static final String FIELD_PATTERN = "Start Component Field: {\"XPath\":\"%s\"}";
 
     /**
@@ -35,18 +38,18 @@ public class EntityXpmMarkup implements MarkupDecorator {
      */
     protected static void processProperty(Element propertyElement) {
 
-        String xpath = propertyElement.attr("data-entity-property-xpath");
+        String xpath = propertyElement.attr(PROPERTY_XPATH_ATTRIBUTE);
 
         HtmlNode xpmMarkup = new HtmlCommentNode(String.format(FIELD_PATTERN, xpath));
         if (propertyElement.childNodes().size() > 0) {
 
             if (!propertyXpmMarkupAlreadyGenerated(propertyElement)) {
-                propertyElement.prepend(xpmMarkup.toHtml());
+                XpmMarkupNodes.prepend(propertyElement, xpmMarkup);
             }
         } else {
-            propertyElement.before(xpmMarkup.toHtml());
+            XpmMarkupNodes.before(propertyElement, xpmMarkup);
         }
-        propertyElement.removeAttr("data-entity-property-xpath");
+        propertyElement.removeAttr(PROPERTY_XPATH_ATTRIBUTE);
     }
 
     /**
@@ -96,8 +99,8 @@ public class EntityXpmMarkup implements MarkupDecorator {
                 ParsableHtmlNode entityMarkup = (ParsableHtmlNode) markup;
                 Element html = entityMarkup.getHtmlElement();
                 if (html != null) {   // If an HTML element (not a comment etc)
-                    html.prepend(buildXpmMarkup(entity, webRequestContext.getLocalization()).toHtml());
-                    Elements properties = html.select("[data-entity-property-xpath]");
+                    XpmMarkupNodes.prepend(html, buildXpmMarkup(entity, webRequestContext.getLocalization()));
+                    List<Element> properties = XpmMarkupNodes.collect(html, PROPERTY_XPATH_ATTRIBUTE);
                     for (Element property : properties) {
                         processProperty(property);
                     }
@@ -118,6 +121,15 @@ public class EntityXpmMarkup implements MarkupDecorator {
         return markup;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>XPM markup is only added in preview.</p>
+     */
+    @Override
+    public boolean isApplicable(ViewModel model, WebRequestContext webRequestContext) {
+        return webRequestContext.isPreview();
+    }
+
     /**
      * {@inheritDoc}
      */
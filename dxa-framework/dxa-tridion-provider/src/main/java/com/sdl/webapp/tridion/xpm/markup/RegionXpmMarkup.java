@@ -80,7 +80,7 @@ public class RegionXpmMarkup implements MarkupDecorator {
                     ParsableHtmlNode regionMarkup = (ParsableHtmlNode) markup;
                     Element html = regionMarkup.getHtmlElement();
                     if (html != null && !RegionXpmMarkup.isFirstNodeXpmEntityXPMMarkup(html)) {
-                        html.prepend(buildXpmMarkup(region, webRequestContext.getLocalization()).toHtml());
+                        XpmMarkupNodes.prepend(html, buildXpmMarkup(region, webRequestContext.getLocalization()));
                         markupInjected = true;
                     }
                 }
@@ -98,6 +98,19 @@ public class RegionXpmMarkup implements MarkupDecorator {
         return markup;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>XPM markup is only added in preview and to regions configured for XPM.</p>
+     */
+    @Override
+    public boolean isApplicable(ViewModel model, WebRequestContext webRequestContext) {
+        if (!webRequestContext.isPreview()) {
+            return false;
+        }
+        return !(model instanceof RegionModel) ||
+                this.xpmRegionConfig.getXpmRegion(((RegionModel) model).getName(), webRequestContext.getLocalization()) != null;
+    }
+
     /**
      * {@inheritDoc}
      */
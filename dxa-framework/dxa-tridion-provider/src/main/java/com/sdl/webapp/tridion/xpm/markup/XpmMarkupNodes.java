@@ -0,0 +1,100 @@
+package com.sdl.webapp.tridion.xpm.markup;
+
+import com.google.common.collect.ImmutableSet;
+import com.sdl.webapp.common.markup.html.HtmlNode;
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Inserts XPM markup into parsed HTML.
+ * <p>Inserting the markup as HTML makes JSoup parse each comment as a fragment in the context of the element
+ * it's inserted into. Comments are inserted as nodes instead, which gives the same result unless the context
+ * changes how the comment is parsed: in the root element, in elements with raw text like {@code script} or
+ * {@code textarea}, or if the comment itself contains {@code --}. These cases are still inserted as HTML.</p>
+ */
+final class XpmMarkupNodes {
+
+    private static final Set<String> FRAGMENT_CONTEXTS = ImmutableSet.of(
+            "html", "title", "textarea", "style", "xmp", "iframe", "noembed", "noframes", "noscript", "script", "plaintext");
+
+    private XpmMarkupNodes() {
+    }
+
+    /**
+     * Inserts the markup as the first child of the element.
+     *
+     * @param element the element
+     * @param markup  the markup
+     */
+    static void prepend(Element element, HtmlNode markup) {
+        String html = markup.toHtml();
+        Comment comment = comment(element, html);
+        if (comment != null) {
+            element.prependChild(comment);
+        } else {
+            element.prepend(html);
+        }
+    }
+
+    /**
+     * Inserts the markup before the element.
+     *
+     * @param element the element
+     * @param markup  the markup
+     */
+    static void before(Element element, HtmlNode markup) {
+        String html = markup.toHtml();
+        Node parent = element.parent();
+        Comment comment = parent instanceof Element ? comment((Element) parent, html) : null;
+        if (comment != null) {
+            element.before(comment);
+        } else {
+            element.before(html);
+        }
+    }
+
+    /**
+     * Returns the element and all its descendants with the attribute, in document order.
+     *
+     * @param root      the element
+     * @param attribute name of the attribute
+     * @return the elements with the attribute
+     */
+    static List<Element> collect(Element root, final String attribute) {
+        final List<Element> elements = new ArrayList<>();
+        new NodeTraversor(new NodeVisitor() {
+            @Override
+            public void head(Node node, int depth) {
+                if (node instanceof Element && node.hasAttr(attribute)) {
+                    elements.add((Element) node);
+                }
+            }
+
+            @Override
+            public void tail(Node node, int depth) {
+            }
+        }).traverse(root);
+        return elements;
+    }
+
+    private static Comment comment(Element context, String html) {
+        if (!html.startsWith("<!--") || !html.endsWith("-->")) {
+            return null;
+        }
+        String data = html.substring(4, html.length() - 3);
+        String tagName = context.tagName();
+        if (data.contains("--") || data.startsWith("-") || data.startsWith(">") || data.endsWith("-")
+                || data.indexOf('\0') >= 0 || data.indexOf('\r') >= 0
+                || tagName.startsWith("#") || FRAGMENT_CONTEXTS.contains(tagName)) {
+            return null;
+        }
+        return new Comment(data, context.baseUri());
+    }
+}
@@ -0,0 +1,182 @@
+package com.sdl.webapp.tridion;
+
+import com.sdl.webapp.common.api.localization.Localization;
+import com.sdl.webapp.common.api.localization.LocalizationFactory;
+import com.sdl.webapp.common.api.localization.LocalizationFactoryException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AbstractTridionLocalizationResolverTest {
+
+    private LocalizationFactory localizationFactory;
+
+    private AbstractTridionLocalizationResolver resolver;
+
+    private static Localization localization() {
+        Localization localization = mock(Localization.class);
+        when(localization.getId()).thenReturn("1");
+        when(localization.getPath()).thenReturn("/");
+        return localization;
+    }
+
+    @Before
+    public void init() {
+        localizationFactory = mock(LocalizationFactory.class);
+        resolver = new AbstractTridionLocalizationResolver() {
+            @Override
+            protected PublicationMappingData getPublicationMappingData(String url) {
+                return new PublicationMappingData("1", "/");
+            }
+        };
+        ReflectionTestUtils.setField(resolver, "localizationFactory", localizationFactory);
+        ReflectionTestUtils.setField(resolver, "refreshThreads", 1);
+        resolver.init();
+    }
+
+    @After
+    public void destroy() {
+        resolver.destroy();
+    }
+
+    private void refreshInRequestThread() {
+        resolver.destroy();
+        ReflectionTestUtils.setField(resolver, "refreshThreads", 0);
+        resolver.init();
+    }
+
+    private Localization awaitLocalization(Localization expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        Localization localization = resolver.getLocalization("http://localhost/");
+        while (localization != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            localization = resolver.getLocalization("http://localhost/");
+        }
+        return localization;
+    }
+
+    @Test
+    public void shouldCreateLocalizationOnceForConcurrentRequests() throws Exception {
+        //given
+        Localization localization = localization();
+        when(localizationFactory.createLocalization("1", "/")).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return localization;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //when
+        List<Future<Localization>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit((Callable<Localization>) () -> resolver.getLocalization("http://localhost/")));
+        }
+
+        //then
+        for (Future<Localization> future : futures) {
+            assertSame(localization, future.get(5, TimeUnit.SECONDS));
+        }
+        verify(localizationFactory, times(1)).createLocalization("1", "/");
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldServeOldLocalizationWhileRefreshingInBackground() throws Exception {
+        //given
+        Localization old = localization();
+        Localization refreshed = localization();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(localizationFactory.createLocalization("1", "/")).thenReturn(old).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return refreshed;
+        });
+        resolver.getLocalization("http://localhost/");
+
+        //when
+        boolean refreshing = resolver.refreshLocalization(old);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Localization duringRefresh = resolver.getLocalization("http://localhost/");
+        release.countDown();
+
+        //then
+        assertTrue(refreshing);
+        assertSame(old, duringRefresh);
+        assertSame(refreshed, awaitLocalization(refreshed));
+    }
+
+    @Test
+    public void shouldKeepOldLocalizationIfRefreshInBackgroundFailed() throws Exception {
+        //given
+        Localization old = localization();
+        when(localizationFactory.createLocalization("1", "/")).thenReturn(old)
+                .thenThrow(new LocalizationFactoryException("test"));
+        resolver.getLocalization("http://localhost/");
+
+        //when
+        resolver.refreshLocalization(old);
+
+        //then
+        verify(localizationFactory, timeout(5_000).times(2)).createLocalization("1", "/");
+        assertSame(old, resolver.getLocalization("http://localhost/"));
+    }
+
+    @Test
+    public void shouldRefreshInRequestThread_IfBackgroundRefreshIsDisabled() throws Exception {
+        //given
+        refreshInRequestThread();
+        Localization old = localization();
+        Localization refreshed = localization();
+        when(localizationFactory.createLocalization("1", "/")).thenReturn(old).thenReturn(refreshed);
+        resolver.getLocalization("http://localhost/");
+
+        //when
+        boolean result = resolver.refreshLocalization(old);
+
+        //then
+        assertTrue(result);
+        assertSame(refreshed, resolver.getLocalization("http://localhost/"));
+    }
+
+    @Test
+    public void shouldKeepOldLocalizationIfRefreshFailed() throws Exception {
+        //given
+        refreshInRequestThread();
+        Localization old = localization();
+        when(localizationFactory.createLocalization("1", "/")).thenReturn(old)
+                .thenThrow(new LocalizationFactoryException("test"));
+        resolver.getLocalization("http://localhost/");
+
+        //when
+        boolean refreshed = resolver.refreshLocalization(old);
+
+        //then
+        assertFalse(refreshed);
+        assertSame(old, resolver.getLocalization("http://localhost/"));
+    }
+
+    @Test
+    public void shouldNotRefreshLocalizationThatIsNotLoaded() {
+        assertFalse(resolver.refreshLocalization(localization()));
+        assertFalse(resolver.refreshLocalization(null));
+    }
+}
@@ -0,0 +1,166 @@
+package com.sdl.webapp.tridion.linking;
+
+import org.dd4t.core.caching.CacheElement;
+import org.dd4t.core.caching.impl.CacheElementImpl;
+import org.dd4t.providers.PayloadCacheProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AbstractTridionLinkResolverTest {
+
+    private final Map<String, CacheElement<Object>> cache = new ConcurrentHashMap<>();
+
+    private final Map<String, String> links = new HashMap<>();
+
+    private final AtomicInteger resolveCount = new AtomicInteger();
+
+    private PayloadCacheProvider cacheProvider;
+
+    private AbstractTridionLinkResolver linkResolver;
+
+    @Before
+    public void init() {
+        cacheProvider = mock(PayloadCacheProvider.class);
+        when(cacheProvider.loadPayloadFromLocalCache(anyString())).thenAnswer(invocation -> {
+            String key = (String) invocation.getArguments()[0];
+            return cache.computeIfAbsent(key, k -> new CacheElementImpl<>(null, true));
+        });
+
+        linkResolver = new AbstractTridionLinkResolver() {
+            @Override
+            protected String resolveLink(BasicLinkStrategy linkStrategy, int publicationId, int itemId, String uri) {
+                resolveCount.incrementAndGet();
+                String link = links.get(linkStrategy + ":" + publicationId + ":" + (uri != null ? uri : itemId));
+                return link != null ? link : "";
+            }
+        };
+        ReflectionTestUtils.setField(linkResolver, "cacheProvider", cacheProvider);
+        ReflectionTestUtils.setField(linkResolver, "cacheEnabled", true);
+        ReflectionTestUtils.setField(linkResolver, "notFoundExpireSeconds", 30L);
+        ReflectionTestUtils.setField(linkResolver, "componentLinkExpireSeconds", 300L);
+
+        links.put("PAGE_LINK_STRATEGY:1:2", "/page.html");
+        links.put("COMPONENT_LINK_STRATEGY:1:3", "/component");
+        links.put("BINARY_LINK_STRATEGY:1:1-3", "/binary.pdf");
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @After
+    public void destroy() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void shouldResolveLinkOnceAndCacheItWithDependencyOnItem() {
+        //when
+        String first = linkResolver.resolveLink("tcm:1-2-64", "1");
+        String second = linkResolver.resolveLink("tcm:1-2-64", "1");
+
+        //then
+        assertEquals("/page", first);
+        assertEquals("/page", second);
+        assertEquals(1, resolveCount.get());
+        verify(cacheProvider).storeInItemCache(eq("link:1:2:64"), eq(cache.get("link:1:2:64")), eq(1), eq(2));
+        assertEquals(1, linkResolver.getCacheMetrics().getHitCount());
+        assertEquals(1, linkResolver.getCacheMetrics().getMissCount());
+        assertEquals(0.5, linkResolver.getCacheMetrics().getHitRatio(), 0.001);
+    }
+
+    @Test
+    public void shouldCacheComponentAndBinaryLinksSeparately() {
+        //when
+        String component = linkResolver.resolveLink("tcm:1-3", "1");
+        String binary = linkResolver.resolveLink("tcm:1-3", "1", true);
+        linkResolver.resolveLink("tcm:1-3", "1");
+        linkResolver.resolveLink("tcm:1-3", "1", true);
+
+        //then
+        assertEquals("/component", component);
+        assertEquals("/binary.pdf", binary);
+        assertEquals(2, resolveCount.get());
+    }
+
+    @Test
+    public void shouldResolveLinkAgainWhenItemIsRepublished() {
+        //given
+        linkResolver.resolveLink("tcm:1-2-64", "1");
+
+        //when
+        cache.get("link:1:2:64").setExpired(true);
+        links.put("PAGE_LINK_STRATEGY:1:2", "/moved.html");
+
+        //then
+        assertEquals("/moved", linkResolver.resolveLink("tcm:1-2-64", "1"));
+        assertEquals(2, resolveCount.get());
+    }
+
+    @Test
+    public void shouldExpireComponentLinks_BecauseTheirPageMayChange() {
+        //given
+        ReflectionTestUtils.setField(linkResolver, "componentLinkExpireSeconds", 0L);
+        linkResolver.resolveLink("tcm:1-3", "1");
+        linkResolver.resolveLink("tcm:1-2-64", "1");
+
+        //when
+        links.put("COMPONENT_LINK_STRATEGY:1:3", "/moved");
+        String component = linkResolver.resolveLink("tcm:1-3", "1");
+        linkResolver.resolveLink("tcm:1-2-64", "1");
+
+        //then
+        assertEquals("/moved", component);
+        assertEquals("page links only expire with the page", 3, resolveCount.get());
+    }
+
+    @Test
+    public void shouldCacheNotFoundLinksBriefly() {
+        //when
+        linkResolver.resolveLink("tcm:1-4-64", "1");
+        String notFound = linkResolver.resolveLink("tcm:1-4-64", "1");
+
+        //then
+        assertEquals("", notFound);
+        assertEquals(1, resolveCount.get());
+        assertEquals(1, linkResolver.getCacheMetrics().getNotFoundHitCount());
+
+        //when
+        ReflectionTestUtils.setField(linkResolver, "notFoundExpireSeconds", 0L);
+        cache.clear();
+        linkResolver.resolveLink("tcm:1-4-64", "1");
+        linkResolver.resolveLink("tcm:1-4-64", "1");
+
+        //then
+        assertEquals("not found links expired immediately", 3, resolveCount.get());
+    }
+
+    @Test
+    public void shouldNotUseCacheOutsideOfRequest() {
+        //given
+        RequestContextHolder.resetRequestAttributes();
+
+        //when
+        linkResolver.resolveLink("tcm:1-2-64", "1");
+        linkResolver.resolveLink("tcm:1-2-64", "1");
+
+        //then
+        assertEquals(2, resolveCount.get());
+        assertEquals(0, linkResolver.getCacheMetrics().getMissCount());
+    }
+}
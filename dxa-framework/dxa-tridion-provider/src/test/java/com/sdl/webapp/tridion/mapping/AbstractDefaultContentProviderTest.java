@@ -3,10 +3,12 @@ package com.sdl.webapp.tridion.mapping;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableMap;
 import com.sdl.webapp.common.api.WebRequestContext;
+import com.sdl.webapp.common.api.content.ContentProvider;
 import com.sdl.webapp.common.api.content.ContentProviderException;
 import com.sdl.webapp.common.api.content.LinkResolver;
 import com.sdl.webapp.common.api.localization.Localization;
 import com.sdl.webapp.common.api.model.EntityModel;
+import com.sdl.webapp.common.api.model.PageModel;
 import com.sdl.webapp.common.api.model.entity.DynamicList;
 import com.sdl.webapp.common.api.model.entity.Link;
 import com.sdl.webapp.common.api.model.query.ComponentMetadata;
@@ -18,6 +20,7 @@ import org.dd4t.contentmodel.Component;
 import org.dd4t.contentmodel.ComponentPresentation;
 import org.dd4t.contentmodel.Field;
 import org.dd4t.contentmodel.FieldType;
+import org.dd4t.contentmodel.Page;
 import org.dd4t.contentmodel.impl.DateField;
 import org.dd4t.contentmodel.impl.EmbeddedField;
 import org.dd4t.contentmodel.impl.NumericField;
@@ -37,6 +40,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -52,14 +56,22 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static com.sdl.webapp.common.util.TcmUtils.buildTcmUri;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyList;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
@@ -83,6 +95,9 @@ public class AbstractDefaultContentProviderTest {
     @Autowired
     private ModelBuilderPipeline modelBuilderPipeline;
 
+    @Autowired
+    private PageFactory dd4tPageFactory;
+
     @Test
     public void shouldInjectIsQueryBasedParam() throws DxaException, ContentProviderException {
         //given
@@ -200,6 +215,21 @@ public class AbstractDefaultContentProviderTest {
         assertTrue(oldFile);
     }
 
+    @Test
+    public void shouldUsePublishDateAsLastModified_InsteadOfFileTime() {
+        //given
+        File file = mock(File.class);
+        when(file.lastModified()).thenReturn(1000L);
+
+        //when
+        long published = new AbstractDefaultContentProvider.StaticContentFile(file, "image/png", 500L).getLastModified();
+        long unknown = new AbstractDefaultContentProvider.StaticContentFile(file, "image/png").getLastModified();
+
+        //then
+        assertEquals(500L, published);
+        assertEquals(1000L, unknown);
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void shouldGetQueryFromDynamicListAndCallExecuteImplementation() throws ContentProviderException {
@@ -292,10 +322,98 @@ public class AbstractDefaultContentProviderTest {
         verify(dynamicList).setQueryResults(anyList(), anyBoolean());
     }
 
+    @Test
+    public void shouldLoadDifferentPagesInParallel() throws Exception {
+        //given
+        final int threads = 8;
+        final long delay = 200;
+        Localization localization = mockPageLoading(delay);
+
+        //when
+        long start = System.currentTimeMillis();
+        List<Future<PageModel>> futures = loadPagesConcurrently(localization, threads, false);
+        for (Future<PageModel> future : futures) {
+            assertNotNull(future.get(10, TimeUnit.SECONDS));
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        //then
+        // serialized loading would take threads * delay, which is 1600ms
+        assertTrue("Pages should be loaded in parallel, but took " + elapsed + "ms", elapsed < threads * delay / 2);
+        for (int i = 0; i < threads; i++) {
+            verify(dd4tPageFactory).findPageByUrl(eq("/parallel-" + i + ".html"), eq(1));
+        }
+    }
+
+    @Test
+    public void shouldShareOneLoadForConcurrentRequestsOfSamePage() throws Exception {
+        //given
+        final int threads = 8;
+        Localization localization = mockPageLoading(300);
+
+        //when
+        List<Future<PageModel>> futures = loadPagesConcurrently(localization, threads, true);
+        for (Future<PageModel> future : futures) {
+            assertNotNull(future.get(10, TimeUnit.SECONDS));
+        }
+
+        //then
+        verify(dd4tPageFactory, times(1)).isPagePublished(eq("/shared.html"), eq(1));
+        verify(dd4tPageFactory, times(1)).findPageByUrl(eq("/shared.html"), eq(1));
+    }
+
+    private Localization mockPageLoading(final long delay) throws Exception {
+        Localization localization = mock(Localization.class);
+        when(localization.getId()).thenReturn("1");
+
+        when(dd4tPageFactory.isPagePublished(anyString(), eq(1))).thenReturn(true);
+        when(dd4tPageFactory.findPageByUrl(anyString(), eq(1))).thenAnswer(new Answer<Page>() {
+            @Override
+            public Page answer(InvocationOnMock invocation) throws Throwable {
+                Thread.sleep(delay);
+                return mock(Page.class);
+            }
+        });
+
+        PageModel pageModel = mock(PageModel.class);
+        when(modelBuilderPipeline.createPageModel(any(Page.class), any(Localization.class), any(ContentProvider.class)))
+                .thenReturn(pageModel);
+        return localization;
+    }
+
+    private List<Future<PageModel>> loadPagesConcurrently(final Localization localization, int threads, final boolean samePage) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<PageModel>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            final String path = samePage ? "/shared" : ("/parallel-" + i);
+            futures.add(executor.submit(new Callable<PageModel>() {
+                @Override
+                public PageModel call() throws Exception {
+                    start.await();
+                    return abstractDefaultContentProvider.getPageModel(path, localization);
+                }
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        return futures;
+    }
+
     @Configuration
     @Profile("test")
     static class SpringContext {
 
+        @Bean
+        public static PropertySourcesPlaceholderConfigurer placeholderConfigurer() {
+            return new PropertySourcesPlaceholderConfigurer();
+        }
+
+        @Bean
+        public PageModelCache pageModelCache() {
+            return new PageModelCache();
+        }
+
         @Bean
         public AbstractDefaultContentProvider defaultProvider() {
             return new AbstractDefaultContentProvider() {
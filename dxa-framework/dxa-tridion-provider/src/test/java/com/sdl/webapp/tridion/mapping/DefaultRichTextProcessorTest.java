@@ -0,0 +1,377 @@
+package com.sdl.webapp.tridion.mapping;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.sdl.webapp.common.api.WebRequestContext;
+import com.sdl.webapp.common.api.content.LinkResolver;
+import com.sdl.webapp.common.api.content.RichTextProcessor;
+import com.sdl.webapp.common.api.localization.Localization;
+import com.sdl.webapp.common.api.mapping.semantic.config.EntitySemantics;
+import com.sdl.webapp.common.api.mapping.semantic.config.FieldSemantics;
+import com.sdl.webapp.common.api.mapping.semantic.config.SemanticField;
+import com.sdl.webapp.common.api.mapping.semantic.config.SemanticSchema;
+import com.sdl.webapp.common.api.mapping.semantic.config.SemanticVocabulary;
+import com.sdl.webapp.common.api.model.RichText;
+import com.sdl.webapp.common.api.model.RichTextFragment;
+import com.sdl.webapp.common.api.model.RichTextFragmentImpl;
+import com.sdl.webapp.common.api.model.ViewModelRegistry;
+import com.sdl.webapp.common.api.model.entity.ExceptionEntity;
+import com.sdl.webapp.common.api.model.entity.MediaItem;
+import com.sdl.webapp.common.exceptions.DxaException;
+import com.sdl.webapp.common.markup.html.HtmlElement;
+import org.dd4t.core.exceptions.ItemNotFoundException;
+import org.dd4t.core.factories.ComponentPresentationFactory;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DefaultRichTextProcessorTest {
+
+    private static final String XLINK = "xmlns:xlink=\"http://www.w3.org/1999/xlink\"";
+
+    private static final String IMAGE = "<img " + XLINK + " xlink:href=\"tcm:1-10\" src=\"/media/image.png\" class=\"left\""
+            + " data-schemaUri=\"tcm:1-100-8\" data-multimediaFileName=\"image.png\""
+            + " data-multimediaMimeType=\"image/png\" data-multimediaFileSize=\"42\"/>";
+
+    private static final String UNMAPPED_IMAGE = "<img " + XLINK + " xlink:href=\"tcm:1-11\" src=\"/media/other.png\""
+            + " data-schemaUri=\"tcm:1-101-8\"/>";
+
+    /**
+     * Rich text the processors must give the same output for.
+     */
+    private static final String[] CORPUS = {
+            "",
+            "just text",
+            "<p>Hello <b>world</b></p>",
+            "<p title=\"a &amp; b &lt; c &quot; ' &gt;\">x &amp; y &lt; z &gt; \"q\" 'a' ]]&gt;</p>",
+            "<p title=\"a&#10;b&#9;c&#13;d\">line1\nline2\r\n\tend&#13;</p>",
+            "<p title=\"😀 é\">é  😀   \u0085 \u007f\u0080</p>",
+            "<p/><br></br><div><span/></div>",
+            "text <!-- comment 😀 --><?php echo 1; ?><p><?empty?><?data  x ?></p>",
+            "<p><![CDATA[a < b & c\n😀 d]]></p><p>a<![CDATA[b]]>c</p>",
+            "<p xmlns=\"http://www.w3.org/1999/xhtml\"><span class=\"x\">x</span></p>",
+            "<x:p xmlns:x=\"urn:x\"><x:q/><r/><x:s xmlns:x=\"urn:other\"/></x:p>",
+            "<p xml:lang=\"en\" y:a=\"1\" xmlns:y=\"urn:y\">x</p>",
+            "<p><a " + XLINK + " xlink:href=\"tcm:1-2\" xlink:title=\"T\" title=\"Title\" data-id=\"1\" class=\"c\">link</a></p>",
+            "<p>before <a " + XLINK + " xlink:href=\"tcm:1-3\">text <b>bold</b></a> after</p>",
+            "<a " + XLINK + " xlink:href=\"tcm:1-3\"><a " + XLINK + " xlink:href=\"tcm:1-2\">nested</a></a>",
+            "<p><a " + XLINK + " xlink:href=\"tcm:1-3\" href=\"/resolved\">a</a><a " + XLINK + " xlink:href=\"tcm:1-3\" src=\"/src\">b</a></p>",
+            "<p><a " + XLINK + " xlink:href=\"\">empty</a></p>",
+            "<p><a " + XLINK + " xlink:href=\"tcm:1-2\" target=\"anchored\" title=\"My Title\">same page</a>"
+                    + "<a " + XLINK + " xlink:href=\"tcm:1-4\" target=\"anchored\">other page</a></p>",
+            "<p xmlns=\"http://www.w3.org/1999/xhtml\"><a " + XLINK + " xlink:href=\"tcm:1-2\">xhtml link</a></p>",
+            "<a " + XLINK + " xmlns:y=\"urn:y\" xlink:href=\"tcm:1-3\"><y:b y:c=\"1\"/><b xlink:title=\"t\"/></a>",
+            "<p xmlns=\"urn:d\"><a xmlns=\"\" " + XLINK + " xlink:href=\"tcm:1-3\"><b/></a></p>",
+            "<p>a" + IMAGE + "b</p>",
+            IMAGE,
+            IMAGE + IMAGE + "<p>" + IMAGE + "</p>",
+            "<p>" + UNMAPPED_IMAGE + IMAGE + "</p>",
+            "<p><img " + XLINK + " xlink:href=\"tcm:1-10\" data-schemaUri=\"tcm:1-100-8\"><b>inside</b></img>after</p>",
+            "<p><a " + XLINK + " xlink:href=\"tcm:1-3\">" + IMAGE + "</a><a " + XLINK + " xlink:href=\"tcm:1-2\">" + IMAGE + "</a></p>",
+            "<p>&nbsp;</p>",
+            "<p>not closed",
+    };
+
+    private final DefaultRichTextProcessor processor = new DefaultRichTextProcessor();
+
+    private final DomRichTextProcessor domProcessor = new DomRichTextProcessor();
+
+    private Localization localization;
+
+    private LinkResolver linkResolver;
+
+    private WebRequestContext webRequestContext;
+
+    private ComponentPresentationFactory componentFactory;
+
+    private static String html(RichTextFragment fragment) {
+        return (String) ReflectionTestUtils.getField(fragment, "html");
+    }
+
+    private static String describe(RichText richText) {
+        StringBuilder builder = new StringBuilder();
+        for (RichTextFragment fragment : richText.getFragments()) {
+            if (fragment instanceof RichTextFragmentImpl) {
+                builder.append(html(fragment));
+            } else if (fragment instanceof TestImage) {
+                TestImage image = (TestImage) fragment;
+                builder.append(String.format("{image %s %s %s %s %s %d}", image.getId(), image.getUrl(), image.getHtmlClasses(),
+                        image.getFileName(), image.getMimeType(), image.getFileSize()));
+            } else {
+                builder.append('{').append(fragment.getClass().getSimpleName()).append('}');
+            }
+        }
+        return builder.toString();
+    }
+
+    private static SemanticSchema schema(long id, String entityName) {
+        return new SemanticSchema(id, entityName, Sets.newHashSet(new EntitySemantics(new SemanticVocabulary("core"), entityName)),
+                Collections.<FieldSemantics, SemanticField>emptyMap());
+    }
+
+    @Before
+    public void init() throws Exception {
+        linkResolver = mock(LinkResolver.class);
+        when(linkResolver.resolveLink(anyString(), eq((String) null), eq(true))).thenReturn("");
+        when(linkResolver.resolveLink(eq("tcm:1-2"), eq((String) null), eq(true))).thenReturn("/page");
+        when(linkResolver.resolveLink(eq("tcm:1-4"), eq((String) null), eq(true))).thenReturn("/other");
+
+        webRequestContext = mock(WebRequestContext.class);
+        when(webRequestContext.getContextPath()).thenReturn("");
+        when(webRequestContext.getRequestPath()).thenReturn("/page");
+
+        componentFactory = mock(ComponentPresentationFactory.class);
+        when(componentFactory.getComponentPresentation(eq("tcm:1-2"), anyString())).thenThrow(new ItemNotFoundException("not found"));
+
+        SemanticSchema imageSchema = schema(100, "Image");
+        SemanticSchema unmappedSchema = schema(101, "Unknown");
+        localization = mock(Localization.class);
+        when(localization.getSemanticSchemas()).thenReturn(ImmutableMap.of(100L, imageSchema, 101L, unmappedSchema));
+
+        ViewModelRegistry viewModelRegistry = mock(ViewModelRegistry.class);
+        when(viewModelRegistry.getMappedModelTypes(Sets.newHashSet("core:Image"))).thenReturn((Class) TestImage.class);
+
+        for (RichTextProcessor richTextProcessor : new RichTextProcessor[]{processor, domProcessor}) {
+            ReflectionTestUtils.setField(richTextProcessor, "linkResolver", linkResolver);
+            ReflectionTestUtils.setField(richTextProcessor, "webRequestContext", webRequestContext);
+            ReflectionTestUtils.setField(richTextProcessor, "componentFactory", componentFactory);
+            ReflectionTestUtils.setField(richTextProcessor, "viewModelRegistry", viewModelRegistry);
+        }
+    }
+
+    @After
+    public void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private RichTextCache enableCache() {
+        RichTextCache richTextCache = new RichTextCache();
+        ReflectionTestUtils.setField(richTextCache, "enabled", true);
+        ReflectionTestUtils.setField(richTextCache, "maxMegabytes", 1L);
+        ReflectionTestUtils.setField(richTextCache, "expireAfterWriteSeconds", 60L);
+        richTextCache.init();
+        ReflectionTestUtils.setField(processor, "richTextCache", richTextCache);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        return richTextCache;
+    }
+
+    @Test
+    public void shouldGiveSameOutputAsDomProcessor() {
+        for (String xhtml : CORPUS) {
+            assertEquals(xhtml, describe(domProcessor.processRichText(xhtml, localization)),
+                    describe(processor.processRichText(xhtml, localization)));
+        }
+    }
+
+    @Test
+    public void shouldResolveLinksAndExtractImages() {
+        //when
+        RichText richText = processor.processRichText("<p><a " + XLINK + " xlink:href=\"tcm:1-2\" data-id=\"1\">link</a>"
+                + IMAGE + "</p>", localization);
+
+        //then
+        List<RichTextFragment> fragments = richText.getFragments();
+        assertEquals(3, fragments.size());
+        assertEquals("<p><a href=\"/page\">link</a>", html(fragments.get(0)));
+        assertEquals("10", ((TestImage) fragments.get(1)).getId());
+        assertEquals("/media/image.png", ((TestImage) fragments.get(1)).getUrl());
+        assertEquals("</p>", html(fragments.get(2)));
+    }
+
+    @Test
+    public void shouldKeepContentOfUnresolvedLinks() {
+        //when
+        RichText richText = processor.processRichText("<p><a " + XLINK + " xlink:href=\"tcm:1-3\">text <b>bold</b></a></p>", localization);
+
+        //then
+        assertEquals("<p>text <b>bold</b></p>", html(richText.getFragments().get(0)));
+    }
+
+    @Test
+    public void shouldKeepImageOfUnmappedSchema() {
+        //when
+        RichText richText = processor.processRichText(UNMAPPED_IMAGE, localization);
+
+        //then
+        assertEquals(1, richText.getFragments().size());
+        assertTrue(html(richText.getFragments().get(0)).startsWith("<img "));
+    }
+
+    @Test
+    public void shouldWriteCdataSectionsAtTopLevel() {
+        // LSSerializer of the DOM version loses the end of top-level CDATA sections, the only intended difference
+        assertEquals("<![CDATA[a < b]]>", html(processor.processRichText("<![CDATA[a < b]]>", localization).getFragments().get(0)));
+    }
+
+    @Test
+    public void shouldReturnTextAsIsIfNotWellFormed() {
+        //when
+        RichText richText = processor.processRichText("<p>&nbsp;</p>", localization);
+
+        //then
+        assertEquals("<p>&nbsp;</p>", html(richText.getFragments().get(0)));
+    }
+
+    @Test
+    public void shouldServeProcessedRichTextFromCache() throws Exception {
+        //given
+        RichTextCache richTextCache = enableCache();
+        String xhtml = "<p><a " + XLINK + " xlink:href=\"tcm:1-2\" target=\"anchored\">link</a>" + IMAGE + "</p>";
+
+        //when
+        RichText first = processor.processRichText(xhtml, localization);
+        RichText second = processor.processRichText(xhtml, localization);
+
+        //then
+        assertEquals(describe(first), describe(second));
+        assertEquals(1, richTextCache.getMissCount());
+        assertEquals(1, richTextCache.getHitCount());
+        verify(componentFactory, times(1)).getComponentPresentation(eq("tcm:1-2"), anyString());
+    }
+
+    @Test
+    public void shouldNotShareFragmentsAndEmbeddedEntitiesOfCachedRichText() {
+        //given
+        RichTextCache richTextCache = enableCache();
+        String xhtml = "<p>a" + IMAGE + "b</p>";
+        RichText first = processor.processRichText(xhtml, localization);
+        String expected = describe(first);
+
+        //when
+        ((TestImage) first.getFragments().get(1)).setHtmlClasses("changed by request");
+        ((RichTextFragmentImpl) first.getFragments().get(0)).setHtml("changed");
+        RichText second = processor.processRichText(xhtml, localization);
+        RichText third = processor.processRichText(xhtml, localization);
+
+        //then
+        assertEquals(2, richTextCache.getHitCount());
+        assertEquals(expected, describe(second));
+        assertNotSame(second.getFragments().get(1), third.getFragments().get(1));
+    }
+
+    @Test
+    public void shouldProcessAgainIfLinksResolveDifferently() {
+        //given
+        RichTextCache richTextCache = enableCache();
+        String xhtml = "<p><a " + XLINK + " xlink:href=\"tcm:1-2\">link</a></p>";
+        processor.processRichText(xhtml, localization);
+
+        //when
+        when(linkResolver.resolveLink(eq("tcm:1-2"), eq((String) null), eq(true))).thenReturn("/moved");
+        RichText richText = processor.processRichText(xhtml, localization);
+
+        //then
+        assertEquals("<p><a href=\"/moved\">link</a></p>", html(richText.getFragments().get(0)));
+        assertEquals(1, richTextCache.getStaleCount());
+        assertEquals(0, richTextCache.getHitCount());
+    }
+
+    @Test
+    public void shouldCacheAnchoredLinksPerRequestPath() {
+        //given
+        RichTextCache richTextCache = enableCache();
+        String xhtml = "<p><a " + XLINK + " xlink:href=\"tcm:1-2\" target=\"anchored\" title=\"T\">link</a></p>";
+        processor.processRichText(xhtml, localization);
+
+        //when
+        when(webRequestContext.getRequestPath()).thenReturn("/another");
+        RichText richText = processor.processRichText(xhtml, localization);
+
+        //then
+        assertEquals("<p><a href=\"/page#t\" target=\"_top\" title=\"T\">link</a></p>", html(richText.getFragments().get(0)));
+        assertEquals(2, richTextCache.getMissCount());
+    }
+
+    @Test
+    public void shouldNotCacheInPreview() {
+        //given
+        RichTextCache richTextCache = enableCache();
+        when(webRequestContext.isPreview()).thenReturn(true);
+
+        //when
+        processor.processRichText("<p>text</p>", localization);
+        processor.processRichText("<p>text</p>", localization);
+
+        //then
+        assertEquals(0, richTextCache.getSize());
+        assertEquals(0, richTextCache.getHitCount() + richTextCache.getMissCount());
+    }
+
+    /**
+     * Compares processing of rich text with the DOM processor and the streaming processor.
+     * Run with {@code -Ddxa.benchmark=true}.
+     */
+    @Test
+    public void benchmarkRichTextProcessing() {
+        Assume.assumeTrue(Boolean.getBoolean("dxa.benchmark"));
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            builder.append("<h2>Heading ").append(i).append("</h2><p>Some <strong>rich</strong> text &amp; a ")
+                    .append("<a ").append(XLINK).append(" xlink:href=\"tcm:1-2\" title=\"Link\">resolved link</a>, an ")
+                    .append("<a ").append(XLINK).append(" xlink:href=\"tcm:1-3\">unresolved link</a> and more text.</p>")
+                    .append("<ul><li>one</li><li>two</li></ul>");
+            if (i % 5 == 0) {
+                builder.append(IMAGE);
+            }
+        }
+        String xhtml = builder.toString();
+        int iterations = 2000;
+
+        for (int warmUp = 0; warmUp < 3; warmUp++) {
+            run(domProcessor, xhtml, iterations);
+            run(processor, xhtml, iterations);
+        }
+
+        long domNanos = run(domProcessor, xhtml, iterations);
+        long streamingNanos = run(processor, xhtml, iterations);
+
+        System.out.printf("DOM:       %d us per rich text%n", TimeUnit.NANOSECONDS.toMicros(domNanos / iterations));
+        System.out.printf("Streaming: %d us per rich text%n", TimeUnit.NANOSECONDS.toMicros(streamingNanos / iterations));
+    }
+
+    private long run(RichTextProcessor richTextProcessor, String xhtml, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            richTextProcessor.processRichText(xhtml, localization);
+        }
+        return System.nanoTime() - start;
+    }
+
+    public static class TestImage extends MediaItem {
+
+        @Override
+        public HtmlElement toHtmlElement(String widthFactor) throws DxaException {
+            return null;
+        }
+
+        @Override
+        public HtmlElement toHtmlElement(String widthFactor, double aspect, String cssClass, int containerSize) throws DxaException {
+            return null;
+        }
+
+        @Override
+        public HtmlElement toHtmlElement(String widthFactor, double aspect, String cssClass, int containerSize, String contextPath) throws DxaException {
+            return null;
+        }
+    }
+}
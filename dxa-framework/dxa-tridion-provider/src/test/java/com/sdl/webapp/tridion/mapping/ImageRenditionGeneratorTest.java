@@ -0,0 +1,181 @@
+package com.sdl.webapp.tridion.mapping;
+
+import com.sdl.webapp.common.api.MediaHelper;
+import com.sdl.webapp.common.util.ImageUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ImageRenditionGeneratorTest {
+
+    private static final long PUBLISHED = 1_450_000_000_000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    private ImageResizeService imageResizeService;
+
+    private ImageRenditionGenerator imageRenditionGenerator;
+
+    private File media;
+
+    private static byte[] image(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Resizes to two widths and builds URLs the same way as {@code DefaultMediaHelper}.
+     */
+    private static MediaHelper mediaHelper() {
+        MediaHelper mediaHelper = mock(MediaHelper.class);
+        when(mediaHelper.getImageWidths()).thenReturn(new int[]{160, 320});
+        when(mediaHelper.getResizedImageUrl(anyString(), anyInt(), anyDouble())).thenAnswer(invocation -> {
+            String url = (String) invocation.getArguments()[0];
+            int width = (int) invocation.getArguments()[1];
+            double aspect = (double) invocation.getArguments()[2];
+            int index = url.lastIndexOf('.');
+            return String.format("%s_w%s%s_n%s", url.substring(0, index), width,
+                    aspect == 0.0 ? "" : "_h" + (int) Math.ceil(width / aspect), url.substring(index));
+        });
+        return mediaHelper;
+    }
+
+    @Before
+    public void init() throws IOException {
+        media = folder.newFolder("media");
+
+        imageResizeService = new ImageResizeService();
+        ReflectionTestUtils.setField(imageResizeService, "resizeThreads", 1);
+        ReflectionTestUtils.setField(imageResizeService, "sourceCacheMaxMegabytes", 64L);
+        ReflectionTestUtils.setField(imageResizeService, "sourceCacheExpireSeconds", 60L);
+        imageResizeService.init();
+
+        imageRenditionGenerator = new ImageRenditionGenerator();
+        ReflectionTestUtils.setField(imageRenditionGenerator, "imageResizeService", imageResizeService);
+        ReflectionTestUtils.setField(imageRenditionGenerator, "mediaHelper", mediaHelper());
+        ReflectionTestUtils.setField(imageRenditionGenerator, "enabled", true);
+        ReflectionTestUtils.setField(imageRenditionGenerator, "aspects", "0,2");
+        ReflectionTestUtils.setField(imageRenditionGenerator, "ratePerSecond", 1000.0);
+        ReflectionTestUtils.setField(imageRenditionGenerator, "maxQueueSize", 100);
+        imageRenditionGenerator.init();
+    }
+
+    @After
+    public void destroy() {
+        imageRenditionGenerator.destroy();
+        imageResizeService.destroy();
+    }
+
+    private ImageResizeService.ContentLoader loader(final byte[] content) {
+        return () -> {
+            loadCount.incrementAndGet();
+            return content;
+        };
+    }
+
+    private void awaitEmptyQueue() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (imageRenditionGenerator.getQueueDepth() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, imageRenditionGenerator.getQueueDepth());
+    }
+
+    @Test
+    public void shouldGenerateRenditionsForConfiguredWidthsAndAspectsInBackground() throws Exception {
+        //when
+        imageRenditionGenerator.scheduleRenditions(new File(media, "image.png"),
+                new ImageUtils.StaticContentPathInfo("/media/image.png"), "1:2:v:100", PUBLISHED, loader(image(800, 600)));
+        awaitEmptyQueue();
+
+        //then
+        assertEquals(4, imageRenditionGenerator.getGeneratedCount());
+        assertEquals(1, loadCount.get());
+        assertEquals(120, ImageIO.read(new File(media, "image_w160_n.png")).getHeight());
+        assertEquals(240, ImageIO.read(new File(media, "image_w320_n.png")).getHeight());
+        assertEquals(80, ImageIO.read(new File(media, "image_w160_h80_n.png")).getHeight());
+        assertEquals(160, ImageIO.read(new File(media, "image_w320_h160_n.png")).getHeight());
+    }
+
+    @Test
+    public void shouldSkipRenditionsThatAreUpToDate() throws Exception {
+        //given
+        File upToDate = new File(media, "image_w160_n.png");
+        assertTrue(upToDate.createNewFile());
+        assertTrue(upToDate.setLastModified(PUBLISHED + 1000));
+
+        //when
+        imageRenditionGenerator.scheduleRenditions(new File(media, "image_w160_n.png"),
+                new ImageUtils.StaticContentPathInfo("/media/image_w160_n.png"), "1:2:v:100", PUBLISHED, loader(image(800, 600)));
+        awaitEmptyQueue();
+
+        //then
+        assertEquals(3, imageRenditionGenerator.getGeneratedCount());
+        assertEquals(0, upToDate.length());
+    }
+
+    @Test
+    public void shouldDropRenditionsIfQueueIsFull() throws Exception {
+        //given
+        ReflectionTestUtils.setField(imageRenditionGenerator, "maxQueueSize", 3);
+
+        //when
+        imageRenditionGenerator.scheduleRenditions(new File(media, "image.png"),
+                new ImageUtils.StaticContentPathInfo("/media/image.png"), "1:2:v:100", PUBLISHED, loader(image(800, 600)));
+
+        //then
+        assertEquals(0, imageRenditionGenerator.getQueueDepth());
+        assertEquals(4, imageRenditionGenerator.getDroppedCount());
+        assertEquals(0, loadCount.get());
+    }
+
+    @Test
+    public void shouldNotGenerateRenditionsOfImagesThatCannotBeWritten() throws Exception {
+        //when
+        imageRenditionGenerator.scheduleRenditions(new File(media, "image.svg"),
+                new ImageUtils.StaticContentPathInfo("/media/image.svg"), "1:3:v:100", PUBLISHED, loader(new byte[0]));
+
+        //then
+        assertEquals(0, imageRenditionGenerator.getQueueDepth());
+        assertEquals(0, loadCount.get());
+    }
+
+    @Test
+    public void shouldDoNothingIfDisabled() throws Exception {
+        //given
+        imageRenditionGenerator.destroy();
+        ReflectionTestUtils.setField(imageRenditionGenerator, "enabled", false);
+        imageRenditionGenerator.init();
+
+        //when
+        imageRenditionGenerator.scheduleRenditions(new File(media, "image.png"),
+                new ImageUtils.StaticContentPathInfo("/media/image.png"), "1:2:v:100", PUBLISHED, loader(image(800, 600)));
+
+        //then
+        assertEquals(0, imageRenditionGenerator.getQueueDepth());
+        assertFalse(new File(media, "image_w160_n.png").exists());
+    }
+}
@@ -0,0 +1,267 @@
+package com.sdl.webapp.tridion.mapping;
+
+import com.sdl.webapp.common.api.content.ContentProviderException;
+import com.sdl.webapp.common.util.ImageUtils;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ImageResizeServiceTest {
+
+    /**
+     * Same widths as {@code DefaultMediaHelper.IMAGE_WIDTHS} generates for responsive images.
+     */
+    private static final int[] IMAGE_WIDTHS = {160, 320, 640, 1024, 2048};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    private ImageResizeService imageResizeService;
+
+    private static byte[] image(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillOval(0, 0, width, height);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    @Before
+    public void init() {
+        imageResizeService = new ImageResizeService();
+        ReflectionTestUtils.setField(imageResizeService, "resizeThreads", 2);
+        ReflectionTestUtils.setField(imageResizeService, "sourceCacheMaxMegabytes", 64L);
+        ReflectionTestUtils.setField(imageResizeService, "sourceCacheExpireSeconds", 60L);
+        imageResizeService.init();
+    }
+
+    @After
+    public void destroy() {
+        imageResizeService.destroy();
+    }
+
+    private ImageResizeService.ContentLoader loader(final byte[] content) {
+        return () -> {
+            loadCount.incrementAndGet();
+            return content;
+        };
+    }
+
+    @Test
+    public void shouldResizeAllWidthsFromOneDecodedSource() throws Exception {
+        //given
+        byte[] original = image(2400, 1200);
+        folder.newFolder("media");
+
+        //when
+        for (int width : IMAGE_WIDTHS) {
+            String path = "/media/image_w" + width + "_n.png";
+            imageResizeService.writeToFile(new File(folder.getRoot(), path), new ImageUtils.StaticContentPathInfo(path),
+                    "1:2:v:100", loader(original));
+        }
+
+        //then
+        assertEquals(1, loadCount.get());
+        assertEquals(1, imageResizeService.getDecodedImageCount());
+        for (int width : IMAGE_WIDTHS) {
+            BufferedImage resized = ImageIO.read(new File(folder.getRoot(), "/media/image_w" + width + "_n.png"));
+            assertEquals(width, resized.getWidth());
+            assertEquals(width / 2, resized.getHeight());
+        }
+        String[] files = new File(folder.getRoot(), "media").list();
+        assertEquals("no temporary files are left", IMAGE_WIDTHS.length, files.length);
+    }
+
+    @Test
+    public void shouldKeepDecodedSource_IfHeavierThanQuarterOfMaximum() throws Exception {
+        //given
+        imageResizeService.destroy();
+        ReflectionTestUtils.setField(imageResizeService, "sourceCacheMaxMegabytes", 8L);
+        imageResizeService.init();
+        // about 6.4 MB decoded, more than the 2 MB a segment gets with the default concurrency level
+        byte[] original = image(1600, 1000);
+        folder.newFolder("media");
+
+        //when
+        for (int width : IMAGE_WIDTHS) {
+            String path = "/media/large_w" + width + "_n.png";
+            imageResizeService.writeToFile(new File(folder.getRoot(), path), new ImageUtils.StaticContentPathInfo(path),
+                    "1:7:v:100", loader(original));
+        }
+
+        //then
+        assertEquals(1, loadCount.get());
+        assertEquals(1, imageResizeService.getDecodedImageCount());
+    }
+
+    @Test
+    public void shouldWriteContentAsIsIfNotResized() throws Exception {
+        //given
+        byte[] content = "body { }".getBytes("UTF-8");
+        File file = folder.newFile("style.css");
+
+        //when
+        imageResizeService.writeToFile(file, new ImageUtils.StaticContentPathInfo("/style.css"), "1:3:v:100", loader(content));
+
+        //then
+        assertArrayEquals(content, java.nio.file.Files.readAllBytes(file.toPath()));
+        assertEquals(0, imageResizeService.getDecodedImageCount());
+    }
+
+    @Test
+    public void shouldShareWriteOfSameFileBetweenConcurrentRequests() throws Exception {
+        //given
+        final File file = new File(folder.getRoot(), "image_w160.png");
+        final ImageUtils.StaticContentPathInfo pathInfo = new ImageUtils.StaticContentPathInfo("/image_w160.png");
+        final byte[] original = image(320, 320);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ImageResizeService.ContentLoader slowLoader = () -> {
+            loadCount.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return original;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        //when
+        List<Future<?>> writes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            // a new source key for every request, so that only sharing of the write can prevent loads
+            final String sourceKey = "1:4:v:" + i;
+            writes.add(executor.submit(() -> {
+                imageResizeService.writeToFile(file, pathInfo, sourceKey, slowLoader);
+                return null;
+            }));
+        }
+        while (loadCount.get() == 0) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        //then
+        for (Future<?> write : writes) {
+            write.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(1, loadCount.get());
+        assertEquals(160, ImageIO.read(file).getWidth());
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldRethrowAndNotCacheFailures() throws Exception {
+        //given
+        File file = new File(folder.getRoot(), "image_w160.png");
+        ImageUtils.StaticContentPathInfo pathInfo = new ImageUtils.StaticContentPathInfo("/image_w160.png");
+
+        //when
+        try {
+            imageResizeService.writeToFile(file, pathInfo, "1:5:v:100", () -> {
+                throw new ContentProviderException("broker is down");
+            });
+            fail("exception expected");
+        } catch (ContentProviderException e) {
+            assertEquals("broker is down", e.getMessage());
+        }
+        imageResizeService.writeToFile(file, pathInfo, "1:5:v:100", loader(image(320, 320)));
+
+        //then
+        assertTrue(file.exists());
+        assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void shouldResizeInRequestThreadIfNoThreadsConfigured() throws Exception {
+        //given
+        imageResizeService.destroy();
+        ReflectionTestUtils.setField(imageResizeService, "resizeThreads", 0);
+        imageResizeService.init();
+        File file = new File(folder.getRoot(), "image_w160.png");
+
+        //when
+        imageResizeService.writeToFile(file, new ImageUtils.StaticContentPathInfo("/image_w160.png"), "1:6:v:100",
+                loader(image(320, 320)));
+
+        //then
+        assertEquals(160, ImageIO.read(file).getWidth());
+        assertEquals("no temporary files are left", 1, folder.getRoot().list().length);
+    }
+
+    /**
+     * Compares resizing all responsive widths by decoding the original for every width, like a cold cache did before,
+     * to resizing them from one decoded source. Run with {@code -Ddxa.benchmark=true}.
+     */
+    @Test
+    public void benchmarkResizeOfImageWidths() throws Exception {
+        Assume.assumeTrue(Boolean.getBoolean("dxa.benchmark"));
+
+        byte[] original = image(3000, 2000);
+        int iterations = 5;
+
+        for (int warmUp = 0; warmUp < 2; warmUp++) {
+            decodePerWidth(original);
+            decodeOnce(original);
+        }
+
+        long decodePerWidthNanos = 0;
+        long decodeOnceNanos = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            decodePerWidth(original);
+            decodePerWidthNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            decodeOnce(original);
+            decodeOnceNanos += System.nanoTime() - start;
+        }
+
+        System.out.printf("Decode per width: %d ms per image%n", TimeUnit.NANOSECONDS.toMillis(decodePerWidthNanos / iterations));
+        System.out.printf("Decode once:      %d ms per image%n", TimeUnit.NANOSECONDS.toMillis(decodeOnceNanos / iterations));
+    }
+
+    private static void decodePerWidth(byte[] original) throws ContentProviderException {
+        for (int width : IMAGE_WIDTHS) {
+            ImageUtils.resizeImage(original, new ImageUtils.StaticContentPathInfo("image_w" + width + "_n.png"));
+        }
+    }
+
+    private static void decodeOnce(byte[] original) throws ContentProviderException {
+        BufferedImage image = ImageUtils.readImage(original);
+        for (int width : IMAGE_WIDTHS) {
+            ImageUtils.resizeImage(image, original, new ImageUtils.StaticContentPathInfo("image_w" + width + "_n.png"));
+        }
+    }
+}
@@ -9,8 +9,10 @@ import com.sdl.webapp.common.api.content.LinkResolver;
 import com.sdl.webapp.common.api.content.RegionBuilder;
 import com.sdl.webapp.common.api.content.RegionBuilderCallback;
 import com.sdl.webapp.common.api.localization.Localization;
+import com.sdl.webapp.common.api.model.EntityModel;
 import com.sdl.webapp.common.api.model.MvcData;
 import com.sdl.webapp.common.api.model.PageModel;
+import com.sdl.webapp.common.api.model.RegionModel;
 import com.sdl.webapp.common.api.model.RegionModelSet;
 import com.sdl.webapp.common.api.model.RichText;
 import com.sdl.webapp.common.api.model.ViewModelRegistry;
@@ -35,6 +37,8 @@ import com.sdl.webapp.tridion.fields.converters.XhtmlFieldConverter;
 import lombok.Data;
 import lombok.experimental.Accessors;
 import org.dd4t.contentmodel.Component;
+import org.dd4t.contentmodel.ComponentPresentation;
+import org.dd4t.contentmodel.ComponentTemplate;
 import org.dd4t.contentmodel.Field;
 import org.dd4t.contentmodel.FieldSet;
 import org.dd4t.contentmodel.FieldType;
@@ -47,6 +51,7 @@ import org.dd4t.contentmodel.impl.KeywordImpl;
 import org.dd4t.contentmodel.impl.TextField;
 import org.dd4t.core.exceptions.ItemNotFoundException;
 import org.dd4t.core.exceptions.SerializationException;
+import org.dd4t.core.factories.ComponentPresentationFactory;
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
 import org.joda.time.DateTime;
@@ -60,11 +65,13 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -73,11 +80,13 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyList;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -104,6 +113,12 @@ public class PageBuilderImplTest {
     @Mock
     private LinkResolver linkResolver;
 
+    @Mock
+    private ComponentPresentationFactory dd4tComponentPresentationFactory;
+
+    @Mock
+    private ModelBuilderPipeline modelBuilderPipeline;
+
     @Before
     public void init() throws ItemNotFoundException, SerializationException {
         when(localization.getPath()).thenReturn("/");
@@ -368,6 +383,152 @@ public class PageBuilderImplTest {
         //endregion
     }
 
+    @Test
+    public void shouldFetchIncludesAndDynamicComponentPresentationsConcurrentlyInOriginalOrder() throws Exception {
+        //given
+        ReflectionTestUtils.setField(pageBuilder, "fetchThreads", 4);
+        pageBuilder.init();
+
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        mockDynamicComponentPresentationFetching(inFlight, maxInFlight);
+        mockRegionBuilding();
+
+        ContentProvider contentProvider = mock(ContentProvider.class);
+        for (String include : Arrays.asList("Header", "Footer")) {
+            DefaultPageModel includePage = new DefaultPageModel();
+            includePage.setId(include);
+            includePage.setName(include);
+            includePage.setTitle(include);
+            when(contentProvider.getPageModel(eq("/system/" + include), eq(localization))).thenAnswer(invocation -> {
+                trackFetch(inFlight, maxInFlight);
+                return includePage;
+            });
+        }
+        when(localization.getIncludes(anyString())).thenReturn(Arrays.asList("system/Header", "system/Footer"));
+
+        Page genericPage = getPageWithDynamicComponentPresentations(4);
+
+        //when
+        PageModel page = pageBuilder.createPage(genericPage, null, localization, contentProvider);
+        pageBuilder.destroy();
+
+        //then
+        List<String> entityIds = new ArrayList<>();
+        for (EntityModel entity : page.getRegions().get("Main").getEntities()) {
+            entityIds.add(entity.getId());
+        }
+        assertEquals(Arrays.asList("tcm:1-0", "tcm:1-1", "tcm:1-2", "tcm:1-3"), entityIds);
+
+        List<String> regionNames = new ArrayList<>();
+        for (RegionModel region : page.getRegions()) {
+            regionNames.add(region.getName());
+        }
+        assertEquals(Arrays.asList("Main", "Header", "Footer"), regionNames);
+
+        assertTrue("Fetches should run concurrently", maxInFlight.get() > 1);
+        assertEquals(1, pageBuilder.getFetchMetrics().getPageCount());
+        assertEquals(6, pageBuilder.getFetchMetrics().getFetchCount());
+        assertEquals(6, pageBuilder.getFetchMetrics().getMaxFanOut());
+    }
+
+    @Test(expected = ContentProviderException.class)
+    public void shouldRethrowFailureOfConcurrentFetch() throws Exception {
+        //given
+        ReflectionTestUtils.setField(pageBuilder, "fetchThreads", 4);
+        pageBuilder.init();
+
+        mockRegionBuilding();
+        when(dd4tComponentPresentationFactory.getComponentPresentation(anyString(), anyString()))
+                .thenThrow(new ItemNotFoundException("test"));
+        when(localization.getIncludes(anyString())).thenReturn(Collections.emptyList());
+
+        Page genericPage = getPageWithDynamicComponentPresentations(2);
+
+        //when
+        try {
+            pageBuilder.createPage(genericPage, null, localization, mock(ContentProvider.class));
+        } finally {
+            pageBuilder.destroy();
+        }
+
+        //then
+        //exception is thrown
+    }
+
+    private static void trackFetch(AtomicInteger inFlight, AtomicInteger maxInFlight) throws InterruptedException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        Thread.sleep(100);
+        inFlight.decrementAndGet();
+    }
+
+    private void mockDynamicComponentPresentationFetching(AtomicInteger inFlight, AtomicInteger maxInFlight) throws Exception {
+        when(dd4tComponentPresentationFactory.getComponentPresentation(anyString(), anyString())).thenAnswer(invocation -> {
+            trackFetch(inFlight, maxInFlight);
+            return getComponentPresentation((String) invocation.getArguments()[0], false);
+        });
+
+        doAnswer(invocation -> {
+            ComponentPresentation componentPresentation = (ComponentPresentation) invocation.getArguments()[0];
+            TestEntity entity = new TestEntity();
+            entity.setId(componentPresentation.getComponent().getId());
+            return entity;
+        }).when(modelBuilderPipeline).createEntityModel(any(ComponentPresentation.class), eq(localization));
+    }
+
+    private void mockRegionBuilding() throws Exception {
+        //noinspection unchecked
+        when(viewModelRegistry.getViewModelType(Matchers.any(MvcData.class)))
+                .thenReturn((Class) DefaultPageModel.class);
+
+        when(regionBuilder.buildRegions(any(PageModel.class), anyList(), any(RegionBuilderCallback.class), eq(localization)))
+                .thenAnswer(invocation -> {
+                    RegionBuilderCallback callback = (RegionBuilderCallback) invocation.getArguments()[2];
+                    RegionModelImpl region = new RegionModelImpl("Main");
+                    for (Object source : (List<?>) invocation.getArguments()[1]) {
+                        region.addEntity(callback.buildEntity(source, localization));
+                    }
+                    RegionModelSetImpl regions = new RegionModelSetImpl();
+                    regions.add(region);
+                    return regions;
+                });
+    }
+
+    private Page getPageWithDynamicComponentPresentations(int count) {
+        PageTemplate pageTemplate = getPageTemplate("tcm:1-10-128", "", new String[]{"Test:TestPage"}, DateTime.now());
+
+        List<ComponentPresentation> componentPresentations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            componentPresentations.add(getComponentPresentation("tcm:1-" + i, true));
+        }
+
+        Field titleMeta = getFieldWithValues("title", FieldType.TEXT, "Title");
+        Field descriptionMeta = getFieldWithValues("description", FieldType.TEXT, "Description");
+
+        Page genericPage = mock(Page.class);
+        doReturn(pageTemplate).when(genericPage).getPageTemplate();
+        doReturn(componentPresentations).when(genericPage).getComponentPresentations();
+        when(genericPage.getMetadata()).thenReturn(ImmutableMap.of("title", titleMeta, "description", descriptionMeta));
+        when(genericPage.getId()).thenReturn("tcm:1-2-64");
+        when(genericPage.getTitle()).thenReturn("Title");
+        when(genericPage.getRevisionDate()).thenReturn(DateTime.now());
+        return genericPage;
+    }
+
+    private ComponentPresentation getComponentPresentation(String componentId, boolean dynamic) {
+        Component component = mock(Component.class);
+        when(component.getId()).thenReturn(componentId);
+        ComponentTemplate componentTemplate = mock(ComponentTemplate.class);
+        when(componentTemplate.getId()).thenReturn("tcm:1-20-32");
+
+        ComponentPresentation componentPresentation = mock(ComponentPresentation.class);
+        when(componentPresentation.isDynamic()).thenReturn(dynamic);
+        when(componentPresentation.getComponent()).thenReturn(component);
+        when(componentPresentation.getComponentTemplate()).thenReturn(componentTemplate);
+        return componentPresentation;
+    }
+
     private PageTemplate getPageTemplate(String id, String htmlClasses, String[] templates, DateTime nowPageTemplate) {
         PageTemplate pageTemplate = mock(PageTemplate.class);
 
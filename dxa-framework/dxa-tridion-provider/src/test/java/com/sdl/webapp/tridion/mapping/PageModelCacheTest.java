@@ -0,0 +1,261 @@
+package com.sdl.webapp.tridion.mapping;
+
+import com.sdl.webapp.common.api.WebRequestContext;
+import com.sdl.webapp.common.api.localization.Localization;
+import com.sdl.webapp.common.api.model.PageModel;
+import com.sdl.webapp.common.api.model.RegionModel;
+import com.sdl.webapp.common.api.model.RichText;
+import com.sdl.webapp.common.api.model.entity.AbstractEntityModel;
+import com.sdl.webapp.common.api.model.entity.Link;
+import com.sdl.webapp.common.api.model.mvcdata.MvcDataImpl;
+import com.sdl.webapp.common.api.model.page.DefaultPageModel;
+import com.sdl.webapp.common.api.model.region.RegionModelImpl;
+import com.sdl.webapp.common.exceptions.DxaException;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PageModelCacheTest {
+
+    private static final DateTime PUBLISHED = new DateTime(2016, 1, 1, 0, 0);
+
+    @Mock
+    private WebRequestContext webRequestContext;
+
+    @Mock
+    private Localization localization;
+
+    @InjectMocks
+    private PageModelCache pageModelCache;
+
+    @Before
+    public void init() {
+        when(localization.getId()).thenReturn("1");
+        when(webRequestContext.getBaseUrl()).thenReturn("http://localhost");
+        when(webRequestContext.getContextPath()).thenReturn("");
+        when(webRequestContext.getFullUrl()).thenReturn("http://localhost/page");
+
+        ReflectionTestUtils.setField(pageModelCache, "enabled", true);
+        ReflectionTestUtils.setField(pageModelCache, "maxSize", 10L);
+        ReflectionTestUtils.setField(pageModelCache, "expireAfterWriteSeconds", 60L);
+        pageModelCache.init();
+    }
+
+    @Test
+    public void shouldReturnCopyOfCachedPageModel() throws DxaException {
+        //given
+        PageModel pageModel = pageModel();
+
+        //when
+        PageModel put = pageModelCache.put(localization, "/page.html", PUBLISHED, pageModel);
+        PageModel cached = pageModelCache.get(localization, "/page.html", PUBLISHED);
+
+        //then
+        assertNotNull(cached);
+        assertNotSame(pageModel, put);
+        assertNotSame(pageModel, cached);
+        assertEquals(pageModel, cached);
+        assertNotSame(pageModel.getRegions().get("Main"), cached.getRegions().get("Main"));
+        assertNotSame(pageModel.getRegions().get("Main").getEntities().get(0), cached.getRegions().get("Main").getEntities().get(0));
+        assertEquals(pageModel.getRegions().get("Main").getEntities().get(0), cached.getRegions().get("Main").getEntities().get(0));
+        assertEquals(1, pageModelCache.getHitCount());
+        assertEquals(0, pageModelCache.getMissCount());
+    }
+
+    @Test
+    public void shouldNotLeakRequestChangesBetweenCopies() throws DxaException {
+        //given
+        pageModelCache.put(localization, "/page.html", PUBLISHED, pageModel());
+        PageModel first = pageModelCache.get(localization, "/page.html", PUBLISHED);
+        assertNotNull(first);
+
+        //when
+        first.getMeta().put("custom", "value");
+        first.getRegions().get("Main").getEntities().clear();
+        when(webRequestContext.getFullUrl()).thenReturn("http://localhost/page/");
+        PageModel second = pageModelCache.get(localization, "/page.html", PUBLISHED);
+
+        //then
+        assertNotNull(second);
+        assertNull(second.getMeta().get("custom"));
+        assertEquals(1, second.getRegions().get("Main").getEntities().size());
+        assertEquals("http://localhost/page/", second.getMeta().get("og:url"));
+    }
+
+    @Test
+    public void shouldNotLeakEntityChangesBetweenCopies() throws DxaException {
+        //given
+        PageModel pageModel = pageModel();
+        Article article = new Article();
+        article.setHeadline(new RichText("<p>headline</p>"));
+        article.setLink(new Link());
+        article.getLink().setUrl("/article");
+        pageModel.getRegions().get("Main").addEntity(article);
+        pageModelCache.put(localization, "/page.html", PUBLISHED, pageModel);
+        PageModel first = pageModelCache.get(localization, "/page.html", PUBLISHED);
+        assertNotNull(first);
+
+        //when
+        Article changed = (Article) first.getRegions().get("Main").getEntities().get(1);
+        changed.setHtmlClasses("changed by request");
+        changed.getXpmMetadata().put("ComponentID", "tcm:1-2");
+        changed.getLink().setUrl("/resolved-for-request");
+        changed.getHeadline().getFragments().clear();
+        PageModel second = pageModelCache.get(localization, "/page.html", PUBLISHED);
+
+        //then
+        assertNotNull(second);
+        Article article2 = (Article) second.getRegions().get("Main").getEntities().get(1);
+        assertNull(article2.getHtmlClasses());
+        assertTrue(article2.getXpmMetadata().isEmpty());
+        assertEquals("/article", article2.getLink().getUrl());
+        assertEquals("<p>headline</p>", article2.getHeadline().toString());
+    }
+
+    @Test
+    public void shouldNotCachePagesWithEntitiesWhichCannotBeCopied() throws DxaException {
+        //given
+        PageModel pageModel = pageModel();
+        // an anonymous class in an instance method has no default constructor
+        pageModel.getRegions().get("Main").addEntity(new Link() {
+        });
+
+        //when
+        PageModel put = pageModelCache.put(localization, "/page.html", PUBLISHED, pageModel);
+
+        //then
+        assertSame(pageModel, put);
+        assertEquals(0, pageModelCache.size());
+        assertEquals(1, pageModelCache.getUncacheableCount());
+    }
+
+    @Test
+    public void shouldInvalidateEntryIfPageIsRepublished() throws DxaException {
+        //given
+        pageModelCache.put(localization, "/page.html", PUBLISHED, pageModel());
+
+        //when
+        PageModel republished = pageModelCache.get(localization, "/page.html", PUBLISHED.plusMinutes(1));
+        PageModel original = pageModelCache.get(localization, "/page.html", PUBLISHED);
+
+        //then
+        assertNull(republished);
+        assertNull(original);
+        assertEquals(2, pageModelCache.getMissCount());
+        assertEquals(0, pageModelCache.size());
+    }
+
+    @Test
+    public void shouldNotCachePagesWithEntitiesOfCustomControllers() throws DxaException {
+        //given
+        PageModel pageModel = pageModel();
+        Link entity = new Link();
+        entity.setMvcData(MvcDataImpl.newBuilder().controllerAreaName("Core").controllerName("List").actionName("List").build());
+        pageModel.getRegions().get("Main").addEntity(entity);
+
+        //when
+        PageModel put = pageModelCache.put(localization, "/page.html", PUBLISHED, pageModel);
+
+        //then
+        assertSame(pageModel, put);
+        assertNull(pageModelCache.get(localization, "/page.html", PUBLISHED));
+        assertEquals(1, pageModelCache.getUncacheableCount());
+    }
+
+    @Test
+    public void shouldNotCacheCustomPageModels() {
+        //given
+        PageModel pageModel = mock(PageModel.class);
+
+        //when
+        PageModel put = pageModelCache.put(localization, "/page.html", PUBLISHED, pageModel);
+
+        //then
+        assertSame(pageModel, put);
+        assertEquals(0, pageModelCache.size());
+    }
+
+    @Test
+    public void shouldBeBypassedInPreview() throws DxaException {
+        //given
+        when(webRequestContext.isPreview()).thenReturn(true);
+        PageModel pageModel = pageModel();
+
+        //when
+        PageModel put = pageModelCache.put(localization, "/page.html", PUBLISHED, pageModel);
+
+        //then
+        assertSame(pageModel, put);
+        assertNull(pageModelCache.get(localization, "/page.html", PUBLISHED));
+        assertEquals(0, pageModelCache.size());
+    }
+
+    @Test
+    public void shouldDoNothingIfDisabled() throws DxaException {
+        //given
+        ReflectionTestUtils.setField(pageModelCache, "enabled", false);
+        PageModel pageModel = pageModel();
+
+        //when
+        PageModel put = pageModelCache.put(localization, "/page.html", PUBLISHED, pageModel);
+
+        //then
+        assertSame(pageModel, put);
+        assertNull(pageModelCache.get(localization, "/page.html", PUBLISHED));
+    }
+
+    @Test
+    public void shouldBeBoundedInSize() throws DxaException {
+        //given
+        ReflectionTestUtils.setField(pageModelCache, "maxSize", 1L);
+        pageModelCache.init();
+
+        //when
+        pageModelCache.put(localization, "/page1.html", PUBLISHED, pageModel());
+        pageModelCache.put(localization, "/page2.html", PUBLISHED, pageModel());
+
+        //then
+        assertEquals(1, pageModelCache.size());
+    }
+
+    private PageModel pageModel() throws DxaException {
+        DefaultPageModel pageModel = new DefaultPageModel();
+        pageModel.setId("1");
+        pageModel.setTitle("Title");
+        pageModel.setUrl("/page");
+        pageModel.getMeta().put("og:url", "http://localhost/page");
+
+        RegionModel region = new RegionModelImpl("Main");
+        Link link = new Link();
+        link.setUrl("/link");
+        region.addEntity(link);
+        pageModel.getRegions().add(region);
+        return pageModel;
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Article extends AbstractEntityModel {
+
+        private RichText headline;
+
+        private Link link;
+    }
+}
@@ -27,7 +27,13 @@ import org.junit.Test;
 import org.mockito.Matchers;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.Cookie;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -35,8 +41,13 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.sdl.webapp.common.api.navigation.TaxonomySitemapItemUrisHolder.parse;
@@ -45,6 +56,7 @@ import static com.sdl.webapp.common.util.TcmUtils.Taxonomies.getTaxonomySitemapI
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
@@ -311,6 +323,154 @@ public class AbstractDynamicNavigationProviderTest {
         assertEquals("Static", sitemapItem.getTitle());
     }
 
+    @Test
+    public void shouldServePreviousNavigationModelWhileRebuildingInBackground() throws Exception {
+        //given
+        final TaxonomyNode previous = getNavigationModel();
+        final TaxonomyNode rebuilt = getNavigationModel();
+        final CountDownLatch release = new CountDownLatch(1);
+        AbstractDynamicNavigationProvider testProvider = getTestProvider(true, previous, "taxonomyId");
+        doReturn(previous).doAnswer(new Answer<SitemapItem>() {
+            @Override
+            public SitemapItem answer(InvocationOnMock invocation) throws Throwable {
+                release.await(5, TimeUnit.SECONDS);
+                return rebuilt;
+            }
+        }).when(testProvider).createTaxonomyNode(eq("taxonomyId"), eq(localization));
+        ReflectionTestUtils.setField(testProvider, "refreshThreads", 1);
+        testProvider.init();
+
+        try {
+            assertSame(previous, testProvider.getNavigationModel(localization));
+
+            //when
+            cacheElement.setExpired(true);
+            SitemapItem duringRebuild = testProvider.getNavigationModel(localization);
+            SitemapItem stillDuringRebuild = testProvider.getNavigationModel(localization);
+            release.countDown();
+
+            //then
+            assertSame(previous, duringRebuild);
+            assertSame(previous, stillDuringRebuild);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (cacheElement.isExpired() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertSame(rebuilt, testProvider.getNavigationModel(localization));
+            verify(testProvider, times(2)).createTaxonomyNode(eq("taxonomyId"), eq(localization));
+
+            NavigationRefreshMetrics metrics = testProvider.getRefreshMetrics();
+            assertEquals(2, metrics.getRebuildCount());
+            assertEquals(0, metrics.getFailureCount());
+            assertEquals(15, metrics.getNodeCount("1"));
+        } finally {
+            testProvider.destroy();
+        }
+    }
+
+    @Test
+    public void shouldRebuildInBackgroundWithRequestContextOfExpiringRequest() throws Exception {
+        //given
+        final AtomicReference<RequestAttributes> rebuildContext = new AtomicReference<>();
+        final CountDownLatch rebuilt = new CountDownLatch(1);
+        AbstractDynamicNavigationProvider testProvider = getTestProvider(true, getNavigationModel(), "taxonomyId");
+        doReturn(getNavigationModel()).doAnswer(new Answer<SitemapItem>() {
+            @Override
+            public SitemapItem answer(InvocationOnMock invocation) throws Throwable {
+                rebuildContext.set(RequestContextHolder.getRequestAttributes());
+                rebuilt.countDown();
+                return getNavigationModel();
+            }
+        }).when(testProvider).createTaxonomyNode(eq("taxonomyId"), eq(localization));
+        ReflectionTestUtils.setField(testProvider, "refreshThreads", 1);
+        testProvider.init();
+        ServletRequestAttributes requestAttributes = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+
+        try {
+            testProvider.getNavigationModel(localization);
+
+            //when
+            cacheElement.setExpired(true);
+            testProvider.getNavigationModel(localization);
+
+            //then
+            assertTrue(rebuilt.await(5, TimeUnit.SECONDS));
+            assertSame(requestAttributes, rebuildContext.get());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+            testProvider.destroy();
+        }
+    }
+
+    @Test
+    public void shouldNotCacheOrServeNavigationModelOfPreviewSession() throws Exception {
+        //given
+        TaxonomyNode live = getNavigationModel();
+        TaxonomyNode preview = getNavigationModel();
+        AbstractDynamicNavigationProvider testProvider = getTestProvider(true, live, "taxonomyId");
+        doReturn(live).doReturn(preview).when(testProvider).createTaxonomyNode(eq("taxonomyId"), eq(localization));
+        ReflectionTestUtils.setField(testProvider, "refreshThreads", 1);
+        testProvider.init();
+        MockHttpServletRequest previewRequest = new MockHttpServletRequest();
+        previewRequest.setCookies(new Cookie("preview-session-token", "token"));
+
+        try {
+            assertSame(live, testProvider.getNavigationModel(localization));
+            cacheElement.setExpired(true);
+
+            //when
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(previewRequest));
+            SitemapItem previewModel;
+            try {
+                previewModel = testProvider.getNavigationModel(localization);
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+            testProvider.destroy();
+            SitemapItem liveModel = testProvider.getNavigationModel(localization);
+
+            //then
+            assertSame(preview, previewModel);
+            assertSame(live, liveModel);
+            assertSame(live, cacheElement.getPayload());
+            assertTrue(cacheElement.isExpired());
+        } finally {
+            testProvider.destroy();
+        }
+    }
+
+    @Test
+    public void shouldLoadClassifiedPagesOfKeywordsConcurrently() throws Exception {
+        //given
+        final CyclicBarrier allLoading = new CyclicBarrier(3);
+        ReflectionTestUtils.setField(defaultDynamicNavigationProvider, "pagesThreads", 4);
+        defaultDynamicNavigationProvider.init();
+
+        try {
+            //when
+            Map<String, List<SitemapItem>> pages = defaultDynamicNavigationProvider.loadClassifiedPages(
+                    Arrays.asList("k1", "k2", "k3"), new AbstractDynamicNavigationProvider.ClassifiedPagesLoader<String>() {
+                        @NotNull
+                        @Override
+                        public List<SitemapItem> loadPages(String keyword) {
+                            try {
+                                allLoading.await(5, TimeUnit.SECONDS);
+                            } catch (Exception e) {
+                                throw new IllegalStateException("Pages are not loaded concurrently", e);
+                            }
+                            return Collections.singletonList(siteMapItem(keyword + "-p", true, "/" + keyword));
+                        }
+                    });
+
+            //then
+            assertEquals(Arrays.asList("k1", "k2", "k3"), newArrayList(pages.keySet()));
+            assertEquals("/k2", pages.get("k2").get(0).getUrl());
+        } finally {
+            defaultDynamicNavigationProvider.destroy();
+        }
+    }
+
     @Test
     public void shouldFallbackToStaticIfTaxonomyIsNotAvailable() throws NavigationProviderException, DxaException {
         //given
@@ -569,6 +729,25 @@ public class AbstractDynamicNavigationProviderTest {
         assertEquals(links, linksIndexInPath);
     }
 
+    @Test
+    public void shouldFindSameItemsInCachedNavigationModel_AsInNavigationTree() throws NavigationProviderException {
+        //given
+        when(localization.getPath()).thenReturn("/");
+        AbstractDynamicNavigationProvider cachingProvider = getTestProvider(true, getNavigationModel(), "taxonomyId");
+
+        for (String path : new String[]{"/child/child_2", "/child/child_2/", "/child/child_2/child_2_2.html", "/Child", "/missing"}) {
+            //when
+            NavigationLinks cached = cachingProvider.getBreadcrumbNavigationLinks(path, localization);
+            NavigationLinks walked = defaultDynamicNavigationProvider.getBreadcrumbNavigationLinks(path, localization);
+
+            //then
+            assertEquals(path, walked, cached);
+            assertEquals(path, defaultDynamicNavigationProvider.getContextNavigationLinks(path, localization),
+                    cachingProvider.getContextNavigationLinks(path, localization));
+        }
+        verify(cachingProvider).createTaxonomyNode(eq("taxonomyId"), eq(localization));
+    }
+
     @Test //TSI-1958
     public void shouldIncludeEvenHiddenElementsIntoBreadcrumb() throws NavigationProviderException {
         NavigationLinks links = prepareItemsAsVisibleNavigationCalledWith(new Action() {
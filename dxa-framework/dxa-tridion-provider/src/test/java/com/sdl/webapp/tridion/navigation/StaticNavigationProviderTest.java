@@ -36,6 +36,8 @@ import java.util.List;
 import static com.sdl.webapp.tridion.navigation.StaticNavigationProvider.TYPE_STRUCTURE_GROUP;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
@@ -137,6 +139,76 @@ public class StaticNavigationProviderTest {
         assertEquals("child2", items.get(2).getTitle());
     }
 
+    @Test
+    public void shouldParseAndResolveNavigationModelOncePerPublishedVersion() throws Exception {
+        //when
+        provider.getTopNavigationLinks("parent", localization);
+        provider.getContextNavigationLinks("parent", localization);
+        provider.getBreadcrumbNavigationLinks("parent", localization);
+
+        //then
+        verify(objectMapper, times(1)).readValue(any(InputStream.class), eq(SitemapItem.class));
+        verify(linkResolver, times(2)).resolveLink(eq("parent"), eq("1"));
+
+        //when
+        when(pageFactory.findSourcePageByUrl(anyString(), anyInt())).thenReturn("republished");
+        provider.getNavigationModel(localization);
+        provider.getNavigationModel(localization);
+
+        //then
+        verify(objectMapper, times(2)).readValue(any(InputStream.class), eq(SitemapItem.class));
+    }
+
+    @Test
+    public void shouldRebuildNavigationModel_IfRepublishedWithSameLengthAndHash() throws Exception {
+        //given
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        when(pageFactory.findSourcePageByUrl(anyString(), anyInt())).thenReturn("Aa");
+        provider.getNavigationModel(localization);
+
+        //when
+        when(pageFactory.findSourcePageByUrl(anyString(), anyInt())).thenReturn("BB");
+        provider.getNavigationModel(localization);
+
+        //then
+        verify(objectMapper, times(2)).readValue(any(InputStream.class), eq(SitemapItem.class));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldShareReadOnlyNavigationModel() throws NavigationProviderException {
+        //when
+        SitemapItem first = provider.getNavigationModel(localization);
+        SitemapItem second = provider.getNavigationModel(localization);
+
+        //then
+        assertNotSame(first, second);
+        SitemapItem firstGroup = Lists.newArrayList(first.getItems()).get(1);
+        SitemapItem secondGroup = Lists.newArrayList(second.getItems()).get(1);
+        assertNotSame(firstGroup, secondGroup);
+        assertSame(firstGroup.getItems(), secondGroup.getItems());
+        firstGroup.addItem(new SitemapItem());
+    }
+
+    @Test
+    public void shouldNotReparentSharedItems_WhenCallerReplacesItems() throws NavigationProviderException {
+        //given
+        SitemapItem first = provider.getNavigationModel(localization);
+        SitemapItem firstItem = first.getItems().iterator().next();
+
+        //when
+        SitemapItem home = new SitemapItem(first);
+        home.setItems(new LinkedHashSet<>(Collections.singleton(firstItem)));
+        first.setItems(new LinkedHashSet<>(Collections.singleton(home)));
+        SitemapItem second = provider.getNavigationModel(localization);
+
+        //then
+        assertSame(home, firstItem.getParent());
+        SitemapItem secondItem = second.getItems().iterator().next();
+        assertNotSame(firstItem, secondItem);
+        assertSame(second, secondItem.getParent());
+        assertEquals(3, second.getItems().size());
+    }
+
     @Test(expected = NavigationProviderException.class)
     @SuppressWarnings("unchecked")
     public void shouldGetNavigationModeItemNotFound() throws NavigationProviderException, FactoryException {
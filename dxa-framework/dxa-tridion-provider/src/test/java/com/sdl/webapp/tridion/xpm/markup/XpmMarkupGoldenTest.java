@@ -0,0 +1,127 @@
+package com.sdl.webapp.tridion.xpm.markup;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import com.sdl.webapp.common.api.WebRequestContext;
+import com.sdl.webapp.common.api.localization.Localization;
+import com.sdl.webapp.common.api.model.EntityModel;
+import com.sdl.webapp.common.api.model.RegionModel;
+import com.sdl.webapp.common.api.xpm.XpmRegion;
+import com.sdl.webapp.common.api.xpm.XpmRegionConfig;
+import com.sdl.webapp.common.markup.html.ParsableHtmlNode;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compares the XPM markup with the golden files in {@code xpm/}, which were rendered by the JSoup-only decorators.
+ * Each {@code name.html} is decorated and expected to be exactly {@code name.expected.html}.
+ */
+public class XpmMarkupGoldenTest {
+
+    private static final String[] ENTITY_CASES = {
+            "entity-article", "entity-already-marked", "entity-nested-properties", "entity-empty-property",
+            "entity-siblings", "entity-comment-first", "entity-text", "entity-characters", "entity-table"
+    };
+
+    private static final String[] REGION_CASES = {
+            "region-entities", "region-first-entity", "region-siblings"
+    };
+
+    private final WebRequestContext webRequestContext = mock(WebRequestContext.class);
+
+    private final Localization localization = mock(Localization.class);
+
+    private final XpmRegionConfig xpmRegionConfig = mock(XpmRegionConfig.class);
+
+    private final EntityModel entity = mock(EntityModel.class);
+
+    private final RegionModel region = mock(RegionModel.class);
+
+    private static String read(String name) throws IOException {
+        return Resources.toString(Resources.getResource("xpm/" + name), Charsets.UTF_8);
+    }
+
+    @Before
+    public void init() {
+        when(webRequestContext.isPreview()).thenReturn(true);
+        when(webRequestContext.getLocalization()).thenReturn(localization);
+        when(entity.getXpmMarkup(localization)).thenReturn("Start Component Presentation: {\"ComponentID\":\"tcm:1-2\"," +
+                "\"ComponentModified\":\"2016-01-01T00:00:00\",\"ComponentTemplateID\":\"tcm:1-3-32\"," +
+                "\"ComponentTemplateModified\":\"2016-01-01T00:00:00\",\"IsRepositoryPublished\":false}");
+        when(region.getName()).thenReturn("Main");
+        when(region.getXpmMarkup(localization)).thenReturn("Start Region: {title:\"Main\",allowedComponentTypes:" +
+                "[{schema:\"tcm:1-5-8\",template:\"tcm:1-3-32\"}],minOccurs:0}");
+        when(xpmRegionConfig.getXpmRegion("Main", localization)).thenReturn(mock(XpmRegion.class));
+    }
+
+    @Test
+    public void shouldRenderSameEntityMarkupAsGoldenFiles() throws IOException {
+        EntityXpmMarkup entityXpmMarkup = new EntityXpmMarkup();
+
+        for (String name : ENTITY_CASES) {
+            //given
+            ParsableHtmlNode markup = new ParsableHtmlNode(read(name + ".html"));
+
+            //when
+            String html = entityXpmMarkup.process(markup, entity, webRequestContext).toHtml();
+
+            //then
+            assertEquals(name, read(name + ".expected.html"), html);
+        }
+    }
+
+    @Test
+    public void shouldRenderSameRegionMarkupAsGoldenFiles() throws IOException {
+        RegionXpmMarkup regionXpmMarkup = new RegionXpmMarkup(xpmRegionConfig);
+
+        for (String name : REGION_CASES) {
+            //given
+            ParsableHtmlNode markup = new ParsableHtmlNode(read(name + ".html"));
+
+            //when
+            String html = regionXpmMarkup.process(markup, region, webRequestContext).toHtml();
+
+            //then
+            assertEquals(name, read(name + ".expected.html"), html);
+        }
+    }
+
+    @Test
+    public void shouldNotDecorateRegion_IfNotConfiguredForXpm() {
+        //given
+        RegionModel other = mock(RegionModel.class);
+        when(other.getName()).thenReturn("Other");
+        RegionXpmMarkup regionXpmMarkup = new RegionXpmMarkup(xpmRegionConfig);
+
+        //when
+        boolean applicable = regionXpmMarkup.isApplicable(region, webRequestContext);
+        boolean otherApplicable = regionXpmMarkup.isApplicable(other, webRequestContext);
+
+        //then
+        assertTrue(applicable);
+        assertFalse(otherApplicable);
+    }
+
+    @Test
+    public void shouldRenderSamePageMarkupAsGoldenFile() throws IOException {
+        //given
+        String entityHtml = new EntityXpmMarkup().process(new ParsableHtmlNode(read("entity-article.html")),
+                entity, webRequestContext).toHtml();
+        String regionHtml = "<div class=\"region\">" + entityHtml + entityHtml + "</div>";
+
+        //when
+        String html = new RegionXpmMarkup(xpmRegionConfig).process(new ParsableHtmlNode(regionHtml),
+                region, webRequestContext).toHtml();
+
+        //then
+        assertEquals(read("page.expected.html"), html);
+    }
+}
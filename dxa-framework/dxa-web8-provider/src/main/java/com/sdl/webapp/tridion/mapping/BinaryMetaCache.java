@@ -0,0 +1,184 @@
+package com.sdl.webapp.tridion.mapping;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.sdl.webapp.common.api.content.ContentProviderException;
+import com.sdl.webapp.common.util.SingleFlight;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory index of binary metadata from the broker by publication ID and URL of the binary.
+ * <p>Lets static content requests for binaries that are already written to disk be served without asking
+ * the broker for their metadata. Entries expire after a configured time to pick up republished binaries,
+ * binaries that are not found are cached for a shorter time. Concurrent lookups of the same binary are
+ * deduplicated.</p>
+ * <p>Binaries under {@code /system/}, like the configuration and resources of a localization, are not cached,
+ * so a refresh of the localization right after a republish loads them as published.</p>
+ */
+@Component
+@Slf4j
+public class BinaryMetaCache {
+
+    private final SingleFlight<BinaryKey, CachedBinaryMeta> binaryMetaLoads = new SingleFlight<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong notFoundHitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    @Value("${dxa.tridion.binary.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${dxa.tridion.binary.cache.maxSize:10000}")
+    private long maxSize;
+
+    @Value("${dxa.tridion.binary.cache.expireAfterWriteSeconds:60}")
+    private long expireAfterWriteSeconds;
+
+    @Value("${dxa.tridion.binary.cache.notFoundExpireSeconds:10}")
+    private long notFoundExpireSeconds;
+
+    private Cache<BinaryKey, CachedBinaryMeta> cache;
+
+    @PostConstruct
+    public void init() {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .build();
+        log.info("Binary meta cache is {}, max size = {}, expire after write = {}s, not found expire = {}s",
+                enabled ? "enabled" : "disabled", maxSize, expireAfterWriteSeconds, notFoundExpireSeconds);
+    }
+
+    /**
+     * Returns the metadata of the binary, loading it if it is not in the cache.
+     *
+     * @param publicationId ID of the publication
+     * @param url           URL of the binary, binaries under {@code /system/} are always loaded
+     * @param loader        loads the metadata from the broker, returns {@code null} if the binary is not found
+     * @return metadata of the binary, or {@code null} if the binary is not found
+     * @throws ContentProviderException if the loader fails, failures are not cached
+     */
+    @Nullable
+    public BinaryMetaInfo get(int publicationId, @NotNull String url,
+                              @NotNull final SingleFlight.Call<BinaryMetaInfo, ContentProviderException> loader)
+            throws ContentProviderException {
+        if (!enabled || isSystemUrl(url)) {
+            return loader.call();
+        }
+
+        final BinaryKey key = new BinaryKey(publicationId, url);
+        CachedBinaryMeta cached = cache.getIfPresent(key);
+        if (cached != null && !cached.isExpired()) {
+            hitCount.incrementAndGet();
+            if (cached.getBinaryMeta() == null) {
+                notFoundHitCount.incrementAndGet();
+            }
+            return cached.getBinaryMeta();
+        }
+
+        missCount.incrementAndGet();
+        return binaryMetaLoads.execute(key, new SingleFlight.Call<CachedBinaryMeta, ContentProviderException>() {
+            @Override
+            public CachedBinaryMeta call() throws ContentProviderException {
+                BinaryMetaInfo binaryMeta = loader.call();
+                CachedBinaryMeta loaded = new CachedBinaryMeta(binaryMeta, binaryMeta != null ? Long.MAX_VALUE :
+                        System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(notFoundExpireSeconds));
+                log.trace("Loaded binary meta for {}: {}", key, binaryMeta);
+                cache.put(key, loaded);
+                return loaded;
+            }
+        }).getBinaryMeta();
+    }
+
+    private static boolean isSystemUrl(String url) {
+        return url.contains("/system/");
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns the number of lookups served from the cache, including binaries cached as not found.
+     *
+     * @return number of cache hits
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of lookups served from the cache for binaries cached as not found.
+     *
+     * @return number of cache hits for binaries that are not found
+     */
+    public long getNotFoundHitCount() {
+        return notFoundHitCount.get();
+    }
+
+    /**
+     * Returns the number of lookups that had to load the metadata from the broker.
+     *
+     * @return number of cache misses
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the approximate number of entries in the cache.
+     *
+     * @return number of entries
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Metadata of a binary needed to serve it from disk.
+     */
+    @lombok.Value
+    public static class BinaryMetaInfo {
+
+        private int itemId;
+
+        private String variantId;
+
+        private String mimeType;
+
+        private long lastPublicationTime;
+    }
+
+    @lombok.Value
+    private static class BinaryKey {
+
+        private int publicationId;
+
+        private String url;
+    }
+
+    @lombok.Value
+    private static class CachedBinaryMeta {
+
+        private BinaryMetaInfo binaryMeta;
+
+        private long expiresAt;
+
+        boolean isExpired() {
+            return expiresAt <= System.currentTimeMillis();
+        }
+    }
+}
@@ -25,7 +25,6 @@ import com.sdl.webapp.common.api.model.query.SimpleBrokerQuery;
 import com.sdl.webapp.common.util.ImageUtils;
 import com.tridion.broker.StorageException;
 import com.tridion.broker.querying.MetadataType;
-import com.tridion.data.BinaryData;
 import com.tridion.meta.BinaryMeta;
 import com.tridion.meta.ComponentMeta;
 import com.tridion.meta.NameValuePair;
@@ -46,15 +45,12 @@ import java.util.Map;
 import java.util.Objects;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
-import static com.sdl.webapp.common.util.ImageUtils.writeToFile;
 
 @Component
 @Slf4j
 @SuppressWarnings("Duplicates")
 public class DefaultContentProvider extends AbstractDefaultContentProvider {
 
-    private static final Object LOCK = new Object();
-
     private static final Logger LOG = LoggerFactory.getLogger(DefaultContentProvider.class);
 
     @Autowired
@@ -66,38 +62,62 @@ public class DefaultContentProvider extends AbstractDefaultContentProvider {
     @Autowired
     private LinkResolver linkResolver;
 
+    @Autowired
+    private BinaryMetaCache binaryMetaCache;
+
+    @Autowired
+    private ImageResizeService imageResizeService;
+
+    @Autowired
+    private ImageRenditionGenerator imageRenditionGenerator;
+
     @Override
-    protected DefaultContentProvider.StaticContentFile getStaticContentFile(File file, ImageUtils.StaticContentPathInfo pathInfo, int publicationId) throws ContentProviderException, IOException {
-        BinaryMeta binaryMeta;
-        WebComponentMetaFactory factory = new WebComponentMetaFactoryImpl(publicationId);
-        ComponentMeta componentMeta;
-        int itemId;
-
-        synchronized (LOCK) {
-            binaryMeta = dynamicMetaRetriever.getBinaryMetaByURL(prependFullUrlIfNeeded(pathInfo.getFileName()));
-            if (binaryMeta == null) {
-                throw new StaticContentNotFoundException("No binary meta found for: [" + publicationId + "] " +
-                        pathInfo.getFileName());
-            }
-            itemId = (int) binaryMeta.getURI().getItemId();
-            componentMeta = factory.getMeta(itemId);
-            if (componentMeta == null) {
-                throw new StaticContentNotFoundException("No meta meta found for: [" + publicationId + "] " +
-                        pathInfo.getFileName());
-            }
+    protected DefaultContentProvider.StaticContentFile getStaticContentFile(File file, ImageUtils.StaticContentPathInfo pathInfo, final int publicationId) throws ContentProviderException, IOException {
+        final String url = prependFullUrlIfNeeded(pathInfo.getFileName());
+        BinaryMetaCache.BinaryMetaInfo binaryMeta = binaryMetaCache.get(publicationId, url,
+                () -> loadBinaryMeta(publicationId, url));
+        if (binaryMeta == null) {
+            throw new StaticContentNotFoundException("No binary meta found for: [" + publicationId + "] " +
+                    pathInfo.getFileName());
         }
 
-        long componentTime = componentMeta.getLastPublicationDate().getTime();
-        if (isToBeRefreshed(file, componentTime)) {
-            BinaryData binaryData = binaryContentRetriever.getBinary(publicationId, itemId, binaryMeta.getVariantId());
+        if (isToBeRefreshed(file, binaryMeta.getLastPublicationTime())) {
+            final int itemId = binaryMeta.getItemId();
+            final String variantId = binaryMeta.getVariantId();
+            String sourceKey = publicationId + ":" + itemId + ":" + variantId + ":" + binaryMeta.getLastPublicationTime();
+
+            ImageResizeService.ContentLoader content =
+                    () -> binaryContentRetriever.getBinary(publicationId, itemId, variantId).getBytes();
 
             LOG.debug("Writing binary content to file: {}", file);
-            writeToFile(file, pathInfo, binaryData.getBytes());
+            imageResizeService.writeToFile(file, pathInfo, sourceKey, content);
+
+            if (binaryMeta.getMimeType() != null && binaryMeta.getMimeType().startsWith("image/")) {
+                imageRenditionGenerator.scheduleRenditions(file, pathInfo, sourceKey, binaryMeta.getLastPublicationTime(), content);
+            }
         } else {
             LOG.debug("File does not need to be refreshed: {}", file);
         }
 
-        return new StaticContentFile(file, binaryMeta.getType());
+        return new StaticContentFile(file, binaryMeta.getMimeType(), binaryMeta.getLastPublicationTime());
+    }
+
+    private BinaryMetaCache.BinaryMetaInfo loadBinaryMeta(int publicationId, String url) {
+        BinaryMeta binaryMeta = dynamicMetaRetriever.getBinaryMetaByURL(url);
+        if (binaryMeta == null) {
+            LOG.debug("No binary meta found for: [{}] {}", publicationId, url);
+            return null;
+        }
+
+        int itemId = (int) binaryMeta.getURI().getItemId();
+        ComponentMeta componentMeta = new WebComponentMetaFactoryImpl(publicationId).getMeta(itemId);
+        if (componentMeta == null) {
+            LOG.debug("No component meta found for: [{}] {}", publicationId, url);
+            return null;
+        }
+
+        return new BinaryMetaCache.BinaryMetaInfo(itemId, binaryMeta.getVariantId(), binaryMeta.getType(),
+                componentMeta.getLastPublicationDate().getTime());
     }
 
     @Override
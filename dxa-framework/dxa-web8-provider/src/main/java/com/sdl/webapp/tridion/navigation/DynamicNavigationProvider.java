@@ -31,8 +31,10 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static com.google.common.collect.Collections2.transform;
@@ -165,21 +167,38 @@ public class DynamicNavigationProvider extends AbstractDynamicNavigationProvider
         return createTaxonomyNode(keyword, -1, NavigationFilter.DEFAULT, localization);
     }
 
-    private TaxonomyNode createTaxonomyNode(@NotNull Keyword keyword, int expandLevels, NavigationFilter filter, @NotNull Localization localization) {
-        String taxonomyId = keyword.getTaxonomyURI().split("-")[1];
+    private TaxonomyNode createTaxonomyNode(@NotNull Keyword keyword, int expandLevels, NavigationFilter filter, @NotNull final Localization localization) {
+        Map<Keyword, List<Keyword>> expandedChildren = new IdentityHashMap<>();
+        List<Keyword> keywordsWithPages = new ArrayList<>();
+        collectKeywords(keyword, expandLevels, filter, expandedChildren, keywordsWithPages);
+
+        Map<Keyword, List<SitemapItem>> pages = loadClassifiedPages(keywordsWithPages, new ClassifiedPagesLoader<Keyword>() {
+            @NotNull
+            @Override
+            public List<SitemapItem> loadPages(Keyword keywordWithPages) {
+                return getChildrenPages(keywordWithPages, getTaxonomyId(keywordWithPages), localization);
+            }
+        });
+
+        return createTaxonomyNode(keyword, expandedChildren, pages);
+    }
+
+    private TaxonomyNode createTaxonomyNode(@NotNull Keyword keyword, @NotNull Map<Keyword, List<Keyword>> expandedChildren,
+                                            @NotNull Map<Keyword, List<SitemapItem>> pages) {
+        String taxonomyId = getTaxonomyId(keyword);
 
         String taxonomyNodeUrl = null;
 
         List<SitemapItem> children = new ArrayList<>();
 
-        if (expandLevels != 0) {
-            for (Keyword childKeyword : keyword.getKeywordChildren()) {
-                children.add(createTaxonomyNode(childKeyword, expandLevels - 1, filter, localization));
+        List<Keyword> childKeywords = expandedChildren.get(keyword);
+        if (childKeywords != null) {
+            for (Keyword childKeyword : childKeywords) {
+                children.add(createTaxonomyNode(childKeyword, expandedChildren, pages));
             }
 
-            if (keyword.getReferencedContentCount() > 0 && filter.getDescendantLevels() != 0) {
-                List<SitemapItem> pageSitemapItems = getChildrenPages(keyword, taxonomyId, localization);
-
+            List<SitemapItem> pageSitemapItems = pages.get(keyword);
+            if (pageSitemapItems != null) {
                 taxonomyNodeUrl = findIndexPageUrl(pageSitemapItems);
                 log.trace("taxonomyNodeUrl = {}", taxonomyNodeUrl);
 
@@ -194,6 +213,31 @@ public class DynamicNavigationProvider extends AbstractDynamicNavigationProvider
         return createTaxonomyNodeFromKeyword(toDto(keyword), taxonomyId, taxonomyNodeUrl, new LinkedHashSet<>(children));
     }
 
+    /**
+     * Walks the keywords of the (sub)tree to expand, remembering children of the expanded keywords and collecting
+     * the keywords whose classified pages are needed, so that the pages of all of them can be loaded together.
+     */
+    private void collectKeywords(@NotNull Keyword keyword, int expandLevels, NavigationFilter filter,
+                                 Map<Keyword, List<Keyword>> expandedChildren, List<Keyword> keywordsWithPages) {
+        if (expandLevels == 0) {
+            return;
+        }
+
+        List<Keyword> childKeywords = new ArrayList<>(keyword.getKeywordChildren());
+        expandedChildren.put(keyword, childKeywords);
+        for (Keyword childKeyword : childKeywords) {
+            collectKeywords(childKeyword, expandLevels - 1, filter, expandedChildren, keywordsWithPages);
+        }
+
+        if (keyword.getReferencedContentCount() > 0 && filter.getDescendantLevels() != 0) {
+            keywordsWithPages.add(keyword);
+        }
+    }
+
+    private String getTaxonomyId(@NotNull Keyword keyword) {
+        return keyword.getTaxonomyURI().split("-")[1];
+    }
+
     private List<SitemapItem> getChildrenPages(@NotNull Keyword keyword, @NotNull String taxonomyId, @NotNull Localization localization) {
         log.trace("Getting SitemapItems for all classified Pages (ordered by Page Title, including sequence prefix if any), " +
                 "keyword {}, taxonomyId {}, localization {}", keyword, taxonomyId, localization);
@@ -0,0 +1,135 @@
+package com.sdl.webapp.tridion.mapping;
+
+import com.sdl.webapp.common.api.content.ContentProviderException;
+import com.sdl.webapp.common.util.SingleFlight;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class BinaryMetaCacheTest {
+
+    private static final BinaryMetaCache.BinaryMetaInfo BINARY_META =
+            new BinaryMetaCache.BinaryMetaInfo(42, "[#def#]", "image/png", 1_450_000_000_000L);
+
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    private BinaryMetaCache binaryMetaCache;
+
+    @Before
+    public void init() {
+        binaryMetaCache = new BinaryMetaCache();
+        ReflectionTestUtils.setField(binaryMetaCache, "enabled", true);
+        ReflectionTestUtils.setField(binaryMetaCache, "maxSize", 10L);
+        ReflectionTestUtils.setField(binaryMetaCache, "expireAfterWriteSeconds", 60L);
+        ReflectionTestUtils.setField(binaryMetaCache, "notFoundExpireSeconds", 10L);
+        binaryMetaCache.init();
+    }
+
+    private SingleFlight.Call<BinaryMetaCache.BinaryMetaInfo, ContentProviderException> loader(final BinaryMetaCache.BinaryMetaInfo result) {
+        return () -> {
+            loadCount.incrementAndGet();
+            return result;
+        };
+    }
+
+    @Test
+    public void shouldLoadBinaryMetaOncePerPublicationAndUrl() throws ContentProviderException {
+        //when
+        BinaryMetaCache.BinaryMetaInfo first = binaryMetaCache.get(1, "/media/image.png", loader(BINARY_META));
+        BinaryMetaCache.BinaryMetaInfo second = binaryMetaCache.get(1, "/media/image.png", loader(BINARY_META));
+        binaryMetaCache.get(2, "/media/image.png", loader(BINARY_META));
+
+        //then
+        assertSame(BINARY_META, first);
+        assertSame(BINARY_META, second);
+        assertEquals(2, loadCount.get());
+        assertEquals(1, binaryMetaCache.getHitCount());
+        assertEquals(2, binaryMetaCache.getMissCount());
+    }
+
+    @Test
+    public void shouldCacheNotFoundBinariesBriefly() throws ContentProviderException {
+        //when
+        binaryMetaCache.get(1, "/media/missing.png", loader(null));
+        BinaryMetaCache.BinaryMetaInfo notFound = binaryMetaCache.get(1, "/media/missing.png", loader(null));
+
+        //then
+        assertNull(notFound);
+        assertEquals(1, loadCount.get());
+        assertEquals(1, binaryMetaCache.getNotFoundHitCount());
+
+        //when
+        ReflectionTestUtils.setField(binaryMetaCache, "notFoundExpireSeconds", 0L);
+        binaryMetaCache.invalidateAll();
+        binaryMetaCache.get(1, "/media/missing.png", loader(null));
+        BinaryMetaCache.BinaryMetaInfo published = binaryMetaCache.get(1, "/media/missing.png", loader(BINARY_META));
+
+        //then
+        assertSame("not found binaries expired immediately", BINARY_META, published);
+        assertEquals(3, loadCount.get());
+    }
+
+    @Test
+    public void shouldNotCacheFailures() throws ContentProviderException {
+        //given
+        try {
+            binaryMetaCache.get(1, "/media/image.png", () -> {
+                throw new ContentProviderException("broker is down");
+            });
+        } catch (ContentProviderException e) {
+            //expected
+        }
+
+        //when
+        BinaryMetaCache.BinaryMetaInfo binaryMeta = binaryMetaCache.get(1, "/media/image.png", loader(BINARY_META));
+
+        //then
+        assertSame(BINARY_META, binaryMeta);
+        assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void shouldBeBoundedInSize() throws ContentProviderException {
+        //given
+        ReflectionTestUtils.setField(binaryMetaCache, "maxSize", 1L);
+        binaryMetaCache.init();
+
+        //when
+        binaryMetaCache.get(1, "/media/image1.png", loader(BINARY_META));
+        binaryMetaCache.get(1, "/media/image2.png", loader(BINARY_META));
+
+        //then
+        assertEquals(1, binaryMetaCache.size());
+    }
+
+    @Test
+    public void shouldAlwaysLoadIfDisabled() throws ContentProviderException {
+        //given
+        ReflectionTestUtils.setField(binaryMetaCache, "enabled", false);
+
+        //when
+        binaryMetaCache.get(1, "/media/image.png", loader(BINARY_META));
+        binaryMetaCache.get(1, "/media/image.png", loader(BINARY_META));
+
+        //then
+        assertEquals(2, loadCount.get());
+        assertEquals(0, binaryMetaCache.size());
+    }
+
+    @Test
+    public void shouldAlwaysLoadSystemBinaries() throws ContentProviderException {
+        //when
+        binaryMetaCache.get(1, "/en/system/config/_all.json", loader(BINARY_META));
+        binaryMetaCache.get(1, "/en/system/config/_all.json", loader(BINARY_META));
+
+        //then
+        assertEquals(2, loadCount.get());
+        assertEquals(0, binaryMetaCache.size());
+    }
+}